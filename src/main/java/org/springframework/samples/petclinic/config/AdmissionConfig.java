@@ -0,0 +1,79 @@
+package org.springframework.samples.petclinic.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.samples.petclinic.rest.admission.AdmissionGateInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the {@link AdmissionGateInterceptor} for the REST API when {@code petclinic.admission.enabled=true}.
+ * <p/>
+ * {@code petclinic.admission.permits} defaults to the maximum size of the Hikari pool (10 unless
+ * {@code spring.datasource.hikari.maximum-pool-size} is set), less the connections reserved for the JDBC parallel
+ * loader if enabled, and {@code petclinic.admission.timeout} to 2 seconds.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.admission.enabled", havingValue = "true")
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionConfig.class);
+
+    private static final int DEFAULT_PERMITS = 10;
+
+    private final AdmissionGateInterceptor admissionGateInterceptor;
+
+    public AdmissionConfig(DataSource dataSource, Environment environment,
+                           @Value("${petclinic.admission.permits:0}") int permits,
+                           @Value("${petclinic.admission.timeout:2s}") Duration timeout) {
+        int effectivePermits = permits > 0 ? permits : Math.max(1, poolSize(dataSource) - reserved(environment));
+        this.admissionGateInterceptor = new AdmissionGateInterceptor(effectivePermits, timeout);
+        logger.info("Admitting at most {} concurrent API requests, waiting up to {} ms for a permit",
+            effectivePermits, timeout.toMillis());
+    }
+
+    @Bean
+    public AdmissionGateInterceptor admissionGateInterceptor() {
+        return this.admissionGateInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // the change feed holds its requests open, and takes no connection
+        registry.addInterceptor(this.admissionGateInterceptor).addPathPatterns("/api/**")
+            .excludePathPatterns("/api/changes");
+    }
+
+    /**
+     * Connections left for the queries forked by the JDBC parallel loader, when enabled.
+     */
+    private static int reserved(Environment environment) {
+        if (environment.getProperty("petclinic.jdbc.parallel-loading.enabled", Boolean.class, false)) {
+            return environment.getProperty("petclinic.jdbc.parallel-loading.max-connections", Integer.class, 4);
+        }
+        return 0;
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ex) {
+            logger.debug("Could not determine the connection pool size", ex);
+        }
+        return DEFAULT_PERMITS;
+    }
+
+}
@@ -0,0 +1,62 @@
+package org.springframework.samples.petclinic.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.samples.petclinic.rest.etag.GenerationEtagInterceptor;
+import org.springframework.samples.petclinic.service.ModificationTracker;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Strong ETags and {@code If-None-Match} handling for every GET of the REST API, unless
+ * {@code petclinic.etag.enabled=false}.
+ * <p/>
+ * By default the {@link ShallowEtagHeaderFilter} tags every GET with a hash of the response body, which only saves
+ * bandwidth. With {@code petclinic.etag.generations.enabled=true} the resources clients poll are tagged by the
+ * {@link GenerationEtagInterceptor} instead, which answers unchanged ones without loading them. Its tags rely on
+ * in-memory counters, so they are only correct when this is the single instance writing to the database. Read
+ * replicas keep generation tags off: a lagging replica would answer with old data under the new generation, which
+ * clients would then revalidate for good.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.etag.enabled", havingValue = "true", matchIfMissing = true)
+public class EtagConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(EtagConfig.class);
+
+    private final GenerationEtagInterceptor generationEtagInterceptor;
+
+    public EtagConfig(ModificationTracker modificationTracker,
+                      @Value("${petclinic.etag.generations.enabled:false}") boolean generationsEnabled,
+                      @Value("${petclinic.datasource.replicas.enabled:false}") boolean replicasEnabled) {
+        if (generationsEnabled && replicasEnabled) {
+            logger.warn("Generation ETags are turned off, as reads are routed to replicas; "
+                + "every GET is tagged by a hash of its body instead");
+        }
+        this.generationEtagInterceptor =
+            new GenerationEtagInterceptor(modificationTracker, generationsEnabled && !replicasEnabled);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+            new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // ahead of the admission gate: revalidated requests need no connection
+        registry.addInterceptor(this.generationEtagInterceptor).addPathPatterns("/api/**")
+            .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+}
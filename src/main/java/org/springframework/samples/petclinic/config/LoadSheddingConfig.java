@@ -0,0 +1,113 @@
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.rest.admission.AdaptiveConcurrencyLimit;
+import org.springframework.samples.petclinic.rest.admission.LoadSheddingInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers a {@link LoadSheddingInterceptor} per endpoint group of the REST API when
+ * {@code petclinic.load-shedding.enabled=true}.
+ * <p/>
+ * Each {@code petclinic.load-shedding.groups.<name>.paths} list gets a concurrency limit of its own, and the rest of
+ * the API shares the {@code default} group. The limits start at {@code petclinic.load-shedding.initial-limit} (20)
+ * and stay between {@code min-limit} (4) and {@code max-limit} (200); shed requests are answered with
+ * {@code status} (503, or 429) and a {@code Retry-After} of {@code retry-after} (1 second). A group overrides any of
+ * these under its own prefix.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.load-shedding.enabled", havingValue = "true")
+public class LoadSheddingConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadSheddingConfig.class);
+
+    private static final String DEFAULT_GROUP = "default";
+
+    private final Map<LoadSheddingInterceptor, List<String>> interceptors = new LinkedHashMap<>();
+
+    /**
+     * The settings of an endpoint group; unset ones fall back to the global ones.
+     */
+    record Group(List<String> paths, Integer initialLimit, Integer minLimit, Integer maxLimit, Integer status,
+                 Duration retryAfter) {
+    }
+
+    public LoadSheddingConfig(Environment environment,
+                              @Value("${petclinic.load-shedding.initial-limit:20}") int initialLimit,
+                              @Value("${petclinic.load-shedding.min-limit:4}") int minLimit,
+                              @Value("${petclinic.load-shedding.max-limit:200}") int maxLimit,
+                              @Value("${petclinic.load-shedding.status:503}") int status,
+                              @Value("${petclinic.load-shedding.retry-after:1s}") Duration retryAfter) {
+        Group defaults = new Group(List.of("/api/**"), initialLimit, minLimit, maxLimit, status, retryAfter);
+        Map<String, Group> groups = Binder.get(environment)
+            .bind("petclinic.load-shedding.groups", Bindable.mapOf(String.class, Group.class))
+            .orElse(Map.of());
+        groups.forEach((name, group) -> {
+            if (DEFAULT_GROUP.equals(name)) {
+                throw new IllegalArgumentException("The load shedding group name " + name + " is reserved");
+            }
+            if (group.paths() == null || group.paths().isEmpty()) {
+                throw new IllegalArgumentException("No paths configured for the load shedding group " + name);
+            }
+            this.interceptors.put(interceptor(name, group, defaults), group.paths());
+        });
+        this.interceptors.put(interceptor(DEFAULT_GROUP, defaults, defaults), defaults.paths());
+    }
+
+    private static LoadSheddingInterceptor interceptor(String name, Group group, Group defaults) {
+        HttpStatus status = HttpStatus.valueOf(group.status() != null ? group.status() : defaults.status());
+        if (status != HttpStatus.SERVICE_UNAVAILABLE && status != HttpStatus.TOO_MANY_REQUESTS) {
+            throw new IllegalArgumentException("Shed requests must be answered with 503 or 429, not " + status);
+        }
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+            group.initialLimit() != null ? group.initialLimit() : defaults.initialLimit(),
+            group.minLimit() != null ? group.minLimit() : defaults.minLimit(),
+            group.maxLimit() != null ? group.maxLimit() : defaults.maxLimit());
+        logger.info("Shedding the API requests of group {} beyond an adaptive limit of initially {} concurrent requests",
+            name, limit.getLimit());
+        return new LoadSheddingInterceptor(name, limit, status,
+            group.retryAfter() != null ? group.retryAfter() : defaults.retryAfter());
+    }
+
+    @Bean
+    public MeterBinder loadSheddingMetrics() {
+        return registry -> this.interceptors.keySet().forEach(interceptor -> interceptor.bindTo(registry));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        List<String> groupPaths = new ArrayList<>();
+        this.interceptors.forEach((interceptor, paths) -> {
+            // after the ETag revalidation, which needs no connection, and ahead of the admission gate: shed
+            // requests are rejected at once instead of after waiting for a permit
+            InterceptorRegistration registration = registry.addInterceptor(interceptor).addPathPatterns(paths)
+                .order(Ordered.HIGHEST_PRECEDENCE + 1);
+            if (DEFAULT_GROUP.equals(interceptor.getGroup())) {
+                // the change feed holds its requests open, and takes no connection
+                registration.excludePathPatterns(groupPaths).excludePathPatterns("/api/changes");
+            } else {
+                groupPaths.addAll(paths);
+            }
+        });
+    }
+
+}
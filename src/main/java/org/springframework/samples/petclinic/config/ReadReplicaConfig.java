@@ -0,0 +1,98 @@
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.samples.petclinic.datasource.ReadWriteRoutingDataSource;
+import org.springframework.samples.petclinic.datasource.ReadYourWrites;
+
+/**
+ * Replaces the single data source by a {@link ReadWriteRoutingDataSource} when
+ * {@code petclinic.datasource.replicas.enabled=true}: read-only transactions use one pool per
+ * {@code petclinic.datasource.replicas.urls} entry, everything else the pool of {@code spring.datasource.url}.
+ * <p/>
+ * The primary pool takes the {@code spring.datasource.hikari.*} settings; the replica pools connect with
+ * {@code petclinic.datasource.replicas.username} and {@code password} (defaulting to the primary's) and hold at most
+ * {@code petclinic.datasource.replicas.maximum-pool-size} connections each (10 by default).
+ * {@code petclinic.datasource.read-your-writes} (5 seconds by default, 0 to disable) keeps sending the reads of a
+ * session to the primary after it wrote. Replication itself is left to the database; the {@code replica} profile
+ * stands a second in-memory H2 in for the replica and, with {@code petclinic.datasource.replicas.migrate=true},
+ * applies the Flyway migrations to the replicas as well.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                                 @Value("${petclinic.datasource.replicas.urls}") List<String> urls,
+                                                 @Value("${petclinic.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                                 @Value("${petclinic.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                                 @Value("${petclinic.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                                                 @Value("${petclinic.datasource.read-your-writes:PT5S}") Duration readYourWritesWindow,
+                                                 ReadYourWrites readYourWrites) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setDriverClassName(primary.getDriverClassName());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        logger.info("Routing read-only transactions to {} replica(s), pinning a session to the primary for {} ms "
+            + "after it wrote", replicas.size(), readYourWritesWindow.toMillis());
+        return new ReadWriteRoutingDataSource(primary, replicas, readYourWrites);
+    }
+
+    /**
+     * Shared with the single-flight aspect, which must not hand a pinned session the result of a replica read.
+     */
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${petclinic.datasource.read-your-writes:PT5S}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    /**
+     * Migrates the replicas like the primary, for replicas that are not fed by the primary. The migrations connect
+     * outside of the replica pools, whose connections are read-only.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "petclinic.datasource.replicas.migrate", havingValue = "true")
+    public FlywayMigrationStrategy replicaMigrationStrategy(ReadWriteRoutingDataSource dataSource) {
+        return flyway -> {
+            flyway.migrate();
+            for (DataSource replica : dataSource.getReplicas()) {
+                HikariDataSource pool = (HikariDataSource) replica;
+                Flyway.configure().configuration(flyway.getConfiguration())
+                    .dataSource(pool.getJdbcUrl(), pool.getUsername(), pool.getPassword()).load().migrate();
+            }
+        };
+    }
+
+}
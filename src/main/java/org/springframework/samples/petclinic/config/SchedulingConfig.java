@@ -0,0 +1,14 @@
+package org.springframework.samples.petclinic.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.service.statistics.StatisticsCounters;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@link org.springframework.scheduling.annotation.Scheduled} jobs, such as the periodic rebuild of the
+ * {@link StatisticsCounters}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,35 @@
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.datasource.ReadYourWrites;
+import org.springframework.samples.petclinic.service.ModificationTracker;
+import org.springframework.samples.petclinic.service.singleflight.SingleFlightAspect;
+
+/**
+ * Coalesces the concurrent identical calls of the {@code @SingleFlight} service methods, unless
+ * {@code petclinic.single-flight.enabled=false}.
+ * <p/>
+ * A call joining a load waits for it at most {@code petclinic.single-flight.timeout} (5 seconds by default) before
+ * loading by itself. With read replicas, a caller that read-your-writes pins to the primary never joins a load,
+ * which may read from a replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.single-flight.enabled", havingValue = "true", matchIfMissing = true)
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlightAspect singleFlightAspect(@Value("${petclinic.single-flight.timeout:5s}") Duration timeout,
+                                                 ModificationTracker modificationTracker,
+                                                 ObjectProvider<ReadYourWrites> readYourWrites) {
+        ReadYourWrites pinning = readYourWrites.getIfAvailable();
+        return new SingleFlightAspect(timeout, modificationTracker::getModifications,
+            () -> pinning != null && pinning.isPinned());
+    }
+
+}
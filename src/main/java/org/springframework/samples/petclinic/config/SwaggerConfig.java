@@ -19,6 +19,8 @@ package org.springframework.samples.petclinic.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.Collections;
 
@@ -30,11 +32,15 @@ import io.swagger.v3.oas.models.info.License;
 
 /**
  * Java config for springdoc-openapi API documentation library
+ * <p/>
+ * Also serves the {@code openapi.yml} the REST API is generated from at {@code /openapi.yml}. The
+ * {@code static-api-docs} profile points the Swagger UI at it, so springdoc never builds its model by scanning the
+ * controllers.
  *
  * @author Vitaliy Fedoriv
  */
 @Configuration
-public class SwaggerConfig {
+public class SwaggerConfig implements WebMvcConfigurer {
 
     @Bean
     OpenAPI customOpenAPI() {
@@ -67,4 +73,9 @@ public class SwaggerConfig {
         return petClinicLicense;
     }
 
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/openapi.yml").addResourceLocations("classpath:/");
+    }
+
 }
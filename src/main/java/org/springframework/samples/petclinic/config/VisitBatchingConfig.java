@@ -0,0 +1,33 @@
+package org.springframework.samples.petclinic.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.service.groupcommit.VisitInsertBatcher;
+
+/**
+ * Inserts the visits created concurrently in batches, one transaction per batch, when
+ * {@code petclinic.visit-batching.enabled=true}.
+ * <p/>
+ * A batch is written once it holds {@code petclinic.visit-batching.max-size} visits (50 by default) or its first visit
+ * waited {@code petclinic.visit-batching.max-delay} (5 milliseconds by default), which every visit created alone
+ * waits as well.
+ */
+@Configuration
+@ConditionalOnProperty(name = "petclinic.visit-batching.enabled", havingValue = "true")
+public class VisitBatchingConfig {
+
+    @Bean
+    public VisitInsertBatcher visitInsertBatcher(ObjectProvider<ClinicService> clinicService,
+                                                 @Value("${petclinic.visit-batching.max-size:50}") int maxSize,
+                                                 @Value("${petclinic.visit-batching.max-delay:5ms}") Duration maxDelay) {
+        // looked up lazily: the clinic service is itself advised by the batcher
+        return new VisitInsertBatcher(maxSize, maxDelay, visits -> clinicService.getObject().insertVisits(visits));
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.springframework.samples.petclinic.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends the read-only transactions, i.e. the {@code @Transactional(readOnly = true)} service methods, to a
+ * {@link ReplicaDataSource} and everything else to the primary.
+ * <p/>
+ * The transaction manager flags a connection read-only right after taking it, so the routing relies on the
+ * {@link LazyConnectionDataSourceProxy} to only fetch the actual connection on the first statement, once that flag is
+ * known. Committed writes are reported to {@link ReadYourWrites}. Closing this data source closes all pools.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements DisposableBean {
+
+    private final DataSource primary;
+
+    private final ReplicaDataSource replicaDataSource;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites) {
+        super(new DelegatingDataSource(primary) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                readYourWrites.writing();
+                return super.getConnection();
+            }
+        });
+        this.primary = primary;
+        this.replicaDataSource = new ReplicaDataSource(primary, replicas, readYourWrites);
+        setReadOnlyDataSource(this.replicaDataSource);
+    }
+
+    public DataSource getPrimary() {
+        return this.primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        return this.replicaDataSource.getReplicas();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        List<DataSource> pools = new ArrayList<>(getReplicas());
+        pools.add(this.primary);
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+}
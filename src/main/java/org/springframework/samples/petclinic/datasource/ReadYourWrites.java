@@ -0,0 +1,99 @@
+package org.springframework.samples.petclinic.datasource;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Pins a client session to the primary for a while after it wrote, so that its own reads do not miss the write on
+ * a lagging replica.
+ * <p/>
+ * The session of a request is its authenticated user, or its remote address when security is disabled; work outside
+ * of a request is never pinned. A window of zero disables the pinning.
+ */
+public class ReadYourWrites {
+
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(Duration window) {
+        this(window, System::nanoTime);
+    }
+
+    ReadYourWrites(Duration window, LongSupplier nanoClock) {
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Called when a read-write transaction takes a connection of the primary: pins the current session once the
+     * transaction commits.
+     */
+    public void writing() {
+        if (this.windowNanos <= 0 || !TransactionSynchronizationManager.isActualTransactionActive()
+            || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        String session = currentSession();
+        if (session != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    written(session);
+                }
+            });
+        }
+    }
+
+    /**
+     * Whether the reads of the current session must go to the primary.
+     */
+    public boolean isPinned() {
+        if (this.windowNanos <= 0) {
+            return false;
+        }
+        String session = currentSession();
+        Long lastWrite = session != null ? this.lastWrites.get(session) : null;
+        if (lastWrite == null) {
+            return false;
+        }
+        if (this.nanoClock.getAsLong() - lastWrite < this.windowNanos) {
+            return true;
+        }
+        this.lastWrites.remove(session, lastWrite);
+        return false;
+    }
+
+    private void written(String session) {
+        long now = this.nanoClock.getAsLong();
+        if (this.lastWrites.size() >= CLEANUP_THRESHOLD) {
+            this.lastWrites.values().removeIf(lastWrite -> now - lastWrite >= this.windowNanos);
+        }
+        this.lastWrites.put(session, now);
+    }
+
+    private static String currentSession() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : "address:" + request.getRemoteAddr();
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.springframework.samples.petclinic.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Hands out the connections of read-only transactions round robin from the replica pools, or from the primary while
+ * {@link ReadYourWrites} pins the current session to it.
+ * <p/>
+ * A replica that cannot hand out a connection is skipped; the primary serves the read when no replica can.
+ */
+public class ReplicaDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+    }
+
+    public List<DataSource> getReplicas() {
+        return this.replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (this.replicas.isEmpty() || this.readYourWrites.isPinned()) {
+            return this.primary.getConnection();
+        }
+        int first = Math.floorMod(this.next.getAndIncrement(), this.replicas.size());
+        for (int i = 0; i < this.replicas.size(); i++) {
+            int replica = (first + i) % this.replicas.size();
+            try {
+                return this.replicas.get(replica).getConnection();
+            } catch (SQLException ex) {
+                logger.warn("Replica {} has no connection available, trying the next one: {}", replica + 1,
+                    ex.getMessage());
+            }
+        }
+        logger.warn("No replica has a connection available, reading from the primary");
+        return this.primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("The replica pools are configured with their own credentials");
+    }
+
+}
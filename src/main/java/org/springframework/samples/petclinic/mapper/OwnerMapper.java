@@ -3,8 +3,13 @@ package org.springframework.samples.petclinic.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.OwnerFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerOverviewDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerPatchDto;
+import org.springframework.samples.petclinic.rest.dto.OwnerSummaryDto;
+import org.springframework.samples.petclinic.service.search.OwnerName;
 
 import java.util.Collection;
 import java.util.List;
@@ -17,13 +22,28 @@ public interface OwnerMapper {
 
     OwnerDto toOwnerDto(Owner owner);
 
+    @Mapping(target = "version", ignore = true)
     Owner toOwner(OwnerDto ownerDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "pets", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Owner toOwner(OwnerFieldsDto ownerDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "pets", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Owner toOwner(OwnerPatchDto ownerPatchDto);
+
     List<OwnerDto> toOwnerDtoCollection(Collection<Owner> ownerCollection);
 
     Collection<Owner> toOwners(Collection<OwnerDto> ownerDtos);
+
+    OwnerSummaryDto toOwnerSummaryDto(OwnerName ownerName);
+
+    List<OwnerSummaryDto> toOwnerSummaryDtos(List<OwnerName> ownerNames);
+
+    OwnerOverviewDto toOwnerOverviewDto(OwnerSummary ownerSummary);
+
+    List<OwnerOverviewDto> toOwnerOverviewDtos(Collection<OwnerSummary> ownerSummaries);
 }
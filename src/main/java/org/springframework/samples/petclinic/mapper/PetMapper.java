@@ -6,6 +6,7 @@ import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
 import org.springframework.samples.petclinic.rest.dto.PetFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.PetPatchDto;
 import org.springframework.samples.petclinic.rest.dto.PetTypeDto;
 
 import java.util.Collection;
@@ -24,15 +25,24 @@ public interface PetMapper {
     Collection<Pet> toPets(Collection<PetDto> pets);
 
     @Mapping(source = "ownerId", target = "owner.id")
+    @Mapping(target = "version", ignore = true)
     Pet toPet(PetDto petDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "owner", ignore = true)
     @Mapping(target = "visits", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Pet toPet(PetFieldsDto petFieldsDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "visits", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Pet toPet(PetPatchDto petPatchDto);
+
     PetTypeDto toPetTypeDto(PetType petType);
 
+    @Mapping(target = "version", ignore = true)
     PetType toPetType(PetTypeDto petTypeDto);
 
     Collection<PetTypeDto> toPetTypeDtos(Collection<PetType> petTypes);
@@ -0,0 +1,17 @@
+package org.springframework.samples.petclinic.mapper;
+
+import org.mapstruct.Mapper;
+import org.springframework.samples.petclinic.rest.dto.SearchHitDto;
+import org.springframework.samples.petclinic.service.search.SearchHit;
+
+import java.util.List;
+
+/**
+ * Map SearchHit & SearchHitDto using mapstruct
+ */
+@Mapper
+public interface SearchMapper {
+    SearchHitDto toSearchHitDto(SearchHit searchHit);
+
+    List<SearchHitDto> toSearchHitDtos(List<SearchHit> searchHits);
+}
@@ -0,0 +1,35 @@
+package org.springframework.samples.petclinic.mapper;
+
+import org.mapstruct.Mapper;
+import org.springframework.samples.petclinic.rest.dto.ClinicStatisticsDto;
+import org.springframework.samples.petclinic.rest.dto.MonthStatisticsDto;
+import org.springframework.samples.petclinic.rest.dto.PetCountStatisticsDto;
+import org.springframework.samples.petclinic.rest.dto.PetTypeStatisticsDto;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics.PetTypeStatistics;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Map ClinicStatistics & ClinicStatisticsDto using mapstruct
+ */
+@Mapper
+public interface StatisticsMapper {
+    ClinicStatisticsDto toClinicStatisticsDto(ClinicStatistics statistics);
+
+    PetTypeStatisticsDto toPetTypeStatisticsDto(PetTypeStatistics petTypeStatistics);
+
+    default List<MonthStatisticsDto> toMonthStatisticsDtos(SortedMap<YearMonth, Integer> visitsPerMonth) {
+        return visitsPerMonth.entrySet().stream()
+            .map(entry -> new MonthStatisticsDto(entry.getKey().toString(), entry.getValue()))
+            .toList();
+    }
+
+    default List<PetCountStatisticsDto> toPetCountStatisticsDtos(SortedMap<Integer, Integer> ownersPerPetCount) {
+        return ownersPerPetCount.entrySet().stream()
+            .map(entry -> new PetCountStatisticsDto(entry.getKey(), entry.getValue()))
+            .toList();
+    }
+}
@@ -5,6 +5,7 @@ import org.mapstruct.Mapping;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.rest.dto.VisitFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.VisitPatchDto;
 
 import java.util.Collection;
 
@@ -14,12 +15,19 @@ import java.util.Collection;
 @Mapper(uses = PetMapper.class)
 public interface VisitMapper {
     @Mapping(source = "petId", target = "pet.id")
+    @Mapping(target = "version", ignore = true)
     Visit toVisit(VisitDto visitDto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "pet", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Visit toVisit(VisitFieldsDto visitFieldsDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "pet", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Visit toVisit(VisitPatchDto visitPatchDto);
+
     @Mapping(source = "pet.id", target = "petId")
     VisitDto toVisitDto(Visit visit);
 
@@ -19,11 +19,15 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
- * Simple JavaBean domain object with an id property. Used as a base class for objects needing this property.
+ * Simple JavaBean domain object with an id and a version property. Used as a base class for objects needing these
+ * properties. The version is incremented by every update and used for optimistic locking: an update based on a
+ * version that is no longer current fails with an
+ * {@link org.springframework.dao.OptimisticLockingFailureException}.
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -34,6 +38,10 @@ public class BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     protected Integer id;
 
+    // primitive, so that Hibernate and Spring Data still tell new entities by their id
+    @Version
+    protected int version;
+
     public Integer getId() {
         return id;
     }
@@ -41,6 +49,15 @@ public class BaseEntity {
     public void setId(Integer id) {
         this.id = id;
     }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @JsonIgnore
     public boolean isNew() {
         return this.id == null;
@@ -0,0 +1,116 @@
+package org.springframework.samples.petclinic.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read model of an {@link Owner} for the owner lists: the contact details with the names and number of the pets and
+ * the date of the last visit, kept in one row so that a list is a single indexed scan instead of loading every pet
+ * and visit.
+ * <p/>
+ * The rows are written only by the {@link org.springframework.samples.petclinic.repository.OwnerSummaryRepository},
+ * whenever an owner, pet or visit changes, and share the id of their owner.
+ */
+@Entity
+@Immutable
+@Table(name = "owner_summary")
+public class OwnerSummary {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "telephone")
+    private String telephone;
+
+    /**
+     * The names of the pets in alphabetical order, separated by commas, or {@code null} without pets.
+     */
+    @Column(name = "pet_names")
+    private String petNames;
+
+    @Column(name = "pet_count")
+    private int petCount;
+
+    @Column(name = "last_visit_date", columnDefinition = "DATE")
+    private LocalDate lastVisitDate;
+
+    public Integer getId() {
+        return this.id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return this.lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getCity() {
+        return this.city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getTelephone() {
+        return this.telephone;
+    }
+
+    public void setTelephone(String telephone) {
+        this.telephone = telephone;
+    }
+
+    public String getPetNames() {
+        return this.petNames;
+    }
+
+    public void setPetNames(String petNames) {
+        this.petNames = petNames;
+    }
+
+    public int getPetCount() {
+        return this.petCount;
+    }
+
+    public void setPetCount(int petCount) {
+        this.petCount = petCount;
+    }
+
+    public LocalDate getLastVisitDate() {
+        return this.lastVisitDate;
+    }
+
+    public void setLastVisitDate(LocalDate lastVisitDate) {
+        this.lastVisitDate = lastVisitDate;
+    }
+
+}
@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
+import java.util.Optional;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.BaseEntity;
@@ -47,10 +48,9 @@ public interface OwnerRepository {
      * Retrieve an <code>Owner</code> from the data store by id.
      *
      * @param id the id to search for
-     * @return the <code>Owner</code> if found
-     * @throws org.springframework.dao.DataRetrievalFailureException if not found
+     * @return the <code>Owner</code>, or an empty <code>Optional</code> if not found
      */
-    Owner findById(int id) throws DataAccessException;
+    Optional<Owner> findById(int id) throws DataAccessException;
 
 
     /**
@@ -60,6 +60,16 @@ public interface OwnerRepository {
      * @see BaseEntity#isNew
      */
     void save(Owner owner) throws DataAccessException;
+
+    /**
+     * Update the non-<code>null</code> fields of an <code>Owner</code> with a single statement, without loading it.
+     *
+     * @param owner   the id and the changed fields of the <code>Owner</code>
+     * @param version the version the <code>Owner</code> must have, or <code>null</code> to update any version
+     * @return <code>false</code> if there is no such <code>Owner</code>
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the <code>Owner</code> has another version
+     */
+    boolean updateFields(Owner owner, Integer version) throws DataAccessException;
     
     /**
      * Retrieve <code>Owner</code>s from the data store, returning all owners 
@@ -77,5 +87,13 @@ public interface OwnerRepository {
      */
 	void delete(Owner owner) throws DataAccessException;
 
+    /**
+     * Delete an <code>Owner</code> with its <code>Pet</code>s and their <code>Visit</code>s by id, without loading it.
+     *
+     * @param id the id of the <code>Owner</code> to delete
+     * @return <code>false</code> if there is no such <code>Owner</code>
+     */
+    boolean deleteById(int id) throws DataAccessException;
+
 
 }
@@ -0,0 +1,107 @@
+package org.springframework.samples.petclinic.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+
+/**
+ * Repository of the <code>owner_summary</code> read model: one {@link OwnerSummary} per <code>Owner</code>, written
+ * from the owners, pets and visits within the transaction that changed them.
+ * <p/>
+ * Changes made through the JPA persistence context are flushed before a summary is computed, so the summary sees
+ * them.
+ */
+public interface OwnerSummaryRepository {
+
+    /**
+     * Retrieve the <code>OwnerSummary</code>s whose last name <i>starts</i> with the given name, by last name.
+     *
+     * @param lastName Value to search for
+     * @return a <code>Collection</code> of matching <code>OwnerSummary</code>s (or an empty <code>Collection</code>
+     * if none found)
+     */
+    Collection<OwnerSummary> findByLastName(String lastName) throws DataAccessException;
+
+    /**
+     * Retrieve all <code>OwnerSummary</code>s, by last name.
+     *
+     * @return a <code>Collection</code> of <code>OwnerSummary</code>s (or an empty <code>Collection</code> if none
+     * found)
+     */
+    Collection<OwnerSummary> findAll() throws DataAccessException;
+
+    /**
+     * Add the <code>OwnerSummary</code> of a new <code>Owner</code>, which has no pets yet, from its contact details.
+     *
+     * @param owner the saved <code>Owner</code>
+     */
+    void insert(Owner owner) throws DataAccessException;
+
+    /**
+     * Write the contact details of an <code>Owner</code> to its <code>OwnerSummary</code>, keeping those left
+     * <code>null</code>, or compute the summary in full if there is none yet.
+     *
+     * @param owner the updated <code>Owner</code>
+     */
+    void update(Owner owner) throws DataAccessException;
+
+    /**
+     * Compute the pet names, the pet count and the date of the last visit of an <code>OwnerSummary</code> again, or
+     * the whole summary if there is none yet.
+     *
+     * @param ownerId the id of the <code>Owner</code>
+     */
+    void refresh(int ownerId) throws DataAccessException;
+
+    /**
+     * Remove the <code>OwnerSummary</code> of a deleted <code>Owner</code>.
+     *
+     * @param ownerId the id of the <code>Owner</code>
+     */
+    void deleteById(int ownerId) throws DataAccessException;
+
+    /**
+     * Record a new <code>Visit</code> of a <code>Pet</code> with a single statement: the only part of the summary a
+     * new visit can change is the date of the last visit.
+     *
+     * @param petId the id of the visited <code>Pet</code>
+     * @param date  the date of the visit
+     */
+    void visitAdded(int petId, LocalDate date) throws DataAccessException;
+
+    /**
+     * Retrieve the id of the <code>Owner</code> of a <code>Pet</code>, e.g. before the pet is deleted.
+     *
+     * @param petId the id of the <code>Pet</code>
+     * @return the id of the owner, or an empty <code>Optional</code> if there is no such pet
+     */
+    Optional<Integer> findOwnerIdByPetId(int petId) throws DataAccessException;
+
+    /**
+     * Retrieve the id of the <code>Owner</code> of the <code>Pet</code> of a <code>Visit</code>.
+     *
+     * @param visitId the id of the <code>Visit</code>
+     * @return the id of the owner, or an empty <code>Optional</code> if there is no such visit
+     */
+    Optional<Integer> findOwnerIdByVisitId(int visitId) throws DataAccessException;
+
+    /**
+     * Retrieve the ids of the <code>Owner</code>s with a <code>Pet</code> of the given type, e.g. before the type is
+     * deleted.
+     *
+     * @param petTypeId the id of the <code>PetType</code>
+     * @return the ids of the owners
+     */
+    List<Integer> findOwnerIdsByPetTypeId(int petTypeId) throws DataAccessException;
+
+    /**
+     * Compute every <code>OwnerSummary</code> again from the owners, pets and visits.
+     */
+    void rebuild() throws DataAccessException;
+
+}
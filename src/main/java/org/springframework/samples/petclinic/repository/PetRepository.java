@@ -17,6 +17,7 @@ package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.BaseEntity;
@@ -46,10 +47,9 @@ public interface PetRepository {
      * Retrieve a <code>Pet</code> from the data store by id.
      *
      * @param id the id to search for
-     * @return the <code>Pet</code> if found
-     * @throws org.springframework.dao.DataRetrievalFailureException if not found
+     * @return the <code>Pet</code>, or an empty <code>Optional</code> if not found
      */
-    Pet findById(int id) throws DataAccessException;
+    Optional<Pet> findById(int id) throws DataAccessException;
 
     /**
      * Save a <code>Pet</code> to the data store, either inserting or updating it.
@@ -58,6 +58,17 @@ public interface PetRepository {
      * @see BaseEntity#isNew
      */
     void save(Pet pet) throws DataAccessException;
+
+    /**
+     * Update the non-<code>null</code> fields of a <code>Pet</code> with a single statement, without loading it.
+     *
+     * @param pet     the id and the changed fields of the <code>Pet</code>; only the id of its type is used
+     * @param ownerId the owner the <code>Pet</code> must belong to, or <code>null</code> for any owner
+     * @param version the version the <code>Pet</code> must have, or <code>null</code> to update any version
+     * @return <code>false</code> if there is no such <code>Pet</code>
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the <code>Pet</code> has another version
+     */
+    boolean updateFields(Pet pet, Integer ownerId, Integer version) throws DataAccessException;
     
     /**
      * Retrieve <code>Pet</code>s from the data store, returning all owners 
@@ -75,4 +86,21 @@ public interface PetRepository {
      */
 	void delete(Pet pet) throws DataAccessException;
 
+    /**
+     * Delete a <code>Pet</code> with its <code>Visit</code>s by id, without loading it.
+     *
+     * @param id the id of the <code>Pet</code> to delete
+     * @return <code>false</code> if there is no such <code>Pet</code>
+     */
+    boolean deleteById(int id) throws DataAccessException;
+
+    /**
+     * Check whether a <code>Pet</code> belongs to an <code>Owner</code>, without loading either.
+     *
+     * @param id      the id of the <code>Pet</code>
+     * @param ownerId the id of the <code>Owner</code>
+     * @return <code>true</code> if the <code>Pet</code> exists and belongs to the <code>Owner</code>
+     */
+    boolean existsByIdAndOwnerId(int id, int ownerId) throws DataAccessException;
+
 }
@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.repository;
 
 import java.util.Collection;
+import java.util.Optional;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Vet;
@@ -39,7 +40,7 @@ public interface VetRepository {
      */
     Collection<Vet> findAll() throws DataAccessException;
     
-	Vet findById(int id) throws DataAccessException;
+	Optional<Vet> findById(int id) throws DataAccessException;
 
 	void save(Vet vet) throws DataAccessException;
 	
@@ -15,8 +15,10 @@
  */
 package org.springframework.samples.petclinic.repository;
 
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.BaseEntity;
@@ -42,12 +44,56 @@ public interface VisitRepository {
      */
     void save(Visit visit) throws DataAccessException;
 
+    /**
+     * Insert new <code>Visit</code>s to the data store, with batched statements where the data store allows it.
+     *
+     * @param visits the new <code>Visit</code>s, which get their generated ids
+     */
+    void insertAll(List<Visit> visits) throws DataAccessException;
+
+    /**
+     * Update the non-<code>null</code> fields of a <code>Visit</code> with a single statement, without loading it.
+     *
+     * @param visit   the id and the changed fields of the <code>Visit</code>
+     * @param version the version the <code>Visit</code> must have, or <code>null</code> to update any version
+     * @return <code>false</code> if there is no such <code>Visit</code>
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the <code>Visit</code> has another version
+     */
+    boolean updateFields(Visit visit, Integer version) throws DataAccessException;
+
     List<Visit> findByPetId(Integer petId);
+
+    /**
+     * Retrieve the <code>Visit</code>s made between two dates, ordered by date.
+     *
+     * @param from the first date, included
+     * @param to   the last date, included
+     * @return the <code>Visit</code>s, each with its pet
+     */
+    List<Visit> findByDateBetween(LocalDate from, LocalDate to) throws DataAccessException;
+
+    /**
+     * Retrieve the <code>Visit</code>s of a pet made between two dates, ordered by date.
+     *
+     * @param petId the id of the pet
+     * @param from  the first date, included
+     * @param to    the last date, included
+     * @return the <code>Visit</code>s, each with its pet, or an empty list if there is no such pet
+     */
+    List<Visit> findByPetIdAndDateBetween(int petId, LocalDate from, LocalDate to) throws DataAccessException;
     
-	Visit findById(int id) throws DataAccessException;
+	Optional<Visit> findById(int id) throws DataAccessException;
 	
 	Collection<Visit> findAll() throws DataAccessException;
 
 	void delete(Visit visit) throws DataAccessException;
 
+    /**
+     * Delete a <code>Visit</code> by id, without loading it.
+     *
+     * @param id the id of the <code>Visit</code> to delete
+     * @return <code>false</code> if there is no such <code>Visit</code>
+     */
+    boolean deleteById(int id) throws DataAccessException;
+
 }
@@ -0,0 +1,71 @@
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+/**
+ * Partial updates written as a single {@code UPDATE} of the changed columns, without loading the row first.
+ * <p/>
+ * Only when no row is updated is the row read, to tell a missing row from a concurrent modification.
+ */
+final class ColumnUpdates {
+
+    private ColumnUpdates() {
+    }
+
+    static void putIfNotNull(Map<String, Object> columns, String column, Object value) {
+        if (value != null) {
+            columns.put(column, value);
+        }
+    }
+
+    /**
+     * Updates the given columns of a row and advances its version.
+     *
+     * @param columns    the new column values, by column name; the names must be constants, never client input
+     * @param conditions further column values the row must have, e.g. the owner of a pet
+     * @param version    the version the row must have, or {@code null} for an unconditional update
+     * @return {@code false} if there is no such row
+     * @throws ObjectOptimisticLockingFailureException if the row has another version
+     */
+    static boolean update(NamedParameterJdbcTemplate template, String table, Class<? extends BaseEntity> entityClass,
+                          int id, Map<String, Object> columns, Map<String, Object> conditions, Integer version) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").add("id=:id");
+        conditions.forEach((column, value) -> {
+            where.add(column + "=:" + column);
+            params.addValue(column, value);
+        });
+        if (!columns.isEmpty()) {
+            StringJoiner set = new StringJoiner(", ", "UPDATE " + table + " SET ", "");
+            columns.forEach((column, value) -> {
+                set.add(column + "=:" + column);
+                params.addValue(column, value);
+            });
+            set.add("version=version+1");
+            String versionCondition = "";
+            if (version != null) {
+                versionCondition = " AND version=:version";
+                params.addValue("version", version);
+            }
+            if (template.update(set + where.toString() + versionCondition, params) > 0) {
+                return true;
+            }
+        }
+        List<Integer> versions = template.queryForList("SELECT version FROM " + table + where, params, Integer.class);
+        if (versions.isEmpty()) {
+            return false;
+        }
+        if (columns.isEmpty() && (version == null || version.equals(versions.get(0)))) {
+            return true;
+        }
+        throw new ObjectOptimisticLockingFailureException(entityClass, id);
+    }
+
+}
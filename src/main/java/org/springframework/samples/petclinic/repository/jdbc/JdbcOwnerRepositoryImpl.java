@@ -15,14 +15,14 @@
  */
 package org.springframework.samples.petclinic.repository.jdbc;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
@@ -35,8 +35,11 @@ import javax.sql.DataSource;
 import jakarta.transaction.Transactional;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * A simple JDBC-based implementation of the {@link OwnerRepository} interface.
@@ -54,11 +57,15 @@ import java.util.Map;
 @Profile("jdbc")
 public class JdbcOwnerRepositoryImpl implements OwnerRepository {
 
+    private static final String SELECT_PETS_AND_VISITS = "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id, pets.version as pets_version, visits.id as visit_id, visit_date, description, visits.pet_id as visits_pet_id, visits.version as visit_version FROM pets LEFT OUTER JOIN visits ON pets.id = visits.pet_id WHERE owner_id=:id ORDER BY pets.id";
+
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     private SimpleJdbcInsert insertOwner;
 
-    public JdbcOwnerRepositoryImpl(DataSource dataSource) {
+    private JdbcParallelLoader parallelLoader;
+
+    public JdbcOwnerRepositoryImpl(DataSource dataSource, ObjectProvider<JdbcParallelLoader> parallelLoader) {
 
         this.insertOwner = new SimpleJdbcInsert(dataSource)
             .withTableName("owners")
@@ -66,6 +73,7 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
 
         this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
 
+        this.parallelLoader = parallelLoader.getIfAvailable();
     }
 
 
@@ -79,7 +87,7 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
         Map<String, Object> params = new HashMap<>();
         params.put("lastName", lastName + "%");
         List<Owner> owners = this.namedParameterJdbcTemplate.query(
-            "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE last_name like :lastName",
+            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE last_name like :lastName",
             params,
             BeanPropertyRowMapper.newInstance(Owner.class)
         );
@@ -92,32 +100,55 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
      * for the corresponding owner, if not already loaded.
      */
     @Override
-    public Owner findById(int id) throws DataAccessException {
-        Owner owner;
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            owner = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE id= :id",
-                params,
-                BeanPropertyRowMapper.newInstance(Owner.class)
-            );
-        } catch (EmptyResultDataAccessException ex) {
-            throw new ObjectRetrievalFailureException(Owner.class, id);
+    public Optional<Owner> findById(int id) throws DataAccessException {
+        if (this.parallelLoader != null && this.parallelLoader.isApplicable()) {
+            return findByIdInParallel(id);
         }
-        loadPetsAndVisits(owner);
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        Optional<Owner> owner = DataAccessUtils.optionalResult(this.namedParameterJdbcTemplate.query(
+            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE id= :id",
+            params,
+            BeanPropertyRowMapper.newInstance(Owner.class)
+        ));
+        owner.ifPresent(this::loadPetsAndVisits);
         return owner;
     }
 
+    /**
+     * Loads the owner row, the pets with their visits and the pet types with three concurrent queries.
+     */
+    private Optional<Owner> findByIdInParallel(int id) {
+        NamedParameterJdbcTemplate template = this.parallelLoader.getNamedParameterJdbcTemplate();
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        try (JdbcParallelLoader.Scope scope = this.parallelLoader.open()) {
+            Supplier<List<Owner>> owners = scope.fork(() -> template.query(
+                "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE id= :id",
+                params,
+                BeanPropertyRowMapper.newInstance(Owner.class)));
+            Supplier<List<JdbcPet>> pets = scope.fork(() -> template.query(
+                SELECT_PETS_AND_VISITS, params, new JdbcPetVisitExtractor()));
+            Supplier<Collection<PetType>> petTypes = scope.fork(() -> getPetTypes(template));
+            scope.join();
+            Optional<Owner> owner = DataAccessUtils.optionalResult(owners.get());
+            owner.ifPresent(found -> addPets(found, pets.get(), petTypes.get()));
+            return owner;
+        }
+    }
+
     public void loadPetsAndVisits(final Owner owner) {
         Map<String, Object> params = new HashMap<>();
         params.put("id", owner.getId());
         final List<JdbcPet> pets = this.namedParameterJdbcTemplate.query(
-            "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id, visits.id as visit_id, visit_date, description, visits.pet_id as visits_pet_id FROM pets LEFT OUTER JOIN visits ON pets.id = visits.pet_id WHERE owner_id=:id ORDER BY pets.id",
+            SELECT_PETS_AND_VISITS,
             params,
             new JdbcPetVisitExtractor()
         );
-        Collection<PetType> petTypes = getPetTypes();
+        addPets(owner, pets, getPetTypes());
+    }
+
+    private static void addPets(Owner owner, List<JdbcPet> pets, Collection<PetType> petTypes) {
         for (JdbcPet pet : pets) {
             pet.setType(EntityUtils.getById(petTypes, PetType.class, pet.getTypeId()));
             owner.addPet(pet);
@@ -131,16 +162,33 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
             Number newKey = this.insertOwner.executeAndReturnKey(parameterSource);
             owner.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update(
+            int updated = this.namedParameterJdbcTemplate.update(
                 "UPDATE owners SET first_name=:firstName, last_name=:lastName, address=:address, " +
-                    "city=:city, telephone=:telephone WHERE id=:id",
+                    "city=:city, telephone=:telephone, version=version+1 WHERE id=:id AND version=:version",
                 parameterSource);
+            OptimisticLocking.versionUpdated(updated, Owner.class, owner);
         }
     }
 
+    @Override
+    public boolean updateFields(Owner owner, Integer version) throws DataAccessException {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        ColumnUpdates.putIfNotNull(columns, "first_name", owner.getFirstName());
+        ColumnUpdates.putIfNotNull(columns, "last_name", owner.getLastName());
+        ColumnUpdates.putIfNotNull(columns, "address", owner.getAddress());
+        ColumnUpdates.putIfNotNull(columns, "city", owner.getCity());
+        ColumnUpdates.putIfNotNull(columns, "telephone", owner.getTelephone());
+        return ColumnUpdates.update(this.namedParameterJdbcTemplate, "owners", Owner.class, owner.getId(),
+            columns, Map.of(), version);
+    }
+
     public Collection<PetType> getPetTypes() throws DataAccessException {
-        return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types ORDER BY name", new HashMap<String, Object>(),
+        return getPetTypes(this.namedParameterJdbcTemplate);
+    }
+
+    private static Collection<PetType> getPetTypes(NamedParameterJdbcTemplate template) throws DataAccessException {
+        return template.query(
+            "SELECT id, name, version FROM types ORDER BY name", new HashMap<String, Object>(),
             BeanPropertyRowMapper.newInstance(PetType.class));
     }
 
@@ -159,7 +207,7 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
 	@Override
 	public Collection<Owner> findAll() throws DataAccessException {
 		List<Owner> owners = this.namedParameterJdbcTemplate.query(
-	            "SELECT id, first_name, last_name, address, city, telephone FROM owners",
+	            "SELECT id, first_name, last_name, address, city, telephone, version FROM owners",
 	            new HashMap<String, Object>(),
 	            BeanPropertyRowMapper.newInstance(Owner.class));
 		for (Owner owner : owners) {
@@ -190,5 +238,16 @@ public class JdbcOwnerRepositoryImpl implements OwnerRepository {
         this.namedParameterJdbcTemplate.update("DELETE FROM owners WHERE id=:id", owner_params);
 	}
 
+    @Override
+    @Transactional
+    public boolean deleteById(int id) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        this.namedParameterJdbcTemplate.update(
+            "DELETE FROM visits WHERE pet_id IN (SELECT id FROM pets WHERE owner_id=:id)", params);
+        this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE owner_id=:id", params);
+        return this.namedParameterJdbcTemplate.update("DELETE FROM owners WHERE id=:id", params) > 0;
+    }
+
 
 }
@@ -0,0 +1,168 @@
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.repository.OwnerSummaryRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A simple JDBC-based implementation of the {@link OwnerSummaryRepository} interface.
+ * <p/>
+ * The statements are portable, so the names of the pets are joined here rather than by the database. Besides the
+ * <code>jdbc</code> profile, the {@link org.springframework.samples.petclinic.util.dataset.DatasetGenerator} uses it
+ * to rebuild the summaries of the rows it generated.
+ */
+@Repository
+@Profile("jdbc")
+public class JdbcOwnerSummaryRepositoryImpl implements OwnerSummaryRepository {
+
+    private static final String SELECT = "SELECT id, first_name, last_name, city, telephone, pet_names, pet_count, "
+        + "last_visit_date FROM owner_summary";
+
+    private static final String INSERT = "INSERT INTO owner_summary "
+        + "(id, first_name, last_name, city, telephone, pet_count, last_visit_date) "
+        + "SELECT o.id, o.first_name, o.last_name, o.city, o.telephone, "
+        + "(SELECT COUNT(*) FROM pets p WHERE p.owner_id = o.id), "
+        + "(SELECT MAX(v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id WHERE p.owner_id = o.id) "
+        + "FROM owners o";
+
+    private static final String UPDATE_PETS = "UPDATE owner_summary "
+        + "SET pet_names = :petNames, pet_count = :petCount, last_visit_date = "
+        + "(SELECT MAX(v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id WHERE p.owner_id = :id) "
+        + "WHERE id = :id";
+
+    private static final String UPDATE_PET_NAMES = "UPDATE owner_summary SET pet_names = :petNames WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public JdbcOwnerSummaryRepositoryImpl(DataSource dataSource) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Collection<OwnerSummary> findByLastName(String lastName) throws DataAccessException {
+        return this.namedParameterJdbcTemplate.query(
+            SELECT + " WHERE last_name LIKE :lastName ORDER BY last_name, id",
+            Map.of("lastName", lastName + "%"),
+            BeanPropertyRowMapper.newInstance(OwnerSummary.class));
+    }
+
+    @Override
+    public Collection<OwnerSummary> findAll() throws DataAccessException {
+        return this.namedParameterJdbcTemplate.query(SELECT + " ORDER BY last_name, id",
+            BeanPropertyRowMapper.newInstance(OwnerSummary.class));
+    }
+
+    @Override
+    public void insert(Owner owner) throws DataAccessException {
+        this.namedParameterJdbcTemplate.update(
+            "INSERT INTO owner_summary (id, first_name, last_name, city, telephone) "
+                + "VALUES (:id, :firstName, :lastName, :city, :telephone)",
+            new BeanPropertySqlParameterSource(owner));
+    }
+
+    @Override
+    public void update(Owner owner) throws DataAccessException {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        ColumnUpdates.putIfNotNull(columns, "first_name", owner.getFirstName());
+        ColumnUpdates.putIfNotNull(columns, "last_name", owner.getLastName());
+        ColumnUpdates.putIfNotNull(columns, "city", owner.getCity());
+        ColumnUpdates.putIfNotNull(columns, "telephone", owner.getTelephone());
+        if (columns.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("id", owner.getId());
+        StringJoiner set = new StringJoiner(", ", "UPDATE owner_summary SET ", " WHERE id = :id");
+        columns.forEach((column, value) -> {
+            set.add(column + " = :" + column);
+            params.addValue(column, value);
+        });
+        if (this.namedParameterJdbcTemplate.update(set.toString(), params) == 0) {
+            refresh(owner.getId());
+        }
+    }
+
+    @Override
+    public void refresh(int ownerId) throws DataAccessException {
+        List<String> petNames = this.namedParameterJdbcTemplate.queryForList(
+            "SELECT name FROM pets WHERE owner_id = :id ORDER BY name", Map.of("id", ownerId), String.class);
+        MapSqlParameterSource params = new MapSqlParameterSource("id", ownerId)
+            .addValue("petNames", petNames.isEmpty() ? null : String.join(", ", petNames), Types.VARCHAR)
+            .addValue("petCount", petNames.size());
+        if (this.namedParameterJdbcTemplate.update(UPDATE_PETS, params) == 0
+            && this.namedParameterJdbcTemplate.update(INSERT + " WHERE o.id = :id", params) > 0
+            && !petNames.isEmpty()) {
+            this.namedParameterJdbcTemplate.update(UPDATE_PET_NAMES, params);
+        }
+    }
+
+    @Override
+    public void deleteById(int ownerId) throws DataAccessException {
+        this.namedParameterJdbcTemplate.update("DELETE FROM owner_summary WHERE id = :id", Map.of("id", ownerId));
+    }
+
+    @Override
+    public void visitAdded(int petId, LocalDate date) throws DataAccessException {
+        this.namedParameterJdbcTemplate.update(
+            "UPDATE owner_summary SET last_visit_date = :date "
+                + "WHERE id = (SELECT owner_id FROM pets WHERE id = :petId) "
+                + "AND (last_visit_date IS NULL OR last_visit_date < :date)",
+            new MapSqlParameterSource("petId", petId).addValue("date", date));
+    }
+
+    @Override
+    public Optional<Integer> findOwnerIdByPetId(int petId) throws DataAccessException {
+        return Optional.ofNullable(DataAccessUtils.singleResult(this.namedParameterJdbcTemplate.queryForList(
+            "SELECT owner_id FROM pets WHERE id = :id", Map.of("id", petId), Integer.class)));
+    }
+
+    @Override
+    public Optional<Integer> findOwnerIdByVisitId(int visitId) throws DataAccessException {
+        return Optional.ofNullable(DataAccessUtils.singleResult(this.namedParameterJdbcTemplate.queryForList(
+            "SELECT p.owner_id FROM visits v JOIN pets p ON p.id = v.pet_id WHERE v.id = :id",
+            Map.of("id", visitId), Integer.class)));
+    }
+
+    @Override
+    public List<Integer> findOwnerIdsByPetTypeId(int petTypeId) throws DataAccessException {
+        return this.namedParameterJdbcTemplate.queryForList(
+            "SELECT DISTINCT owner_id FROM pets WHERE type_id = :id AND owner_id IS NOT NULL",
+            Map.of("id", petTypeId), Integer.class);
+    }
+
+    @Override
+    public void rebuild() throws DataAccessException {
+        this.namedParameterJdbcTemplate.update("DELETE FROM owner_summary", Map.of());
+        this.namedParameterJdbcTemplate.update(INSERT, Map.of());
+        Map<Integer, StringJoiner> petNames = new LinkedHashMap<>();
+        this.namedParameterJdbcTemplate.query("SELECT owner_id, name FROM pets ORDER BY owner_id, name",
+            rs -> {
+                petNames.computeIfAbsent(rs.getInt(1), ownerId -> new StringJoiner(", ")).add(rs.getString(2));
+            });
+        List<SqlParameterSource> batch = new ArrayList<>(petNames.size());
+        petNames.forEach((ownerId, names) ->
+            batch.add(new MapSqlParameterSource("id", ownerId).addValue("petNames", names.toString())));
+        this.namedParameterJdbcTemplate.batchUpdate(UPDATE_PET_NAMES, batch.toArray(SqlParameterSource[]::new));
+    }
+
+}
@@ -0,0 +1,232 @@
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.samples.petclinic.datasource.ReadWriteRoutingDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs the independent queries that make up an aggregate (an owner with pets, visits and pet types; vets with
+ * specialties; a visit with its pet, type and owner) concurrently, each on its own connection, and lets the
+ * repository merge the results. This pays off when round trips dominate, i.e. with MySQL or PostgreSQL on another
+ * host. Enabled with {@code petclinic.jdbc.parallel-loading.enabled=true}.
+ * <p/>
+ * Queries are forked within a {@link Scope} that behaves like a structured task scope that shuts down on failure:
+ * {@link Scope#join()} waits for all of them up to the timeout
+ * ({@code petclinic.jdbc.parallel-loading.timeout}, default 5s); the first failure or the deadline cancels whatever
+ * is still running, and leaving the scope cancels anything not joined.
+ * <p/>
+ * Forked queries see committed data only, outside of the caller's transaction, so {@link #isApplicable()} only
+ * allows them when no read-write transaction is active. When reads are routed to replicas, the forked queries would
+ * go to the primary while a read-only caller reads from a replica, so they are then only allowed outside of any
+ * transaction. They also need connections beyond the one held by the
+ * caller: at most {@code petclinic.jdbc.parallel-loading.max-connections} (default 4) run at once, and a query that
+ * finds no free slot runs on the calling thread instead of waiting, so loading degrades to sequential rather than
+ * deadlocking on an exhausted pool.
+ */
+@Component
+@Profile("jdbc")
+@ConditionalOnProperty(name = "petclinic.jdbc.parallel-loading.enabled", havingValue = "true")
+public class JdbcParallelLoader implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcParallelLoader.class);
+
+    private final ExecutorService executor;
+
+    private final Semaphore slots;
+
+    private final Duration timeout;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final boolean routedToReplicas;
+
+    public JdbcParallelLoader(DataSource dataSource,
+                              @Value("${petclinic.jdbc.parallel-loading.max-connections:4}") int maxConnections,
+                              @Value("${petclinic.jdbc.parallel-loading.timeout:5s}") Duration timeout) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConnections, runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-parallel-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.slots = new Semaphore(maxConnections);
+        this.timeout = timeout;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout((int) Math.max(1, timeout.toSeconds()));
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.routedToReplicas = dataSource instanceof ReadWriteRoutingDataSource;
+        if (this.routedToReplicas) {
+            logger.warn("Parallel loading is turned off in read-only transactions, as they are routed to replicas; "
+                + "it only applies to reads outside of a transaction");
+        }
+    }
+
+    /**
+     * Template for forked queries; its statements are cancelled by the database driver after the loader timeout.
+     */
+    public NamedParameterJdbcTemplate getNamedParameterJdbcTemplate() {
+        return this.namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Whether forked queries would read the same data as the calling thread, i.e. no read-write transaction with
+     * possibly uncommitted changes is bound to it, and no read-only transaction routed to a replica.
+     */
+    public boolean isApplicable() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return true;
+        }
+        return !this.routedToReplicas && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    public Scope open() {
+        return new Scope(System.nanoTime() + this.timeout.toNanos());
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * A set of forked queries that are joined, or cancelled, together.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final long deadline;
+
+        private final BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<>();
+
+        private final List<Future<?>> forked = new ArrayList<>();
+
+        private boolean joined;
+
+        private Scope(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Starts the query, on the calling thread if all slots are taken.
+         *
+         * @return the result of the query, available after {@link #join()}
+         */
+        public <T> Supplier<T> fork(Callable<T> query) {
+            if (!JdbcParallelLoader.this.slots.tryAcquire()) {
+                T result = call(query);
+                return () -> result;
+            }
+            FutureTask<T> task = new FutureTask<>(query) {
+                @Override
+                protected void done() {
+                    // called exactly once, also when cancelled before it started
+                    JdbcParallelLoader.this.slots.release();
+                    Scope.this.completed.add(this);
+                }
+            };
+            try {
+                JdbcParallelLoader.this.executor.execute(task);
+            } catch (RuntimeException ex) {
+                JdbcParallelLoader.this.slots.release();
+                throw ex;
+            }
+            this.forked.add(task);
+            return () -> {
+                if (!this.joined) {
+                    throw new IllegalStateException("Scope has not been joined");
+                }
+                try {
+                    return task.get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    // cannot happen once joined: every forked query completed successfully
+                    throw new IllegalStateException(ex);
+                }
+            };
+        }
+
+        /**
+         * Waits for all forked queries; on the first failure or when the timeout elapses, cancels the others and
+         * throws.
+         *
+         * @throws QueryTimeoutException if the queries did not complete in time
+         */
+        public void join() throws DataAccessException {
+            try {
+                for (int i = 0; i < this.forked.size(); i++) {
+                    Future<?> next = this.completed.poll(this.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        throw new QueryTimeoutException("Parallel loading did not complete within "
+                            + JdbcParallelLoader.this.timeout.toMillis() + " ms");
+                    }
+                    next.get();
+                }
+                this.joined = true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new DataRetrievalFailureException("Interrupted while waiting for parallel loading", ex);
+            } catch (ExecutionException ex) {
+                throw translate(ex.getCause());
+            } finally {
+                if (!this.joined) {
+                    cancelAll();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+
+        private void cancelAll() {
+            for (Future<?> future : this.forked) {
+                future.cancel(true);
+            }
+        }
+
+        private <T> T call(Callable<T> query) {
+            try {
+                return query.call();
+            } catch (Exception ex) {
+                throw translate(ex);
+            }
+        }
+
+        private RuntimeException translate(Throwable ex) {
+            if (ex instanceof RuntimeException runtimeException && !(ex instanceof CancellationException)) {
+                return runtimeException;
+            }
+            return new DataRetrievalFailureException("Parallel loading failed", ex);
+        }
+    }
+
+}
@@ -18,19 +18,20 @@ package org.springframework.samples.petclinic.repository.jdbc;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
@@ -80,23 +81,19 @@ public class JdbcPetRepositoryImpl implements PetRepository {
     public List<PetType> findPetTypes() throws DataAccessException {
         Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types ORDER BY name",
+            "SELECT id, name, version FROM types ORDER BY name",
             params,
             BeanPropertyRowMapper.newInstance(PetType.class));
     }
 
     @Override
-    public Pet findById(int id) throws DataAccessException {
-        Integer ownerId;
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            ownerId = this.namedParameterJdbcTemplate.queryForObject("SELECT owner_id FROM pets WHERE id=:id", params, Integer.class);
-        } catch (EmptyResultDataAccessException ex) {
-            throw new ObjectRetrievalFailureException(Pet.class, id);
-        }
-        Owner owner = this.ownerRepository.findById(ownerId);
-        return EntityUtils.getById(owner.getPets(), Pet.class, id);
+    public Optional<Pet> findById(int id) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        return DataAccessUtils.optionalResult(
+                this.namedParameterJdbcTemplate.queryForList("SELECT owner_id FROM pets WHERE id=:id", params, Integer.class))
+            .flatMap(this.ownerRepository::findById)
+            .flatMap(owner -> owner.getPets().stream().filter(pet -> pet.getId() == id).findFirst());
     }
 
     @Override
@@ -106,13 +103,27 @@ public class JdbcPetRepositoryImpl implements PetRepository {
                 createPetParameterSource(pet));
             pet.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update(
+            int updated = this.namedParameterJdbcTemplate.update(
                 "UPDATE pets SET name=:name, birth_date=:birth_date, type_id=:type_id, " +
-                    "owner_id=:owner_id WHERE id=:id",
+                    "owner_id=:owner_id, version=version+1 WHERE id=:id AND version=:version",
                 createPetParameterSource(pet));
+            OptimisticLocking.versionUpdated(updated, Pet.class, pet);
         }
     }
 
+    @Override
+    public boolean updateFields(Pet pet, Integer ownerId, Integer version) throws DataAccessException {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        ColumnUpdates.putIfNotNull(columns, "name", pet.getName());
+        ColumnUpdates.putIfNotNull(columns, "birth_date", pet.getBirthDate());
+        if (pet.getType() != null) {
+            columns.put("type_id", pet.getType().getId());
+        }
+        Map<String, Object> conditions = ownerId != null ? Map.of("owner_id", ownerId) : Map.of();
+        return ColumnUpdates.update(this.namedParameterJdbcTemplate, "pets", Pet.class, pet.getId(),
+            columns, conditions, version);
+    }
+
     /**
      * Creates a {@link MapSqlParameterSource} based on data values from the supplied {@link Pet} instance.
      */
@@ -122,7 +133,8 @@ public class JdbcPetRepositoryImpl implements PetRepository {
             .addValue("name", pet.getName())
             .addValue("birth_date", pet.getBirthDate())
             .addValue("type_id", pet.getType().getId())
-            .addValue("owner_id", pet.getOwner().getId());
+            .addValue("owner_id", pet.getOwner().getId())
+            .addValue("version", pet.getVersion());
     }
     
 	@Override
@@ -131,14 +143,14 @@ public class JdbcPetRepositoryImpl implements PetRepository {
 		Collection<Pet> pets = new ArrayList<Pet>();
 		Collection<JdbcPet> jdbcPets = new ArrayList<JdbcPet>();
 		jdbcPets = this.namedParameterJdbcTemplate
-				.query("SELECT pets.id as pets_id, name, birth_date, type_id, owner_id FROM pets",
+				.query("SELECT pets.id as pets_id, name, birth_date, type_id, owner_id, version as pets_version FROM pets",
 				params,
 				new JdbcPetRowMapper());
-		Collection<PetType> petTypes = this.namedParameterJdbcTemplate.query("SELECT id, name FROM types ORDER BY name",
+		Collection<PetType> petTypes = this.namedParameterJdbcTemplate.query("SELECT id, name, version FROM types ORDER BY name",
 				new HashMap<String,
 				Object>(), BeanPropertyRowMapper.newInstance(PetType.class));
 		Collection<Owner> owners = this.namedParameterJdbcTemplate.query(
-				"SELECT id, first_name, last_name, address, city, telephone FROM owners ORDER BY last_name",
+				"SELECT id, first_name, last_name, address, city, telephone, version FROM owners ORDER BY last_name",
 				new HashMap<String, Object>(),
 				BeanPropertyRowMapper.newInstance(Owner.class));
 		for (JdbcPet jdbcPet : jdbcPets) {
@@ -164,4 +176,21 @@ public class JdbcPetRepositoryImpl implements PetRepository {
 		this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", pet_params);
 	}
 
+    @Override
+    public boolean deleteById(int id) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE pet_id=:id", params);
+        return this.namedParameterJdbcTemplate.update("DELETE FROM pets WHERE id=:id", params) > 0;
+    }
+
+    @Override
+    public boolean existsByIdAndOwnerId(int id, int ownerId) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        params.put("ownerId", ownerId);
+        return !this.namedParameterJdbcTemplate.queryForList(
+            "SELECT 1 FROM pets WHERE id=:id AND owner_id=:ownerId", params, Integer.class).isEmpty();
+    }
+
 }
@@ -21,12 +21,14 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.sql.DataSource;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -59,19 +61,13 @@ public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
 	}
 
 	@Override
-	public PetType findById(int id) {
-		PetType petType;
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            petType = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM types WHERE id= :id",
-                params,
-                BeanPropertyRowMapper.newInstance(PetType.class));
-        } catch (EmptyResultDataAccessException ex) {
-            throw new ObjectRetrievalFailureException(PetType.class, id);
-        }
-        return petType;
+	public Optional<PetType> findById(int id) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        return DataAccessUtils.optionalResult(this.namedParameterJdbcTemplate.query(
+            "SELECT id, name, version FROM types WHERE id= :id",
+            params,
+            BeanPropertyRowMapper.newInstance(PetType.class)));
 	}
 
     @Override
@@ -81,7 +77,7 @@ public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
             Map<String, Object> params = new HashMap<>();
             params.put("name", name);
             petType = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM types WHERE name= :name",
+                "SELECT id, name, version FROM types WHERE name= :name",
                 params,
                 BeanPropertyRowMapper.newInstance(PetType.class));
         } catch (EmptyResultDataAccessException ex) {
@@ -94,7 +90,7 @@ public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
 	public Collection<PetType> findAll() throws DataAccessException {
 		Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM types",
+            "SELECT id, name, version FROM types",
             params,
             BeanPropertyRowMapper.newInstance(PetType.class));
 	}
@@ -106,8 +102,9 @@ public class JdbcPetTypeRepositoryImpl implements PetTypeRepository {
             Number newKey = this.insertPetType.executeAndReturnKey(parameterSource);
             petType.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update("UPDATE types SET name=:name WHERE id=:id",
-                parameterSource);
+            int updated = this.namedParameterJdbcTemplate.update(
+                "UPDATE types SET name=:name, version=version+1 WHERE id=:id AND version=:version", parameterSource);
+            OptimisticLocking.versionUpdated(updated, PetType.class, petType);
         }
 	}
 
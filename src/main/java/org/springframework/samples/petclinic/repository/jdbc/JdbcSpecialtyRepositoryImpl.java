@@ -18,16 +18,16 @@ package org.springframework.samples.petclinic.repository.jdbc;
 
 import java.util.*;
 
+import java.util.Optional;
 import javax.sql.DataSource;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.repository.SpecialtyRepository;
 import org.springframework.stereotype.Repository;
@@ -53,44 +53,31 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
 	}
 
 	@Override
-	public Specialty findById(int id) {
-		Specialty specialty;
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            specialty = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM specialties WHERE id= :id",
-                params,
-                BeanPropertyRowMapper.newInstance(Specialty.class));
-        } catch (EmptyResultDataAccessException ex) {
-            throw new ObjectRetrievalFailureException(Specialty.class, id);
-        }
-        return specialty;
+	public Optional<Specialty> findById(int id) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        return DataAccessUtils.optionalResult(this.namedParameterJdbcTemplate.query(
+            "SELECT id, name, version FROM specialties WHERE id= :id",
+            params,
+            BeanPropertyRowMapper.newInstance(Specialty.class)));
 	}
 
     @Override
     public List<Specialty> findSpecialtiesByNameIn(Set<String> names) {
-        List<Specialty> specialties;
-        try{
-            String sql = "SELECT id, name FROM specialties WHERE specialties.name IN (:names)";
-            Map<String, Object> params = new HashMap<>();
-            params.put("names", names);
-            specialties = this.namedParameterJdbcTemplate.query(
-                sql,
-                params,
-                new BeanPropertyRowMapper<>(Specialty.class));
-        } catch (EmptyResultDataAccessException ex){
-            throw new ObjectRetrievalFailureException(Specialty.class, names);
-        }
-
-        return specialties;
+        String sql = "SELECT id, name, version FROM specialties WHERE specialties.name IN (:names)";
+        Map<String, Object> params = new HashMap<>();
+        params.put("names", names);
+        return this.namedParameterJdbcTemplate.query(
+            sql,
+            params,
+            new BeanPropertyRowMapper<>(Specialty.class));
     }
 
     @Override
 	public Collection<Specialty> findAll() throws DataAccessException {
 		Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT id, name FROM specialties",
+            "SELECT id, name, version FROM specialties",
             params,
             BeanPropertyRowMapper.newInstance(Specialty.class));
 	}
@@ -102,8 +89,9 @@ public class JdbcSpecialtyRepositoryImpl implements SpecialtyRepository {
             Number newKey = this.insertSpecialty.executeAndReturnKey(parameterSource);
             specialty.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update("UPDATE specialties SET name=:name WHERE id=:id",
-                parameterSource);
+            int updated = this.namedParameterJdbcTemplate.update(
+                "UPDATE specialties SET name=:name, version=version+1 WHERE id=:id AND version=:version", parameterSource);
+            OptimisticLocking.versionUpdated(updated, Specialty.class, specialty);
         }
 
 	}
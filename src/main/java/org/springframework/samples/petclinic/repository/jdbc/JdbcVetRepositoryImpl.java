@@ -22,18 +22,20 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.repository.VetRepository;
@@ -59,11 +61,14 @@ public class JdbcVetRepositoryImpl implements VetRepository {
     private JdbcTemplate jdbcTemplate;
 	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 	private SimpleJdbcInsert insertVet;
+	private JdbcParallelLoader parallelLoader;
 
-    public JdbcVetRepositoryImpl(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    public JdbcVetRepositoryImpl(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                 ObjectProvider<JdbcParallelLoader> parallelLoader) {
         this.jdbcTemplate = jdbcTemplate;
 		this.insertVet = new SimpleJdbcInsert(dataSource).withTableName("vets").usingGeneratedKeyColumns("id");
 		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		this.parallelLoader = parallelLoader.getIfAvailable();
     }
 
     /**
@@ -71,15 +76,19 @@ public class JdbcVetRepositoryImpl implements VetRepository {
      */
     @Override
     public Collection<Vet> findAll() throws DataAccessException {
+        if (this.parallelLoader != null && this.parallelLoader.isApplicable()) {
+            return findInParallel("SELECT id, first_name, last_name, version FROM vets ORDER BY last_name,first_name",
+                "SELECT vet_id, specialty_id FROM vet_specialties", new HashMap<>());
+        }
         List<Vet> vets = new ArrayList<>();
         // Retrieve the list of all vets.
         vets.addAll(this.jdbcTemplate.query(
-            "SELECT id, first_name, last_name FROM vets ORDER BY last_name,first_name",
+            "SELECT id, first_name, last_name, version FROM vets ORDER BY last_name,first_name",
             BeanPropertyRowMapper.newInstance(Vet.class)));
 
         // Retrieve the list of all possible specialties.
         final List<Specialty> specialties = this.jdbcTemplate.query(
-            "SELECT id, name FROM specialties",
+            "SELECT id, name, version FROM specialties",
             BeanPropertyRowMapper.newInstance(Specialty.class));
 
         // Build each vet's list of specialties.
@@ -102,18 +111,23 @@ public class JdbcVetRepositoryImpl implements VetRepository {
     }
     
 	@Override
-	public Vet findById(int id) throws DataAccessException {
-		Vet vet;
-		try {
-			Map<String, Object> vet_params = new HashMap<>();
-			vet_params.put("id", id);
-			vet = this.namedParameterJdbcTemplate.queryForObject(
-					"SELECT id, first_name, last_name FROM vets WHERE id= :id",
-					vet_params,
-					BeanPropertyRowMapper.newInstance(Vet.class));
-
+	public Optional<Vet> findById(int id) throws DataAccessException {
+		if (this.parallelLoader != null && this.parallelLoader.isApplicable()) {
+			Map<String, Object> params = new HashMap<>();
+			params.put("id", id);
+			List<Vet> vets = findInParallel("SELECT id, first_name, last_name, version FROM vets WHERE id= :id",
+				"SELECT vet_id, specialty_id FROM vet_specialties WHERE vet_id=:id", params);
+			return vets.stream().findFirst();
+		}
+		Map<String, Object> vet_params = new HashMap<>();
+		vet_params.put("id", id);
+		Optional<Vet> found = DataAccessUtils.optionalResult(this.namedParameterJdbcTemplate.query(
+				"SELECT id, first_name, last_name, version FROM vets WHERE id= :id",
+				vet_params,
+				BeanPropertyRowMapper.newInstance(Vet.class)));
+		found.ifPresent(vet -> {
 			final List<Specialty> specialties = this.namedParameterJdbcTemplate.query(
-					"SELECT id, name FROM specialties", vet_params, BeanPropertyRowMapper.newInstance(Specialty.class));
+					"SELECT id, name, version FROM specialties", vet_params, BeanPropertyRowMapper.newInstance(Specialty.class));
 
 			final List<Integer> vetSpecialtiesIds = this.namedParameterJdbcTemplate.query(
 					"SELECT specialty_id FROM vet_specialties WHERE vet_id=:id",
@@ -128,11 +142,36 @@ public class JdbcVetRepositoryImpl implements VetRepository {
 				Specialty specialty = EntityUtils.getById(specialties, Specialty.class, specialtyId);
 				vet.addSpecialty(specialty);
 			}
+		});
+		return found;
+	}
 
-		} catch (EmptyResultDataAccessException ex) {
-			throw new ObjectRetrievalFailureException(Vet.class, id);
+	/**
+	 * Loads vets, all specialties and the vet/specialty links with three concurrent queries; unlike the sequential
+	 * {@link #findAll()} the links of all vets are read at once instead of one query per vet.
+	 */
+	private List<Vet> findInParallel(String vetsQuery, String vetSpecialtiesQuery, Map<String, Object> params) {
+		NamedParameterJdbcTemplate template = this.parallelLoader.getNamedParameterJdbcTemplate();
+		try (JdbcParallelLoader.Scope scope = this.parallelLoader.open()) {
+			Supplier<List<Vet>> vets = scope.fork(() -> template.query(
+				vetsQuery, params, BeanPropertyRowMapper.newInstance(Vet.class)));
+			Supplier<List<Specialty>> specialties = scope.fork(() -> template.query(
+				"SELECT id, name, version FROM specialties", params, BeanPropertyRowMapper.newInstance(Specialty.class)));
+			Supplier<List<int[]>> vetSpecialties = scope.fork(() -> template.query(
+				vetSpecialtiesQuery, params, (rs, row) -> new int[]{rs.getInt(1), rs.getInt(2)}));
+			scope.join();
+			Map<Integer, Vet> vetsById = new HashMap<>();
+			for (Vet vet : vets.get()) {
+				vetsById.put(vet.getId(), vet);
+			}
+			for (int[] vetSpecialty : vetSpecialties.get()) {
+				Vet vet = vetsById.get(vetSpecialty[0]);
+				if (vet != null) {
+					vet.addSpecialty(EntityUtils.getById(specialties.get(), Specialty.class, vetSpecialty[1]));
+				}
+			}
+			return vets.get();
 		}
-		return vet;
 	}
 
 	@Override
@@ -143,8 +182,9 @@ public class JdbcVetRepositoryImpl implements VetRepository {
 			vet.setId(newKey.intValue());
 			updateVetSpecialties(vet);
 		} else {
-			this.namedParameterJdbcTemplate
-					.update("UPDATE vets SET first_name=:firstName, last_name=:lastName WHERE id=:id", parameterSource);
+			int updated = this.namedParameterJdbcTemplate.update("UPDATE vets SET first_name=:firstName, "
+					+ "last_name=:lastName, version=version+1 WHERE id=:id AND version=:version", parameterSource);
+			OptimisticLocking.versionUpdated(updated, Vet.class, vet);
 			updateVetSpecialties(vet);
 		}
 	}
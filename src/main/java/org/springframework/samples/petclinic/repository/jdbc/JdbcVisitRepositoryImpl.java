@@ -17,23 +17,31 @@ package org.springframework.samples.petclinic.repository.jdbc;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.orm.ObjectRetrievalFailureException;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.samples.petclinic.model.Owner;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Visit;
@@ -58,9 +66,11 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
 
     protected SimpleJdbcInsert insertVisit;
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private JdbcParallelLoader parallelLoader;
 
-    public JdbcVisitRepositoryImpl(DataSource dataSource) {
+    public JdbcVisitRepositoryImpl(DataSource dataSource, ObjectProvider<JdbcParallelLoader> parallelLoader) {
         this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.parallelLoader = parallelLoader.getIfAvailable();
 
         this.insertVisit = new SimpleJdbcInsert(dataSource)
             .withTableName("visits")
@@ -76,7 +86,8 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
             .addValue("id", visit.getId())
             .addValue("visit_date", visit.getDate())
             .addValue("description", visit.getDescription())
-            .addValue("pet_id", visit.getPet().getId());
+            .addValue("pet_id", visit.getPet().getId())
+            .addValue("version", visit.getVersion());
     }
 
     @Override
@@ -84,12 +95,12 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
         Map<String, Object> params = new HashMap<>();
         params.put("id", petId);
         JdbcPet pet = this.namedParameterJdbcTemplate.queryForObject(
-            "SELECT id as pets_id, name, birth_date, type_id, owner_id FROM pets WHERE id=:id",
+            "SELECT id as pets_id, name, birth_date, type_id, owner_id, version as pets_version FROM pets WHERE id=:id",
             params,
             new JdbcPetRowMapper());
 
         List<Visit> visits = this.namedParameterJdbcTemplate.query(
-            "SELECT id as visit_id, visit_date, description FROM visits WHERE pet_id=:id",
+            "SELECT id as visit_id, visit_date, description, version as visit_version FROM visits WHERE pet_id=:id",
             params, new JdbcVisitRowMapper());
 
         for (Visit visit : visits) {
@@ -100,26 +111,108 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
     }
 
     @Override
-    public Visit findById(int id) throws DataAccessException {
-        Visit visit;
-        try {
-            Map<String, Object> params = new HashMap<>();
-            params.put("id", id);
-            visit = this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id as visit_id, visits.pet_id as pets_id, visit_date, description FROM visits WHERE id= :id",
-                params,
-                new JdbcVisitRowMapperExt());
-        } catch (EmptyResultDataAccessException ex) {
-            throw new ObjectRetrievalFailureException(Visit.class, id);
+    public List<Visit> findByDateBetween(LocalDate from, LocalDate to) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("from", from);
+        params.put("to", to);
+        // one query for the visits and their pets, each pet mapped once
+        Map<Integer, JdbcPet> pets = new HashMap<>();
+        RowMapper<JdbcPet> petRowMapper = new JdbcPetRowMapper();
+        RowMapper<Visit> visitRowMapper = new JdbcVisitRowMapper();
+        return this.namedParameterJdbcTemplate.query(
+            "SELECT visits.id as visit_id, visit_date, description, visits.version as visit_version, " +
+                "pets.id as pets_id, name, birth_date, type_id, owner_id, pets.version as pets_version " +
+                "FROM visits JOIN pets ON visits.pet_id = pets.id " +
+                "WHERE visit_date BETWEEN :from AND :to ORDER BY visit_date, visits.id",
+            params, (rs, row) -> {
+                Visit visit = visitRowMapper.mapRow(rs, row);
+                JdbcPet pet = pets.get(rs.getInt("pets_id"));
+                if (pet == null) {
+                    pet = petRowMapper.mapRow(rs, row);
+                    pets.put(pet.getId(), pet);
+                }
+                visit.setPet(pet);
+                return visit;
+            });
+    }
+
+    @Override
+    public List<Visit> findByPetIdAndDateBetween(int petId, LocalDate from, LocalDate to) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", petId);
+        params.put("from", from);
+        params.put("to", to);
+        List<JdbcPet> pets = this.namedParameterJdbcTemplate.query(
+            "SELECT id as pets_id, name, birth_date, type_id, owner_id, version as pets_version FROM pets WHERE id=:id",
+            params,
+            new JdbcPetRowMapper());
+        if (pets.isEmpty()) {
+            return List.of();
+        }
+        List<Visit> visits = this.namedParameterJdbcTemplate.query(
+            "SELECT id as visit_id, visit_date, description, version as visit_version FROM visits " +
+                "WHERE pet_id=:id AND visit_date BETWEEN :from AND :to ORDER BY visit_date, id",
+            params, new JdbcVisitRowMapper());
+        for (Visit visit : visits) {
+            visit.setPet(pets.get(0));
+        }
+        return visits;
+    }
+
+    @Override
+    public Optional<Visit> findById(int id) throws DataAccessException {
+        if (this.parallelLoader != null && this.parallelLoader.isApplicable()) {
+            return findByIdInParallel(id);
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        return DataAccessUtils.optionalResult(this.namedParameterJdbcTemplate.query(
+            "SELECT id as visit_id, visits.pet_id as pets_id, visit_date, description, version as visit_version FROM visits WHERE id= :id",
+            params,
+            new JdbcVisitRowMapperExt()));
+    }
+
+    /**
+     * Loads the visit, its pet, the pet's type and the pet's owner with four concurrent queries, navigating from the
+     * visit id with sub-selects instead of waiting for each parent row.
+     */
+    private Optional<Visit> findByIdInParallel(int id) {
+        NamedParameterJdbcTemplate template = this.parallelLoader.getNamedParameterJdbcTemplate();
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        String petId = "(SELECT pet_id FROM visits WHERE id = :id)";
+        try (JdbcParallelLoader.Scope scope = this.parallelLoader.open()) {
+            Supplier<List<Visit>> visits = scope.fork(() -> template.query(
+                "SELECT id as visit_id, visit_date, description, version as visit_version FROM visits WHERE id = :id",
+                params, new JdbcVisitRowMapper()));
+            Supplier<List<JdbcPet>> pets = scope.fork(() -> template.query(
+                "SELECT id as pets_id, name, birth_date, type_id, owner_id, version as pets_version FROM pets WHERE id = " + petId,
+                params, new JdbcPetRowMapper()));
+            Supplier<List<PetType>> petTypes = scope.fork(() -> template.query(
+                "SELECT id, name, version FROM types WHERE id = (SELECT type_id FROM pets WHERE id = " + petId + ")",
+                params, BeanPropertyRowMapper.newInstance(PetType.class)));
+            Supplier<List<Owner>> owners = scope.fork(() -> template.query(
+                "SELECT id, first_name, last_name, address, city, telephone, version FROM owners "
+                    + "WHERE id = (SELECT owner_id FROM pets WHERE id = " + petId + ")",
+                params, BeanPropertyRowMapper.newInstance(Owner.class)));
+            scope.join();
+            if (visits.get().isEmpty() || pets.get().isEmpty()) {
+                return Optional.empty();
+            }
+            Visit visit = visits.get().get(0);
+            JdbcPet pet = pets.get().get(0);
+            pet.setType(petTypes.get().isEmpty() ? null : petTypes.get().get(0));
+            pet.setOwner(owners.get().isEmpty() ? null : owners.get().get(0));
+            visit.setPet(pet);
+            return Optional.of(visit);
         }
-        return visit;
     }
 
     @Override
     public Collection<Visit> findAll() throws DataAccessException {
         Map<String, Object> params = new HashMap<>();
         return this.namedParameterJdbcTemplate.query(
-            "SELECT visits.id as visit_id, pets.id as pets_id, visit_date, description FROM visits LEFT JOIN pets ON visits.pet_id = pets.id",
+            "SELECT visits.id as visit_id, pets.id as pets_id, visit_date, description, visits.version as visit_version FROM visits LEFT JOIN pets ON visits.pet_id = pets.id",
             params, new JdbcVisitRowMapperExt());
     }
 
@@ -129,12 +222,43 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
             Number newKey = this.insertVisit.executeAndReturnKey(createVisitParameterSource(visit));
             visit.setId(newKey.intValue());
         } else {
-            this.namedParameterJdbcTemplate.update(
-                "UPDATE visits SET visit_date=:visit_date, description=:description, pet_id=:pet_id WHERE id=:id ",
+            int updated = this.namedParameterJdbcTemplate.update(
+                "UPDATE visits SET visit_date=:visit_date, description=:description, pet_id=:pet_id, " +
+                    "version=version+1 WHERE id=:id AND version=:version",
                 createVisitParameterSource(visit));
+            OptimisticLocking.versionUpdated(updated, Visit.class, visit);
+        }
+    }
+
+    @Override
+    public void insertAll(List<Visit> visits) throws DataAccessException {
+        SqlParameterSource[] batch = visits.stream()
+            .map(this::createVisitParameterSource)
+            .toArray(SqlParameterSource[]::new);
+        KeyHolder keys = new GeneratedKeyHolder();
+        this.namedParameterJdbcTemplate.batchUpdate(
+            "INSERT INTO visits (visit_date, description, pet_id, version) " +
+                "VALUES (:visit_date, :description, :pet_id, :version)",
+            batch, keys, new String[]{"id"});
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != visits.size()) {
+            throw new InvalidDataAccessApiUsageException(
+                "Expected " + visits.size() + " generated ids but got " + generated.size());
+        }
+        for (int i = 0; i < visits.size(); i++) {
+            visits.get(i).setId(((Number) generated.get(i).values().iterator().next()).intValue());
         }
     }
 
+    @Override
+    public boolean updateFields(Visit visit, Integer version) throws DataAccessException {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        ColumnUpdates.putIfNotNull(columns, "visit_date", visit.getDate());
+        ColumnUpdates.putIfNotNull(columns, "description", visit.getDescription());
+        return ColumnUpdates.update(this.namedParameterJdbcTemplate, "visits", Visit.class, visit.getId(),
+            columns, Map.of(), version);
+    }
+
     @Override
     public void delete(Visit visit) throws DataAccessException {
         Map<String, Object> params = new HashMap<>();
@@ -142,6 +266,13 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
         this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", params);
     }
 
+    @Override
+    public boolean deleteById(int id) throws DataAccessException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", id);
+        return this.namedParameterJdbcTemplate.update("DELETE FROM visits WHERE id=:id", params) > 0;
+    }
+
     protected class JdbcVisitRowMapperExt implements RowMapper<Visit> {
 
         @Override
@@ -154,21 +285,22 @@ public class JdbcVisitRepositoryImpl implements VisitRepository {
             Date visitDate = rs.getDate("visit_date");
             visit.setDate(new java.sql.Date(visitDate.getTime()).toLocalDate());
             visit.setDescription(rs.getString("description"));
+            visit.setVersion(rs.getInt("visit_version"));
             Map<String, Object> params = new HashMap<>();
             params.put("id", rs.getInt("pets_id"));
             pet = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id FROM pets WHERE pets.id=:id",
+                "SELECT pets.id as pets_id, name, birth_date, type_id, owner_id, version as pets_version FROM pets WHERE pets.id=:id",
                 params,
                 new JdbcPetRowMapper());
             params.put("type_id", pet.getTypeId());
             petType = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, name FROM types WHERE id= :type_id",
+                "SELECT id, name, version FROM types WHERE id= :type_id",
                 params,
                 BeanPropertyRowMapper.newInstance(PetType.class));
             pet.setType(petType);
             params.put("owner_id", pet.getOwnerId());
             owner = JdbcVisitRepositoryImpl.this.namedParameterJdbcTemplate.queryForObject(
-                "SELECT id, first_name, last_name, address, city, telephone FROM owners WHERE id= :owner_id",
+                "SELECT id, first_name, last_name, address, city, telephone, version FROM owners WHERE id= :owner_id",
                 params,
                 BeanPropertyRowMapper.newInstance(Owner.class));
             pet.setOwner(owner);
@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.samples.petclinic.model.BaseEntity;
+
+/**
+ * The JDBC counterpart of the JPA {@code @Version} handling: updates are issued as
+ * {@code UPDATE ... SET ..., version=version+1 WHERE id=:id AND version=:version} and their row count checked here.
+ */
+final class OptimisticLocking {
+
+    private OptimisticLocking() {
+    }
+
+    /**
+     * Advances the version of the entity after a versioned update.
+     *
+     * @throws ObjectOptimisticLockingFailureException if no row was updated, i.e. the entity was modified or
+     *                                                 deleted since it was read
+     */
+    static void versionUpdated(int updatedRows, Class<? extends BaseEntity> entityClass, BaseEntity entity) {
+        if (updatedRows == 0) {
+            throw new ObjectOptimisticLockingFailureException(entityClass, entity.getId());
+        }
+        entity.setVersion(entity.getVersion() + 1);
+    }
+
+}
@@ -0,0 +1,106 @@
+package org.springframework.samples.petclinic.repository.jpa;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+
+/**
+ * Partial updates written as a single JPQL bulk {@code UPDATE} of the changed attributes, without loading the entity,
+ * shared by the JPA and Spring Data JPA repositories.
+ * <p/>
+ * Bulk updates bypass the persistence context, so the version is advanced explicitly and entities already loaded in
+ * the same transaction are not refreshed. Only when nothing is updated is the entity read, to tell a missing entity
+ * from a concurrent modification.
+ */
+public final class JpaColumnUpdates {
+
+    private JpaColumnUpdates() {
+    }
+
+    public static boolean updateOwner(EntityManager em, Owner owner, Integer version) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        putIfNotNull(attributes, "firstName", owner.getFirstName());
+        putIfNotNull(attributes, "lastName", owner.getLastName());
+        putIfNotNull(attributes, "address", owner.getAddress());
+        putIfNotNull(attributes, "city", owner.getCity());
+        putIfNotNull(attributes, "telephone", owner.getTelephone());
+        return update(em, Owner.class, owner.getId(), attributes, Map.of(), version);
+    }
+
+    public static boolean updatePet(EntityManager em, Pet pet, Integer ownerId, Integer version) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        putIfNotNull(attributes, "name", pet.getName());
+        putIfNotNull(attributes, "birthDate", pet.getBirthDate());
+        if (pet.getType() != null) {
+            attributes.put("type", em.getReference(PetType.class, pet.getType().getId()));
+        }
+        Map<String, Object> conditions = ownerId != null ? Map.of("owner.id", ownerId) : Map.of();
+        return update(em, Pet.class, pet.getId(), attributes, conditions, version);
+    }
+
+    public static boolean updateVisit(EntityManager em, Visit visit, Integer version) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        putIfNotNull(attributes, "date", visit.getDate());
+        putIfNotNull(attributes, "description", visit.getDescription());
+        return update(em, Visit.class, visit.getId(), attributes, Map.of(), version);
+    }
+
+    static void putIfNotNull(Map<String, Object> attributes, String attribute, Object value) {
+        if (value != null) {
+            attributes.put(attribute, value);
+        }
+    }
+
+    private static boolean update(EntityManager em, Class<? extends BaseEntity> entityClass, int id,
+                                  Map<String, Object> attributes, Map<String, Object> conditions, Integer version) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("id", id);
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").add("e.id = :id");
+        conditions.forEach((path, value) -> {
+            String param = path.replace('.', '_');
+            where.add("e." + path + " = :" + param);
+            params.put(param, value);
+        });
+        if (!attributes.isEmpty()) {
+            Map<String, Object> updateParams = new LinkedHashMap<>(params);
+            StringJoiner set = new StringJoiner(", ", "UPDATE " + entityClass.getSimpleName() + " e SET ", "");
+            attributes.forEach((attribute, value) -> {
+                set.add("e." + attribute + " = :" + attribute);
+                updateParams.put(attribute, value);
+            });
+            set.add("e.version = e.version + 1");
+            String versionCondition = "";
+            if (version != null) {
+                versionCondition = " AND e.version = :version";
+                updateParams.put("version", version);
+            }
+            Query update = em.createQuery(set + where.toString() + versionCondition);
+            updateParams.forEach(update::setParameter);
+            if (update.executeUpdate() > 0) {
+                return true;
+            }
+        }
+        Query select = em.createQuery("SELECT e.version FROM " + entityClass.getSimpleName() + " e" + where);
+        params.forEach(select::setParameter);
+        List<?> versions = select.getResultList();
+        if (versions.isEmpty()) {
+            return false;
+        }
+        if (attributes.isEmpty() && (version == null || version.equals(versions.get(0)))) {
+            return true;
+        }
+        throw new ObjectOptimisticLockingFailureException(entityClass, id);
+    }
+
+}
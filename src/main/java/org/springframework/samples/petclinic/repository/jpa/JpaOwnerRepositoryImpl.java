@@ -16,6 +16,7 @@
 package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
+import java.util.Optional;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -62,12 +63,14 @@ public class JpaOwnerRepositoryImpl implements OwnerRepository {
     }
 
     @Override
-    public Owner findById(int id) {
+    public Optional<Owner> findById(int id) {
         // using 'join fetch' because a single query should load both owners and pets
         // using 'left join fetch' because it might happen that an owner does not have pets yet
-        Query query = this.em.createQuery("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id");
-        query.setParameter("id", id);
-        return (Owner) query.getSingleResult();
+        return this.em.createQuery("SELECT owner FROM Owner owner left join fetch owner.pets WHERE owner.id =:id", Owner.class)
+            .setParameter("id", id)
+            .getResultList()
+            .stream()
+            .findFirst();
     }
 
 
@@ -81,6 +84,11 @@ public class JpaOwnerRepositoryImpl implements OwnerRepository {
 
     }
 
+    @Override
+    public boolean updateFields(Owner owner, Integer version) {
+        return JpaColumnUpdates.updateOwner(this.em, owner, version);
+    }
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<Owner> findAll() throws DataAccessException {
@@ -93,4 +101,14 @@ public class JpaOwnerRepositoryImpl implements OwnerRepository {
 		this.em.remove(this.em.contains(owner) ? owner : this.em.merge(owner));
 	}
 
+    @Override
+    public boolean deleteById(int id) {
+        this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id IN "
+                + "(SELECT pet.id FROM Pet pet WHERE pet.owner.id = :id)")
+            .setParameter("id", id).executeUpdate();
+        this.em.createQuery("DELETE FROM Pet pet WHERE pet.owner.id = :id").setParameter("id", id).executeUpdate();
+        return this.em.createQuery("DELETE FROM Owner owner WHERE owner.id = :id")
+            .setParameter("id", id).executeUpdate() > 0;
+    }
+
 }
@@ -0,0 +1,170 @@
+package org.springframework.samples.petclinic.repository.jpa;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.samples.petclinic.model.Owner;
+
+/**
+ * Maintenance of the <code>owner_summary</code> read model with native statements, shared by the JPA and Spring Data
+ * JPA repositories.
+ * <p/>
+ * The contact details are written from the given owner. Every method reading the other tables flushes the
+ * persistence context first, so that the statements see the owners, pets and visits saved earlier in the same
+ * transaction, unless entities are being removed: the owner or pet still holding them would
+ * cascade the flush to them and cancel their removal. The repositories delete pets and visits with bulk statements
+ * before removing the entities, so the statements see those deletions anyway. The names of the pets are joined here
+ * rather than by the database, which keeps the statements portable.
+ */
+public final class JpaOwnerSummaries {
+
+    private static final String INSERT = "INSERT INTO owner_summary "
+        + "(id, first_name, last_name, city, telephone, pet_count, last_visit_date) "
+        + "SELECT o.id, o.first_name, o.last_name, o.city, o.telephone, "
+        + "(SELECT COUNT(*) FROM pets p WHERE p.owner_id = o.id), "
+        + "(SELECT MAX(v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id WHERE p.owner_id = o.id) "
+        + "FROM owners o";
+
+    private static final String UPDATE_PET_NAMES = "UPDATE owner_summary SET pet_names = :petNames WHERE id = :id";
+
+    private JpaOwnerSummaries() {
+    }
+
+    public static void insert(EntityManager em, Owner owner) {
+        nativeQuery(em, "INSERT INTO owner_summary (id, first_name, last_name, city, telephone) "
+                + "VALUES (:id, :firstName, :lastName, :city, :telephone)")
+            .setParameter("id", owner.getId())
+            .setParameter("firstName", owner.getFirstName())
+            .setParameter("lastName", owner.getLastName())
+            .setParameter("city", owner.getCity())
+            .setParameter("telephone", owner.getTelephone())
+            .executeUpdate();
+    }
+
+    public static void update(EntityManager em, Owner owner) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        JpaColumnUpdates.putIfNotNull(columns, "first_name", owner.getFirstName());
+        JpaColumnUpdates.putIfNotNull(columns, "last_name", owner.getLastName());
+        JpaColumnUpdates.putIfNotNull(columns, "city", owner.getCity());
+        JpaColumnUpdates.putIfNotNull(columns, "telephone", owner.getTelephone());
+        if (columns.isEmpty()) {
+            return;
+        }
+        StringJoiner set = new StringJoiner(", ", "UPDATE owner_summary SET ", " WHERE id = :id");
+        columns.keySet().forEach(column -> set.add(column + " = :" + column));
+        Query update = nativeQuery(em, set.toString()).setParameter("id", owner.getId());
+        columns.forEach(update::setParameter);
+        if (update.executeUpdate() == 0) {
+            refresh(em, owner.getId());
+        }
+    }
+
+    public static void refresh(EntityManager em, int ownerId) {
+        flush(em);
+        List<?> petNames = nativeQuery(em, "SELECT name FROM pets WHERE owner_id = :id ORDER BY name")
+            .setParameter("id", ownerId)
+            .getResultList();
+        StringJoiner names = new StringJoiner(", ");
+        petNames.forEach(name -> names.add((String) name));
+        // binds no null, which not every driver accepts without a type
+        Query update = nativeQuery(em, "UPDATE owner_summary SET pet_names = "
+                + (petNames.isEmpty() ? "NULL" : ":petNames") + ", pet_count = :petCount, last_visit_date = "
+                + "(SELECT MAX(v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id WHERE p.owner_id = :id) "
+                + "WHERE id = :id")
+            .setParameter("id", ownerId)
+            .setParameter("petCount", petNames.size());
+        if (!petNames.isEmpty()) {
+            update.setParameter("petNames", names.toString());
+        }
+        if (update.executeUpdate() == 0
+            && nativeQuery(em, INSERT + " WHERE o.id = :id").setParameter("id", ownerId).executeUpdate() > 0
+            && !petNames.isEmpty()) {
+            nativeQuery(em, UPDATE_PET_NAMES)
+                .setParameter("petNames", names.toString())
+                .setParameter("id", ownerId)
+                .executeUpdate();
+        }
+    }
+
+    public static void deleteById(EntityManager em, int ownerId) {
+        nativeQuery(em, "DELETE FROM owner_summary WHERE id = :id").setParameter("id", ownerId).executeUpdate();
+    }
+
+    public static void visitAdded(EntityManager em, int petId, LocalDate date) {
+        flush(em);
+        nativeQuery(em, "UPDATE owner_summary SET last_visit_date = :date "
+                + "WHERE id = (SELECT owner_id FROM pets WHERE id = :petId) "
+                + "AND (last_visit_date IS NULL OR last_visit_date < :date)")
+            .setParameter("date", date)
+            .setParameter("petId", petId)
+            .executeUpdate();
+    }
+
+    public static Optional<Integer> findOwnerIdByPetId(EntityManager em, int petId) {
+        flush(em);
+        return singleId(nativeQuery(em, "SELECT owner_id FROM pets WHERE id = :id")
+            .setParameter("id", petId)
+            .getResultList());
+    }
+
+    public static Optional<Integer> findOwnerIdByVisitId(EntityManager em, int visitId) {
+        flush(em);
+        return singleId(nativeQuery(em, 
+                "SELECT p.owner_id FROM visits v JOIN pets p ON p.id = v.pet_id WHERE v.id = :id")
+            .setParameter("id", visitId)
+            .getResultList());
+    }
+
+    public static List<Integer> findOwnerIdsByPetTypeId(EntityManager em, int petTypeId) {
+        flush(em);
+        List<?> ownerIds = nativeQuery(em,
+                "SELECT DISTINCT owner_id FROM pets WHERE type_id = :id AND owner_id IS NOT NULL")
+            .setParameter("id", petTypeId)
+            .getResultList();
+        return ownerIds.stream().map(ownerId -> ((Number) ownerId).intValue()).toList();
+    }
+
+    public static void rebuild(EntityManager em) {
+        flush(em);
+        nativeQuery(em, "DELETE FROM owner_summary").executeUpdate();
+        nativeQuery(em, INSERT).executeUpdate();
+        Map<Integer, StringJoiner> petNames = new LinkedHashMap<>();
+        List<?> rows = nativeQuery(em, "SELECT owner_id, name FROM pets ORDER BY owner_id, name").getResultList();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            petNames.computeIfAbsent(((Number) columns[0]).intValue(), ownerId -> new StringJoiner(", "))
+                .add((String) columns[1]);
+        }
+        petNames.forEach((ownerId, names) -> nativeQuery(em, UPDATE_PET_NAMES)
+            .setParameter("petNames", names.toString())
+            .setParameter("id", ownerId)
+            .executeUpdate());
+    }
+
+    /**
+     * A native statement that leaves flushing to {@link #flush}, instead of flushing the persistence context itself.
+     */
+    private static Query nativeQuery(EntityManager em, String sql) {
+        return em.createNativeQuery(sql).setFlushMode(FlushModeType.COMMIT);
+    }
+
+    private static void flush(EntityManager em) {
+        if (em.unwrap(SessionImplementor.class).getActionQueue().numberOfDeletions() == 0) {
+            em.flush();
+        }
+    }
+
+    private static Optional<Integer> singleId(List<?> ids) {
+        return ids.isEmpty() ? Optional.empty() : Optional.of(((Number) ids.get(0)).intValue());
+    }
+
+}
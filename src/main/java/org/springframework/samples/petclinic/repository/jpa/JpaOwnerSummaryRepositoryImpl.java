@@ -0,0 +1,87 @@
+package org.springframework.samples.petclinic.repository.jpa;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.repository.OwnerSummaryRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * JPA implementation of the {@link OwnerSummaryRepository} interface, see {@link JpaOwnerSummaries}.
+ */
+@Repository
+@Profile("jpa")
+public class JpaOwnerSummaryRepositoryImpl implements OwnerSummaryRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Collection<OwnerSummary> findByLastName(String lastName) {
+        return this.em.createQuery(
+                "SELECT summary FROM OwnerSummary summary WHERE summary.lastName LIKE :lastName "
+                    + "ORDER BY summary.lastName, summary.id", OwnerSummary.class)
+            .setParameter("lastName", lastName + "%")
+            .getResultList();
+    }
+
+    @Override
+    public Collection<OwnerSummary> findAll() {
+        return this.em.createQuery("SELECT summary FROM OwnerSummary summary ORDER BY summary.lastName, summary.id",
+            OwnerSummary.class).getResultList();
+    }
+
+    @Override
+    public void insert(Owner owner) {
+        JpaOwnerSummaries.insert(this.em, owner);
+    }
+
+    @Override
+    public void update(Owner owner) {
+        JpaOwnerSummaries.update(this.em, owner);
+    }
+
+    @Override
+    public void refresh(int ownerId) {
+        JpaOwnerSummaries.refresh(this.em, ownerId);
+    }
+
+    @Override
+    public void deleteById(int ownerId) {
+        JpaOwnerSummaries.deleteById(this.em, ownerId);
+    }
+
+    @Override
+    public void visitAdded(int petId, LocalDate date) {
+        JpaOwnerSummaries.visitAdded(this.em, petId, date);
+    }
+
+    @Override
+    public Optional<Integer> findOwnerIdByPetId(int petId) {
+        return JpaOwnerSummaries.findOwnerIdByPetId(this.em, petId);
+    }
+
+    @Override
+    public Optional<Integer> findOwnerIdByVisitId(int visitId) {
+        return JpaOwnerSummaries.findOwnerIdByVisitId(this.em, visitId);
+    }
+
+    @Override
+    public List<Integer> findOwnerIdsByPetTypeId(int petTypeId) {
+        return JpaOwnerSummaries.findOwnerIdsByPetTypeId(this.em, petTypeId);
+    }
+
+    @Override
+    public void rebuild() {
+        JpaOwnerSummaries.rebuild(this.em);
+    }
+
+}
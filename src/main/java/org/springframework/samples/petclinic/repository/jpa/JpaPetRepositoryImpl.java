@@ -17,6 +17,7 @@ package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -51,8 +52,8 @@ public class JpaPetRepositoryImpl implements PetRepository {
     }
 
     @Override
-    public Pet findById(int id) {
-        return this.em.find(Pet.class, id);
+    public Optional<Pet> findById(int id) {
+        return Optional.ofNullable(this.em.find(Pet.class, id));
     }
 
     @Override
@@ -64,6 +65,11 @@ public class JpaPetRepositoryImpl implements PetRepository {
         }
     }
 
+    @Override
+    public boolean updateFields(Pet pet, Integer ownerId, Integer version) {
+        return JpaColumnUpdates.updatePet(this.em, pet, ownerId, version);
+    }
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Collection<Pet> findAll() throws DataAccessException {
@@ -81,4 +87,20 @@ public class JpaPetRepositoryImpl implements PetRepository {
 		}
 	}
 
+    @Override
+    public boolean deleteById(int id) {
+        this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id = :id").setParameter("id", id).executeUpdate();
+        return this.em.createQuery("DELETE FROM Pet pet WHERE pet.id = :id")
+            .setParameter("id", id).executeUpdate() > 0;
+    }
+
+    @Override
+    public boolean existsByIdAndOwnerId(int id, int ownerId) {
+        return !this.em.createQuery("SELECT 1 FROM Pet pet WHERE pet.id = :id AND pet.owner.id = :ownerId")
+            .setParameter("id", id)
+            .setParameter("ownerId", ownerId)
+            .setMaxResults(1)
+            .getResultList().isEmpty();
+    }
+
 }
@@ -18,6 +18,7 @@ package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -43,8 +44,8 @@ public class JpaPetTypeRepositoryImpl implements PetTypeRepository {
     private EntityManager em;
 
 	@Override
-	public PetType findById(int id) {
-		return this.em.find(PetType.class, id);
+	public Optional<PetType> findById(int id) {
+		return Optional.ofNullable(this.em.find(PetType.class, id));
 	}
 
     @Override
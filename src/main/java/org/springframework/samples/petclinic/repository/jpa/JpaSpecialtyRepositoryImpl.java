@@ -18,6 +18,7 @@ package org.springframework.samples.petclinic.repository.jpa;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import jakarta.persistence.EntityManager;
@@ -42,8 +43,8 @@ public class JpaSpecialtyRepositoryImpl implements SpecialtyRepository {
     private EntityManager em;
 
 	@Override
-	public Specialty findById(int id) {
-		return this.em.find(Specialty.class, id);
+	public Optional<Specialty> findById(int id) {
+		return Optional.ofNullable(this.em.find(Specialty.class, id));
 	}
 
     @Override
@@ -24,6 +24,7 @@ import org.springframework.stereotype.Repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import java.util.Collection;
+import java.util.Optional;
 
 /**
  * JPA implementation of the {@link VetRepository} interface.
@@ -43,8 +44,8 @@ public class JpaVetRepositoryImpl implements VetRepository {
 
 
 	@Override
-	public Vet findById(int id) throws DataAccessException {
-		return this.em.find(Vet.class, id);
+	public Optional<Vet> findById(int id) throws DataAccessException {
+		return Optional.ofNullable(this.em.find(Vet.class, id));
 	}
 
 	@SuppressWarnings("unchecked")
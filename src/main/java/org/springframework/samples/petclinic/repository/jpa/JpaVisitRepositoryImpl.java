@@ -15,8 +15,10 @@
  */
 package org.springframework.samples.petclinic.repository.jpa;
 
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -43,6 +45,15 @@ import org.springframework.stereotype.Repository;
 @Profile("jpa")
 public class JpaVisitRepositoryImpl implements VisitRepository {
 
+    /**
+     * Selects visits with their pets, and the owners and types of the pets. Visits, pets and owners load their
+     * collections eagerly, so the visits of the pet and the pets of the owner with their types and visits are fetched
+     * as well; otherwise each distinct pet and owner would cost a query of its own.
+     */
+    private static final String VISITS_WITH_PETS = "SELECT v FROM Visit v JOIN FETCH v.pet p JOIN FETCH p.owner o "
+        + "JOIN FETCH p.type LEFT JOIN FETCH p.visits LEFT JOIN FETCH o.pets op LEFT JOIN FETCH op.type "
+        + "LEFT JOIN FETCH op.visits ";
+
     @PersistenceContext
     private EntityManager em;
 
@@ -56,6 +67,19 @@ public class JpaVisitRepositoryImpl implements VisitRepository {
         }
     }
 
+    @Override
+    public void insertAll(List<Visit> visits) {
+        // the identity ids keep Hibernate from batching the inserts, but they share one flush and one commit
+        for (Visit visit : visits) {
+            this.em.persist(visit);
+        }
+    }
+
+    @Override
+    public boolean updateFields(Visit visit, Integer version) {
+        return JpaColumnUpdates.updateVisit(this.em, visit, version);
+    }
+
 
     @Override
     @SuppressWarnings("unchecked")
@@ -65,9 +89,29 @@ public class JpaVisitRepositoryImpl implements VisitRepository {
         return query.getResultList();
     }
 
+    @Override
+    public List<Visit> findByDateBetween(LocalDate from, LocalDate to) {
+        return this.em.createQuery(
+                VISITS_WITH_PETS + "WHERE v.date BETWEEN :from AND :to ORDER BY v.date, v.id", Visit.class)
+            .setParameter("from", from)
+            .setParameter("to", to)
+            .getResultList();
+    }
+
+    @Override
+    public List<Visit> findByPetIdAndDateBetween(int petId, LocalDate from, LocalDate to) {
+        return this.em.createQuery(
+                VISITS_WITH_PETS + "WHERE p.id = :petId AND v.date BETWEEN :from AND :to ORDER BY v.date, v.id",
+                Visit.class)
+            .setParameter("petId", petId)
+            .setParameter("from", from)
+            .setParameter("to", to)
+            .getResultList();
+    }
+
 	@Override
-	public Visit findById(int id) throws DataAccessException {
-		return this.em.find(Visit.class, id);
+	public Optional<Visit> findById(int id) throws DataAccessException {
+		return Optional.ofNullable(this.em.find(Visit.class, id));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -78,7 +122,18 @@ public class JpaVisitRepositoryImpl implements VisitRepository {
 
 	@Override
 	public void delete(Visit visit) throws DataAccessException {
-        this.em.remove(this.em.contains(visit) ? visit : this.em.merge(visit));
+        // deleted at once, like the pets, so that the owner summary sees it
+        this.em.createQuery("DELETE FROM Visit visit WHERE visit.id = :id")
+            .setParameter("id", visit.getId()).executeUpdate();
+        if (this.em.contains(visit)) {
+            this.em.remove(visit);
+        }
 	}
 
+    @Override
+    public boolean deleteById(int id) {
+        return this.em.createQuery("DELETE FROM Visit visit WHERE visit.id = :id")
+            .setParameter("id", id).executeUpdate() > 0;
+    }
+
 }
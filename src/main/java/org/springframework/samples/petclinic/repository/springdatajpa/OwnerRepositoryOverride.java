@@ -0,0 +1,13 @@
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.model.Owner;
+
+@Profile("spring-data-jpa")
+public interface OwnerRepositoryOverride {
+
+	boolean updateFields(Owner owner, Integer version);
+
+	boolean deleteById(int id);
+
+}
@@ -0,0 +1,31 @@
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.model.Owner;
+
+@Profile("spring-data-jpa")
+public interface OwnerSummaryRepositoryOverride {
+
+    void insert(Owner owner);
+
+    void update(Owner owner);
+
+    void refresh(int ownerId);
+
+    void deleteById(int ownerId);
+
+    void visitAdded(int petId, LocalDate date);
+
+    Optional<Integer> findOwnerIdByPetId(int petId);
+
+    Optional<Integer> findOwnerIdByVisitId(int visitId);
+
+    List<Integer> findOwnerIdsByPetTypeId(int petTypeId);
+
+    void rebuild();
+
+}
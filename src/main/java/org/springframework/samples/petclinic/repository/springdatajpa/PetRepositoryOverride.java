@@ -29,4 +29,8 @@ public interface PetRepositoryOverride {
 	
 	void delete(Pet pet);
 
+	boolean updateFields(Pet pet, Integer ownerId, Integer version);
+
+	boolean deleteById(int id);
+
 }
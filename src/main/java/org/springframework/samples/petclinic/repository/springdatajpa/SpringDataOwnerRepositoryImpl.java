@@ -0,0 +1,31 @@
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.repository.jpa.JpaColumnUpdates;
+
+@Profile("spring-data-jpa")
+public class SpringDataOwnerRepositoryImpl implements OwnerRepositoryOverride {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public boolean updateFields(Owner owner, Integer version) {
+		return JpaColumnUpdates.updateOwner(this.em, owner, version);
+	}
+
+	@Override
+	public boolean deleteById(int id) {
+		this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id IN "
+				+ "(SELECT pet.id FROM Pet pet WHERE pet.owner.id = :id)")
+			.setParameter("id", id).executeUpdate();
+		this.em.createQuery("DELETE FROM Pet pet WHERE pet.owner.id = :id").setParameter("id", id).executeUpdate();
+		return this.em.createQuery("DELETE FROM Owner owner WHERE owner.id = :id")
+			.setParameter("id", id).executeUpdate() > 0;
+	}
+
+}
@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.repository.springdatajpa;
+
+import java.util.Collection;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.repository.OwnerSummaryRepository;
+
+/**
+ * Spring Data JPA specialization of the {@link OwnerSummaryRepository} interface
+ */
+@Profile("spring-data-jpa")
+public interface SpringDataOwnerSummaryRepository extends OwnerSummaryRepository, Repository<OwnerSummary, Integer>,
+    OwnerSummaryRepositoryOverride {
+
+    @Override
+    @Query("SELECT summary FROM OwnerSummary summary WHERE summary.lastName LIKE :lastName% "
+        + "ORDER BY summary.lastName, summary.id")
+    Collection<OwnerSummary> findByLastName(@Param("lastName") String lastName);
+
+    @Override
+    @Query("SELECT summary FROM OwnerSummary summary ORDER BY summary.lastName, summary.id")
+    Collection<OwnerSummary> findAll();
+
+}
@@ -21,6 +21,7 @@ import jakarta.persistence.PersistenceContext;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.repository.jpa.JpaColumnUpdates;
 
 /**
  * @author Vitaliy Fedoriv
@@ -43,4 +44,16 @@ public class SpringDataPetRepositoryImpl implements PetRepositoryOverride {
         }
 	}
 
+	@Override
+	public boolean updateFields(Pet pet, Integer ownerId, Integer version) {
+		return JpaColumnUpdates.updatePet(this.em, pet, ownerId, version);
+	}
+
+	@Override
+	public boolean deleteById(int id) {
+		this.em.createQuery("DELETE FROM Visit visit WHERE visit.pet.id = :id").setParameter("id", id).executeUpdate();
+		return this.em.createQuery("DELETE FROM Pet pet WHERE pet.id = :id")
+			.setParameter("id", id).executeUpdate() > 0;
+	}
+
 }
@@ -15,8 +15,13 @@
  */
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.repository.VisitRepository;
 
@@ -29,4 +34,20 @@ import org.springframework.samples.petclinic.repository.VisitRepository;
 
 @Profile("spring-data-jpa")
 public interface SpringDataVisitRepository extends VisitRepository, Repository<Visit, Integer>, VisitRepositoryOverride {
+
+    /**
+     * Selects visits with their pets, and the owners and types of the pets. Visits, pets and owners load their
+     * collections eagerly, so these are fetched in the same query instead of one query per distinct pet and owner.
+     */
+    String VISITS_WITH_PETS = "SELECT v FROM Visit v JOIN FETCH v.pet p JOIN FETCH p.owner o JOIN FETCH p.type "
+        + "LEFT JOIN FETCH p.visits LEFT JOIN FETCH o.pets op LEFT JOIN FETCH op.type LEFT JOIN FETCH op.visits ";
+
+    @Override
+    @Query(VISITS_WITH_PETS + "WHERE v.date BETWEEN :from AND :to ORDER BY v.date, v.id")
+    List<Visit> findByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Override
+    @Query(VISITS_WITH_PETS + "WHERE p.id = :petId AND v.date BETWEEN :from AND :to ORDER BY v.date, v.id")
+    List<Visit> findByPetIdAndDateBetween(@Param("petId") int petId, @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
 }
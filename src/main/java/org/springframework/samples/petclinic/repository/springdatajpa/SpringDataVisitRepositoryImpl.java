@@ -16,12 +16,15 @@
 
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.List;
+
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.repository.jpa.JpaColumnUpdates;
 
 /**
  * @author Vitaliy Fedoriv
@@ -43,5 +46,23 @@ public class SpringDataVisitRepositoryImpl implements VisitRepositoryOverride {
         }
 	}
 
+	@Override
+	public void insertAll(List<Visit> visits) {
+		for (Visit visit : visits) {
+			this.em.persist(visit);
+		}
+	}
+
+	@Override
+	public boolean updateFields(Visit visit, Integer version) {
+		return JpaColumnUpdates.updateVisit(this.em, visit, version);
+	}
+
+	@Override
+	public boolean deleteById(int id) {
+		return this.em.createQuery("DELETE FROM Visit visit WHERE visit.id = :id")
+			.setParameter("id", id).executeUpdate() > 0;
+	}
+
 
 }
@@ -16,6 +16,8 @@
 
 package org.springframework.samples.petclinic.repository.springdatajpa;
 
+import java.util.List;
+
 import org.springframework.context.annotation.Profile;
 import org.springframework.samples.petclinic.model.Visit;
 
@@ -29,4 +31,10 @@ public interface VisitRepositoryOverride {
 	
 	void delete(Visit visit);
 
+	void insertAll(List<Visit> visits);
+
+	boolean updateFields(Visit visit, Integer version);
+
+	boolean deleteById(int id);
+
 }
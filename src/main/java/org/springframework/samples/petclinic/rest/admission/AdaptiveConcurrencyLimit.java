@@ -0,0 +1,103 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A limit on concurrent requests that follows their latency, after the gradient algorithm of Netflix'
+ * concurrency-limits library.
+ * <p/>
+ * Every completed request updates two moving averages of the latency: a short one over the last few requests and a
+ * long one standing for the latency without contention. While the short average stays within
+ * {@value #TOLERANCE} times the long one the limit grows by its square root, the headroom of the Vegas algorithm;
+ * when requests start queueing for connections the short average rises and the limit shrinks in proportion, by at
+ * most half at a time. The limit only grows while the load reaches at least half of it, so that an idle period does
+ * not leave a limit that was never tested.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final int SHORT_WINDOW = 10;
+
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private double shortRtt;
+
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException(
+                "Invalid concurrency limits: minimum " + minLimit + ", maximum " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * Takes a slot for a request, unless as many requests as the current limit are already in flight.
+     *
+     * @return {@code true} if the request may proceed, in which case {@link #release} must be called once it is done
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = this.inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!this.inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Frees the slot of a completed request and adjusts the limit to its latency.
+     */
+    public void release(long rttNanos) {
+        update(rttNanos, this.inFlight.getAndDecrement());
+    }
+
+    synchronized void update(long rttNanos, int inFlight) {
+        if (this.longRtt == 0) {
+            this.shortRtt = rttNanos;
+            this.longRtt = rttNanos;
+            return;
+        }
+        this.shortRtt += (rttNanos - this.shortRtt) / SHORT_WINDOW;
+        this.longRtt += (rttNanos - this.longRtt) / LONG_WINDOW;
+        // latency fell well below the long average, e.g. after a burst: let the average catch up faster
+        if (this.longRtt > 2 * this.shortRtt) {
+            this.longRtt *= 0.95;
+        }
+        if (inFlight < this.limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * this.longRtt / this.shortRtt));
+        double target = this.limit * gradient + Math.sqrt(this.limit);
+        this.limit = clamp(this.limit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private double clamp(double value) {
+        return Math.max(this.minLimit, Math.min(this.maxLimit, value));
+    }
+
+    public int getLimit() {
+        return (int) this.limit;
+    }
+
+    public int getInFlight() {
+        return this.inFlight.get();
+    }
+
+}
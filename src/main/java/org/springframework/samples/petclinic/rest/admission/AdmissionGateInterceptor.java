@@ -0,0 +1,67 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Admits at most as many concurrent requests as there are database connections. Requests beyond that wait on a fair
+ * {@link Semaphore} before reaching the controller, instead of holding a request thread while parked inside the
+ * connection pool. Requests still waiting after the timeout are rejected with an
+ * {@link AdmissionTimeoutException}.
+ * <p/>
+ * Every API call of this application uses a connection for about its whole duration, so sizing the gate to the pool
+ * keeps the pool busy without queueing requests inside it.
+ */
+public class AdmissionGateInterceptor implements HandlerInterceptor {
+
+    private final Semaphore permits;
+
+    private final int maxPermits;
+
+    private final Duration timeout;
+
+    public AdmissionGateInterceptor(int permits, Duration timeout) {
+        this.permits = new Semaphore(permits, true);
+        this.maxPermits = permits;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+        throws InterruptedException {
+        if (!this.permits.tryAcquire(this.timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new AdmissionTimeoutException(this.maxPermits, this.timeout, Duration.ofSeconds(1));
+        }
+        return true;
+    }
+
+    /**
+     * Only called for requests whose {@link #preHandle} returned {@code true}, i.e. that hold a permit.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        this.permits.release();
+    }
+
+    public int getMaxPermits() {
+        return this.maxPermits;
+    }
+
+    public int getAvailablePermits() {
+        return this.permits.availablePermits();
+    }
+
+    /**
+     * Number of requests currently waiting for a permit.
+     */
+    public int getQueueLength() {
+        return this.permits.getQueueLength();
+    }
+
+}
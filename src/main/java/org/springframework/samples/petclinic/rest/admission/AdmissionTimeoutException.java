@@ -0,0 +1,25 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request could not be admitted within the configured timeout because all permits of the
+ * {@link AdmissionGateInterceptor} were taken. Rendered as {@code 503 Service Unavailable}.
+ */
+public class AdmissionTimeoutException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionTimeoutException(int permits, Duration timeout, Duration retryAfter) {
+        super("No admission permit available within " + timeout.toMillis() + " ms (" + permits + " permits)");
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Hint for the {@code Retry-After} response header.
+     */
+    public Duration getRetryAfter() {
+        return this.retryAfter;
+    }
+
+}
@@ -0,0 +1,35 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a request is shed because its endpoint group already has as many requests in flight as the
+ * {@link AdaptiveConcurrencyLimit} allows. Rendered with the status configured for the group, {@code 503 Service
+ * Unavailable} or {@code 429 Too Many Requests}.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitExceededException(String group, int limit, HttpStatus status, Duration retryAfter) {
+        super("Concurrency limit of " + limit + " requests reached for " + group);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public HttpStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * Hint for the {@code Retry-After} response header.
+     */
+    public Duration getRetryAfter() {
+        return this.retryAfter;
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Sheds the requests of an endpoint group beyond its {@link AdaptiveConcurrencyLimit}: they are rejected with a
+ * {@link ConcurrencyLimitExceededException} right away rather than left to wait for a database connection until they
+ * time out, which keeps the latency of the admitted ones flat. The latency of every admitted request, up to the
+ * completion of its response, feeds the limit.
+ */
+public class LoadSheddingInterceptor implements HandlerInterceptor, MeterBinder {
+
+    private final String group;
+
+    private final AdaptiveConcurrencyLimit limit;
+
+    private final HttpStatus status;
+
+    private final Duration retryAfter;
+
+    private final String startAttribute;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public LoadSheddingInterceptor(String group, AdaptiveConcurrencyLimit limit, HttpStatus status,
+                                   Duration retryAfter) {
+        this.group = group;
+        this.limit = limit;
+        this.status = status;
+        this.retryAfter = retryAfter;
+        this.startAttribute = LoadSheddingInterceptor.class.getName() + "." + group + ".start";
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!this.limit.tryAcquire()) {
+            this.rejected.incrementAndGet();
+            throw new ConcurrencyLimitExceededException(this.group, this.limit.getLimit(), this.status,
+                this.retryAfter);
+        }
+        request.setAttribute(this.startAttribute, System.nanoTime());
+        return true;
+    }
+
+    /**
+     * Only called for requests whose {@link #preHandle} returned {@code true}, i.e. that hold a slot.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        this.limit.release(System.nanoTime() - (long) request.getAttribute(this.startAttribute));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("petclinic.concurrency.limit", this.limit, AdaptiveConcurrencyLimit::getLimit)
+            .description("Current concurrency limit of an endpoint group")
+            .tag("group", this.group)
+            .register(registry);
+        Gauge.builder("petclinic.concurrency.in.flight", this.limit, AdaptiveConcurrencyLimit::getInFlight)
+            .description("Requests of an endpoint group in flight")
+            .tag("group", this.group)
+            .register(registry);
+        FunctionCounter.builder("petclinic.concurrency.rejected", this.rejected, AtomicLong::get)
+            .description("Requests of an endpoint group shed by its concurrency limit")
+            .tag("group", this.group)
+            .register(registry);
+    }
+
+    public String getGroup() {
+        return this.group;
+    }
+
+    public AdaptiveConcurrencyLimit getLimit() {
+        return this.limit;
+    }
+
+    public long getRejected() {
+        return this.rejected.get();
+    }
+
+}
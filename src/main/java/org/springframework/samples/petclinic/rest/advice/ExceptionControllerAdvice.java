@@ -17,16 +17,27 @@
 package org.springframework.samples.petclinic.rest.advice;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.rest.admission.AdmissionTimeoutException;
+import org.springframework.samples.petclinic.rest.admission.ConcurrencyLimitExceededException;
 import org.springframework.samples.petclinic.rest.controller.BindingErrorsResponse;
+import org.springframework.samples.petclinic.rest.etag.PreconditionFailedException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.ServletRequestBindingException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.net.URI;
 import java.time.Instant;
@@ -111,4 +122,118 @@ public class ExceptionControllerAdvice {
         return ResponseEntity.status(status).build();
     }
 
+    /**
+     * Handles invalid request parameters, e.g. a missing required or an out of range query parameter.
+     *
+     * @param ex The exception to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 400 Bad Request status.
+     */
+    @ExceptionHandler({ServletRequestBindingException.class, MethodArgumentTypeMismatchException.class,
+        HandlerMethodValidationException.class, ConstraintViolationException.class})
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleInvalidRequestParameterException(Exception ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        return ResponseEntity.status(status).body(detail);
+    }
+
+    /**
+     * Handles {@link AccessDeniedException} thrown by {@code @PreAuthorize} when the authenticated user lacks the
+     * required role. This method returns a 403 Forbidden status.
+     *
+     * @param ex The {@link AccessDeniedException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 403 Forbidden status.
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleAccessDeniedException(AccessDeniedException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.FORBIDDEN;
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        return ResponseEntity.status(status).body(detail);
+    }
+
+    /**
+     * Handles {@link AdmissionTimeoutException} thrown when the server is saturated and a request could not be
+     * admitted in time. This method returns a 503 Service Unavailable status with a {@code Retry-After} header.
+     *
+     * @param ex The {@link AdmissionTimeoutException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 503 Service Unavailable status.
+     */
+    @ExceptionHandler(AdmissionTimeoutException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleAdmissionTimeoutException(AdmissionTimeoutException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+            .body(detail);
+    }
+
+    /**
+     * Handles {@link ConcurrencyLimitExceededException} thrown when a request is shed because its endpoint group is
+     * at its concurrency limit. This method returns the status configured for the group, 503 Service Unavailable or
+     * 429 Too Many Requests, with a {@code Retry-After} header.
+     *
+     * @param ex The {@link ConcurrencyLimitExceededException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 503 or 429 status.
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleConcurrencyLimitExceededException(ConcurrencyLimitExceededException ex, HttpServletRequest request) {
+        HttpStatus status = ex.getStatus();
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        return ResponseEntity.status(status)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+            .body(detail);
+    }
+
+    /**
+     * Handles {@link PreconditionFailedException} thrown when the {@code If-Match} tag of an update is not the
+     * current one. This method returns a 412 Precondition Failed status.
+     *
+     * @param ex The {@link PreconditionFailedException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 412 Precondition Failed status.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handlePreconditionFailedException(PreconditionFailedException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        return ResponseEntity.status(status).body(detail);
+    }
+
+    /**
+     * Handles {@link OptimisticLockingFailureException} thrown when an entity was modified concurrently between
+     * reading and updating it. This method returns a 412 Precondition Failed status if the update was conditional on
+     * an {@code If-Match} tag, a 409 Conflict status otherwise.
+     *
+     * @param ex The {@link OptimisticLockingFailureException} to be handled
+     * @param request {@link HttpServletRequest} object referring to the current request.
+     * @return A {@link ResponseEntity} containing the error information and a 412 or 409 status.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseBody
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, HttpServletRequest request) {
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null
+            ? HttpStatus.PRECONDITION_FAILED
+            : HttpStatus.CONFLICT;
+        ProblemDetail detail = this.detailBuild(ex, status, request.getRequestURL());
+        return ResponseEntity.status(status).body(detail);
+    }
+
+    /**
+     * Handles {@link AsyncRequestNotUsableException} raised when a client, typically one of the change feed, closed
+     * its connection while being answered. There is nobody left to answer, so nothing is written.
+     *
+     * @param ex The {@link AsyncRequestNotUsableException} to be handled
+     */
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleAsyncRequestNotUsableException(AsyncRequestNotUsableException ex) {
+    }
+
 }
@@ -0,0 +1,258 @@
+package org.springframework.samples.petclinic.rest.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.samples.petclinic.rest.api.BatchApi;
+import org.springframework.samples.petclinic.rest.dto.BatchOperationDto;
+import org.springframework.samples.petclinic.rest.dto.BatchOperationResultDto;
+import org.springframework.samples.petclinic.rest.dto.BatchResponseDto;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * Runs the operations of a batch in one transaction, handing each to the controller method mapped to it.
+ * <p/>
+ * The operations skip the servlet filters and handler interceptors, which already ran for the batch request: it is
+ * authenticated and admitted once. Method security, validation and exception handling apply to every operation as
+ * to a request of its own. The first operation answered with an error status rolls the transaction back and ends
+ * the batch. When JPA is used, the persistence context is flushed and cleared after every operation, so the next
+ * one reads what the database has, including the effect of bulk updates and deletes.
+ */
+@Component
+public class BatchExecutor {
+
+    private static final String API_PATH = "/api";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([A-Za-z][A-Za-z0-9_]*)((?:\\.[A-Za-z0-9_]+)*)}");
+
+    private final RequestMappingHandlerMapping handlerMapping;
+
+    private final RequestMappingHandlerAdapter handlerAdapter;
+
+    private final HandlerExceptionResolver exceptionResolver;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private final ObjectMapper objectMapper;
+
+    public BatchExecutor(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                         RequestMappingHandlerAdapter handlerAdapter,
+                         @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+                         PlatformTransactionManager transactionManager,
+                         ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                         ObjectMapper objectMapper) {
+        this.handlerMapping = handlerMapping;
+        this.handlerAdapter = handlerAdapter;
+        this.exceptionResolver = exceptionResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs the operations of the batch request being handled.
+     */
+    public BatchResponseDto execute(List<BatchOperationDto> operations) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        HttpServletResponse response = attributes.getResponse();
+        BatchResponseDto batch = new BatchResponseDto();
+        Boolean committed = this.transactionTemplate.execute(status -> {
+            Map<String, JsonNode> bodies = new HashMap<>();
+            for (BatchOperationDto operation : operations) {
+                BatchOperationResultDto result = execute(operation, bodies, request, response);
+                batch.addResultsItem(result);
+                if (result.getStatus() >= 400) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                if (operation.getRef() != null) {
+                    bodies.put(operation.getRef(), (JsonNode) result.getBody());
+                }
+                clearPersistenceContext();
+            }
+            return true;
+        });
+        batch.setCommitted(Boolean.TRUE.equals(committed));
+        return batch;
+    }
+
+    private BatchOperationResultDto execute(BatchOperationDto operation, Map<String, JsonNode> bodies,
+                                            HttpServletRequest batchRequest, HttpServletResponse batchResponse) {
+        BatchOperationResultDto result = new BatchOperationResultDto();
+        result.setRef(operation.getRef());
+        UriComponents uri;
+        byte[] body;
+        try {
+            uri = UriComponentsBuilder.fromUriString(API_PATH + resolve(operation.getPath(), bodies, true)).build(true);
+            body = operation.getBody() != null
+                ? this.objectMapper.writeValueAsBytes(resolve(this.objectMapper.valueToTree(operation.getBody()), bodies))
+                : null;
+        } catch (IllegalArgumentException | IOException ex) {
+            return failure(result, HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        BatchOperationRequest request = new BatchOperationRequest(batchRequest, operation.getMethod().getValue(), uri,
+            operation.getHeaders(), body);
+        BatchOperationResponse response = new BatchOperationResponse(batchResponse);
+        RequestAttributes batchAttributes = RequestContextHolder.getRequestAttributes();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            ServletRequestPathUtils.parseAndCache(request);
+            dispatch(request, response);
+        } finally {
+            RequestContextHolder.setRequestAttributes(batchAttributes);
+        }
+        result.setStatus(response.getStatus());
+        response.getHeadersOfOperation().forEach((name, values) -> result.putHeadersItem(name, String.join(", ", values)));
+        result.setBody(body(response));
+        return result;
+    }
+
+    private void dispatch(BatchOperationRequest request, BatchOperationResponse response) {
+        Object handler = null;
+        try {
+            HandlerExecutionChain chain = this.handlerMapping.getHandler(request);
+            if (chain == null) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            handler = chain.getHandler();
+            if (handler instanceof HandlerMethod method && BatchApi.class.isAssignableFrom(method.getBeanType())) {
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+                return;
+            }
+            this.handlerAdapter.handle(request, response, handler);
+        } catch (Exception ex) {
+            if (this.exceptionResolver.resolveException(request, response, handler, ex) == null) {
+                throw ex instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new IllegalStateException("Batch operation " + request.getRequestURI() + " failed", ex);
+            }
+        }
+    }
+
+    private JsonNode body(BatchOperationResponse response) {
+        byte[] content = response.getContent();
+        if (content.length == 0) {
+            return null;
+        }
+        String contentType = response.getContentType();
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)
+            || contentType != null && contentType.contains("+json")) {
+            try {
+                return this.objectMapper.readTree(content);
+            } catch (IOException ex) {
+                // not JSON after all, returned as text below
+            }
+        }
+        return TextNode.valueOf(new String(content, StandardCharsets.UTF_8));
+    }
+
+    private BatchOperationResultDto failure(BatchOperationResultDto result, HttpStatus status, String detail) {
+        result.setStatus(status.value());
+        result.setBody(this.objectMapper.valueToTree(ProblemDetail.forStatusAndDetail(status, detail)));
+        return result;
+    }
+
+    private void clearPersistenceContext() {
+        EntityManagerFactory factory = this.entityManagerFactory.getIfAvailable();
+        EntityManager entityManager = factory != null
+            ? EntityManagerFactoryUtils.getTransactionalEntityManager(factory)
+            : null;
+        if (entityManager != null) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Replaces the placeholders of the string values of a request body; a value that is a single placeholder
+     * becomes the referenced value, whatever its type.
+     */
+    private JsonNode resolve(JsonNode node, Map<String, JsonNode> bodies) {
+        if (node instanceof TextNode text) {
+            Matcher matcher = PLACEHOLDER.matcher(text.textValue());
+            return matcher.matches() ? lookup(matcher, bodies) : TextNode.valueOf(resolve(text.textValue(), bodies, false));
+        }
+        if (node instanceof ObjectNode object) {
+            for (Iterator<Map.Entry<String, JsonNode>> fields = object.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                field.setValue(resolve(field.getValue(), bodies));
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, resolve(array.get(i), bodies));
+            }
+        }
+        return node;
+    }
+
+    private static String resolve(String value, Map<String, JsonNode> bodies, boolean encode) {
+        Matcher matcher = PLACEHOLDER.matcher(value);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String text = lookup(matcher, bodies).asText();
+            matcher.appendReplacement(resolved,
+                Matcher.quoteReplacement(encode ? UriUtils.encode(text, StandardCharsets.UTF_8) : text));
+        }
+        return matcher.appendTail(resolved).toString();
+    }
+
+    private static JsonNode lookup(Matcher placeholder, Map<String, JsonNode> bodies) {
+        String ref = placeholder.group(1);
+        JsonNode node = bodies.get(ref);
+        if (node == null) {
+            throw new IllegalArgumentException("No earlier operation with ref " + ref + " and a response body");
+        }
+        for (String property : placeholder.group(2).split("\\.")) {
+            if (property.isEmpty()) {
+                continue;
+            }
+            node = node.isArray() && property.chars().allMatch(Character::isDigit)
+                ? node.path(Integer.parseInt(property))
+                : node.path(property);
+        }
+        if (node.isMissingNode() || node.isContainerNode()) {
+            throw new IllegalArgumentException("Placeholder " + placeholder.group() + " refers to no value");
+        }
+        return node;
+    }
+
+}
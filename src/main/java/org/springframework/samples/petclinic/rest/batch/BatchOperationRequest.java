@@ -0,0 +1,239 @@
+package org.springframework.samples.petclinic.rest.batch;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * One operation of a batch, presented to the handler as a request of its own.
+ * <p/>
+ * Method, path, parameters, headers, body and attributes are the operation's; connection details such as the host
+ * and the authenticated user are those of the batch request.
+ */
+class BatchOperationRequest extends HttpServletRequestWrapper {
+
+    private final String method;
+
+    private final String requestUri;
+
+    private final String queryString;
+
+    private final Map<String, String[]> parameters = new LinkedHashMap<>();
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private final byte[] body;
+
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    /**
+     * @param uri  the encoded path and query of the operation, from the root of the application
+     * @param body the JSON body, or {@code null}
+     */
+    BatchOperationRequest(HttpServletRequest batchRequest, String method, UriComponents uri,
+                          Map<String, String> headers, byte[] body) {
+        super(batchRequest);
+        this.method = method;
+        this.requestUri = batchRequest.getContextPath() + uri.getPath();
+        this.queryString = uri.getQuery();
+        uri.getQueryParams().forEach((name, values) -> this.parameters.put(UriUtils.decode(name, StandardCharsets.UTF_8),
+            values.stream().map(value -> value == null ? "" : UriUtils.decode(value, StandardCharsets.UTF_8))
+                .toArray(String[]::new)));
+        headers.forEach(this.headers::set);
+        this.headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        this.body = body != null ? body : new byte[0];
+        if (body != null) {
+            this.headers.setContentType(MediaType.APPLICATION_JSON);
+            this.headers.setContentLength(body.length);
+        }
+    }
+
+    @Override
+    public String getMethod() {
+        return this.method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return this.requestUri;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer(getScheme()).append("://").append(getServerName());
+        int port = getServerPort();
+        if (port > 0 && !(port == 80 && "http".equals(getScheme())) && !(port == 443 && "https".equals(getScheme()))) {
+            url.append(':').append(port);
+        }
+        return url.append(this.requestUri);
+    }
+
+    @Override
+    public String getServletPath() {
+        return "";
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return this.queryString;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = this.parameters.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return Collections.unmodifiableMap(this.parameters);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(this.parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return this.parameters.get(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return this.headers.getFirst(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return Collections.enumeration(this.headers.getOrEmpty(name));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(this.headers.keySet());
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        String value = getHeader(name);
+        return value != null
+            ? ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+            : -1;
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader(HttpHeaders.CONTENT_TYPE);
+    }
+
+    @Override
+    public int getContentLength() {
+        return this.body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return this.body.length;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream input = new ByteArrayInputStream(this.body);
+        return new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return input.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return this.attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(this.attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            removeAttribute(name);
+        } else {
+            this.attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        this.attributes.remove(name);
+    }
+
+}
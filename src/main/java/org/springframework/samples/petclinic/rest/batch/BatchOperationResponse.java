@@ -0,0 +1,223 @@
+package org.springframework.samples.petclinic.rest.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Collects the response to one operation of a batch, leaving the response of the batch request untouched.
+ */
+class BatchOperationResponse extends HttpServletResponseWrapper {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    private int status = HttpStatus.OK.value();
+
+    private PrintWriter writer;
+
+    BatchOperationResponse(HttpServletResponse batchResponse) {
+        super(batchResponse);
+    }
+
+    HttpHeaders getHeadersOfOperation() {
+        return this.headers;
+    }
+
+    byte[] getContent() {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+        return this.content.toByteArray();
+    }
+
+    @Override
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public int getStatus() {
+        return this.status;
+    }
+
+    @Override
+    public void sendError(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public void sendError(int status, String message) {
+        this.status = status;
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        this.status = HttpStatus.FOUND.value();
+        this.headers.set(HttpHeaders.LOCATION, location);
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return this.headers.containsKey(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return this.headers.getFirst(name);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        return this.headers.getOrEmpty(name);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return this.headers.keySet();
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (value == null) {
+            this.headers.remove(name);
+        } else {
+            this.headers.set(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (value != null) {
+            this.headers.add(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void setContentType(String type) {
+        setHeader(HttpHeaders.CONTENT_TYPE, type);
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader(HttpHeaders.CONTENT_TYPE);
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public void setContentLength(int length) {
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return new ServletOutputStream() {
+
+            @Override
+            public void write(int b) {
+                BatchOperationResponse.this.content.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                BatchOperationResponse.this.content.write(b, off, len);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (this.writer == null) {
+            this.writer = new PrintWriter(new OutputStreamWriter(this.content, StandardCharsets.UTF_8));
+        }
+        return this.writer;
+    }
+
+    @Override
+    public void flushBuffer() {
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        this.headers.clear();
+        this.status = HttpStatus.OK.value();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+        this.content.reset();
+    }
+
+    private static String formatDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+
+}
@@ -0,0 +1,374 @@
+package org.springframework.samples.petclinic.rest.changes;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Entity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams the committed {@link ClinicChangeEvent}s to Server-Sent Events subscribers, so that clients can refresh
+ * what changed instead of polling the lists.
+ * <p/>
+ * Every change gets an event id made of an epoch taken at startup and a sequence number. The last
+ * {@code petclinic.changes.retained} changes (1000 by default) are kept, so a client reconnecting with the id it saw
+ * last in {@code Last-Event-ID} receives the changes it missed. When they are no longer retained, or the id is from
+ * another run of the application, it receives a {@code reset} event instead and has to reload its data.
+ * <p/>
+ * Events are sent by a pool of at most {@code petclinic.changes.senders} threads (4 by default), never by the
+ * committing one. A subscriber that falls behind by more than {@code petclinic.changes.max-pending} changes (256 by
+ * default) is dropped: its pending changes are discarded and its stream is closed, so a slow consumer costs a bounded
+ * amount of memory and gives up its sender once the write in progress returns. It then reconnects and resumes from
+ * the retained changes, or receives a {@code reset} event if it missed more than it may have pending. Idle streams get
+ * a comment
+ * every {@code petclinic.changes.heartbeat-interval} (15 seconds by default), which keeps proxies from closing them
+ * and detects closed connections; each stream ends after {@code petclinic.changes.timeout} (10 minutes by default),
+ * after which the client reconnects and resumes.
+ */
+@Component
+public class ChangeFeed implements MeterBinder, DisposableBean {
+
+    static final String RESET = "reset";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final int retained;
+
+    private final int maxPending;
+
+    private final Duration timeout;
+
+    private final ExecutorService senders;
+
+    private final Object lock = new Object();
+
+    private final Deque<Change> recent = new ArrayDeque<>();
+
+    private long sequence;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder resets = new LongAdder();
+
+    private final LongAdder drops = new LongAdder();
+
+    private record Change(long sequence, ClinicChangeEvent event) {
+    }
+
+    /**
+     * The data of a change event, named in lower case like the rest of the API.
+     */
+    private record ChangeData(String entity, String action, int id, Integer ownerId) {
+
+        ChangeData(ClinicChangeEvent event) {
+            this(name(event.entity()), name(event.action()), event.id(), event.ownerId());
+        }
+
+        static String name(Enum<?> value) {
+            return value.name().toLowerCase(Locale.ROOT);
+        }
+
+    }
+
+    /**
+     * The changes a subscriber asked for: of the given entities, all of them if empty, and of the given owner, any
+     * owner if {@code null}. Changes without an owner, vets and changes whose owner is not known, only match when no
+     * owner is given.
+     */
+    public record Filter(Set<Entity> entities, Integer ownerId) {
+
+        boolean matches(ClinicChangeEvent event) {
+            if (!this.entities.isEmpty() && !this.entities.contains(event.entity())) {
+                return false;
+            }
+            return this.ownerId == null || this.ownerId.equals(event.ownerId());
+        }
+
+    }
+
+    @Autowired
+    public ChangeFeed(@Value("${petclinic.changes.retained:1000}") int retained,
+                      @Value("${petclinic.changes.max-pending:256}") int maxPending,
+                      @Value("${petclinic.changes.timeout:10m}") Duration timeout,
+                      @Value("${petclinic.changes.senders:4}") int senders) {
+        this(retained, maxPending, timeout, senders(senders));
+    }
+
+    ChangeFeed(int retained, int maxPending, Duration timeout, ExecutorService senders) {
+        this.retained = retained;
+        this.maxPending = maxPending;
+        this.timeout = timeout;
+        this.senders = senders;
+    }
+
+    /**
+     * A fixed number of threads, idle ones ending after a minute. Every subscription queues at most one task.
+     */
+    private static ExecutorService senders(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "change-feed-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Opens a stream of the changes matching the filter.
+     *
+     * @param lastEventId the id of the last event the client received, to resume after it, or {@code null} to
+     *                    receive the changes from now on
+     */
+    public SseEmitter subscribe(Filter filter, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(this.timeout.toMillis());
+        Subscription subscription = new Subscription(emitter, filter);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(ex -> subscription.close());
+        synchronized (this.lock) {
+            synchronized (subscription) {
+                // sends the response headers at once, without waiting for the first change
+                subscription.heartbeat();
+                if (lastEventId != null) {
+                    long after = sequenceOf(lastEventId);
+                    List<Change> missed = this.recent.stream()
+                        .filter(change -> change.sequence() > after && filter.matches(change.event()))
+                        .toList();
+                    // more missed changes than may be pending make a reset, rather than dropping the stream again
+                    if (after < this.sequence - this.recent.size() || missed.size() > this.maxPending) {
+                        subscription.reset(this.sequence);
+                    } else {
+                        missed.forEach(subscription::offer);
+                    }
+                }
+            }
+            this.subscriptions.add(subscription);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void changed(ClinicChangeEvent event) {
+        synchronized (this.lock) {
+            Change change = new Change(++this.sequence, event);
+            this.recent.addLast(change);
+            if (this.recent.size() > this.retained) {
+                this.recent.removeFirst();
+            }
+            this.subscriptions.forEach(subscription -> subscription.offer(change));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${petclinic.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        this.subscriptions.forEach(Subscription::heartbeat);
+    }
+
+    @Override
+    public void destroy() {
+        this.subscriptions.forEach(subscription -> subscription.emitter.complete());
+        this.senders.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("petclinic.changes.subscribers", this.subscriptions, Set::size)
+            .description("Open streams of the change feed")
+            .register(registry);
+        FunctionCounter.builder("petclinic.changes.resets", this.resets, LongAdder::sum)
+            .description("Streams of the change feed told to reload, having missed changes")
+            .register(registry);
+        FunctionCounter.builder("petclinic.changes.drops", this.drops, LongAdder::sum)
+            .description("Streams of the change feed closed for falling behind")
+            .register(registry);
+    }
+
+    int getSubscribers() {
+        return this.subscriptions.size();
+    }
+
+    long getResets() {
+        return this.resets.sum();
+    }
+
+    long getDrops() {
+        return this.drops.sum();
+    }
+
+    private String idOf(long sequence) {
+        return this.epoch + "-" + sequence;
+    }
+
+    /**
+     * The sequence number of an event id, or -1 if it was not issued by this run of the application.
+     */
+    private long sequenceOf(String eventId) {
+        int separator = eventId.indexOf('-');
+        if (separator < 0 || !this.epoch.equals(eventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * The changes waiting to be sent to one subscriber, sent in order by at most one sender at a time.
+     */
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+
+        private final Filter filter;
+
+        private final Deque<Change> pending = new ArrayDeque<>();
+
+        private long resetSequence = -1;
+
+        private boolean heartbeatDue;
+
+        private boolean sending;
+
+        private boolean closed;
+
+        private boolean dropped;
+
+        Subscription(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        void offer(Change change) {
+            if (!this.filter.matches(change.event())) {
+                return;
+            }
+            synchronized (this) {
+                if (this.pending.size() >= maxPending) {
+                    drop();
+                } else {
+                    this.pending.addLast(change);
+                    send();
+                }
+            }
+        }
+
+        /**
+         * Replaces the pending changes with a {@code reset} event, which covers the changes up to the given one.
+         */
+        synchronized void reset(long sequence) {
+            this.pending.clear();
+            this.resetSequence = sequence;
+            resets.increment();
+            send();
+        }
+
+        /**
+         * Closes the stream of a subscriber that fell behind. The stream is completed by a sender, once the write in
+         * progress, if any, returns.
+         */
+        private void drop() {
+            this.closed = true;
+            this.dropped = true;
+            this.pending.clear();
+            subscriptions.remove(this);
+            drops.increment();
+            if (!this.sending) {
+                this.sending = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        synchronized void heartbeat() {
+            if (!this.sending) {
+                this.heartbeatDue = true;
+                send();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                this.closed = true;
+                this.pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        private void send() {
+            if (!this.sending && !this.closed) {
+                this.sending = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    if (this.closed) {
+                        this.sending = false;
+                        if (!this.dropped) {
+                            return;
+                        }
+                        event = null;
+                    } else if (this.resetSequence >= 0) {
+                        event = SseEmitter.event().id(idOf(this.resetSequence)).name(RESET).data(RESET);
+                        this.resetSequence = -1;
+                    } else if (!this.pending.isEmpty()) {
+                        Change change = this.pending.removeFirst();
+                        ChangeData data = new ChangeData(change.event());
+                        event = SseEmitter.event().id(idOf(change.sequence())).name(data.entity())
+                            .data(data, MediaType.APPLICATION_JSON);
+                    } else if (this.heartbeatDue) {
+                        event = SseEmitter.event().comment("");
+                        this.heartbeatDue = false;
+                    } else {
+                        this.sending = false;
+                        return;
+                    }
+                }
+                if (event == null) {
+                    this.emitter.complete();
+                    return;
+                }
+                try {
+                    this.emitter.send(event);
+                } catch (IOException | IllegalStateException ex) {
+                    // the client went away, which the container reports as well, or the stream already completed
+                    close();
+                    return;
+                }
+            }
+        }
+
+    }
+
+}
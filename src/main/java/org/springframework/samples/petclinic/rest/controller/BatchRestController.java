@@ -0,0 +1,37 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.rest.api.BatchApi;
+import org.springframework.samples.petclinic.rest.batch.BatchExecutor;
+import org.springframework.samples.petclinic.rest.dto.BatchRequestDto;
+import org.springframework.samples.petclinic.rest.dto.BatchResponseDto;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Runs several API operations in one request and one transaction; see {@link BatchExecutor}.
+ * <p/>
+ * Every operation is still authorized against the roles its own endpoint requires.
+ */
+@RestController
+@CrossOrigin(exposedHeaders = "errors, content-type")
+@RequestMapping("api")
+public class BatchRestController implements BatchApi {
+
+    private final BatchExecutor batchExecutor;
+
+    public BatchRestController(BatchExecutor batchExecutor) {
+        this.batchExecutor = batchExecutor;
+    }
+
+    @PreAuthorize("hasAnyRole(@roles.OWNER_ADMIN, @roles.VET_ADMIN, @roles.ADMIN)")
+    @Override
+    public ResponseEntity<BatchResponseDto> executeBatch(BatchRequestDto batchRequestDto) {
+        BatchResponseDto batchResponseDto = this.batchExecutor.execute(batchRequestDto.getOperations());
+        return new ResponseEntity<>(batchResponseDto, HttpStatus.OK);
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import java.beans.PropertyEditorSupport;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.rest.changes.ChangeFeed;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Entity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams the changes of owners, pets, visits and vets as Server-Sent Events, see {@link ChangeFeed}.
+ * <p/>
+ * Not part of the OpenAPI contract, as the generated interfaces cannot return a stream.
+ */
+@RestController
+@CrossOrigin(exposedHeaders = "errors, content-type")
+@RequestMapping("api")
+public class ChangeRestController {
+
+    private final ChangeFeed changeFeed;
+
+    public ChangeRestController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Accepts the entity types in lower case, as they are named in the events.
+     */
+    @InitBinder
+    void initBinder(WebDataBinder binder) {
+        binder.registerCustomEditor(Entity.class, new PropertyEditorSupport() {
+            @Override
+            public void setAsText(String text) {
+                setValue(Entity.valueOf(text.trim().toUpperCase(Locale.ROOT)));
+            }
+        });
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(name = "type", required = false) Set<Entity> types,
+                                    @RequestParam(required = false) Integer ownerId,
+                                    @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        Set<Entity> entities = types != null && !types.isEmpty() ? EnumSet.copyOf(types) : EnumSet.noneOf(Entity.class);
+        return this.changeFeed.subscribe(new ChangeFeed.Filter(entities, ownerId), lastEventId);
+    }
+
+}
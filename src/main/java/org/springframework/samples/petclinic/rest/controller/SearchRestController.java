@@ -0,0 +1,40 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.mapper.SearchMapper;
+import org.springframework.samples.petclinic.rest.api.SearchApi;
+import org.springframework.samples.petclinic.rest.dto.SearchHitDto;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Searches owners, pets and visits on the in-memory index of the {@link ClinicService}.
+ */
+@RestController
+@CrossOrigin(exposedHeaders = "errors, content-type")
+@RequestMapping("api")
+public class SearchRestController implements SearchApi {
+
+    private final ClinicService clinicService;
+
+    private final SearchMapper searchMapper;
+
+    public SearchRestController(ClinicService clinicService, SearchMapper searchMapper) {
+        this.clinicService = clinicService;
+        this.searchMapper = searchMapper;
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<List<SearchHitDto>> search(String q, Integer limit) {
+        List<SearchHitDto> hits = searchMapper.toSearchHitDtos(this.clinicService.search(q, limit));
+        return new ResponseEntity<>(hits, HttpStatus.OK);
+    }
+
+}
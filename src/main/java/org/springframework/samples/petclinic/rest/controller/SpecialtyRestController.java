@@ -23,6 +23,7 @@ import org.springframework.samples.petclinic.mapper.SpecialtyMapper;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.rest.api.SpecialtiesApi;
 import org.springframework.samples.petclinic.rest.dto.SpecialtyDto;
+import org.springframework.samples.petclinic.rest.etag.EntityTags;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -31,6 +32,7 @@ import org.springframework.web.util.UriComponentsBuilder;
 import jakarta.transaction.Transactional;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * @author Vitaliy Fedoriv
@@ -64,11 +66,13 @@ public class SpecialtyRestController implements SpecialtiesApi {
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
     public ResponseEntity<SpecialtyDto> getSpecialty(Integer specialtyId) {
-        Specialty specialty = this.clinicService.findSpecialtyById(specialtyId);
-        if (specialty == null) {
+        Optional<Specialty> found = this.clinicService.findSpecialtyById(specialtyId);
+        if (found.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(specialtyMapper.toSpecialtyDto(specialty), HttpStatus.OK);
+        Specialty specialty = found.get();
+        SpecialtyDto specialtyDto = specialtyMapper.toSpecialtyDto(specialty);
+        return new ResponseEntity<>(specialtyDto, EntityTags.headers(specialty, specialtyDto), HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
@@ -83,11 +87,13 @@ public class SpecialtyRestController implements SpecialtiesApi {
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<SpecialtyDto> updateSpecialty(Integer specialtyId, SpecialtyDto specialtyDto) {
-        Specialty currentSpecialty = this.clinicService.findSpecialtyById(specialtyId);
-        if (currentSpecialty == null) {
+    public ResponseEntity<SpecialtyDto> updateSpecialty(Integer specialtyId, SpecialtyDto specialtyDto, String ifMatch) {
+        Optional<Specialty> found = this.clinicService.findSpecialtyById(specialtyId);
+        if (found.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        Specialty currentSpecialty = found.get();
+        EntityTags.checkIfMatch(ifMatch, currentSpecialty);
         currentSpecialty.setName(specialtyDto.getName());
         this.clinicService.saveSpecialty(currentSpecialty);
         return new ResponseEntity<>(specialtyMapper.toSpecialtyDto(currentSpecialty), HttpStatus.NO_CONTENT);
@@ -97,10 +103,11 @@ public class SpecialtyRestController implements SpecialtiesApi {
     @Transactional
     @Override
     public ResponseEntity<SpecialtyDto> deleteSpecialty(Integer specialtyId) {
-        Specialty specialty = this.clinicService.findSpecialtyById(specialtyId);
-        if (specialty == null) {
+        Optional<Specialty> found = this.clinicService.findSpecialtyById(specialtyId);
+        if (found.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        Specialty specialty = found.get();
         this.clinicService.deleteSpecialty(specialty);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
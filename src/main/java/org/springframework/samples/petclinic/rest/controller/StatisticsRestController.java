@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.mapper.StatisticsMapper;
+import org.springframework.samples.petclinic.rest.api.StatisticsApi;
+import org.springframework.samples.petclinic.rest.dto.ClinicStatisticsDto;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Reads the in-memory counters of the {@link ClinicService} for reporting dashboards.
+ */
+@RestController
+@CrossOrigin(exposedHeaders = "errors, content-type")
+@RequestMapping("api")
+public class StatisticsRestController implements StatisticsApi {
+
+    private final ClinicService clinicService;
+
+    private final StatisticsMapper statisticsMapper;
+
+    public StatisticsRestController(ClinicService clinicService, StatisticsMapper statisticsMapper) {
+        this.clinicService = clinicService;
+        this.statisticsMapper = statisticsMapper;
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<ClinicStatisticsDto> getStatistics() {
+        return new ResponseEntity<>(statisticsMapper.toClinicStatisticsDto(this.clinicService.getStatistics()),
+            HttpStatus.OK);
+    }
+
+}
@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.rest.api.TokensApi;
+import org.springframework.samples.petclinic.rest.dto.AccessTokenDto;
+import org.springframework.samples.petclinic.security.AccessTokenService;
+import org.springframework.samples.petclinic.security.AccessTokenService.AccessToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Issues access tokens to the users authenticated with their credentials; only available when security is enabled.
+ */
+@RestController
+@CrossOrigin(exposedHeaders = "errors, content-type")
+@RequestMapping("api")
+@ConditionalOnProperty(name = "petclinic.security.enable", havingValue = "true")
+public class TokenRestController implements TokensApi {
+
+    private final AccessTokenService accessTokenService;
+
+    public TokenRestController(AccessTokenService accessTokenService) {
+        this.accessTokenService = accessTokenService;
+    }
+
+    @Override
+    public ResponseEntity<AccessTokenDto> createToken() {
+        AccessToken token = this.accessTokenService.issue(SecurityContextHolder.getContext().getAuthentication());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .body(new AccessTokenDto(token.value(), "Bearer", this.accessTokenService.getTimeToLive().toSeconds()));
+    }
+
+}
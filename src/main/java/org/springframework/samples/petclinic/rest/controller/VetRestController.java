@@ -24,6 +24,7 @@ import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.rest.api.VetsApi;
 import org.springframework.samples.petclinic.rest.dto.VetDto;
+import org.springframework.samples.petclinic.rest.etag.EntityTags;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +33,7 @@ import org.springframework.web.util.UriComponentsBuilder;
 import jakarta.transaction.Transactional;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -66,11 +68,13 @@ public class VetRestController implements VetsApi {
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
     public ResponseEntity<VetDto> getVet(Integer vetId)  {
-        Vet vet = this.clinicService.findVetById(vetId);
-        if (vet == null) {
+        Optional<Vet> found = this.clinicService.findVetById(vetId);
+        if (found.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(vetMapper.toVetDto(vet), HttpStatus.OK);
+        Vet vet = found.get();
+        VetDto vetDto = vetMapper.toVetDto(vet);
+        return new ResponseEntity<>(vetDto, EntityTags.headers(vet, vetDto), HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
@@ -89,11 +93,13 @@ public class VetRestController implements VetsApi {
 
     @PreAuthorize("hasRole(@roles.VET_ADMIN)")
     @Override
-    public ResponseEntity<VetDto> updateVet(Integer vetId,VetDto vetDto)  {
-        Vet currentVet = this.clinicService.findVetById(vetId);
-        if (currentVet == null) {
+    public ResponseEntity<VetDto> updateVet(Integer vetId, VetDto vetDto, String ifMatch) {
+        Optional<Vet> found = this.clinicService.findVetById(vetId);
+        if (found.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        Vet currentVet = found.get();
+        EntityTags.checkIfMatch(ifMatch, currentVet);
         currentVet.setFirstName(vetDto.getFirstName());
         currentVet.setLastName(vetDto.getLastName());
         currentVet.clearSpecialties();
@@ -112,10 +118,11 @@ public class VetRestController implements VetsApi {
     @Transactional
     @Override
     public ResponseEntity<VetDto> deleteVet(Integer vetId) {
-        Vet vet = this.clinicService.findVetById(vetId);
-        if (vet == null) {
+        Optional<Vet> found = this.clinicService.findVetById(vetId);
+        if (found.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        Vet vet = found.get();
         this.clinicService.deleteVet(vet);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
@@ -24,14 +24,17 @@ import org.springframework.samples.petclinic.model.Visit;
 import org.springframework.samples.petclinic.rest.api.VisitsApi;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.rest.dto.VisitFieldsDto;
+import org.springframework.samples.petclinic.rest.dto.VisitPatchDto;
+import org.springframework.samples.petclinic.rest.etag.EntityTags;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import jakarta.transaction.Transactional;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * @author Vitaliy Fedoriv
@@ -54,8 +57,16 @@ public class VisitRestController implements VisitsApi {
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<List<VisitDto>> listVisits() {
-        List<Visit> visits = new ArrayList<>(this.clinicService.findAllVisits());
+    public ResponseEntity<List<VisitDto>> listVisits(Integer petId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<Visit> visits;
+        if (petId == null && from == null && to == null) {
+            visits = new ArrayList<>(this.clinicService.findAllVisits());
+        } else {
+            visits = new ArrayList<>(this.clinicService.findVisitsByDateBetween(petId, from, to));
+        }
         if (visits.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -65,11 +76,13 @@ public class VisitRestController implements VisitsApi {
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
     public ResponseEntity<VisitDto> getVisit( Integer visitId) {
-        Visit visit = this.clinicService.findVisitById(visitId);
-        if (visit == null) {
+        Optional<Visit> found = this.clinicService.findVisitById(visitId);
+        if (found.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        return new ResponseEntity<>(visitMapper.toVisitDto(visit), HttpStatus.OK);
+        Visit visit = found.get();
+        VisitDto visitDto = visitMapper.toVisitDto(visit);
+        return new ResponseEntity<>(visitDto, EntityTags.headers(visit, visitDto), HttpStatus.OK);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
@@ -85,26 +98,32 @@ public class VisitRestController implements VisitsApi {
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
     @Override
-    public ResponseEntity<VisitDto> updateVisit(Integer visitId, VisitFieldsDto visitDto) {
-        Visit currentVisit = this.clinicService.findVisitById(visitId);
-        if (currentVisit == null) {
+    public ResponseEntity<VisitDto> updateVisit(Integer visitId, VisitFieldsDto visitDto, String ifMatch) {
+        Visit visit = visitMapper.toVisit(visitDto);
+        visit.setId(visitId);
+        if (!this.clinicService.updateVisitFields(visit, EntityTags.ifMatchVersion(ifMatch))) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        currentVisit.setDate(visitDto.getDate());
-        currentVisit.setDescription(visitDto.getDescription());
-        this.clinicService.saveVisit(currentVisit);
-        return new ResponseEntity<>(visitMapper.toVisitDto(currentVisit), HttpStatus.NO_CONTENT);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
+    @Override
+    public ResponseEntity<Void> patchVisit(Integer visitId, VisitPatchDto visitPatchDto, String ifMatch) {
+        Visit visit = visitMapper.toVisit(visitPatchDto);
+        visit.setId(visitId);
+        if (!this.clinicService.updateVisitFields(visit, EntityTags.ifMatchVersion(ifMatch))) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @PreAuthorize("hasRole(@roles.OWNER_ADMIN)")
-    @Transactional
     @Override
     public ResponseEntity<VisitDto> deleteVisit(Integer visitId) {
-        Visit visit = this.clinicService.findVisitById(visitId);
-        if (visit == null) {
+        if (!this.clinicService.deleteVisitById(visitId)) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        this.clinicService.deleteVisit(visit);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -0,0 +1,106 @@
+package org.springframework.samples.petclinic.rest.etag;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * ETags of single entities, which end with the entity version so that the tag returned by a GET can be sent back in
+ * the {@code If-Match} header of an update.
+ * <p/>
+ * The part before the version tells representations apart for {@code If-None-Match}: the generation prefix set by
+ * the {@link GenerationEtagInterceptor}, which also covers changes to embedded entities (the pets of an owner, the
+ * specialties of a vet), or without it a SHA-256 digest of the representation.
+ */
+public final class EntityTags {
+
+    private static final Pattern VERSION = Pattern.compile("^\"[^\"]*-v(\\d+)\"$");
+
+    private EntityTags() {
+    }
+
+    /**
+     * Response headers carrying the ETag of the entity, for a GET of the given representation of it.
+     */
+    public static HttpHeaders headers(BaseEntity entity, Object representation) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(of(entity, representation));
+        return headers;
+    }
+
+    static String of(BaseEntity entity, Object representation) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object prefix = attributes != null
+            ? attributes.getAttribute(GenerationEtagInterceptor.TAG_PREFIX_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+            : null;
+        if (prefix == null) {
+            prefix = "h" + digest(representation);
+        }
+        return "\"" + prefix + "-v" + entity.getVersion() + "\"";
+    }
+
+    /**
+     * Digest of the representation as printed by its {@code toString}, which the generated DTOs build from all their
+     * fields.
+     */
+    private static String digest(Object representation) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(representation.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Checks the {@code If-Match} header of an update against the entity as read for it, and makes the update
+     * conditional on the version named by the tag.
+     *
+     * @param ifMatch the header value, {@code null} or {@code *} for an unconditional update
+     * @throws PreconditionFailedException if the tag is not an entity tag or names another version
+     */
+    public static void checkIfMatch(String ifMatch, BaseEntity entity) {
+        Integer version = ifMatchVersion(ifMatch);
+        if (version != null && version != entity.getVersion()) {
+            throw new PreconditionFailedException("Version " + version + " is not current, the resource is at version "
+                + entity.getVersion());
+        }
+    }
+
+    /**
+     * The version named by the {@code If-Match} header of an update that is written without reading the entity; the
+     * update itself is then conditional on it.
+     *
+     * @param ifMatch the header value, {@code null} or {@code *} for an unconditional update
+     * @return the version, or {@code null} for an unconditional update
+     * @throws PreconditionFailedException if the tag is not an entity tag
+     */
+    public static Integer ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        return version(ifMatch);
+    }
+
+    static int version(String ifMatch) {
+        Matcher matcher = VERSION.matcher(ifMatch.trim());
+        if (!matcher.matches()) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " is not an entity tag of this API");
+        }
+        try {
+            return Integer.parseInt(matcher.group(1));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " is not an entity tag of this API");
+        }
+    }
+
+}
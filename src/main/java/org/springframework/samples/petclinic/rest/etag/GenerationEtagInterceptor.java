@@ -0,0 +1,119 @@
+package org.springframework.samples.petclinic.rest.etag;
+
+import java.util.Collections;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.samples.petclinic.service.ModificationTracker;
+import org.springframework.samples.petclinic.service.ModificationTracker.Resource;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Answers conditional GET requests from the {@link ModificationTracker} generations, before anything is loaded.
+ * <p/>
+ * Every representation of a resource group is tagged with the startup epoch and the generation of the group, so a
+ * matching {@code If-None-Match} is answered with {@code 304 Not Modified} without touching the database. Single
+ * entities append their version to that prefix (see {@link EntityTags}), which the client's tag already carries, so
+ * any tag with the current prefix matches. The tag is set before the controller runs, which keeps the
+ * {@link ShallowEtagHeaderFilter} from hashing the body of these responses; operations not listed here still get a
+ * tag from that filter. Every API GET is marked {@code Cache-Control: private, no-cache}, i.e. clients may keep the
+ * response but must revalidate it.
+ */
+public class GenerationEtagInterceptor implements HandlerInterceptor {
+
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    /**
+     * Request attribute holding the generation prefix for the tag of a single entity.
+     */
+    static final String TAG_PREFIX_ATTRIBUTE = GenerationEtagInterceptor.class.getName() + ".TAG_PREFIX";
+
+    private static final Map<String, Resource> COLLECTIONS = Map.of(
+        "/api/owners", Resource.OWNERS,
+        "/api/pets", Resource.OWNERS,
+        "/api/visits", Resource.OWNERS,
+        "/api/search", Resource.OWNERS,
+        "/api/owners/autocomplete", Resource.OWNERS,
+        "/api/owners/overview", Resource.OWNERS,
+        "/api/statistics", Resource.OWNERS,
+        "/api/vets", Resource.VETS,
+        "/api/specialties", Resource.SPECIALTIES,
+        "/api/pettypes", Resource.PET_TYPES);
+
+    private static final Map<String, Resource> ENTITIES = Map.of(
+        "/api/owners/{ownerId}", Resource.OWNERS,
+        "/api/owners/{ownerId}/pets/{petId}", Resource.OWNERS,
+        "/api/pets/{petId}", Resource.OWNERS,
+        "/api/visits/{visitId}", Resource.OWNERS,
+        "/api/vets/{vetId}", Resource.VETS,
+        "/api/specialties/{specialtyId}", Resource.SPECIALTIES,
+        "/api/pettypes/{petTypeId}", Resource.PET_TYPES);
+
+    private final ModificationTracker modificationTracker;
+
+    private final boolean generationsEnabled;
+
+    public GenerationEtagInterceptor(ModificationTracker modificationTracker, boolean generationsEnabled) {
+        this.modificationTracker = modificationTracker;
+        this.generationsEnabled = generationsEnabled;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (!this.generationsEnabled) {
+            return true;
+        }
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Resource collection = COLLECTIONS.get(pattern);
+        if (collection != null) {
+            String etag = "\"" + prefix(collection) + "\"";
+            // sets the ETag header, and the status to 304 if it matches
+            return !new ServletWebRequest(request, response).checkNotModified(etag);
+        }
+        Resource entity = ENTITIES.get(pattern);
+        if (entity != null) {
+            String prefix = prefix(entity);
+            String etag = matchingEntityTag(request, "\"" + prefix + "-v");
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, etag);
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return false;
+            }
+            request.setAttribute(TAG_PREFIX_ATTRIBUTE, prefix);
+        }
+        return true;
+    }
+
+    String prefix(Resource resource) {
+        return resource.name().toLowerCase() + "-" + Long.toString(this.modificationTracker.getEpoch(), 36)
+            + "-" + this.modificationTracker.getGeneration(resource);
+    }
+
+    private static String matchingEntityTag(HttpServletRequest request, String prefix) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH))) {
+            for (String tag : header.split(",")) {
+                tag = tag.trim();
+                // If-None-Match uses the weak comparison
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.startsWith(prefix) && tag.endsWith("\"")) {
+                    return tag;
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,13 @@
+package org.springframework.samples.petclinic.rest.etag;
+
+/**
+ * Thrown when the {@code If-Match} tag of an update does not name the current version of the resource. Rendered as
+ * {@code 412 Precondition Failed}.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
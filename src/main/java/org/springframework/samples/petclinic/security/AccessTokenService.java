@@ -0,0 +1,142 @@
+package org.springframework.samples.petclinic.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+/**
+ * Issues and verifies short-lived access tokens carrying the name and the roles of a user, signed with HMAC-SHA256.
+ * <p/>
+ * A token is a JSON Web Token with the {@code HS256} algorithm: verifying it only takes the secret, so no lookup and
+ * no shared session state is needed, and every instance configured with the same secret accepts the tokens of the
+ * others. The flip side is that a token keeps the roles it was issued with until it expires, even if the user is
+ * changed or disabled in between.
+ */
+public class AccessTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final String HEADER = encode("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final int MINIMUM_SECRET_LENGTH = 32;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SecretKeySpec key;
+
+    private final Duration timeToLive;
+
+    private final Clock clock;
+
+    /**
+     * A token issued for an authenticated user, and the instant it expires.
+     */
+    public record AccessToken(String value, Instant expiresAt) {
+    }
+
+    public AccessTokenService(byte[] secret, Duration timeToLive) {
+        this(secret, timeToLive, Clock.systemUTC());
+    }
+
+    AccessTokenService(byte[] secret, Duration timeToLive, Clock clock) {
+        if (secret.length < MINIMUM_SECRET_LENGTH) {
+            throw new IllegalArgumentException(
+                "The token secret must be at least " + MINIMUM_SECRET_LENGTH + " bytes long");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    public Duration getTimeToLive() {
+        return this.timeToLive;
+    }
+
+    public AccessToken issue(Authentication authentication) {
+        Instant now = this.clock.instant();
+        Instant expiresAt = now.plus(this.timeToLive);
+        Map<String, Object> claims = Map.of(
+            "sub", authentication.getName(),
+            "roles", AuthorityUtils.authorityListToSet(authentication.getAuthorities()),
+            "iat", now.getEpochSecond(),
+            "exp", expiresAt.getEpochSecond());
+        try {
+            String signed = HEADER + "." + encode(this.objectMapper.writeValueAsBytes(claims));
+            return new AccessToken(signed + "." + encode(sign(signed)), expiresAt);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not write the token claims", ex);
+        }
+    }
+
+    /**
+     * Returns the authentication carried by the given token.
+     *
+     * @throws BadCredentialsException if the token is malformed or its signature is not ours
+     * @throws CredentialsExpiredException if the token has expired
+     */
+    public BearerTokenAuthentication verify(String token) {
+        int payloadStart = token.indexOf('.');
+        int signatureStart = token.lastIndexOf('.');
+        if (payloadStart < 0 || signatureStart == payloadStart
+            || !HEADER.equals(token.substring(0, payloadStart))) {
+            throw new BadCredentialsException("Malformed access token");
+        }
+        String signed = token.substring(0, signatureStart);
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(signatureStart + 1));
+        } catch (IllegalArgumentException ex) {
+            throw new BadCredentialsException("Malformed access token");
+        }
+        if (!MessageDigest.isEqual(sign(signed), signature)) {
+            throw new BadCredentialsException("Invalid access token signature");
+        }
+        JsonNode claims;
+        try {
+            claims = this.objectMapper.readTree(Base64.getUrlDecoder().decode(signed.substring(payloadStart + 1)));
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new BadCredentialsException("Malformed access token");
+        }
+        Instant expiresAt = Instant.ofEpochSecond(claims.path("exp").asLong());
+        if (!this.clock.instant().isBefore(expiresAt)) {
+            throw new CredentialsExpiredException("Access token expired at " + expiresAt);
+        }
+        List<GrantedAuthority> roles = AuthorityUtils.createAuthorityList(
+            this.objectMapper.convertValue(claims.path("roles"), String[].class));
+        return new BearerTokenAuthentication(claims.path("sub").asText(), roles, expiresAt);
+    }
+
+    private byte[] sign(String signed) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(this.key);
+            return mac.doFinal(signed.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException | InvalidKeyException ex) {
+            throw new IllegalStateException("Could not sign the access token", ex);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+}
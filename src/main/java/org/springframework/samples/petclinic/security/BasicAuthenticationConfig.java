@@ -1,25 +1,53 @@
 package org.springframework.samples.petclinic.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.jdbc.JdbcDaoImpl;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import javax.sql.DataSource;
 
+/**
+ * Basic authentication against the {@code users} and {@code roles} tables.
+ * <p/>
+ * Unless {@code petclinic.security.authentication-cache.enabled=false}, successful authentications are remembered
+ * by a {@link CachingAuthenticationProvider} for {@code petclinic.security.authentication-cache.time-to-live}
+ * (1 minute by default), up to {@code petclinic.security.authentication-cache.maximum-size} entries (1000 by
+ * default).
+ * <p/>
+ * {@code POST /api/tokens} exchanges Basic credentials for an {@link AccessTokenService access token}, valid for
+ * {@code petclinic.security.token.time-to-live} (15 minutes by default), that later requests send as a
+ * {@code Bearer} token instead. Instances sharing {@code petclinic.security.token.secret} accept each other's tokens;
+ * without it, a random secret is generated and the tokens are lost on restart.
+ */
 @Configuration
 @EnableMethodSecurity(prePostEnabled = true) // Enable @PreAuthorize method-level security
 @ConditionalOnProperty(name = "petclinic.security.enable", havingValue = "true")
 public class BasicAuthenticationConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(BasicAuthenticationConfig.class);
+
     @Autowired
     private DataSource dataSource;
 
@@ -28,28 +56,58 @@ public class BasicAuthenticationConfig {
         return new BCryptPasswordEncoder();
     }
 
+    @Bean
+    @ConditionalOnProperty(name = "petclinic.security.authentication-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CachingAuthenticationProvider cachingAuthenticationProvider(
+        @Value("${petclinic.security.authentication-cache.time-to-live:PT1M}") Duration timeToLive,
+        @Value("${petclinic.security.authentication-cache.maximum-size:1000}") int maximumSize) {
+        return new CachingAuthenticationProvider(jdbcAuthenticationProvider(), timeToLive, maximumSize);
+    }
 
+    @Bean
+    @ConditionalOnProperty(name = "petclinic.security.authentication-cache.enabled", havingValue = "false")
+    public DaoAuthenticationProvider authenticationProvider() {
+        return jdbcAuthenticationProvider();
+    }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public AccessTokenService accessTokenService(
+        @Value("${petclinic.security.token.secret:}") String secret,
+        @Value("${petclinic.security.token.time-to-live:PT15M}") Duration timeToLive) {
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (secret.isEmpty()) {
+            logger.warn("petclinic.security.token.secret is not set: access tokens are signed with a random secret, "
+                + "so they are only accepted by this instance and until it restarts");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        }
+        return new AccessTokenService(key, timeToLive);
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, AccessTokenService accessTokenService) throws Exception {
         // @formatter:off
         http
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests((authz) -> authz
+                // a token is only issued for credentials, not in exchange for another token
+                .requestMatchers(HttpMethod.POST, "/api/tokens").access((authentication, context) ->
+                    new AuthorizationDecision(authentication.get() instanceof UsernamePasswordAuthenticationToken
+                        && authentication.get().isAuthenticated()))
                 .anyRequest().authenticated())
-                .httpBasic(Customizer.withDefaults());
+                .httpBasic(Customizer.withDefaults())
+            .addFilterBefore(new BearerTokenAuthenticationFilter(accessTokenService), BasicAuthenticationFilter.class);
         // @formatter:on
         return http.build();
     }
 
-    @Autowired
-    public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-        // @formatter:off
-        auth
-            .jdbcAuthentication()
-                .dataSource(dataSource)
-                .usersByUsernameQuery("select username,password,enabled from users where username=?")
-                .authoritiesByUsernameQuery("select username,role from roles where username=?");
-        // @formatter:on
+    private DaoAuthenticationProvider jdbcAuthenticationProvider() {
+        JdbcDaoImpl users = new JdbcDaoImpl();
+        users.setDataSource(dataSource);
+        users.setUsersByUsernameQuery("select username,password,enabled from users where username=?");
+        users.setAuthoritiesByUsernameQuery("select username,role from roles where username=?");
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(users);
+        provider.setPasswordEncoder(passwordEncoder());
+        return provider;
     }
 }
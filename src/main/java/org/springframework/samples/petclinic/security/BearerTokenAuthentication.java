@@ -0,0 +1,40 @@
+package org.springframework.samples.petclinic.security;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * A user authenticated by a verified access token of the {@link AccessTokenService}.
+ */
+public class BearerTokenAuthentication extends AbstractAuthenticationToken {
+
+    private final String username;
+
+    private final Instant expiresAt;
+
+    public BearerTokenAuthentication(String username, Collection<? extends GrantedAuthority> authorities,
+                                     Instant expiresAt) {
+        super(authorities);
+        this.username = username;
+        this.expiresAt = expiresAt;
+        setAuthenticated(true);
+    }
+
+    public Instant getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return this.username;
+    }
+
+}
@@ -0,0 +1,193 @@
+package org.springframework.samples.petclinic.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.samples.petclinic.service.UserSavedEvent;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Remembers the successful username/password authentications of another {@link AuthenticationProvider} for a while,
+ * so that the repeated Basic credentials of a client are not looked up and BCrypt-checked on every request.
+ * <p/>
+ * Entries are keyed by a salted SHA-256 digest of the credentials, never by the password itself, and only successful
+ * authentications are cached: a wrong password always reaches the delegate. An entry expires after its time to live,
+ * the least recently used entry is evicted once the cache is full, and the entries of a user are dropped when
+ * {@link UserSavedEvent} reports, after commit, that its password, enabled flag or roles may have changed. Changes
+ * made directly in the database are only seen once the entries expire.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider, MeterBinder {
+
+    private record Entry(String username, Object principal, Collection<? extends GrantedAuthority> authorities,
+                         long expiresAt) {
+    }
+
+    private final AuthenticationProvider delegate;
+
+    private final long timeToLiveNanos;
+
+    private final int maximumSize;
+
+    private final LongSupplier nanoClock;
+
+    private final byte[] salt = new byte[16];
+
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Incremented by every invalidation, so that an authentication that started before it is not cached after it.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration timeToLive, int maximumSize) {
+        this(delegate, timeToLive, maximumSize, System::nanoTime);
+    }
+
+    CachingAuthenticationProvider(AuthenticationProvider delegate, Duration timeToLive, int maximumSize,
+                                  LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.maximumSize = maximumSize;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CachingAuthenticationProvider.this.maximumSize) {
+                    CachingAuthenticationProvider.this.evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        new SecureRandom().nextBytes(this.salt);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+            || !(authentication.getCredentials() instanceof String password)) {
+            return this.delegate.authenticate(authentication);
+        }
+        String key = digest(authentication.getName(), password);
+        Entry entry = get(key);
+        if (entry != null) {
+            this.hits.incrementAndGet();
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                entry.principal(), null, entry.authorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+        this.misses.incrementAndGet();
+        long invalidation = this.invalidations.get();
+        Authentication result = this.delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            put(key, new Entry(authentication.getName(), result.getPrincipal(), result.getAuthorities(),
+                this.nanoClock.getAsLong() + this.timeToLiveNanos), invalidation);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return this.delegate.supports(authentication);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void userSaved(UserSavedEvent event) {
+        invalidate(event.username());
+    }
+
+    /**
+     * Drops the cached authentications of the given user.
+     */
+    public synchronized void invalidate(String username) {
+        this.invalidations.incrementAndGet();
+        this.entries.values().removeIf(entry -> entry.username().equals(username));
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("petclinic.authentication.cache.requests", this.hits, AtomicLong::get)
+            .tag("result", "hit")
+            .description("Authentications answered from the cache")
+            .register(registry);
+        FunctionCounter.builder("petclinic.authentication.cache.requests", this.misses, AtomicLong::get)
+            .tag("result", "miss")
+            .description("Authentications delegated to the user lookup and password check")
+            .register(registry);
+        FunctionCounter.builder("petclinic.authentication.cache.evictions", this.evictions, AtomicLong::get)
+            .description("Cached authentications evicted because the cache was full")
+            .register(registry);
+        FunctionCounter.builder("petclinic.authentication.cache.invalidations", this.invalidations, AtomicLong::get)
+            .description("Users whose cached authentications were dropped after a change")
+            .register(registry);
+        Gauge.builder("petclinic.authentication.cache.size", this, CachingAuthenticationProvider::size)
+            .description("Cached authentications")
+            .register(registry);
+    }
+
+    long getHits() {
+        return this.hits.get();
+    }
+
+    long getMisses() {
+        return this.misses.get();
+    }
+
+    private synchronized Entry get(String key) {
+        Entry entry = this.entries.get(key);
+        if (entry != null && this.nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+            this.entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(String key, Entry entry, long invalidation) {
+        if (this.invalidations.get() == invalidation) {
+            this.entries.put(key, entry);
+        }
+    }
+
+    private String digest(String username, String password) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(this.salt);
+            digest.update(username.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package org.springframework.samples.petclinic.service;
+
+/**
+ * Published by {@link ClinicService} for every owner, pet, visit and vet it creates, updates or deletes. Deleting an
+ * owner deletes its pets and visits as well, which is only reported by the event of the owner.
+ *
+ * @param entity  the kind of the changed entity
+ * @param action  what happened to it
+ * @param id      the id of the changed entity
+ * @param ownerId the owner of the changed owner, pet or visit, or {@code null} if not known or a vet changed
+ */
+public record ClinicChangeEvent(Entity entity, Action action, int id, Integer ownerId) {
+
+    public enum Entity {
+        OWNER, PET, VISIT, VET
+    }
+
+    public enum Action {
+        CREATED, UPDATED, DELETED
+    }
+
+}
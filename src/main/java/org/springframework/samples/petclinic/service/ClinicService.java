@@ -15,17 +15,23 @@
  */
 package org.springframework.samples.petclinic.service;
 
+import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
 import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.model.PetType;
 import org.springframework.samples.petclinic.model.Specialty;
 import org.springframework.samples.petclinic.model.Vet;
 import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.service.search.OwnerName;
+import org.springframework.samples.petclinic.service.search.SearchHit;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics;
 
 /**
  * Mostly used as a facade so all controllers have a single point of entry
@@ -35,36 +41,77 @@ import org.springframework.samples.petclinic.model.Visit;
  */
 public interface ClinicService {
 
-	Pet findPetById(int id) throws DataAccessException;
+	Optional<Pet> findPetById(int id) throws DataAccessException;
 	Collection<Pet> findAllPets() throws DataAccessException;
 	void savePet(Pet pet) throws DataAccessException;
+	boolean updatePetFields(Pet pet, Integer ownerId, Integer version) throws DataAccessException;
 	void deletePet(Pet pet) throws DataAccessException;
+	boolean deletePetById(int id) throws DataAccessException;
+	boolean existsPetOfOwner(int petId, int ownerId) throws DataAccessException;
 
 	Collection<Visit> findVisitsByPetId(int petId);
-	Visit findVisitById(int visitId) throws DataAccessException;
+	Optional<Visit> findVisitById(int visitId) throws DataAccessException;
 	Collection<Visit> findAllVisits() throws DataAccessException;
+
+	/**
+	 * Finds the visits of a pet, or of all pets if <code>petId</code> is <code>null</code>, made between two dates,
+	 * both included, ordered by date; a <code>null</code> date leaves the range open on that side.
+	 */
+	Collection<Visit> findVisitsByDateBetween(Integer petId, LocalDate from, LocalDate to) throws DataAccessException;
 	void saveVisit(Visit visit) throws DataAccessException;
+	void insertVisits(List<Visit> visits) throws DataAccessException;
+	boolean updateVisitFields(Visit visit, Integer version) throws DataAccessException;
 	void deleteVisit(Visit visit) throws DataAccessException;
-	Vet findVetById(int id) throws DataAccessException;
+	boolean deleteVisitById(int id) throws DataAccessException;
+	Optional<Vet> findVetById(int id) throws DataAccessException;
 	Collection<Vet> findVets() throws DataAccessException;
 	Collection<Vet> findAllVets() throws DataAccessException;
 	void saveVet(Vet vet) throws DataAccessException;
 	void deleteVet(Vet vet) throws DataAccessException;
-	Owner findOwnerById(int id) throws DataAccessException;
+	Optional<Owner> findOwnerById(int id) throws DataAccessException;
 	Collection<Owner> findAllOwners() throws DataAccessException;
 	void saveOwner(Owner owner) throws DataAccessException;
+	boolean updateOwnerFields(Owner owner, Integer version) throws DataAccessException;
 	void deleteOwner(Owner owner) throws DataAccessException;
+	boolean deleteOwnerById(int id) throws DataAccessException;
 	Collection<Owner> findOwnerByLastName(String lastName) throws DataAccessException;
 
-	PetType findPetTypeById(int petTypeId);
+	/**
+	 * Finds the summaries of the owners whose last name starts with <code>lastName</code>, or of all owners if it is
+	 * <code>null</code>, by last name. The summaries are kept up to date by every change of an owner, pet or visit.
+	 */
+	Collection<OwnerSummary> findOwnerSummaries(String lastName) throws DataAccessException;
+
+	/**
+	 * Computes the summaries of all owners again, e.g. after the owners, pets or visits were changed directly in the
+	 * database.
+	 */
+	void rebuildOwnerSummaries() throws DataAccessException;
+
+	Optional<PetType> findPetTypeById(int petTypeId);
 	Collection<PetType> findAllPetTypes() throws DataAccessException;
 	Collection<PetType> findPetTypes() throws DataAccessException;
 	void savePetType(PetType petType) throws DataAccessException;
 	void deletePetType(PetType petType) throws DataAccessException;
-	Specialty findSpecialtyById(int specialtyId);
+	Optional<Specialty> findSpecialtyById(int specialtyId);
 	Collection<Specialty> findAllSpecialties() throws DataAccessException;
 	void saveSpecialty(Specialty specialty) throws DataAccessException;
 	void deleteSpecialty(Specialty specialty) throws DataAccessException;
 
     List<Specialty> findSpecialtiesByNameIn(Set<String> names) throws DataAccessException;
+
+	/**
+	 * Searches owners, pets and visits in memory, without querying the database.
+	 */
+	List<SearchHit> search(String query, int limit);
+
+	/**
+	 * Lists the owners whose last name starts with the prefix, in memory, without querying the database.
+	 */
+	List<OwnerName> completeOwnerLastName(String prefix, int limit);
+
+	/**
+	 * Counts owners, pets and visits in memory, without querying the database.
+	 */
+	ClinicStatistics getStatistics();
 }
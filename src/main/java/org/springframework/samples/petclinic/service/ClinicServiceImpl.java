@@ -15,35 +15,61 @@
  */
 package org.springframework.samples.petclinic.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
-import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.orm.ObjectRetrievalFailureException;
 import org.springframework.samples.petclinic.model.*;
 import org.springframework.samples.petclinic.repository.*;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Action;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Entity;
+import org.springframework.samples.petclinic.service.ModificationTracker.Resource;
+import org.springframework.samples.petclinic.service.search.OwnerName;
+import org.springframework.samples.petclinic.service.search.SearchHit;
+import org.springframework.samples.petclinic.service.search.SearchIndex;
+import org.springframework.samples.petclinic.service.singleflight.SingleFlight;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics;
+import org.springframework.samples.petclinic.service.statistics.StatisticsCounters;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.function.Supplier;
 
 /**
  * Mostly used as a facade for all Petclinic controllers
  * Also a placeholder for @Transactional and @Cacheable annotations
  *
+ * The search index, the statistics and the {@link ModificationTracker} are all updated after commit, in the order
+ * their updates are registered. A write registers the new generation last, so that a client tagging a response with
+ * it also gets the new index and statistics.
+ *
  * @author Michael Isvy
  * @author Vitaliy Fedoriv
  */
 @Service
 public class ClinicServiceImpl implements ClinicService {
 
+    /**
+     * The bounds of an open date range, within the range of the DATE type of every supported database.
+     */
+    private static final LocalDate FIRST_DATE = LocalDate.of(1000, 1, 1);
+
+    private static final LocalDate LAST_DATE = LocalDate.of(9999, 12, 31);
+
     private final PetRepository petRepository;
     private final VetRepository vetRepository;
     private final OwnerRepository ownerRepository;
     private final VisitRepository visitRepository;
     private final SpecialtyRepository specialtyRepository;
     private final PetTypeRepository petTypeRepository;
+    private final OwnerSummaryRepository ownerSummaryRepository;
+    private final ModificationTracker modificationTracker;
+    private final SearchIndex searchIndex;
+    private final StatisticsCounters statistics;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ClinicServiceImpl(
         PetRepository petRepository,
@@ -51,13 +77,23 @@ public class ClinicServiceImpl implements ClinicService {
         OwnerRepository ownerRepository,
         VisitRepository visitRepository,
         SpecialtyRepository specialtyRepository,
-        PetTypeRepository petTypeRepository) {
+        PetTypeRepository petTypeRepository,
+        OwnerSummaryRepository ownerSummaryRepository,
+        ModificationTracker modificationTracker,
+        SearchIndex searchIndex,
+        StatisticsCounters statistics,
+        ApplicationEventPublisher eventPublisher) {
         this.petRepository = petRepository;
         this.vetRepository = vetRepository;
         this.ownerRepository = ownerRepository;
         this.visitRepository = visitRepository;
         this.specialtyRepository = specialtyRepository;
         this.petTypeRepository = petTypeRepository;
+        this.ownerSummaryRepository = ownerSummaryRepository;
+        this.modificationTracker = modificationTracker;
+        this.searchIndex = searchIndex;
+        this.statistics = statistics;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -69,13 +105,41 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional
     public void deletePet(Pet pet) throws DataAccessException {
+        Integer ownerId = ownerIdOf(pet);
+        statistics.ownersChanging(Collections.singleton(ownerId));
         petRepository.delete(pet);
+        refreshSummary(ownerId);
+        searchIndex.remove(SearchHit.Type.PET, pet.getId());
+        modificationTracker.modified(Resource.OWNERS);
+        changed(Entity.PET, Action.DELETED, pet.getId(), ownerId);
+    }
+
+    @Override
+    @Transactional
+    public boolean deletePetById(int id) throws DataAccessException {
+        Integer ownerId = ownerSummaryRepository.findOwnerIdByPetId(id).orElse(null);
+        statistics.ownersChanging(Collections.singleton(ownerId));
+        boolean deleted = petRepository.deleteById(id);
+        if (deleted) {
+            refreshSummary(ownerId);
+            searchIndex.remove(SearchHit.Type.PET, id);
+            modificationTracker.modified(Resource.OWNERS);
+            changed(Entity.PET, Action.DELETED, id, ownerId);
+        }
+        return deleted;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Visit findVisitById(int visitId) throws DataAccessException {
-        return findEntityById(() -> visitRepository.findById(visitId));
+    public boolean existsPetOfOwner(int petId, int ownerId) throws DataAccessException {
+        return petRepository.existsByIdAndOwnerId(petId, ownerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SingleFlight
+    public Optional<Visit> findVisitById(int visitId) throws DataAccessException {
+        return visitRepository.findById(visitId);
     }
 
     @Override
@@ -84,20 +148,53 @@ public class ClinicServiceImpl implements ClinicService {
         return visitRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<Visit> findVisitsByDateBetween(Integer petId, LocalDate from, LocalDate to) throws DataAccessException {
+        LocalDate first = from != null ? from : FIRST_DATE;
+        LocalDate last = to != null ? to : LAST_DATE;
+        if (petId == null) {
+            return visitRepository.findByDateBetween(first, last);
+        }
+        return visitRepository.findByPetIdAndDateBetween(petId, first, last);
+    }
+
     @Override
     @Transactional
     public void deleteVisit(Visit visit) throws DataAccessException {
+        Integer ownerId = ownerIdOf(visit);
+        statistics.ownersChanging(Collections.singleton(ownerId));
         visitRepository.delete(visit);
+        refreshSummary(ownerId);
+        searchIndex.remove(SearchHit.Type.VISIT, visit.getId());
+        modificationTracker.modified(Resource.OWNERS);
+        changed(Entity.VISIT, Action.DELETED, visit.getId(), ownerId);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteVisitById(int id) throws DataAccessException {
+        Integer ownerId = ownerSummaryRepository.findOwnerIdByVisitId(id).orElse(null);
+        statistics.ownersChanging(Collections.singleton(ownerId));
+        boolean deleted = visitRepository.deleteById(id);
+        if (deleted) {
+            refreshSummary(ownerId);
+            searchIndex.remove(SearchHit.Type.VISIT, id);
+            modificationTracker.modified(Resource.OWNERS);
+            changed(Entity.VISIT, Action.DELETED, id, ownerId);
+        }
+        return deleted;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Vet findVetById(int id) throws DataAccessException {
-        return findEntityById(() -> vetRepository.findById(id));
+    public Optional<Vet> findVetById(int id) throws DataAccessException {
+        return vetRepository.findById(id);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @SingleFlight
     public Collection<Vet> findAllVets() throws DataAccessException {
         return vetRepository.findAll();
     }
@@ -105,13 +202,18 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional
     public void saveVet(Vet vet) throws DataAccessException {
+        Action action = vet.isNew() ? Action.CREATED : Action.UPDATED;
         vetRepository.save(vet);
+        modificationTracker.modified(Resource.VETS);
+        changed(Entity.VET, action, vet.getId(), null);
     }
 
     @Override
     @Transactional
     public void deleteVet(Vet vet) throws DataAccessException {
         vetRepository.delete(vet);
+        modificationTracker.modified(Resource.VETS);
+        changed(Entity.VET, Action.DELETED, vet.getId(), null);
     }
 
     @Override
@@ -123,17 +225,37 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional
     public void deleteOwner(Owner owner) throws DataAccessException {
+        statistics.ownersChanging(Set.of(owner.getId()));
         ownerRepository.delete(owner);
+        ownerSummaryRepository.deleteById(owner.getId());
+        searchIndex.remove(SearchHit.Type.OWNER, owner.getId());
+        modificationTracker.modified(Resource.OWNERS);
+        changed(Entity.OWNER, Action.DELETED, owner.getId(), owner.getId());
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteOwnerById(int id) throws DataAccessException {
+        statistics.ownersChanging(Set.of(id));
+        boolean deleted = ownerRepository.deleteById(id);
+        if (deleted) {
+            ownerSummaryRepository.deleteById(id);
+            searchIndex.remove(SearchHit.Type.OWNER, id);
+            modificationTracker.modified(Resource.OWNERS);
+            changed(Entity.OWNER, Action.DELETED, id, id);
+        }
+        return deleted;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public PetType findPetTypeById(int petTypeId) {
-        return findEntityById(() -> petTypeRepository.findById(petTypeId));
+    public Optional<PetType> findPetTypeById(int petTypeId) {
+        return petTypeRepository.findById(petTypeId);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @SingleFlight
     public Collection<PetType> findAllPetTypes() throws DataAccessException {
         return petTypeRepository.findAll();
     }
@@ -142,22 +264,32 @@ public class ClinicServiceImpl implements ClinicService {
     @Transactional
     public void savePetType(PetType petType) throws DataAccessException {
         petTypeRepository.save(petType);
+        statistics.petTypeSaved(petType);
+        modificationTracker.modified(Resource.PET_TYPES, Resource.OWNERS);
     }
 
     @Override
     @Transactional
     public void deletePetType(PetType petType) throws DataAccessException {
+        // deletes the pets of the type as well
+        List<Integer> ownerIds = ownerSummaryRepository.findOwnerIdsByPetTypeId(petType.getId());
+        statistics.ownersChanging(ownerIds);
         petTypeRepository.delete(petType);
+        ownerIds.forEach(ownerSummaryRepository::refresh);
+        searchIndex.removePetsOfType(petType.getId());
+        statistics.petTypeRemoved(petType.getId());
+        modificationTracker.modified(Resource.PET_TYPES, Resource.OWNERS);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Specialty findSpecialtyById(int specialtyId) {
-        return findEntityById(() -> specialtyRepository.findById(specialtyId));
+    public Optional<Specialty> findSpecialtyById(int specialtyId) {
+        return specialtyRepository.findById(specialtyId);
     }
 
     @Override
     @Transactional(readOnly = true)
+    @SingleFlight
     public Collection<Specialty> findAllSpecialties() throws DataAccessException {
         return specialtyRepository.findAll();
     }
@@ -166,12 +298,14 @@ public class ClinicServiceImpl implements ClinicService {
     @Transactional
     public void saveSpecialty(Specialty specialty) throws DataAccessException {
         specialtyRepository.save(specialty);
+        modificationTracker.modified(Resource.SPECIALTIES, Resource.VETS);
     }
 
     @Override
     @Transactional
     public void deleteSpecialty(Specialty specialty) throws DataAccessException {
         specialtyRepository.delete(specialty);
+        modificationTracker.modified(Resource.SPECIALTIES, Resource.VETS);
     }
 
     @Override
@@ -182,28 +316,100 @@ public class ClinicServiceImpl implements ClinicService {
 
     @Override
     @Transactional(readOnly = true)
-    public Owner findOwnerById(int id) throws DataAccessException {
-        return findEntityById(() -> ownerRepository.findById(id));
+    @SingleFlight
+    public Optional<Owner> findOwnerById(int id) throws DataAccessException {
+        return ownerRepository.findById(id);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Pet findPetById(int id) throws DataAccessException {
-        return findEntityById(() -> petRepository.findById(id));
+    @SingleFlight
+    public Optional<Pet> findPetById(int id) throws DataAccessException {
+        return petRepository.findById(id);
     }
 
     @Override
     @Transactional
     public void savePet(Pet pet) throws DataAccessException {
-        pet.setType(findPetTypeById(pet.getType().getId()));
+        pet.setType(findPetTypeById(pet.getType().getId()).orElse(null));
+        Action action = pet.isNew() ? Action.CREATED : Action.UPDATED;
+        statistics.petChanging(pet);
         petRepository.save(pet);
+        Integer ownerId = ownerIdOf(pet);
+        refreshSummary(ownerId);
+        searchIndex.indexPet(pet);
+        modificationTracker.modified(Resource.OWNERS);
+        changed(Entity.PET, action, pet.getId(), ownerId);
+    }
+
+    @Override
+    @Transactional
+    public boolean updatePetFields(Pet pet, Integer ownerId, Integer version) throws DataAccessException {
+        if (pet.getType() != null) {
+            statistics.petChanging(pet);
+        }
+        boolean updated = petRepository.updateFields(pet, ownerId, version);
+        if (updated) {
+            Integer petOwnerId = ownerId != null ? ownerId : ownerIdOf(pet);
+            if (pet.getName() != null) {
+                refreshSummary(petOwnerId);
+            }
+            searchIndex.indexPet(pet);
+            modificationTracker.modified(Resource.OWNERS);
+            changed(Entity.PET, Action.UPDATED, pet.getId(), petOwnerId);
+        }
+        return updated;
     }
 
     @Override
     @Transactional
     public void saveVisit(Visit visit) throws DataAccessException {
+        Action action = visit.isNew() ? Action.CREATED : Action.UPDATED;
+        statistics.visitsChanging(List.of(visit));
         visitRepository.save(visit);
+        Integer ownerId = ownerIdOf(visit);
+        if (action == Action.CREATED) {
+            visitAdded(visit);
+        } else {
+            refreshSummary(ownerId);
+        }
+        searchIndex.indexVisit(visit);
+        modificationTracker.modified(Resource.OWNERS);
+        changed(Entity.VISIT, action, visit.getId(), ownerId);
+    }
+
+    @Override
+    @Transactional
+    public void insertVisits(List<Visit> visits) throws DataAccessException {
+        statistics.visitsChanging(visits);
+        visitRepository.insertAll(visits);
+        for (Visit visit : visits) {
+            visitAdded(visit);
+            searchIndex.indexVisit(visit);
+        }
+        modificationTracker.modified(Resource.OWNERS);
+        for (Visit visit : visits) {
+            changed(Entity.VISIT, Action.CREATED, visit.getId(), ownerIdOf(visit));
+        }
+    }
 
+    @Override
+    @Transactional
+    public boolean updateVisitFields(Visit visit, Integer version) throws DataAccessException {
+        if (visit.getDate() != null) {
+            statistics.visitsChanging(List.of(visit));
+        }
+        boolean updated = visitRepository.updateFields(visit, version);
+        if (updated) {
+            Integer ownerId = ownerIdOf(visit);
+            if (visit.getDate() != null) {
+                refreshSummary(ownerId);
+            }
+            searchIndex.indexVisit(visit);
+            modificationTracker.modified(Resource.OWNERS);
+            changed(Entity.VISIT, Action.UPDATED, visit.getId(), ownerId);
+        }
+        return updated;
     }
 
     @Override
@@ -215,8 +421,37 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional
     public void saveOwner(Owner owner) throws DataAccessException {
+        Action action = owner.isNew() ? Action.CREATED : Action.UPDATED;
+        if (action == Action.UPDATED) {
+            statistics.ownersChanging(Set.of(owner.getId()));
+        }
         ownerRepository.save(owner);
+        if (action == Action.CREATED && owner.getPets().isEmpty()) {
+            ownerSummaryRepository.insert(owner);
+        } else if (action == Action.CREATED) {
+            ownerSummaryRepository.refresh(owner.getId());
+        } else {
+            ownerSummaryRepository.update(owner);
+        }
+        searchIndex.indexOwner(owner);
+        if (action == Action.CREATED) {
+            statistics.ownerCreated(owner);
+        }
+        modificationTracker.modified(Resource.OWNERS);
+        changed(Entity.OWNER, action, owner.getId(), owner.getId());
+    }
 
+    @Override
+    @Transactional
+    public boolean updateOwnerFields(Owner owner, Integer version) throws DataAccessException {
+        boolean updated = ownerRepository.updateFields(owner, version);
+        if (updated) {
+            ownerSummaryRepository.update(owner);
+            searchIndex.indexOwner(owner);
+            modificationTracker.modified(Resource.OWNERS);
+            changed(Entity.OWNER, Action.UPDATED, owner.getId(), owner.getId());
+        }
+        return updated;
     }
 
     @Override
@@ -225,6 +460,19 @@ public class ClinicServiceImpl implements ClinicService {
         return ownerRepository.findByLastName(lastName);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<OwnerSummary> findOwnerSummaries(String lastName) throws DataAccessException {
+        return lastName != null ? ownerSummaryRepository.findByLastName(lastName) : ownerSummaryRepository.findAll();
+    }
+
+    @Override
+    @Transactional
+    public void rebuildOwnerSummaries() throws DataAccessException {
+        ownerSummaryRepository.rebuild();
+        modificationTracker.modified(Resource.OWNERS);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Collection<Visit> findVisitsByPetId(int petId) {
@@ -234,16 +482,69 @@ public class ClinicServiceImpl implements ClinicService {
     @Override
     @Transactional(readOnly = true)
     public List<Specialty> findSpecialtiesByNameIn(Set<String> names) {
-        return findEntityById(() -> specialtyRepository.findSpecialtiesByNameIn(names));
+        return specialtyRepository.findSpecialtiesByNameIn(names);
     }
 
-    private <T> T findEntityById(Supplier<T> supplier) {
-        try {
-            return supplier.get();
-        } catch (ObjectRetrievalFailureException | EmptyResultDataAccessException e) {
-            // Just ignore not found exceptions for Jdbc/Jpa realization
-            return null;
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    @Override
+    public ClinicStatistics getStatistics() {
+        return statistics.getStatistics();
+    }
+
+    @Override
+    public List<OwnerName> completeOwnerLastName(String prefix, int limit) {
+        return searchIndex.completeLastName(prefix, limit);
+    }
+
+    /**
+     * Reports a change to the listeners of {@link ClinicChangeEvent}s, which are notified once the transaction commits.
+     */
+    private void changed(Entity entity, Action action, int id, Integer ownerId) {
+        eventPublisher.publishEvent(new ClinicChangeEvent(entity, action, id, ownerId));
+    }
+
+    /**
+     * Computes the {@link OwnerSummary} of an owner again, within the transaction of the change.
+     */
+    private void refreshSummary(Integer ownerId) {
+        if (ownerId != null) {
+            ownerSummaryRepository.refresh(ownerId);
+        }
+    }
+
+    /**
+     * A new visit can only move the date of the last visit, which takes a single statement.
+     */
+    private void visitAdded(Visit visit) {
+        if (visit.getPet() != null && visit.getPet().getId() != null && visit.getDate() != null) {
+            ownerSummaryRepository.visitAdded(visit.getPet().getId(), visit.getDate());
+        }
+    }
+
+    /**
+     * The owner of a saved pet, looked up if the pet does not hold it.
+     */
+    private Integer ownerIdOf(Pet pet) {
+        Integer ownerId = ownerId(pet);
+        if (ownerId != null || pet.getId() == null) {
+            return ownerId;
         }
+        return ownerSummaryRepository.findOwnerIdByPetId(pet.getId()).orElse(null);
+    }
+
+    private Integer ownerIdOf(Visit visit) {
+        if (visit.getPet() != null) {
+            return ownerIdOf(visit.getPet());
+        }
+        return visit.getId() != null ? ownerSummaryRepository.findOwnerIdByVisitId(visit.getId()).orElse(null) : null;
+    }
+
+    private static Integer ownerId(Pet pet) {
+        return pet.getOwner() != null ? pet.getOwner().getId() : null;
     }
 
 }
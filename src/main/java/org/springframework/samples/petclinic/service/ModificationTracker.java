@@ -0,0 +1,84 @@
+package org.springframework.samples.petclinic.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Counts the committed modifications of each group of resources exposed by the REST API, so that a representation
+ * can be tagged, and revalidated, without loading it.
+ * <p/>
+ * A generation is only incremented after the modifying transaction commits: a reader that sees the new generation
+ * also sees the new data, while a reader that tags new data with the previous generation merely causes one
+ * unnecessary full response later on. The counters live in memory and start from an epoch taken at startup, so
+ * they describe the data of this instance only; when several instances share the database, or the database is
+ * modified by other means, generation-based tags must be disabled.
+ */
+@Component
+public class ModificationTracker {
+
+    /**
+     * Groups of resources that change together: owners, pets and visits are served as one graph, vets embed their
+     * specialties.
+     */
+    public enum Resource {
+        OWNERS, VETS, SPECIALTIES, PET_TYPES
+    }
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final Map<Resource, AtomicLong> generations = new EnumMap<>(Resource.class);
+
+    public ModificationTracker() {
+        for (Resource resource : Resource.values()) {
+            this.generations.put(resource, new AtomicLong());
+        }
+    }
+
+    public long getEpoch() {
+        return this.epoch;
+    }
+
+    public long getGeneration(Resource resource) {
+        return this.generations.get(resource).get();
+    }
+
+    /**
+     * The number of modifications of all resources committed so far, which only ever grows.
+     */
+    public long getModifications() {
+        long modifications = 0;
+        for (AtomicLong generation : this.generations.values()) {
+            modifications += generation.get();
+        }
+        return modifications;
+    }
+
+    /**
+     * Records a modification of the given resources, once the current transaction commits or right away if there
+     * is none.
+     */
+    public void modified(Resource... resources) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(resources);
+                }
+            });
+        } else {
+            increment(resources);
+        }
+    }
+
+    private void increment(Resource... resources) {
+        for (Resource resource : resources) {
+            this.generations.get(resource).incrementAndGet();
+        }
+    }
+
+}
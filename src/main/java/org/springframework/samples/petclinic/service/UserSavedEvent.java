@@ -0,0 +1,7 @@
+package org.springframework.samples.petclinic.service;
+
+/**
+ * Published by {@link UserService#saveUser} for the user whose password, enabled flag or roles may have changed.
+ */
+public record UserSavedEvent(String username) {
+}
@@ -0,0 +1,182 @@
+package org.springframework.samples.petclinic.service.groupcommit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Group commit for new visits: the concurrent calls of {@code ClinicService.saveVisit} that insert a visit are
+ * collected for at most the maximum delay, or until the maximum size is reached, and written by the writer as one
+ * batch in one transaction. Each call returns once its batch is committed, with the generated id set on its visit.
+ * <p/>
+ * The first call of a batch waits for the others and writes it, so no thread of its own is needed. When a batch fails,
+ * its visits are written again one by one, so that a single invalid visit fails only its own call. Updates of visits
+ * and calls made within a transaction, whose rollback must include the visit, are not batched.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class VisitInsertBatcher implements MeterBinder {
+
+    private final int maxSize;
+
+    private final Duration maxDelay;
+
+    private final Consumer<List<Visit>> writer;
+
+    private final Object lock = new Object();
+
+    private Batch open;
+
+    private final LongAdder retried = new LongAdder();
+
+    private DistributionSummary batchSizes;
+
+    private record Insert(Visit visit, CompletableFuture<Void> done) {
+    }
+
+    private static class Batch {
+
+        final List<Insert> inserts = new ArrayList<>();
+
+        final CountDownLatch full = new CountDownLatch(1);
+
+    }
+
+    /**
+     * @param maxSize  the number of visits that closes a batch at once
+     * @param maxDelay the time the first visit of a batch waits for others
+     * @param writer   inserts the visits of a batch in one transaction
+     */
+    public VisitInsertBatcher(int maxSize, Duration maxDelay, Consumer<List<Visit>> writer) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum batch size must be positive, got " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.maxDelay = maxDelay;
+        this.writer = writer;
+    }
+
+    @Around("execution(void org.springframework.samples.petclinic.service.ClinicService.saveVisit(..))")
+    public Object batch(ProceedingJoinPoint joinPoint) throws Throwable {
+        Visit visit = (Visit) joinPoint.getArgs()[0];
+        if (!visit.isNew() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        insert(visit);
+        return null;
+    }
+
+    /**
+     * Insert a new visit with the next batch, waiting until the batch is committed.
+     */
+    public void insert(Visit visit) {
+        Insert insert = new Insert(visit, new CompletableFuture<>());
+        Batch batch;
+        boolean first;
+        synchronized (this.lock) {
+            first = this.open == null;
+            if (first) {
+                this.open = new Batch();
+            }
+            batch = this.open;
+            batch.inserts.add(insert);
+            if (batch.inserts.size() >= this.maxSize) {
+                this.open = null;
+                batch.full.countDown();
+            }
+        }
+        if (first) {
+            awaitOthers(batch);
+            write(batch.inserts);
+        }
+        try {
+            insert.done().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void awaitOthers(Batch batch) {
+        try {
+            batch.full.await(this.maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this.lock) {
+            if (this.open == batch) {
+                this.open = null;
+            }
+        }
+    }
+
+    private void write(List<Insert> inserts) {
+        if (this.batchSizes != null) {
+            this.batchSizes.record(inserts.size());
+        }
+        try {
+            this.writer.accept(inserts.stream().map(Insert::visit).toList());
+            inserts.forEach(insert -> insert.done().complete(null));
+        } catch (RuntimeException ex) {
+            if (inserts.size() == 1) {
+                inserts.get(0).visit().setId(null);
+                inserts.get(0).done().completeExceptionally(ex);
+                return;
+            }
+            this.retried.increment();
+            inserts.forEach(insert -> insert.visit().setId(null));
+            inserts.forEach(this::writeAlone);
+        } finally {
+            inserts.forEach(insert -> insert.done().completeExceptionally(
+                new IllegalStateException("The batch of the visit was not written")));
+        }
+    }
+
+    private void writeAlone(Insert insert) {
+        try {
+            this.writer.accept(List.of(insert.visit()));
+            insert.done().complete(null);
+        } catch (RuntimeException ex) {
+            insert.visit().setId(null);
+            insert.done().completeExceptionally(ex);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.batchSizes = DistributionSummary.builder("petclinic.visit.insert.batch.size")
+            .description("Visits inserted by one batch")
+            .register(registry);
+        FunctionCounter.builder("petclinic.visit.insert.batch.retried", this.retried, LongAdder::sum)
+            .description("Batches of visits that failed and were written again one visit at a time")
+            .register(registry);
+    }
+
+    long getRetried() {
+        return this.retried.sum();
+    }
+
+}
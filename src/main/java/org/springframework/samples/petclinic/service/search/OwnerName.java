@@ -0,0 +1,37 @@
+package org.springframework.samples.petclinic.service.search;
+
+/**
+ * The id and name of an owner, as listed when completing a last name.
+ */
+public class OwnerName {
+
+    private final int id;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    public OwnerName(int id, String firstName, String lastName) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public String getFirstName() {
+        return this.firstName;
+    }
+
+    public String getLastName() {
+        return this.lastName;
+    }
+
+    @Override
+    public String toString() {
+        return this.id + " " + this.firstName + " " + this.lastName;
+    }
+
+}
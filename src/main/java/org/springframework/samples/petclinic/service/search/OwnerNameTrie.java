@@ -0,0 +1,157 @@
+package org.springframework.samples.petclinic.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie of the last names of owners, listing the owners whose last name starts with a prefix in alphabetical order.
+ * <p/>
+ * Names are keyed by {@link SearchIndex#fold(String) folded} form, so case and accents are ignored. Each node keeps
+ * its children as a sorted array of labels and nodes and the owners of exactly that name as a sorted array, both
+ * replaced as a whole by the single writer; lookups read them without locking. A lookup walks the prefix and then
+ * the subtree in order, and stops as soon as it has {@code limit} owners, so its cost depends on the length of the
+ * prefix and the limit rather than on the number of owners.
+ */
+class OwnerNameTrie {
+
+    private static final Comparator<OwnerName> ORDER = Comparator.comparing(OwnerName::getLastName)
+        .thenComparing(OwnerName::getFirstName, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparingInt(OwnerName::getId);
+
+    private static final OwnerName[] NO_OWNERS = new OwnerName[0];
+
+    private static final Children NO_CHILDREN = new Children(new char[0], new Node[0]);
+
+    private record Children(char[] labels, Node[] nodes) {
+
+        Node get(char label) {
+            int index = Arrays.binarySearch(this.labels, label);
+            return index >= 0 ? this.nodes[index] : null;
+        }
+
+        Children with(char label, Node node) {
+            int index = -Arrays.binarySearch(this.labels, label) - 1;
+            char[] labels = new char[this.labels.length + 1];
+            Node[] nodes = new Node[this.nodes.length + 1];
+            System.arraycopy(this.labels, 0, labels, 0, index);
+            System.arraycopy(this.nodes, 0, nodes, 0, index);
+            labels[index] = label;
+            nodes[index] = node;
+            System.arraycopy(this.labels, index, labels, index + 1, this.labels.length - index);
+            System.arraycopy(this.nodes, index, nodes, index + 1, this.nodes.length - index);
+            return new Children(labels, nodes);
+        }
+
+        Children without(char label) {
+            int index = Arrays.binarySearch(this.labels, label);
+            char[] labels = new char[this.labels.length - 1];
+            Node[] nodes = new Node[this.nodes.length - 1];
+            System.arraycopy(this.labels, 0, labels, 0, index);
+            System.arraycopy(this.nodes, 0, nodes, 0, index);
+            System.arraycopy(this.labels, index + 1, labels, index, labels.length - index);
+            System.arraycopy(this.nodes, index + 1, nodes, index, nodes.length - index);
+            return new Children(labels, nodes);
+        }
+    }
+
+    private static final class Node {
+
+        private volatile Children children = NO_CHILDREN;
+
+        private volatile OwnerName[] owners = NO_OWNERS;
+    }
+
+    private final Node root = new Node();
+
+    private final Map<Integer, OwnerName> owners = new HashMap<>();
+
+    /**
+     * Adds an owner, or moves it if its name changed.
+     */
+    synchronized void put(OwnerName owner) {
+        OwnerName previous = this.owners.put(owner.getId(), owner);
+        if (previous != null) {
+            remove(previous);
+        }
+        if (owner.getLastName() == null) {
+            return;
+        }
+        Node node = this.root;
+        for (char label : SearchIndex.fold(owner.getLastName()).toCharArray()) {
+            Node child = node.children.get(label);
+            if (child == null) {
+                child = new Node();
+                node.children = node.children.with(label, child);
+            }
+            node = child;
+        }
+        OwnerName[] owners = Arrays.copyOf(node.owners, node.owners.length + 1);
+        owners[owners.length - 1] = owner;
+        Arrays.sort(owners, ORDER);
+        node.owners = owners;
+    }
+
+    synchronized void remove(int id) {
+        OwnerName owner = this.owners.remove(id);
+        if (owner != null) {
+            remove(owner);
+        }
+    }
+
+    /**
+     * Lists the first owners, by last name, first name and id, whose last name starts with the prefix.
+     */
+    List<OwnerName> complete(String prefix, int limit) {
+        Node node = this.root;
+        for (char label : SearchIndex.fold(prefix).toCharArray()) {
+            node = node.children.get(label);
+            if (node == null) {
+                return List.of();
+            }
+        }
+        List<OwnerName> owners = new ArrayList<>(Math.min(limit, 16));
+        collect(node, owners, limit);
+        return owners;
+    }
+
+    private static void collect(Node node, List<OwnerName> owners, int limit) {
+        for (OwnerName owner : node.owners) {
+            if (owners.size() >= limit) {
+                return;
+            }
+            owners.add(owner);
+        }
+        for (Node child : node.children.nodes()) {
+            if (owners.size() >= limit) {
+                return;
+            }
+            collect(child, owners, limit);
+        }
+    }
+
+    private void remove(OwnerName owner) {
+        if (owner.getLastName() == null) {
+            return;
+        }
+        char[] labels = SearchIndex.fold(owner.getLastName()).toCharArray();
+        Node[] path = new Node[labels.length + 1];
+        path[0] = this.root;
+        for (int i = 0; i < labels.length; i++) {
+            path[i + 1] = path[i].children.get(labels[i]);
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node node = path[labels.length];
+        node.owners = Arrays.stream(node.owners).filter(o -> o.getId() != owner.getId()).toArray(OwnerName[]::new);
+        // prune the nodes left without owners and children
+        for (int i = labels.length; i > 0 && path[i].owners.length == 0 && path[i].children.labels().length == 0; i--) {
+            path[i - 1].children = path[i - 1].children.without(labels[i - 1]);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.springframework.samples.petclinic.service.search;
+
+/**
+ * An owner, pet or visit matching a search, with the owner it belongs to.
+ */
+public class SearchHit {
+
+    public enum Type {
+        OWNER, PET, VISIT
+    }
+
+    private final Type type;
+
+    private final int id;
+
+    private final Integer ownerId;
+
+    private final double score;
+
+    public SearchHit(Type type, int id, Integer ownerId, double score) {
+        this.type = type;
+        this.id = id;
+        this.ownerId = ownerId;
+        this.score = score;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * The owner of the pet, or of the pet of the visit; the owner itself for an owner.
+     */
+    public Integer getOwnerId() {
+        return this.ownerId;
+    }
+
+    public double getScore() {
+        return this.score;
+    }
+
+    @Override
+    public String toString() {
+        return this.type + " " + this.id + " (" + this.score + ")";
+    }
+
+}
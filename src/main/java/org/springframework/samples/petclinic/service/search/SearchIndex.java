@@ -0,0 +1,394 @@
+package org.springframework.samples.petclinic.service.search;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.service.search.SearchHit.Type;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory inverted index over the names, city and address of owners, the names of pets and the descriptions of
+ * visits, answering searches without touching the database.
+ * <p/>
+ * The index is built at startup from the rows of the owners, pets and visits tables, read by three flat queries, and
+ * then kept up to date by the {@link
+ * org.springframework.samples.petclinic.service.ClinicService}, which reports every change; like the
+ * {@link org.springframework.samples.petclinic.service.ModificationTracker}, a change is applied once its transaction
+ * commits, and changes made by other instances or by other means are not seen. Every query word must match a word
+ * of the document, either fully or as a prefix; hits are ranked by the sum of the TF-IDF weights of the matched
+ * words, with prefix matches counting half and names weighing more than addresses and descriptions.
+ * <p/>
+ * The last names of the owners are also kept in an {@link OwnerNameTrie} to complete them as they are typed.
+ */
+@Component
+public class SearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final double PREFIX_MATCH = 0.5;
+
+    enum Field {
+        FIRST_NAME(2), LAST_NAME(3), ADDRESS(1), CITY(1), PET_NAME(2), DESCRIPTION(1);
+
+        private final double weight;
+
+        Field(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private record Key(Type type, int id) {
+    }
+
+    private static final class Document {
+
+        private final Map<Field, String> fields = new EnumMap<>(Field.class);
+
+        private Key parent;
+
+        private Integer petTypeId;
+
+        private Map<String, Double> terms = Map.of();
+    }
+
+    private final ConcurrentMap<Key, Document> documents = new ConcurrentHashMap<>();
+
+    /**
+     * The documents containing each word, with the weight of the word in the document.
+     */
+    private final ConcurrentNavigableMap<String, ConcurrentMap<Key, Double>> postings = new ConcurrentSkipListMap<>();
+
+    private final Map<Key, Set<Key>> children = new HashMap<>();
+
+    private final OwnerNameTrie ownerNames = new OwnerNameTrie();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public SearchIndex(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Builds the index before the application takes requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        this.transactionTemplate.executeWithoutResult(status -> {
+            synchronized (this) {
+                this.jdbcTemplate.query("SELECT id, first_name, last_name, address, city FROM owners", rs -> {
+                    update(new Key(Type.OWNER, rs.getInt(1)),
+                        fields(rs, Field.FIRST_NAME, Field.LAST_NAME, Field.ADDRESS, Field.CITY), null, null);
+                });
+                this.jdbcTemplate.query("SELECT id, name, owner_id, type_id FROM pets", rs -> {
+                    update(new Key(Type.PET, rs.getInt(1)), fields(rs, Field.PET_NAME),
+                        parent(rs, 3, Type.OWNER), rs.getInt(4));
+                });
+                this.jdbcTemplate.query("SELECT id, description, pet_id FROM visits", rs -> {
+                    update(new Key(Type.VISIT, rs.getInt(1)), fields(rs, Field.DESCRIPTION),
+                        parent(rs, 3, Type.PET), null);
+                });
+            }
+        });
+        logger.info("Indexed {} owners, pets and visits for search in {} ms", this.documents.size(),
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indexes the non-null fields of an owner, keeping the indexed values of the others.
+     */
+    public void indexOwner(Owner owner) {
+        Map<Field, String> fields = fields(owner);
+        Key key = new Key(Type.OWNER, owner.getId());
+        afterCommit(() -> update(key, fields, null, null));
+    }
+
+    /**
+     * Indexes the name of a pet, if not null, and records its owner and type, if known.
+     */
+    public void indexPet(Pet pet) {
+        Map<Field, String> fields = fields(pet);
+        Key key = new Key(Type.PET, pet.getId());
+        Key owner = pet.getOwner() != null && pet.getOwner().getId() != null
+            ? new Key(Type.OWNER, pet.getOwner().getId())
+            : null;
+        Integer petTypeId = pet.getType() != null ? pet.getType().getId() : null;
+        afterCommit(() -> update(key, fields, owner, petTypeId));
+    }
+
+    /**
+     * Indexes the description of a visit, if not null, and records its pet, if known.
+     */
+    public void indexVisit(Visit visit) {
+        Map<Field, String> fields = fields(visit);
+        Key key = new Key(Type.VISIT, visit.getId());
+        Key pet = visit.getPet() != null && visit.getPet().getId() != null
+            ? new Key(Type.PET, visit.getPet().getId())
+            : null;
+        afterCommit(() -> update(key, fields, pet, null));
+    }
+
+    /**
+     * Removes an owner, pet or visit together with the pets and visits that belong to it.
+     */
+    public void remove(Type type, int id) {
+        Key key = new Key(type, id);
+        afterCommit(() -> {
+            synchronized (this) {
+                removeWithChildren(key);
+            }
+        });
+    }
+
+    /**
+     * Removes the pets of a type, which are deleted with it, and their visits.
+     */
+    public void removePetsOfType(int petTypeId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                List<Key> pets = this.documents.entrySet().stream()
+                    .filter(entry -> Integer.valueOf(petTypeId).equals(entry.getValue().petTypeId))
+                    .map(Map.Entry::getKey)
+                    .toList();
+                pets.forEach(this::removeWithChildren);
+            }
+        });
+    }
+
+    /**
+     * Finds the documents matching every word of the query, best first.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> words = new LinkedHashSet<>(words(query));
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        double total = Math.max(1, this.documents.size());
+        Map<Key, Double> scores = null;
+        for (String word : words) {
+            Map<Key, Double> wordScores = new HashMap<>();
+            this.postings.subMap(word, true, word + Character.MAX_VALUE, true).forEach((term, keys) -> {
+                double idf = Math.log(1 + total / Math.max(1, keys.size()));
+                double match = term.length() == word.length() ? 1 : PREFIX_MATCH;
+                keys.forEach((key, weight) -> wordScores.merge(key, weight * idf * match, Double::sum));
+            });
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                scores.replaceAll((key, score) -> score + wordScores.get(key));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        Comparator<Map.Entry<Key, Double>> byScore = Map.Entry.<Key, Double>comparingByValue()
+            .thenComparing(entry -> -entry.getKey().id());
+        PriorityQueue<Map.Entry<Key, Double>> best = new PriorityQueue<>(limit + 1, byScore);
+        for (Map.Entry<Key, Double> entry : scores.entrySet()) {
+            best.add(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Map.Entry<Key, Double> entry = best.poll();
+            Key key = entry.getKey();
+            hits.add(0, new SearchHit(key.type(), key.id(), ownerId(key), entry.getValue()));
+        }
+        return hits;
+    }
+
+    /**
+     * Lists the first owners, by last name, whose last name starts with the prefix, ignoring case and accents.
+     */
+    public List<OwnerName> completeLastName(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return this.ownerNames.complete(prefix, limit);
+    }
+
+    static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(fold(text))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Lower-cases a text and strips its accents.
+     */
+    static String fold(String text) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+    }
+
+    private Integer ownerId(Key key) {
+        Key owner = key;
+        while (owner != null && owner.type() != Type.OWNER) {
+            Document document = this.documents.get(owner);
+            owner = document != null ? document.parent : null;
+        }
+        return owner != null ? owner.id() : null;
+    }
+
+    private synchronized void update(Key key, Map<Field, String> fields, Key parent, Integer petTypeId) {
+        Document document = this.documents.computeIfAbsent(key, k -> new Document());
+        document.fields.putAll(fields);
+        if (parent != null && !parent.equals(document.parent)) {
+            unlink(key, document.parent);
+            document.parent = parent;
+            this.children.computeIfAbsent(parent, k -> new LinkedHashSet<>()).add(key);
+        }
+        if (petTypeId != null) {
+            document.petTypeId = petTypeId;
+        }
+        Map<String, Double> terms = new HashMap<>();
+        document.fields.forEach((field, value) -> words(value)
+            .forEach(word -> terms.merge(word, field.weight, Double::sum)));
+        unpost(key, document.terms);
+        document.terms = terms;
+        terms.forEach((word, weight) ->
+            this.postings.computeIfAbsent(word, w -> new ConcurrentHashMap<>()).put(key, weight));
+        if (key.type() == Type.OWNER) {
+            this.ownerNames.put(new OwnerName(key.id(), document.fields.get(Field.FIRST_NAME),
+                document.fields.get(Field.LAST_NAME)));
+        }
+    }
+
+    private void removeWithChildren(Key key) {
+        Set<Key> removedChildren = this.children.remove(key);
+        if (removedChildren != null) {
+            removedChildren.forEach(this::removeWithChildren);
+        }
+        Document document = this.documents.remove(key);
+        if (document != null) {
+            unpost(key, document.terms);
+            unlink(key, document.parent);
+        }
+        if (key.type() == Type.OWNER) {
+            this.ownerNames.remove(key.id());
+        }
+    }
+
+    private void unlink(Key key, Key parent) {
+        Set<Key> siblings = parent != null ? this.children.get(parent) : null;
+        if (siblings != null) {
+            siblings.remove(key);
+        }
+    }
+
+    private void unpost(Key key, Map<String, Double> terms) {
+        for (String word : terms.keySet()) {
+            this.postings.computeIfPresent(word, (w, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static Map<Field, String> fields(Owner owner) {
+        Map<Field, String> fields = new EnumMap<>(Field.class);
+        putIfNotNull(fields, Field.FIRST_NAME, owner.getFirstName());
+        putIfNotNull(fields, Field.LAST_NAME, owner.getLastName());
+        putIfNotNull(fields, Field.ADDRESS, owner.getAddress());
+        putIfNotNull(fields, Field.CITY, owner.getCity());
+        return fields;
+    }
+
+    private static Map<Field, String> fields(Pet pet) {
+        Map<Field, String> fields = new EnumMap<>(Field.class);
+        putIfNotNull(fields, Field.PET_NAME, pet.getName());
+        return fields;
+    }
+
+    private static Map<Field, String> fields(Visit visit) {
+        Map<Field, String> fields = new EnumMap<>(Field.class);
+        putIfNotNull(fields, Field.DESCRIPTION, visit.getDescription());
+        return fields;
+    }
+
+    /**
+     * The fields of a row, read from its columns following the id.
+     */
+    private static Map<Field, String> fields(ResultSet rs, Field... columns) throws SQLException {
+        Map<Field, String> fields = new EnumMap<>(Field.class);
+        for (int i = 0; i < columns.length; i++) {
+            putIfNotNull(fields, columns[i], rs.getString(i + 2));
+        }
+        return fields;
+    }
+
+    private static Key parent(ResultSet rs, int column, Type type) throws SQLException {
+        int id = rs.getInt(column);
+        return rs.wasNull() ? null : new Key(type, id);
+    }
+
+    private static void putIfNotNull(Map<Field, String> fields, Field field, String value) {
+        if (value != null) {
+            fields.put(field, value);
+        }
+    }
+
+    /**
+     * Runs an index update once the current transaction commits, or right away if there is none.
+     */
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+}
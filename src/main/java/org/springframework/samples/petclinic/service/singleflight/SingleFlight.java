@@ -0,0 +1,20 @@
+package org.springframework.samples.petclinic.service.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read method whose concurrent calls with equal arguments may share a single invocation, see
+ * {@link SingleFlightAspect}.
+ * <p/>
+ * The callers that join a call receive the very objects it returned, so the method must only be used by callers that
+ * do not modify its result: a caller that loads an entity to change it has to use a method without this annotation.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+}
@@ -0,0 +1,152 @@
+package org.springframework.samples.petclinic.service.singleflight;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Coalesces concurrent calls of a {@link SingleFlight} method with equal arguments: the first call loads, and the
+ * calls arriving while it is in flight wait for its result, or its exception, instead of loading the same data again.
+ * A call arriving after the load completed starts a new one, so nothing is cached.
+ * <p/>
+ * The aspect wraps the transaction of the method, so the joining calls neither open a transaction nor take a
+ * connection. It stays out of the way of calls made within a read-write transaction, which may have to read their own
+ * uncommitted writes, and of calls that must read from the primary to see their own committed writes. Calls only join
+ * a load started since the last committed modification, so a caller never gets data older than its own writes. A call
+ * that waited longer than the timeout for a load stops waiting and loads by itself.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightAspect implements MeterBinder {
+
+    private final ConcurrentMap<Call, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Duration timeout;
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder collapsed = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongSupplier modifications;
+
+    private final BooleanSupplier pinnedToPrimary;
+
+    /**
+     * A call of a method, during one modification count.
+     */
+    private record Call(Method method, List<Object> arguments, long modifications) {
+    }
+
+    /**
+     * @param modifications   the number of modifications committed so far, e.g. by the
+     *                        {@link org.springframework.samples.petclinic.service.ModificationTracker}
+     * @param pinnedToPrimary whether the reads of the current caller must go to the primary
+     */
+    public SingleFlightAspect(Duration timeout, LongSupplier modifications, BooleanSupplier pinnedToPrimary) {
+        this.timeout = timeout;
+        this.modifications = modifications;
+        this.pinnedToPrimary = pinnedToPrimary;
+    }
+
+    SingleFlightAspect(Duration timeout) {
+        this(timeout, () -> 0, () -> false);
+    }
+
+    @Around("@annotation(org.springframework.samples.petclinic.service.singleflight.SingleFlight)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            || this.pinnedToPrimary.getAsBoolean()) {
+            return joinPoint.proceed();
+        }
+        Call call = new Call(((MethodSignature) joinPoint.getSignature()).getMethod(),
+            Arrays.asList(joinPoint.getArgs()), this.modifications.getAsLong());
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> shared = this.inFlight.putIfAbsent(call, load);
+        if (shared != null) {
+            return join(shared, joinPoint);
+        }
+        this.loads.increment();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            this.inFlight.remove(call, load);
+            load.completeExceptionally(ex);
+            throw ex;
+        }
+        this.inFlight.remove(call, load);
+        load.complete(result);
+        return result;
+    }
+
+    private Object join(CompletableFuture<Object> shared, ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            Object result = shared.get(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+            this.collapsed.increment();
+            return result;
+        } catch (ExecutionException ex) {
+            this.collapsed.increment();
+            throw ex.getCause();
+        } catch (TimeoutException ex) {
+            this.timeouts.increment();
+            return joinPoint.proceed();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("petclinic.single.flight.calls", this.loads, LongAdder::sum)
+            .description("Calls of single-flight methods, by whether they loaded or joined a load")
+            .tag("result", "load")
+            .register(registry);
+        FunctionCounter.builder("petclinic.single.flight.calls", this.collapsed, LongAdder::sum)
+            .description("Calls of single-flight methods, by whether they loaded or joined a load")
+            .tag("result", "collapsed")
+            .register(registry);
+        FunctionCounter.builder("petclinic.single.flight.calls", this.timeouts, LongAdder::sum)
+            .description("Calls of single-flight methods, by whether they loaded or joined a load")
+            .tag("result", "timeout")
+            .register(registry);
+        Gauge.builder("petclinic.single.flight.in.flight", this.inFlight, ConcurrentMap::size)
+            .description("Loads of single-flight methods in flight")
+            .register(registry);
+    }
+
+    long getLoads() {
+        return this.loads.sum();
+    }
+
+    long getCollapsed() {
+        return this.collapsed.sum();
+    }
+
+    long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+}
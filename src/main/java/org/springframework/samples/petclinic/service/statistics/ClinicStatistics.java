@@ -0,0 +1,105 @@
+package org.springframework.samples.petclinic.service.statistics;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Counts of the owners, pets and visits of the clinic, as read from the {@link StatisticsCounters}.
+ */
+public class ClinicStatistics {
+
+    /**
+     * The number of pets and visits of a pet type.
+     */
+    public static class PetTypeStatistics {
+
+        private final int id;
+
+        private final String name;
+
+        private final int pets;
+
+        private final int visits;
+
+        public PetTypeStatistics(int id, String name, int pets, int visits) {
+            this.id = id;
+            this.name = name;
+            this.pets = pets;
+            this.visits = visits;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public int getPets() {
+            return this.pets;
+        }
+
+        public int getVisits() {
+            return this.visits;
+        }
+
+    }
+
+    private final int owners;
+
+    private final int pets;
+
+    private final int visits;
+
+    private final SortedMap<YearMonth, Integer> visitsPerMonth;
+
+    private final List<PetTypeStatistics> petTypes;
+
+    private final SortedMap<Integer, Integer> ownersPerPetCount;
+
+    public ClinicStatistics(int owners, int pets, int visits, SortedMap<YearMonth, Integer> visitsPerMonth,
+                            List<PetTypeStatistics> petTypes, SortedMap<Integer, Integer> ownersPerPetCount) {
+        this.owners = owners;
+        this.pets = pets;
+        this.visits = visits;
+        this.visitsPerMonth = visitsPerMonth;
+        this.petTypes = petTypes;
+        this.ownersPerPetCount = ownersPerPetCount;
+    }
+
+    public int getOwners() {
+        return this.owners;
+    }
+
+    public int getPets() {
+        return this.pets;
+    }
+
+    public int getVisits() {
+        return this.visits;
+    }
+
+    /**
+     * The number of visits of each month with visits, in chronological order.
+     */
+    public SortedMap<YearMonth, Integer> getVisitsPerMonth() {
+        return this.visitsPerMonth;
+    }
+
+    /**
+     * The number of pets and visits of each pet type, by type id.
+     */
+    public List<PetTypeStatistics> getPetTypes() {
+        return this.petTypes;
+    }
+
+    /**
+     * The number of owners having each number of pets, by number of pets.
+     */
+    public SortedMap<Integer, Integer> getOwnersPerPetCount() {
+        return this.ownersPerPetCount;
+    }
+
+}
@@ -0,0 +1,501 @@
+package org.springframework.samples.petclinic.service.statistics;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.service.ModificationTracker;
+import org.springframework.samples.petclinic.service.ModificationTracker.Resource;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics.PetTypeStatistics;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory counters of the owners, pets and visits of the clinic, per month, pet type and number of pets, read
+ * without touching the database.
+ * <p/>
+ * Only the counts are kept. They are computed at startup by <code>GROUP BY</code> queries and then kept up to
+ * date by the {@link org.springframework.samples.petclinic.service.ClinicService}: before a transaction changes
+ * owners, pets or visits, it reports the owners affected, whose counts are queried then and once more after the
+ * transaction commits, and the difference is applied to the counters. The counts of an owner include its pets and
+ * their visits, so a pet or visit that moves between owners is reported with both.
+ * <p/>
+ * As changes made by other instances or directly in the database are not seen, the counters are also rebuilt from
+ * the database every {@code petclinic.statistics.rebuild-interval}. A rebuild that overlaps the commit of a change
+ * cannot tell whether its queries saw it, so it is discarded and run again.
+ */
+@Component
+public class StatisticsCounters implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsCounters.class);
+
+    /**
+     * Attempts of a rebuild before it gives up until the next one, when it keeps overlapping changes.
+     */
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private static final int OWNER_ID = 0;
+
+    private static final int OWNERS_PER_PET_COUNT = 1;
+
+    private static final int PETS_PER_TYPE = 2;
+
+    private static final int VISITS_PER_TYPE_AND_MONTH = 3;
+
+    /**
+     * The counts in a single statement, as rows of a kind, a key, a count and, for visits, a year and month. The
+     * first {@code %s} selects the owners to count, the second their pets.
+     */
+    private static final String COUNTS = "SELECT " + OWNERS_PER_PET_COUNT + " AS kind, pet_count AS count_key, "
+        + "COUNT(*) AS counted, 0 AS visit_year, 0 AS visit_month FROM (SELECT o.id, COUNT(p.id) AS pet_count "
+        + "FROM owners o LEFT JOIN pets p ON p.owner_id = o.id WHERE %1$s GROUP BY o.id) owner_pets "
+        + "GROUP BY pet_count "
+        + "UNION ALL SELECT " + PETS_PER_TYPE + ", p.type_id, COUNT(*), 0, 0 FROM pets p WHERE %2$s "
+        + "GROUP BY p.type_id "
+        + "UNION ALL SELECT " + VISITS_PER_TYPE_AND_MONTH + ", p.type_id, COUNT(*), EXTRACT(YEAR FROM v.visit_date), "
+        + "EXTRACT(MONTH FROM v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id WHERE %2$s "
+        + "GROUP BY p.type_id, EXTRACT(YEAR FROM v.visit_date), EXTRACT(MONTH FROM v.visit_date)";
+
+    /**
+     * Prepended to {@link #COUNTS} to also return the ids of the owners counted.
+     */
+    private static final String OWNER_IDS = "SELECT " + OWNER_ID + ", o.id, 0, 0, 0 FROM owners o WHERE %1$s "
+        + "UNION ALL ";
+
+    /**
+     * The owners to count: given by id, or as the current owners of pets or visits, less those already counted.
+     */
+    private record Scope(Set<Integer> ownerIds, Set<Integer> petIds, Set<Integer> visitIds, Set<Integer> counted) {
+
+        boolean isEmpty() {
+            return this.ownerIds.isEmpty() && this.petIds.isEmpty() && this.visitIds.isEmpty();
+        }
+
+        String owners(String column) {
+            StringJoiner owners = new StringJoiner(" OR ", "(", ")");
+            if (!this.ownerIds.isEmpty()) {
+                owners.add(column + " IN (:owners)");
+            }
+            if (!this.petIds.isEmpty()) {
+                owners.add(column + " IN (SELECT owner_id FROM pets WHERE id IN (:pets))");
+            }
+            if (!this.visitIds.isEmpty()) {
+                owners.add(column + " IN (SELECT pets.owner_id FROM visits JOIN pets ON pets.id = visits.pet_id "
+                    + "WHERE visits.id IN (:visits))");
+            }
+            return this.counted.isEmpty() ? owners.toString() : owners + " AND " + column + " NOT IN (:counted)";
+        }
+
+        MapSqlParameterSource params() {
+            return new MapSqlParameterSource("owners", this.ownerIds).addValue("pets", this.petIds)
+                .addValue("visits", this.visitIds).addValue("counted", this.counted);
+        }
+    }
+
+    /**
+     * Counts of all owners, pets and visits, or of some owners with their pets and visits.
+     */
+    private static final class Counts {
+
+        private final Map<Integer, String> petTypeNames = new HashMap<>();
+
+        private int owners;
+
+        private int pets;
+
+        private int visits;
+
+        private final SortedMap<YearMonth, Integer> visitsPerMonth = new TreeMap<>();
+
+        private final Map<Integer, Integer> petsPerType = new HashMap<>();
+
+        private final Map<Integer, Integer> visitsPerType = new HashMap<>();
+
+        private final SortedMap<Integer, Integer> ownersPerPetCount = new TreeMap<>();
+
+        /**
+         * Adds the counts of the other, or subtracts them for a negative sign; pet type names are left alone.
+         */
+        void add(Counts other, int sign) {
+            this.owners += sign * other.owners;
+            this.pets += sign * other.pets;
+            this.visits += sign * other.visits;
+            other.visitsPerMonth.forEach((month, count) -> add(this.visitsPerMonth, month, sign * count));
+            other.petsPerType.forEach((typeId, count) -> add(this.petsPerType, typeId, sign * count));
+            other.visitsPerType.forEach((typeId, count) -> add(this.visitsPerType, typeId, sign * count));
+            other.ownersPerPetCount.forEach((petCount, count) -> add(this.ownersPerPetCount, petCount, sign * count));
+        }
+
+        ClinicStatistics snapshot() {
+            Set<Integer> typeIds = new TreeSet<>(this.petTypeNames.keySet());
+            typeIds.addAll(this.petsPerType.keySet());
+            List<PetTypeStatistics> petTypes = new ArrayList<>(typeIds.size());
+            for (Integer typeId : typeIds) {
+                petTypes.add(new PetTypeStatistics(typeId, this.petTypeNames.get(typeId),
+                    this.petsPerType.getOrDefault(typeId, 0), this.visitsPerType.getOrDefault(typeId, 0)));
+            }
+            return new ClinicStatistics(this.owners, this.pets, this.visits, new TreeMap<>(this.visitsPerMonth),
+                petTypes, new TreeMap<>(this.ownersPerPetCount));
+        }
+
+        /**
+         * Whether both give the same statistics.
+         */
+        boolean sameCounts(Counts other) {
+            return this.owners == other.owners && this.pets == other.pets && this.visits == other.visits
+                && this.petTypeNames.equals(other.petTypeNames) && this.visitsPerMonth.equals(other.visitsPerMonth)
+                && this.petsPerType.equals(other.petsPerType) && this.visitsPerType.equals(other.visitsPerType)
+                && this.ownersPerPetCount.equals(other.ownersPerPetCount);
+        }
+
+        private static <K> void add(Map<K, Integer> counts, K key, int delta) {
+            if (delta != 0) {
+                counts.merge(key, delta, (count, d) -> count + d == 0 ? null : count + d);
+            }
+        }
+    }
+
+    /**
+     * The owners changed by a transaction, with their counts from before it changed them; applied after it commits.
+     */
+    private final class OwnersChange implements TransactionSynchronization {
+
+        private final Set<Integer> ownerIds = new HashSet<>();
+
+        private final Counts before = new Counts();
+
+        /**
+         * Adds owners to the change, counting those not yet part of it.
+         */
+        void add(Set<Integer> ownerIds, Set<Integer> petIds, Set<Integer> visitIds) {
+            ownerIds.removeAll(this.ownerIds);
+            Scope scope = new Scope(ownerIds, petIds, visitIds, new HashSet<>(this.ownerIds));
+            if (!scope.isEmpty()) {
+                this.before.add(count(scope, this.ownerIds), 1);
+            }
+        }
+
+        /**
+         * Adds new owners to the change, which had nothing to count before.
+         */
+        void addCreated(Set<Integer> ownerIds) {
+            this.ownerIds.addAll(ownerIds);
+        }
+
+        StatisticsCounters counters() {
+            return StatisticsCounters.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            // the connection of the transaction is still bound and sees the committed rows
+            synchronized (StatisticsCounters.this) {
+                StatisticsCounters.this.committing++;
+            }
+            Counts after = null;
+            try {
+                after = count(new Scope(this.ownerIds, Set.of(), Set.of(), Set.of()), null);
+            } catch (DataAccessException ex) {
+                logger.warn("Could not count owners {} after a change, statistics are off until the next rebuild",
+                    this.ownerIds, ex);
+            } finally {
+                committed(this.before, after);
+            }
+        }
+    }
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ModificationTracker modificationTracker;
+
+    private Counts counts = new Counts();
+
+    /**
+     * The changes committed and not yet applied.
+     */
+    private int committing;
+
+    /**
+     * Whether a rebuild is loading, and whether a change was committed since it started.
+     */
+    private boolean rebuilding;
+
+    private boolean changedDuringRebuild;
+
+    public StatisticsCounters(DataSource dataSource, PlatformTransactionManager transactionManager,
+                              ModificationTracker modificationTracker) {
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.modificationTracker = modificationTracker;
+    }
+
+    /**
+     * Builds the counters before the application takes requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the counters from the database. When they were off, the statistics resource, which is tagged by the
+     * generation of the owners, gets a new generation so that clients do not keep revalidating the old counts.
+     */
+    @Scheduled(fixedDelayString = "${petclinic.statistics.rebuild-interval:PT1H}",
+        initialDelayString = "${petclinic.statistics.rebuild-interval:PT1H}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+            synchronized (this) {
+                this.rebuilding = true;
+                this.changedDuringRebuild = this.committing > 0;
+            }
+            Counts rebuilt;
+            try {
+                rebuilt = this.transactionTemplate.execute(status -> count(null, null));
+            } finally {
+                synchronized (this) {
+                    this.rebuilding = false;
+                }
+            }
+            boolean corrected;
+            synchronized (this) {
+                if (this.changedDuringRebuild || this.committing > 0) {
+                    continue;
+                }
+                corrected = !this.counts.sameCounts(rebuilt);
+                this.counts = rebuilt;
+            }
+            if (corrected) {
+                this.modificationTracker.modified(Resource.OWNERS);
+            }
+            logger.info("Counted {} owners, {} pets and {} visits for statistics in {} ms", rebuilt.owners,
+                rebuilt.pets, rebuilt.visits, (System.nanoTime() - start) / 1_000_000);
+            return;
+        }
+        logger.warn("Statistics not rebuilt: changes were committed during each of {} attempts", REBUILD_ATTEMPTS);
+    }
+
+    public synchronized ClinicStatistics getStatistics() {
+        return this.counts.snapshot();
+    }
+
+    /**
+     * Reports owners whose pets or visits the current transaction is about to change, or which it is about to
+     * delete. Must be called before the change is written.
+     */
+    public void ownersChanging(Collection<Integer> ownerIds) {
+        change(ownerIds, Set.of(), Set.of());
+    }
+
+    /**
+     * Reports an owner the current transaction created, with the pets saved along with it.
+     */
+    public void ownerCreated(Owner owner) {
+        OwnersChange change = currentChange();
+        if (change != null) {
+            change.addCreated(Set.of(owner.getId()));
+        }
+    }
+
+    /**
+     * Reports a pet the current transaction is about to save, with the owner it is saved with and the owner it
+     * belongs to so far, if any. Must be called before the pet is written.
+     */
+    public void petChanging(Pet pet) {
+        change(Collections.singleton(pet.getOwner() != null ? pet.getOwner().getId() : null),
+            Collections.singleton(pet.getId()), Set.of());
+    }
+
+    /**
+     * Reports visits the current transaction is about to save, with the owners of their pets and the owners they
+     * belong to so far, if any. Must be called before the visits are written.
+     */
+    public void visitsChanging(Collection<Visit> visits) {
+        Set<Integer> ownerIds = new HashSet<>();
+        Set<Integer> petIds = new HashSet<>();
+        Set<Integer> visitIds = new HashSet<>();
+        for (Visit visit : visits) {
+            Pet pet = visit.getPet();
+            if (pet != null && pet.getOwner() != null) {
+                ownerIds.add(pet.getOwner().getId());
+            } else if (pet != null) {
+                petIds.add(pet.getId());
+            }
+            visitIds.add(visit.getId());
+        }
+        change(ownerIds, petIds, visitIds);
+    }
+
+    public void petTypeSaved(PetType petType) {
+        int id = petType.getId();
+        String name = petType.getName();
+        afterCommit(() -> {
+            if (name != null) {
+                this.counts.petTypeNames.put(id, name);
+            }
+        });
+    }
+
+    /**
+     * Removes the name of a pet type. The owners of its pets, which are deleted with it, are reported by
+     * {@link #ownersChanging}.
+     */
+    public void petTypeRemoved(int id) {
+        afterCommit(() -> this.counts.petTypeNames.remove(id));
+    }
+
+    /**
+     * Adds owners, given by id or as the owners of pets or visits, to the change of the current transaction.
+     * Without a transaction the change is left to the next rebuild.
+     */
+    private void change(Collection<Integer> ownerIds, Collection<Integer> petIds, Collection<Integer> visitIds) {
+        Set<Integer> owners = withoutNull(ownerIds);
+        Set<Integer> pets = withoutNull(petIds);
+        Set<Integer> visits = withoutNull(visitIds);
+        if (owners.isEmpty() && pets.isEmpty() && visits.isEmpty()) {
+            return;
+        }
+        OwnersChange change = currentChange();
+        if (change != null) {
+            change.add(owners, pets, visits);
+        }
+    }
+
+    /**
+     * The change of the current transaction, registered on first use; <code>null</code> without a transaction.
+     */
+    private OwnersChange currentChange() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof OwnersChange change && change.counters() == this) {
+                return change;
+            }
+        }
+        OwnersChange change = new OwnersChange();
+        TransactionSynchronizationManager.registerSynchronization(change);
+        return change;
+    }
+
+    private static Set<Integer> withoutNull(Collection<Integer> ids) {
+        Set<Integer> set = new HashSet<>(ids);
+        set.remove(null);
+        return set;
+    }
+
+    /**
+     * Applies the counts of changed owners after the change, in place of their counts from before; without the
+     * counts after the change, only notes that one was committed.
+     */
+    private synchronized void committed(Counts before, Counts after) {
+        this.committing--;
+        if (this.rebuilding) {
+            this.changedDuringRebuild = true;
+        }
+        if (after != null) {
+            this.counts.add(after, 1);
+            this.counts.add(before, -1);
+        }
+    }
+
+    /**
+     * Counts the owners of the scope with their pets and visits, adding their ids to the given set if there is one,
+     * or, for a <code>null</code> scope, everything, pet type names included.
+     */
+    private Counts count(Scope scope, Set<Integer> countedOwnerIds) {
+        Counts counted = new Counts();
+        String sql;
+        MapSqlParameterSource params;
+        if (scope == null) {
+            this.namedParameterJdbcTemplate.query("SELECT id, name FROM types", rs -> {
+                if (rs.getString(2) != null) {
+                    counted.petTypeNames.put(rs.getInt(1), rs.getString(2));
+                }
+            });
+            sql = String.format(COUNTS, "1 = 1", "p.owner_id IS NOT NULL");
+            params = new MapSqlParameterSource();
+        } else {
+            sql = String.format(countedOwnerIds != null ? OWNER_IDS + COUNTS : COUNTS, scope.owners("o.id"),
+                scope.owners("p.owner_id"));
+            params = scope.params();
+        }
+        this.namedParameterJdbcTemplate.query(sql, params, rs -> {
+            int key = rs.getInt(2);
+            int count = rs.getInt(3);
+            switch (rs.getInt(1)) {
+                case OWNER_ID -> countedOwnerIds.add(key);
+                case OWNERS_PER_PET_COUNT -> {
+                    counted.owners += count;
+                    counted.pets += key * count;
+                    Counts.add(counted.ownersPerPetCount, key, count);
+                }
+                case PETS_PER_TYPE -> Counts.add(counted.petsPerType, key, count);
+                default -> {
+                    counted.visits += count;
+                    Counts.add(counted.visitsPerType, key, count);
+                    int year = rs.getInt(4);
+                    int month = rs.getInt(5);
+                    if (!rs.wasNull()) {
+                        Counts.add(counted.visitsPerMonth, YearMonth.of(year, month), count);
+                    }
+                }
+            }
+        });
+        return counted;
+    }
+
+    /**
+     * Applies a change once the current transaction commits, or right away if there is none.
+     */
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Runnable change) {
+        change.run();
+        if (this.rebuilding) {
+            this.changedDuringRebuild = true;
+        }
+    }
+
+}
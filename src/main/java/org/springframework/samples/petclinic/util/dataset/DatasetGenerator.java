@@ -0,0 +1,306 @@
+package org.springframework.samples.petclinic.util.dataset;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.samples.petclinic.repository.OwnerSummaryRepository;
+import org.springframework.samples.petclinic.repository.jdbc.JdbcOwnerSummaryRepositoryImpl;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Deterministic generator of large synthetic Petclinic datasets, used for load and scale testing.
+ * <p/>
+ * The same {@link DatasetOptions} (and in particular the same seed) always produce the same rows. Pets per owner
+ * follow a Zipf-like distribution (most owners have one pet, a few have many), visit counts per pet are Poisson
+ * distributed and visit dates are spread over several years of history. Rows are written with plain JDBC batch
+ * inserts, one transaction per chunk of owners, so the generator works against every supported schema and does not
+ * depend on the active repository profile. Finally the owner summaries read model is rebuilt, to cover the new rows.
+ *
+ * @see DatasetGeneratorApplication
+ */
+public class DatasetGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+        "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Christopher", "Nancy", "Daniel", "Lisa", "Matthew", "Betty", "Anthony", "Margaret", "Mark", "Sandra",
+        "Donald", "Ashley", "Steven", "Kimberly", "Paul", "Emily", "Andrew", "Donna", "Joshua", "Michelle",
+        "Kenneth", "Carol", "Kevin", "Amanda", "Brian", "Dorothy", "George", "Melissa", "Edward", "Deborah"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+        "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores",
+        "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter", "Roberts",
+        "Gomez", "Phillips", "Evans", "Turner", "Diaz", "Parker", "Cruz", "Edwards", "Collins", "Reyes",
+        "Stewart", "Morris", "Morales", "Murphy", "Cook", "Rogers", "Gutierrez", "Ortiz", "Morgan", "Cooper",
+        "Peterson", "Bailey", "Reed", "Kelly", "Howard", "Ramos", "Kim", "Cox", "Ward", "Richardson",
+        "Watson", "Brooks", "Chavez", "Wood", "James", "Bennett", "Gray", "Mendoza", "Ruiz", "Hughes",
+        "Price", "Alvarez", "Castillo", "Sanders", "Patel", "Myers", "Long", "Ross", "Foster", "Jimenez",
+        "Franklin", "McTavish", "Coleman", "Black", "Escobito", "Schroeder", "Estaban", "Leary", "Douglas", "Ortega"
+    };
+
+    private static final String[] CITIES = {
+        "Madison", "Sun Prairie", "McFarland", "Windsor", "Monona", "Waunakee", "Middleton", "Verona",
+        "Fitchburg", "Stoughton", "Oregon", "DeForest", "Cottage Grove", "Mount Horeb", "Cross Plains", "Belleville"
+    };
+
+    private static final String[] STREETS = {
+        "W. Liberty St.", "Cardinal Ave.", "Commerce St.", "Friendly St.", "S. Fair Way", "N. Lake St.",
+        "W. Lake St.", "Lakeview Blvd.", "Lakeside Dr.", "Prairie Rd.", "Main St.", "Oak Ave.", "Maple Ln.",
+        "Cedar Ct.", "Park Pl.", "Hillcrest Dr."
+    };
+
+    private static final String[] PET_NAMES = {
+        "Leo", "Basil", "Rosy", "Jewel", "Iggy", "George", "Samantha", "Max", "Lucky", "Mulligan", "Freddy",
+        "Sly", "Bella", "Charlie", "Luna", "Lucy", "Cooper", "Daisy", "Milo", "Bailey", "Coco", "Teddy",
+        "Oliver", "Nala", "Rocky", "Zoe", "Buddy", "Ruby", "Toby", "Pepper", "Loki", "Ginger", "Oscar", "Maggie"
+    };
+
+    private static final String[] VISIT_DESCRIPTIONS = {
+        "rabies shot", "neutered", "spayed", "annual checkup", "dental cleaning", "vaccination booster",
+        "skin allergy", "ear infection", "limping on front leg", "weight control", "blood work", "x-ray",
+        "stitches removed", "deworming", "microchip implant", "eye irritation", "upset stomach", "nail trim"
+    };
+
+    private static final String[] DEFAULT_PET_TYPES = {"cat", "dog", "lizard", "snake", "bird", "hamster"};
+
+    private static final String[] DEFAULT_SPECIALTIES = {
+        "radiology", "surgery", "dentistry", "cardiology", "dermatology", "oncology", "neurology", "ophthalmology"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OwnerSummaryRepository ownerSummaries;
+
+    public DatasetGenerator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ownerSummaries = new JdbcOwnerSummaryRepositoryImpl(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Generate a dataset described by the given options and bulk-load it into the data store.
+     * Existing rows are left untouched; generated rows are appended.
+     *
+     * @param options the size, shape and seed of the dataset
+     * @return the number of rows written per table
+     */
+    public DatasetSummary generate(DatasetOptions options) {
+        Assert.notNull(options, "DatasetOptions must not be null");
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(options.getSeed());
+        DatasetSummary summary = new DatasetSummary();
+
+        int[] typeIds = this.transactionTemplate.execute(status -> loadPetTypes(summary));
+        this.transactionTemplate.executeWithoutResult(status -> loadVetsAndSpecialties(options, random.split(), summary));
+
+        int batchSize = options.getBatchSize();
+        for (int offset = 0; offset < options.getOwners(); offset += batchSize) {
+            int chunk = Math.min(batchSize, options.getOwners() - offset);
+            SplittableRandom chunkRandom = random.split();
+            this.transactionTemplate.executeWithoutResult(status ->
+                loadOwnerChunk(options, chunk, typeIds, chunkRandom, summary));
+            if (logger.isDebugEnabled()) {
+                logger.debug("Generated {}/{} owners", offset + chunk, options.getOwners());
+            }
+        }
+        this.transactionTemplate.executeWithoutResult(status -> this.ownerSummaries.rebuild());
+        summary.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        logger.info("Generated dataset {}", summary);
+        return summary;
+    }
+
+    private int[] loadPetTypes(DatasetSummary summary) {
+        List<Integer> ids = this.jdbcTemplate.queryForList("SELECT id FROM types ORDER BY id", Integer.class);
+        if (ids.isEmpty()) {
+            int maxId = maxId("types");
+            List<Object[]> rows = new ArrayList<>();
+            for (String name : DEFAULT_PET_TYPES) {
+                rows.add(new Object[]{name});
+            }
+            this.jdbcTemplate.batchUpdate("INSERT INTO types (name) VALUES (?)", rows);
+            summary.setPetTypes(rows.size());
+            ids = idsAfter("types", maxId);
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void loadVetsAndSpecialties(DatasetOptions options, SplittableRandom random, DatasetSummary summary) {
+        int maxSpecialtyId = maxId("specialties");
+        List<Object[]> specialtyRows = new ArrayList<>();
+        for (int i = 0; i < options.getSpecialties(); i++) {
+            String name = DEFAULT_SPECIALTIES[i % DEFAULT_SPECIALTIES.length];
+            if (i >= DEFAULT_SPECIALTIES.length) {
+                name = name + " " + (i / DEFAULT_SPECIALTIES.length + 1);
+            }
+            specialtyRows.add(new Object[]{name});
+        }
+        this.jdbcTemplate.batchUpdate("INSERT INTO specialties (name) VALUES (?)", specialtyRows);
+        int[] specialtyIds = toArray(idsAfter("specialties", maxSpecialtyId));
+
+        int maxVetId = maxId("vets");
+        List<Object[]> vetRows = new ArrayList<>();
+        for (int i = 0; i < options.getVets(); i++) {
+            vetRows.add(new Object[]{pick(random, FIRST_NAMES), pick(random, LAST_NAMES)});
+        }
+        this.jdbcTemplate.batchUpdate("INSERT INTO vets (first_name, last_name) VALUES (?, ?)", vetRows);
+        int[] vetIds = toArray(idsAfter("vets", maxVetId));
+
+        List<Object[]> vetSpecialtyRows = new ArrayList<>();
+        ZipfSampler specialtiesPerVet = new ZipfSampler(4, 1.2);
+        for (int vetId : vetIds) {
+            // roughly half of the vets are general practitioners without any specialty
+            int count = Math.min(specialtiesPerVet.sample(random), specialtyIds.length);
+            int first = specialtyIds.length == 0 ? 0 : random.nextInt(specialtyIds.length);
+            for (int i = 0; i < count; i++) {
+                vetSpecialtyRows.add(new Object[]{vetId, specialtyIds[(first + i) % specialtyIds.length]});
+            }
+        }
+        this.jdbcTemplate.batchUpdate("INSERT INTO vet_specialties (vet_id, specialty_id) VALUES (?, ?)", vetSpecialtyRows);
+
+        summary.setSpecialties(specialtyIds.length);
+        summary.setVets(vetIds.length);
+        summary.setVetSpecialties(vetSpecialtyRows.size());
+    }
+
+    private void loadOwnerChunk(DatasetOptions options, int count, int[] typeIds, SplittableRandom random,
+                                DatasetSummary summary) {
+        LocalDate referenceDate = options.getReferenceDate();
+        ZipfSampler lastNames = new ZipfSampler(LAST_NAMES.length, 0.8);
+        ZipfSampler petsPerOwner = new ZipfSampler(options.getMaxPetsPerOwner(), options.getPetSkew());
+
+        int maxOwnerId = maxId("owners");
+        List<Object[]> ownerRows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ownerRows.add(new Object[]{
+                pick(random, FIRST_NAMES),
+                // a skewed last name distribution makes prefix searches behave like real data
+                LAST_NAMES[lastNames.sample(random)],
+                (1 + random.nextInt(9999)) + " " + pick(random, STREETS),
+                pick(random, CITIES),
+                String.format("608555%04d", random.nextInt(10000))
+            });
+        }
+        this.jdbcTemplate.batchUpdate(
+            "INSERT INTO owners (first_name, last_name, address, city, telephone) VALUES (?, ?, ?, ?, ?)", ownerRows);
+        int[] ownerIds = toArray(idsAfter("owners", maxOwnerId));
+
+        int maxPetId = maxId("pets");
+        List<Object[]> petRows = new ArrayList<>();
+        List<LocalDate> birthDates = new ArrayList<>();
+        for (int ownerId : ownerIds) {
+            // most owners have a single pet, a long tail has many
+            int pets = 1 + petsPerOwner.sample(random);
+            for (int i = 0; i < pets; i++) {
+                LocalDate birthDate = referenceDate.minusDays(random.nextInt(365 * 15));
+                birthDates.add(birthDate);
+                petRows.add(new Object[]{pick(random, PET_NAMES), Date.valueOf(birthDate), pick(random, typeIds), ownerId});
+            }
+        }
+        this.jdbcTemplate.batchUpdate(
+            "INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)", petRows);
+        int[] petIds = toArray(idsAfter("pets", maxPetId));
+
+        List<Object[]> visitRows = new ArrayList<>();
+        LocalDate historyStart = referenceDate.minusYears(options.getHistoryYears());
+        for (int i = 0; i < petIds.length; i++) {
+            LocalDate from = birthDates.get(i).isAfter(historyStart) ? birthDates.get(i) : historyStart;
+            int span = (int) Math.max(1, referenceDate.toEpochDay() - from.toEpochDay());
+            int visits = poisson(random, options.getAverageVisitsPerPet());
+            for (int v = 0; v < visits; v++) {
+                LocalDate visitDate = from.plusDays(random.nextInt(span));
+                visitRows.add(new Object[]{petIds[i], Date.valueOf(visitDate), pick(random, VISIT_DESCRIPTIONS)});
+            }
+        }
+        this.jdbcTemplate.batchUpdate(
+            "INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, ?)", visitRows);
+
+        summary.addOwners(ownerIds.length);
+        summary.addPets(petIds.length);
+        summary.addVisits(visitRows.size());
+    }
+
+    private int maxId(String table) {
+        Integer max = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Integer.class);
+        // HSQLDB identity columns start at 0, so an empty table must not be reported as max id 0
+        return max == null ? -1 : max;
+    }
+
+    /**
+     * Identity columns hand out increasing keys, so the rows written by the last batch are exactly those above the
+     * previous maximum. This avoids relying on batched generated keys, which not every driver supports.
+     */
+    private List<Integer> idsAfter(String table, int maxId) {
+        return this.jdbcTemplate.queryForList(
+            "SELECT id FROM " + table + " WHERE id > ? ORDER BY id", Integer.class, maxId);
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static int pick(SplittableRandom random, int[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Samples values in {@code [0, n)} where the probability of {@code k} is proportional to {@code 1 / (k + 1)^s}.
+     */
+    static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double s) {
+            Assert.isTrue(n > 0, "n must be positive");
+            this.cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, s);
+                this.cumulative[k] = sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double u = random.nextDouble() * this.cumulative[this.cumulative.length - 1];
+            int index = Arrays.binarySearch(this.cumulative, u);
+            return index >= 0 ? index : Math.min(-index - 1, this.cumulative.length - 1);
+        }
+    }
+
+    /**
+     * Knuth's Poisson sampler, good enough for the small means used here.
+     */
+    static int poisson(SplittableRandom random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+}
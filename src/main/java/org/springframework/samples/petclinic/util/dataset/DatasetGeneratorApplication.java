@@ -0,0 +1,85 @@
+package org.springframework.samples.petclinic.util.dataset;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Command line entry point of the {@link DatasetGenerator}, e.g.
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=org.springframework.samples.petclinic.util.dataset.DatasetGeneratorApplication \
+ *   -Dexec.args="--url=jdbc:postgresql://localhost/petclinic --username=petclinic --password=petclinic --owners=1000000"
+ * </pre>
+ * Supported options are {@code --url}, {@code --username}, {@code --password}, {@code --migrations} (Flyway
+ * locations migrated before loading, e.g. {@code classpath:db/postgres/migration}), {@code --seed},
+ * {@code --owners}, {@code --vets}, {@code --specialties}, {@code --max-pets-per-owner}, {@code --visits-per-pet},
+ * {@code --history-years}, {@code --reference-date} and {@code --batch-size}.
+ */
+public final class DatasetGeneratorApplication {
+
+    private DatasetGeneratorApplication() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> arguments = parse(args);
+        String url = arguments.get("url");
+        if (url == null) {
+            System.err.println("Missing required option --url=<jdbc url>");
+            System.exit(1);
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+            arguments.getOrDefault("username", ""), arguments.getOrDefault("password", ""));
+
+        if (arguments.containsKey("migrations")) {
+            Flyway.configure().dataSource(dataSource).locations(arguments.get("migrations").split(",")).load().migrate();
+        }
+
+        DatasetOptions options = new DatasetOptions();
+        if (arguments.containsKey("seed")) {
+            options.seed(Long.parseLong(arguments.get("seed")));
+        }
+        if (arguments.containsKey("owners")) {
+            options.owners(Integer.parseInt(arguments.get("owners")));
+        }
+        if (arguments.containsKey("vets")) {
+            options.vets(Integer.parseInt(arguments.get("vets")));
+        }
+        if (arguments.containsKey("specialties")) {
+            options.specialties(Integer.parseInt(arguments.get("specialties")));
+        }
+        if (arguments.containsKey("max-pets-per-owner")) {
+            options.maxPetsPerOwner(Integer.parseInt(arguments.get("max-pets-per-owner")));
+        }
+        if (arguments.containsKey("visits-per-pet")) {
+            options.averageVisitsPerPet(Double.parseDouble(arguments.get("visits-per-pet")));
+        }
+        if (arguments.containsKey("history-years")) {
+            options.historyYears(Integer.parseInt(arguments.get("history-years")));
+        }
+        if (arguments.containsKey("reference-date")) {
+            options.referenceDate(LocalDate.parse(arguments.get("reference-date")));
+        }
+        if (arguments.containsKey("batch-size")) {
+            options.batchSize(Integer.parseInt(arguments.get("batch-size")));
+        }
+
+        DatasetSummary summary = new DatasetGenerator(dataSource).generate(options);
+        System.out.println(summary);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options must be given as --name=value but was: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            arguments.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return arguments;
+    }
+
+}
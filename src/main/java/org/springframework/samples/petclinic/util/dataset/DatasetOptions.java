@@ -0,0 +1,145 @@
+package org.springframework.samples.petclinic.util.dataset;
+
+import java.time.LocalDate;
+
+import org.springframework.util.Assert;
+
+/**
+ * Size, shape and seed of a dataset produced by {@link DatasetGenerator}.
+ * <p/>
+ * The defaults describe a mid-size clinic; use the fluent setters to scale it up or down.
+ */
+public class DatasetOptions {
+
+    private long seed = 42L;
+
+    private int owners = 10_000;
+
+    private int vets = 50;
+
+    private int specialties = 8;
+
+    private int maxPetsPerOwner = 8;
+
+    private double petSkew = 1.6;
+
+    private double averageVisitsPerPet = 4.0;
+
+    private int historyYears = 5;
+
+    private LocalDate referenceDate = LocalDate.of(2025, 1, 1);
+
+    private int batchSize = 1_000;
+
+    public static DatasetOptions ofOwners(int owners) {
+        return new DatasetOptions().owners(owners);
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    public DatasetOptions seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getOwners() {
+        return this.owners;
+    }
+
+    public DatasetOptions owners(int owners) {
+        Assert.isTrue(owners >= 0, "owners must not be negative");
+        this.owners = owners;
+        return this;
+    }
+
+    public int getVets() {
+        return this.vets;
+    }
+
+    public DatasetOptions vets(int vets) {
+        Assert.isTrue(vets >= 0, "vets must not be negative");
+        this.vets = vets;
+        return this;
+    }
+
+    public int getSpecialties() {
+        return this.specialties;
+    }
+
+    public DatasetOptions specialties(int specialties) {
+        Assert.isTrue(specialties >= 0, "specialties must not be negative");
+        this.specialties = specialties;
+        return this;
+    }
+
+    public int getMaxPetsPerOwner() {
+        return this.maxPetsPerOwner;
+    }
+
+    public DatasetOptions maxPetsPerOwner(int maxPetsPerOwner) {
+        Assert.isTrue(maxPetsPerOwner > 0, "maxPetsPerOwner must be positive");
+        this.maxPetsPerOwner = maxPetsPerOwner;
+        return this;
+    }
+
+    /**
+     * Zipf exponent of the pets-per-owner distribution; higher values give more single-pet owners.
+     */
+    public double getPetSkew() {
+        return this.petSkew;
+    }
+
+    public DatasetOptions petSkew(double petSkew) {
+        this.petSkew = petSkew;
+        return this;
+    }
+
+    public double getAverageVisitsPerPet() {
+        return this.averageVisitsPerPet;
+    }
+
+    public DatasetOptions averageVisitsPerPet(double averageVisitsPerPet) {
+        Assert.isTrue(averageVisitsPerPet >= 0, "averageVisitsPerPet must not be negative");
+        this.averageVisitsPerPet = averageVisitsPerPet;
+        return this;
+    }
+
+    public int getHistoryYears() {
+        return this.historyYears;
+    }
+
+    public DatasetOptions historyYears(int historyYears) {
+        Assert.isTrue(historyYears > 0, "historyYears must be positive");
+        this.historyYears = historyYears;
+        return this;
+    }
+
+    /**
+     * The "today" of the generated clinic. Fixed by default so that generated dates do not depend on the clock.
+     */
+    public LocalDate getReferenceDate() {
+        return this.referenceDate;
+    }
+
+    public DatasetOptions referenceDate(LocalDate referenceDate) {
+        Assert.notNull(referenceDate, "referenceDate must not be null");
+        this.referenceDate = referenceDate;
+        return this;
+    }
+
+    /**
+     * Number of owners (with their pets and visits) written per JDBC batch and transaction.
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public DatasetOptions batchSize(int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+        this.batchSize = batchSize;
+        return this;
+    }
+
+}
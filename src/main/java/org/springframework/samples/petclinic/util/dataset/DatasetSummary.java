@@ -0,0 +1,104 @@
+package org.springframework.samples.petclinic.util.dataset;
+
+import org.springframework.core.style.ToStringCreator;
+
+/**
+ * Number of rows written by a {@link DatasetGenerator} run.
+ */
+public class DatasetSummary {
+
+    private int petTypes;
+
+    private int specialties;
+
+    private int vets;
+
+    private int vetSpecialties;
+
+    private long owners;
+
+    private long pets;
+
+    private long visits;
+
+    private long elapsedMillis;
+
+    public int getPetTypes() {
+        return this.petTypes;
+    }
+
+    void setPetTypes(int petTypes) {
+        this.petTypes = petTypes;
+    }
+
+    public int getSpecialties() {
+        return this.specialties;
+    }
+
+    void setSpecialties(int specialties) {
+        this.specialties = specialties;
+    }
+
+    public int getVets() {
+        return this.vets;
+    }
+
+    void setVets(int vets) {
+        this.vets = vets;
+    }
+
+    public int getVetSpecialties() {
+        return this.vetSpecialties;
+    }
+
+    void setVetSpecialties(int vetSpecialties) {
+        this.vetSpecialties = vetSpecialties;
+    }
+
+    public long getOwners() {
+        return this.owners;
+    }
+
+    void addOwners(long owners) {
+        this.owners += owners;
+    }
+
+    public long getPets() {
+        return this.pets;
+    }
+
+    void addPets(long pets) {
+        this.pets += pets;
+    }
+
+    public long getVisits() {
+        return this.visits;
+    }
+
+    void addVisits(long visits) {
+        this.visits += visits;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringCreator(this)
+            .append("petTypes", this.petTypes)
+            .append("specialties", this.specialties)
+            .append("vets", this.vets)
+            .append("vetSpecialties", this.vetSpecialties)
+            .append("owners", this.owners)
+            .append("pets", this.pets)
+            .append("visits", this.visits)
+            .append("elapsedMillis", this.elapsedMillis)
+            .toString();
+    }
+
+}
@@ -0,0 +1,4 @@
+-- Visits are looked up by date range, alone or for one pet. H2 keeps the index backing
+-- the foreign key on visits(pet_id) next to the composite one.
+CREATE INDEX idx_visits_pet_id_visit_date ON visits(pet_id, visit_date);
+CREATE INDEX idx_visits_visit_date ON visits(visit_date);
@@ -0,0 +1,3 @@
+-- HSQLDB backs every foreign key with an index, so pets(owner_id), pets(type_id) and
+-- vet_specialties(specialty_id) are already indexed; only the primary key is missing.
+ALTER TABLE vet_specialties ADD CONSTRAINT pk_vet_specialties PRIMARY KEY (vet_id, specialty_id);
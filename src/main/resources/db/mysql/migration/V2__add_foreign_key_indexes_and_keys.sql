@@ -0,0 +1,4 @@
+-- InnoDB backs every foreign key with an index, so pets(owner_id), pets(type_id) and
+-- vet_specialties(specialty_id) are already indexed. The primary key replaces the unique
+-- key on (vet_id, specialty_id), which MySQL named after its first column.
+ALTER TABLE vet_specialties ADD PRIMARY KEY (vet_id, specialty_id), DROP INDEX vet_id;
@@ -0,0 +1,20 @@
+-- Read model of the owner lists, one row per owner, maintained by ClinicService on every
+-- change of an owner, pet or visit. No foreign key, as it is refreshed after the owner is deleted.
+CREATE TABLE IF NOT EXISTS owner_summary (
+  id INT(4) UNSIGNED NOT NULL PRIMARY KEY,
+  first_name VARCHAR(30),
+  last_name VARCHAR(30),
+  city VARCHAR(80),
+  telephone VARCHAR(20),
+  pet_names VARCHAR(4000),
+  pet_count INT DEFAULT 0 NOT NULL,
+  last_visit_date DATE,
+  INDEX(last_name, id)
+) engine=InnoDB;
+
+INSERT INTO owner_summary (id, first_name, last_name, city, telephone, pet_names, pet_count, last_visit_date)
+SELECT o.id, o.first_name, o.last_name, o.city, o.telephone,
+       (SELECT GROUP_CONCAT(p.name ORDER BY p.name SEPARATOR ', ') FROM pets p WHERE p.owner_id = o.id),
+       (SELECT COUNT(*) FROM pets p WHERE p.owner_id = o.id),
+       (SELECT MAX(v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id WHERE p.owner_id = o.id)
+FROM owners o;
@@ -0,0 +1,6 @@
+-- Visits are looked up by date range, alone or for one pet. The composite index takes over
+-- the foreign key on visits(pet_id) from the index InnoDB created for it, named after its column.
+ALTER TABLE visits
+  ADD INDEX visits_pet_id_visit_date (pet_id, visit_date),
+  ADD INDEX visits_visit_date (visit_date),
+  DROP INDEX pet_id;
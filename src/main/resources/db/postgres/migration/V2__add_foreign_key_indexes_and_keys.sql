@@ -0,0 +1,6 @@
+-- PostgreSQL does not index foreign key columns by itself; pets(owner_id) already has an index.
+ALTER TABLE vet_specialties DROP CONSTRAINT IF EXISTS vet_specialties_vet_id_specialty_id_key;
+ALTER TABLE vet_specialties ADD PRIMARY KEY (vet_id, specialty_id);
+
+CREATE INDEX IF NOT EXISTS vet_specialties_specialty_id_idx ON vet_specialties (specialty_id);
+CREATE INDEX IF NOT EXISTS pets_type_id_idx ON pets (type_id);
@@ -0,0 +1,20 @@
+-- Read model of the owner lists, one row per owner, maintained by ClinicService on every
+-- change of an owner, pet or visit. No foreign key, as it is refreshed after the owner is deleted.
+CREATE TABLE IF NOT EXISTS owner_summary (
+                                             id              INT NOT NULL PRIMARY KEY,
+                                             first_name      TEXT,
+                                             last_name       TEXT,
+                                             city            TEXT,
+                                             telephone       TEXT,
+                                             pet_names       TEXT,
+                                             pet_count       INT DEFAULT 0 NOT NULL,
+                                             last_visit_date DATE
+);
+CREATE INDEX ON owner_summary (last_name, id);
+
+INSERT INTO owner_summary (id, first_name, last_name, city, telephone, pet_names, pet_count, last_visit_date)
+SELECT o.id, o.first_name, o.last_name, o.city, o.telephone,
+       (SELECT string_agg(p.name, ', ' ORDER BY p.name) FROM pets p WHERE p.owner_id = o.id),
+       (SELECT COUNT(*) FROM pets p WHERE p.owner_id = o.id),
+       (SELECT MAX(v.visit_date) FROM visits v JOIN pets p ON p.id = v.pet_id WHERE p.owner_id = o.id)
+FROM owners o;
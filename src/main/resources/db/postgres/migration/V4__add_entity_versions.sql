@@ -0,0 +1,9 @@
+-- Version column of every entity table, advanced by each update and checked by optimistic locking.
+-- Existing rows start at version 0.
+ALTER TABLE vets ADD COLUMN version INT DEFAULT 0 NOT NULL;
+ALTER TABLE specialties ADD COLUMN version INT DEFAULT 0 NOT NULL;
+ALTER TABLE types ADD COLUMN version INT DEFAULT 0 NOT NULL;
+ALTER TABLE owners ADD COLUMN version INT DEFAULT 0 NOT NULL;
+ALTER TABLE pets ADD COLUMN version INT DEFAULT 0 NOT NULL;
+ALTER TABLE visits ADD COLUMN version INT DEFAULT 0 NOT NULL;
+ALTER TABLE roles ADD COLUMN version INT DEFAULT 0 NOT NULL;
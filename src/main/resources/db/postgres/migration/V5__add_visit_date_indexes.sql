@@ -0,0 +1,5 @@
+-- Visits are looked up by date range, alone or for one pet. The composite index replaces
+-- the one on visits(pet_id), as it serves the lookups by pet as well.
+DROP INDEX IF EXISTS visits_pet_id_idx;
+CREATE INDEX IF NOT EXISTS visits_pet_id_visit_date_idx ON visits (pet_id, visit_date);
+CREATE INDEX IF NOT EXISTS visits_visit_date_idx ON visits (visit_date);
@@ -24,7 +24,7 @@ import static org.hamcrest.Matchers.notNullValue;
     properties = {
         "petclinic.security.enable=false",
         "spring.jpa.hibernate.ddl-auto=create-drop", // <-- Добавлено
-        "spring.sql.init.mode=never"                 // <-- Добавлено: не запускать schema.sql
+        "spring.flyway.enabled=false"                // <-- Добавлено: не запускать миграции
     }
 )
 class WetClinicRestApiTest {
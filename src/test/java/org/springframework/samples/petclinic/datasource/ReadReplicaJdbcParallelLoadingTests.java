@@ -0,0 +1,89 @@
+package org.springframework.samples.petclinic.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.repository.jdbc.JdbcParallelLoader;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the jdbc repositories with parallel loading against the {@code replica} profile: the forked queries run
+ * outside of the caller's transaction, so they must not load from the primary what a read-only caller reads from the
+ * replica.
+ */
+@SpringBootTest
+@ActiveProfiles({"h2", "jdbc", "replica"})
+@TestPropertySource(properties = {
+    "spring.sql.init.platform=h2",
+    "spring.h2.console.enabled=false",
+    "petclinic.jdbc.parallel-loading.enabled=true",
+    "spring.datasource.url=jdbc:h2:mem:parallelprimary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "petclinic.datasource.replicas.urls=jdbc:h2:mem:parallelreplica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+class ReadReplicaJdbcParallelLoadingTests {
+
+    @Autowired
+    private ClinicService clinicService;
+
+    @Autowired
+    private JdbcParallelLoader parallelLoader;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldNotForkInReadOnlyTransaction() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertThat(parallelLoader.isApplicable()).isTrue();
+        Boolean applicable = readOnly.execute(status -> parallelLoader.isApplicable());
+        assertThat(applicable).isFalse();
+    }
+
+    @Test
+    void shouldReadOwnWriteFromPrimaryOnly() {
+        inRequestFrom("10.0.0.1");
+        Owner owner = newOwner();
+        clinicService.saveOwner(owner);
+
+        assertThat(clinicService.findOwnerById(owner.getId())).isPresent();
+
+        inRequestFrom("10.0.0.2");
+        assertThat(clinicService.findOwnerById(owner.getId())).isEmpty();
+        assertThat(clinicService.findOwnerById(1).orElseThrow().getLastName()).isEqualTo("Franklin");
+    }
+
+    private static Owner newOwner() {
+        Owner owner = new Owner();
+        owner.setFirstName("Sam");
+        owner.setLastName("Schultz");
+        owner.setAddress("4, Evans Street");
+        owner.setCity("Wollongong");
+        owner.setTelephone("4444444444");
+        return owner;
+    }
+
+    private static void inRequestFrom(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+        request.setRemoteAddr(remoteAddress);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.springframework.samples.petclinic.datasource;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the service against the {@code replica} profile: the replica holds the sample data but does not receive the
+ * writes, so a new owner is only found by the reads pinned to the primary.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles({"h2", "spring-data-jpa", "replica"})
+@TestPropertySource(properties = {
+    "spring.sql.init.platform=h2",
+    "spring.h2.console.enabled=false",
+    "petclinic.etag.generations.enabled=true",
+    "spring.datasource.url=jdbc:h2:mem:replicaprimary;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "petclinic.datasource.replicas.urls=jdbc:h2:mem:replicareplica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+class ReadReplicaSpringDataJpaTests {
+
+    @Autowired
+    private ClinicService clinicService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldRouteThroughReadWriteRoutingDataSource() {
+        assertThat(dataSource).isInstanceOf(ReadWriteRoutingDataSource.class);
+        assertThat(((ReadWriteRoutingDataSource) dataSource).getReplicas()).hasSize(1);
+    }
+
+    @Test
+    void shouldReadSampleDataFromMigratedReplica() {
+        assertThat(clinicService.findOwnerById(1).orElseThrow().getLastName()).isEqualTo("Franklin");
+    }
+
+    @Test
+    void shouldReadOwnWriteFromPrimaryOnly() {
+        inRequestFrom("10.0.0.1");
+        Owner owner = newOwner();
+        clinicService.saveOwner(owner);
+
+        assertThat(clinicService.findOwnerById(owner.getId())).isPresent();
+
+        inRequestFrom("10.0.0.2");
+        assertThat(clinicService.findOwnerById(owner.getId())).isEmpty();
+    }
+
+    @Test
+    @WithMockUser(roles = "VET_ADMIN")
+    void shouldTagByBodyInsteadOfGeneration() throws Exception {
+        String etag = this.mockMvc.perform(get("/api/vets"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isNotNull().doesNotStartWith("\"vets-");
+    }
+
+    private static Owner newOwner() {
+        Owner owner = new Owner();
+        owner.setFirstName("Sam");
+        owner.setLastName("Schultz");
+        owner.setAddress("4, Evans Street");
+        owner.setCity("Wollongong");
+        owner.setTelephone("4444444444");
+        return owner;
+    }
+
+    private static void inRequestFrom(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+        request.setRemoteAddr(remoteAddress);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+}
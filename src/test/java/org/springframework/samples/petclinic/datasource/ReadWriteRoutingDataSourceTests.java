@@ -0,0 +1,179 @@
+package org.springframework.samples.petclinic.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link ReadWriteRoutingDataSource}, with in-memory H2 databases standing in for the primary and the
+ * replicas; each one answers {@code select name from origin} with its own name.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private final DataSource primary = database("primary");
+
+    private final DataSource replica1 = database("replica-1");
+
+    private final DataSource replica2 = database("replica-2");
+
+    private final DataSource unavailable = new DelegatingDataSource(replica1) {
+        @Override
+        public Connection getConnection() throws SQLException {
+            throw new SQLException("Connection is not available, request timed out after 30000ms");
+        }
+    };
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void routeTo() {
+        route(List.of(replica1, replica2), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldReadFromReplicaInReadOnlyTransaction() {
+        assertThat(readOnlyOrigin()).startsWith("replica-");
+    }
+
+    @Test
+    void shouldUsePrimaryInReadWriteTransactionAndOutsideTransactions() {
+        assertThat(readWriteOrigin()).isEqualTo("primary");
+        assertThat(origin()).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldSpreadReadOnlyTransactionsRoundRobin() {
+        assertThat(List.of(readOnlyOrigin(), readOnlyOrigin(), readOnlyOrigin(), readOnlyOrigin()))
+            .containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+    }
+
+    @Test
+    void shouldSkipUnavailableReplica() {
+        route(List.of(unavailable, replica2), Duration.ofSeconds(5));
+
+        assertThat(readOnlyOrigin()).isEqualTo("replica-2");
+        assertThat(readOnlyOrigin()).isEqualTo("replica-2");
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhenNoReplicaIsAvailable() {
+        route(List.of(unavailable), Duration.ofSeconds(5));
+
+        assertThat(readOnlyOrigin()).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldPinSessionToPrimaryAfterWrite() {
+        inRequestFrom("10.0.0.1");
+        write();
+
+        assertThat(readOnlyOrigin()).isEqualTo("primary");
+        nanoClock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(readOnlyOrigin()).isEqualTo("primary");
+
+        inRequestFrom("10.0.0.2");
+        assertThat(readOnlyOrigin()).startsWith("replica-");
+    }
+
+    @Test
+    void shouldReleaseSessionOnceWindowHasPassed() {
+        inRequestFrom("10.0.0.1");
+        write();
+
+        nanoClock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThat(readOnlyOrigin()).startsWith("replica-");
+    }
+
+    @Test
+    void shouldNotPinSessionAfterRollback() {
+        inRequestFrom("10.0.0.1");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into origin (name) values ('written')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnlyOrigin()).startsWith("replica-");
+    }
+
+    @Test
+    void shouldNotPinWhenReadYourWritesIsDisabled() {
+        route(List.of(replica1), Duration.ZERO);
+        inRequestFrom("10.0.0.1");
+        write();
+
+        assertThat(readOnlyOrigin()).isEqualTo("replica-1");
+    }
+
+    private void route(List<DataSource> replicas, Duration readYourWrites) {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replicas,
+            new ReadYourWrites(readYourWrites, nanoClock::get));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    private void write() {
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("delete from origin where name = 'written'"));
+    }
+
+    private String readOnlyOrigin() {
+        return readOnly.execute(status -> origin());
+    }
+
+    private String readWriteOrigin() {
+        return readWrite.execute(status -> origin());
+    }
+
+    private String origin() {
+        return jdbcTemplate.queryForObject("select name from origin order by name limit 1", String.class);
+    }
+
+    private static void inRequestFrom(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+        request.setRemoteAddr(remoteAddress);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static DataSource database(String name) {
+        DataSource database = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table origin (name varchar(30))");
+        jdbcTemplate.update("insert into origin (name) values (?)", name);
+        return database;
+    }
+
+}
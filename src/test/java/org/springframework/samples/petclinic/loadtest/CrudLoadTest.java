@@ -0,0 +1,67 @@
+package org.springframework.samples.petclinic.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the JMeter CRUD mix with the {@link OpenLoopLoadGenerator} against the application on a random port and
+ * writes the summary table to {@code target/loadtest/crud-mix.md}. Tagged {@code load}, so it only runs in the
+ * {@code load-test} Maven profile; the defaults keep the run short, for a real measurement raise them, e.g.
+ * <pre>
+ * mvn -Pload-test test -Dloadtest.concurrency=100 -Dloadtest.rate=200 -Dloadtest.duration=300
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"h2", "spring-data-jpa"})
+@TestPropertySource(
+    properties = {
+        "petclinic.security.enable=false",
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false"
+    }
+)
+@Tag("load")
+class CrudLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrudLoadTest.class);
+
+    private static final Path SUMMARY = Path.of("target", "loadtest", "crud-mix.md");
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void shouldRunCrudMixWithoutErrors() throws InterruptedException, IOException {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties(8, 10, Duration.ofSeconds(5));
+        LatencyRecorder recorder = new LatencyRecorder();
+        CrudScenario scenario = new CrudScenario("http://localhost:" + port + "/petclinic/api", 1);
+
+        // warm up JIT, connection pool and Hibernate before measuring
+        new OpenLoopLoadGenerator(new LoadTestOptions().concurrency(options.getConcurrency()).rate(options.getRate())
+            .duration(Duration.ofSeconds(3))).run(scenario, new LatencyRecorder());
+        long iterations = new OpenLoopLoadGenerator(options).run(scenario, recorder);
+
+        String summary = recorder.toMarkdownTable();
+        Files.createDirectories(SUMMARY.getParent());
+        Files.writeString(SUMMARY, summary);
+        logger.info("CRUD mix summary, also written to {}:\n{}", SUMMARY.toAbsolutePath(), summary);
+        assertThat(recorder.getTotalErrors()).isZero();
+        assertThat(recorder.getCount(CrudScenario.CREATE_OWNER)).isEqualTo(iterations);
+        assertThat(recorder.getCount(CrudScenario.DELETE_OWNER)).isEqualTo(iterations);
+    }
+
+}
@@ -0,0 +1,144 @@
+package org.springframework.samples.petclinic.loadtest;
+
+import java.util.function.Supplier;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * The CRUD session of {@code src/test/jmeter/petclinic-jmeter-crud-benchmark.jmx}: create an owner, add a pet,
+ * schedule a visit, update owner and pet, read the pet back and delete pet and owner. Transactions are recorded
+ * under the same names as in the JMeter summary table.
+ * <p/>
+ * The first request is timed from the iteration's intended start, every following request from when the
+ * previous one returned. A failed request ends the iteration, since the remaining requests depend on its result.
+ */
+public class CrudScenario implements OpenLoopLoadGenerator.Scenario {
+
+    public static final String CREATE_OWNER = "Create Owner";
+
+    public static final String ADD_PET_TO_OWNER = "Add Pet to Owner";
+
+    public static final String SCHEDULE_VISIT = "Schedule Visit";
+
+    public static final String UPDATE_OWNER = "Update Owner";
+
+    public static final String UPDATE_PET = "Update Pet";
+
+    public static final String GET_PET_BELONGING_TO_OWNER = "Get Pet Belonging to Owner";
+
+    public static final String DELETE_PET = "Delete Pet";
+
+    public static final String DELETE_OWNER = "Delete Owner";
+
+    private final RequestSpecification specification;
+
+    private final int petTypeId;
+
+    /**
+     * @param baseUri   e.g. {@code http://localhost:9966/petclinic/api}
+     * @param petTypeId an existing pet type used for the created pets
+     */
+    public CrudScenario(String baseUri, int petTypeId) {
+        this.specification = new RequestSpecBuilder()
+            .setBaseUri(baseUri)
+            .setContentType(ContentType.JSON)
+            .setAccept(ContentType.JSON)
+            .build();
+        this.petTypeId = petTypeId;
+    }
+
+    @Override
+    public void run(long intendedStartNanos, LatencyRecorder recorder) {
+        Step step = new Step(recorder, intendedStartNanos);
+
+        Response owner = step.execute(CREATE_OWNER, 201, () -> request()
+            .body(owner("John", "Doe", "1234 Elm St", "Austin", "5121234567"))
+            .post("/owners"));
+        if (owner == null) {
+            return;
+        }
+        int ownerId = owner.path("id");
+
+        Response pet = step.execute(ADD_PET_TO_OWNER, 201, () -> request()
+            .body(pet("Buddy", "2022-06-15"))
+            .post("/owners/{ownerId}/pets", ownerId));
+        if (pet == null) {
+            return;
+        }
+        int petId = pet.path("id");
+
+        boolean completed = step.execute(SCHEDULE_VISIT, 201, () -> request()
+            .body("{\"petId\": " + petId + ", \"date\": \"2025-02-21\", \"description\": \"Annual check-up\"}")
+            .post("/visits")) != null
+            && step.execute(UPDATE_OWNER, 204, () -> request()
+            .body(owner("JohnUpdated", "DoeUpdated", "5678 Oak St", "Houston", "7139876543"))
+            .put("/owners/{ownerId}", ownerId)) != null
+            && step.execute(UPDATE_PET, 204, () -> request()
+            .body(pet("Buddy Updated", "2022-06-20"))
+            .put("/pets/{petId}", petId)) != null
+            && step.execute(GET_PET_BELONGING_TO_OWNER, 200, () -> request()
+            .get("/owners/{ownerId}/pets/{petId}", ownerId, petId)) != null
+            && step.execute(DELETE_PET, 204, () -> request()
+            .delete("/pets/{petId}", petId)) != null;
+        if (completed) {
+            step.execute(DELETE_OWNER, 204, () -> request().delete("/owners/{ownerId}", ownerId));
+        }
+    }
+
+    private RequestSpecification request() {
+        return given().spec(this.specification);
+    }
+
+    private static String owner(String firstName, String lastName, String address, String city, String telephone) {
+        return """
+            {"firstName": "%s", "lastName": "%s", "address": "%s", "city": "%s", "telephone": "%s"}
+            """.formatted(firstName, lastName, address, city, telephone);
+    }
+
+    private String pet(String name, String birthDate) {
+        return """
+            {"name": "%s", "birthDate": "%s", "type": {"id": %d, "name": "any"}}
+            """.formatted(name, birthDate, this.petTypeId);
+    }
+
+    /**
+     * Times consecutive requests of one iteration, each starting where the previous one ended.
+     */
+    private static final class Step {
+
+        private final LatencyRecorder recorder;
+
+        private long startNanos;
+
+        private Step(LatencyRecorder recorder, long intendedStartNanos) {
+            this.recorder = recorder;
+            this.startNanos = intendedStartNanos;
+        }
+
+        /**
+         * @return the response, or {@code null} if the request failed or returned an unexpected status
+         */
+        private Response execute(String transaction, int expectedStatus, Supplier<Response> request) {
+            Response response = null;
+            try {
+                response = request.get();
+            } catch (RuntimeException ex) {
+                // connection refused, reset, ... counted like an unexpected status below
+            }
+            long now = System.nanoTime();
+            this.recorder.record(transaction, now - this.startNanos);
+            this.startNanos = now;
+            if (response == null || response.statusCode() != expectedStatus) {
+                this.recorder.recordError(transaction);
+                return null;
+            }
+            return response;
+        }
+    }
+
+}
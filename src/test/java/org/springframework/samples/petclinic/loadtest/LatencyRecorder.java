@@ -0,0 +1,137 @@
+package org.springframework.samples.petclinic.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects response times per transaction name and renders them in the same summary table as
+ * {@code src/test/jmeter/README.md}.
+ * <p/>
+ * Every sample is kept, so percentiles are exact; a run of a few minutes at a few hundred operations per second
+ * stays well within a few megabytes.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+
+    public void record(String transaction, long latencyNanos) {
+        transaction(transaction).samples.add(latencyNanos);
+    }
+
+    public void recordError(String transaction) {
+        transaction(transaction).errors.incrementAndGet();
+    }
+
+    public long getCount(String transaction) {
+        Transaction t = this.transactions.get(transaction);
+        return t == null ? 0 : t.samples.size();
+    }
+
+    public long getErrors(String transaction) {
+        Transaction t = this.transactions.get(transaction);
+        return t == null ? 0 : t.errors.get();
+    }
+
+    public long getTotalErrors() {
+        return this.transactions.values().stream().mapToLong(t -> t.errors.get()).sum();
+    }
+
+    public List<Summary> summarize() {
+        List<Summary> summaries = new ArrayList<>();
+        this.transactions.forEach((name, transaction) -> summaries.add(transaction.summarize(name)));
+        summaries.sort((left, right) -> left.name().compareTo(right.name()));
+        return summaries;
+    }
+
+    /**
+     * Renders the Markdown summary table, one row per transaction in alphabetical order.
+     */
+    public String toMarkdownTable() {
+        List<Summary> summaries = summarize();
+        int nameWidth = "**Transaction**".length();
+        for (Summary summary : summaries) {
+            nameWidth = Math.max(nameWidth, summary.name().length() + 4);
+        }
+        String[] headers = {"**Total Requests**", "**Avg Response Time (ms)**", "**Min Response Time (ms)**",
+            "**Max Response Time (ms)**", "**90th Percentile (ms)**", "**95th Percentile (ms)**",
+            "**99th Percentile (ms)**"};
+
+        StringBuilder table = new StringBuilder();
+        table.append("| ").append(pad("**Transaction**", nameWidth)).append(" |");
+        for (String header : headers) {
+            table.append(' ').append(header).append(" |");
+        }
+        table.append('\n').append('|').append("-".repeat(nameWidth + 2)).append('|');
+        for (String header : headers) {
+            table.append("-".repeat(header.length() + 2)).append('|');
+        }
+        table.append('\n');
+        for (Summary summary : summaries) {
+            String[] cells = {String.format("%,d", summary.count()), format(summary.avgMillis()),
+                String.valueOf(Math.round(summary.minMillis())), String.valueOf(Math.round(summary.maxMillis())),
+                format(summary.p90Millis()), format(summary.p95Millis()), format(summary.p99Millis())};
+            table.append("| ").append(pad("**" + summary.name() + "**", nameWidth)).append(" |");
+            for (int i = 0; i < cells.length; i++) {
+                table.append(' ').append(pad(cells[i], headers[i].length())).append(" |");
+            }
+            table.append('\n');
+        }
+        return table.toString();
+    }
+
+    private Transaction transaction(String name) {
+        return this.transactions.computeIfAbsent(name, key -> new Transaction());
+    }
+
+    private static String format(double millis) {
+        return String.format("%.2f", millis);
+    }
+
+    private static String pad(String value, int width) {
+        return value.length() >= width ? value : value + " ".repeat(width - value.length());
+    }
+
+    /**
+     * Linearly interpolated percentile over sorted samples.
+     */
+    static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        double rank = percentile / 100.0 * (sorted.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = (int) Math.ceil(rank);
+        return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+    }
+
+    private static final class Transaction {
+
+        private final ConcurrentLinkedQueue<Long> samples = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        private Summary summarize(String name) {
+            long[] sorted = this.samples.stream().mapToLong(Long::longValue).sorted().toArray();
+            double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            double avg = sorted.length == 0 ? 0 : Arrays.stream(sorted).average().getAsDouble();
+            return new Summary(name, sorted.length, this.errors.get(),
+                avg / nanosPerMilli,
+                sorted.length == 0 ? 0 : sorted[0] / nanosPerMilli,
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / nanosPerMilli,
+                percentile(sorted, 90) / nanosPerMilli,
+                percentile(sorted, 95) / nanosPerMilli,
+                percentile(sorted, 99) / nanosPerMilli);
+        }
+    }
+
+    public record Summary(String name, long count, long errors, double avgMillis, double minMillis,
+                          double maxMillis, double p90Millis, double p95Millis, double p99Millis) {
+    }
+
+}
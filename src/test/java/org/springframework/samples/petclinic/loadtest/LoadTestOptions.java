@@ -0,0 +1,68 @@
+package org.springframework.samples.petclinic.loadtest;
+
+import java.time.Duration;
+
+import org.springframework.util.Assert;
+
+/**
+ * Workload of an {@link OpenLoopLoadGenerator} run. Mirrors the parameters of the JMeter plan: {@code threads}
+ * becomes {@link #getConcurrency() concurrency}, {@code ops} becomes {@link #getRate() rate} and {@code duration}
+ * stays {@link #getDuration() duration}. There is no ramp-up: an open-loop generator starts at the target rate.
+ */
+public class LoadTestOptions {
+
+    private int concurrency = 50;
+
+    private double rate = 100;
+
+    private Duration duration = Duration.ofSeconds(30);
+
+    /**
+     * Reads {@code loadtest.concurrency}, {@code loadtest.rate} and {@code loadtest.duration} (seconds) from the
+     * system properties, falling back to the given defaults.
+     */
+    public static LoadTestOptions fromSystemProperties(int concurrency, double rate, Duration duration) {
+        return new LoadTestOptions()
+            .concurrency(Integer.getInteger("loadtest.concurrency", concurrency))
+            .rate(Double.parseDouble(System.getProperty("loadtest.rate", String.valueOf(rate))))
+            .duration(Duration.ofSeconds(Long.getLong("loadtest.duration", duration.toSeconds())));
+    }
+
+    /**
+     * Maximum number of scenario iterations in flight. Iterations that cannot start on time wait for a free slot,
+     * and the wait is counted in their response times.
+     */
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    public LoadTestOptions concurrency(int concurrency) {
+        Assert.isTrue(concurrency > 0, "concurrency must be positive");
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Target number of scenario iterations started per second.
+     */
+    public double getRate() {
+        return this.rate;
+    }
+
+    public LoadTestOptions rate(double rate) {
+        Assert.isTrue(rate > 0, "rate must be positive");
+        this.rate = rate;
+        return this;
+    }
+
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    public LoadTestOptions duration(Duration duration) {
+        Assert.isTrue(duration != null && !duration.isNegative() && !duration.isZero(), "duration must be positive");
+        this.duration = duration;
+        return this;
+    }
+
+}
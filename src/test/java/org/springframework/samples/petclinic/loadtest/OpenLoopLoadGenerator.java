@@ -0,0 +1,91 @@
+package org.springframework.samples.petclinic.loadtest;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts scenario iterations on a fixed schedule, independent of how fast the server answers (an open-loop
+ * generator). Iteration {@code n} is due at {@code start + n / rate}; its first transaction is timed from that
+ * intended start rather than from when a worker happened to pick it up, so a stalled server shows up as latency
+ * instead of silently lowering the offered load (coordinated omission).
+ * <p/>
+ * Each iteration runs on its own virtual thread when the JVM supports them (JDK 21+) and on a cached platform
+ * thread otherwise; at most {@link LoadTestOptions#getConcurrency()} iterations are in flight.
+ */
+public class OpenLoopLoadGenerator {
+
+    /**
+     * Transaction name under which iterations aborted by an exception the scenario did not handle are counted.
+     */
+    public static final String UNEXPECTED_FAILURE = "Unexpected Failure";
+
+    private final LoadTestOptions options;
+
+    public OpenLoopLoadGenerator(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Runs the scenario for the configured duration and waits for in-flight iterations to complete.
+     *
+     * @return the number of iterations started
+     */
+    public long run(Scenario scenario, LatencyRecorder recorder) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / this.options.getRate());
+        long start = System.nanoTime();
+        long end = start + this.options.getDuration().toNanos();
+        Semaphore inFlight = new Semaphore(this.options.getConcurrency());
+        long iterations = 0;
+
+        ExecutorService executor = newExecutor();
+        try {
+            for (long intendedStart = start; intendedStart < end; intendedStart = start + ++iterations * intervalNanos) {
+                for (long wait = intendedStart - System.nanoTime(); wait > 0; wait = intendedStart - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                inFlight.acquire();
+                long scheduled = intendedStart;
+                executor.execute(() -> {
+                    try {
+                        scenario.run(scheduled, recorder);
+                    } catch (RuntimeException ex) {
+                        recorder.recordError(UNEXPECTED_FAILURE);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return iterations;
+    }
+
+    static ExecutorService newExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            // Pre-21 JVM: the semaphore still bounds the number of threads to the configured concurrency
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * One iteration of a workload, e.g. a user session made of several dependent requests.
+     */
+    @FunctionalInterface
+    public interface Scenario {
+
+        /**
+         * @param intendedStartNanos the {@link System#nanoTime()} at which this iteration was due to start
+         */
+        void run(long intendedStartNanos, LatencyRecorder recorder);
+    }
+
+}
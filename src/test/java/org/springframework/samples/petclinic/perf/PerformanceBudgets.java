@@ -0,0 +1,123 @@
+package org.springframework.samples.petclinic.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Per-operation budgets read from {@code perf/budgets.properties}, keyed by the {@code operationId} of
+ * {@code openapi.yml}:
+ * <pre>
+ * listOwners.statements=3
+ * listOwners.allocatedBytes=250000000
+ * listOwners.p95Millis=900
+ * </pre>
+ * {@code statements} is the most SQL statements a single request may issue, {@code allocatedBytes} the median heap
+ * allocation of the request thread and {@code p95Millis} the 95th percentile of the response time. Response times
+ * depend on the machine running the build, so their budgets are only checked on request.
+ */
+public class PerformanceBudgets {
+
+    static final String STATEMENTS = "statements";
+
+    static final String ALLOCATED_BYTES = "allocatedBytes";
+
+    static final String P95_MILLIS = "p95Millis";
+
+    private final Map<String, Budget> budgets = new TreeMap<>();
+
+    public static PerformanceBudgets load(String resource) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = PerformanceBudgets.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IOException("Budget file not found on the classpath: " + resource);
+            }
+            properties.load(input);
+        }
+        PerformanceBudgets budgets = new PerformanceBudgets();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.lastIndexOf('.');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Budget keys must look like <operationId>.<metric> but was: " + key);
+            }
+            String operationId = key.substring(0, separator);
+            Budget budget = budgets.budgets.computeIfAbsent(operationId, id -> new Budget());
+            long value = Long.parseLong(properties.getProperty(key).trim());
+            switch (key.substring(separator + 1)) {
+                case STATEMENTS -> budget.statements = value;
+                case ALLOCATED_BYTES -> budget.allocatedBytes = value;
+                case P95_MILLIS -> budget.p95Millis = value;
+                default -> throw new IllegalArgumentException("Unknown budget metric in: " + key);
+            }
+        }
+        return budgets;
+    }
+
+    public boolean isDeclared(String operationId) {
+        Budget budget = this.budgets.get(operationId);
+        return budget != null && budget.statements != null && budget.allocatedBytes != null && budget.p95Millis != null;
+    }
+
+    /**
+     * Compares the measurements with the budgets.
+     *
+     * @param timing whether to compare the response times as well
+     * @return one line per metric, exceeded or not, in operation order
+     */
+    public List<Comparison> compare(Map<String, Measurement> measurements, boolean timing) {
+        List<Comparison> comparisons = new ArrayList<>();
+        new TreeMap<>(measurements).forEach((operationId, measurement) -> {
+            Budget budget = this.budgets.get(operationId);
+            comparisons.add(new Comparison(operationId, STATEMENTS, budget.statements, measurement.statements()));
+            comparisons.add(new Comparison(operationId, ALLOCATED_BYTES, budget.allocatedBytes,
+                measurement.allocatedBytes()));
+            if (timing) {
+                comparisons.add(new Comparison(operationId, P95_MILLIS, budget.p95Millis, measurement.p95Millis()));
+            }
+        });
+        return comparisons;
+    }
+
+    /**
+     * Renders the comparisons as a Markdown table, exceeded budgets first.
+     */
+    public static String report(List<Comparison> comparisons) {
+        StringBuilder report = new StringBuilder()
+            .append("| Operation | Metric | Budget | Actual | Diff | Status |\n")
+            .append("|-----------|--------|--------|--------|------|--------|\n");
+        comparisons.stream()
+            .sorted((left, right) -> Boolean.compare(right.exceeded(), left.exceeded()))
+            .forEach(comparison -> report.append(String.format("| %s | %s | %,d | %,d | %+.1f%% | %s |%n",
+                comparison.operationId(), comparison.metric(), comparison.budget(), comparison.actual(),
+                comparison.diffPercent(), comparison.exceeded() ? "EXCEEDED" : "ok")));
+        return report.toString();
+    }
+
+    private static final class Budget {
+
+        private Long statements;
+
+        private Long allocatedBytes;
+
+        private Long p95Millis;
+    }
+
+    public record Measurement(long statements, long allocatedBytes, long p95Millis) {
+    }
+
+    public record Comparison(String operationId, String metric, long budget, long actual) {
+
+        public boolean exceeded() {
+            return this.actual > this.budget;
+        }
+
+        public double diffPercent() {
+            return this.budget == 0 ? (this.actual == 0 ? 0 : 100) : (this.actual - this.budget) * 100.0 / this.budget;
+        }
+    }
+
+}
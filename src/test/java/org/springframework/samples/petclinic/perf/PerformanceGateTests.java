@@ -0,0 +1,393 @@
+package org.springframework.samples.petclinic.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.perf.PerformanceBudgets.Comparison;
+import org.springframework.samples.petclinic.perf.PerformanceBudgets.Measurement;
+import org.springframework.samples.petclinic.util.dataset.DatasetGenerator;
+import org.springframework.samples.petclinic.util.dataset.DatasetOptions;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.yaml.snakeyaml.Yaml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Performance regression gate: boots the application on a generated mid-size dataset, calls every operation of
+ * {@code openapi.yml} and checks it against the budgets in {@code perf/budgets.properties}. Requests go through
+ * {@link MockMvc}, so they run on the test thread and the allocation of that thread is the allocation of the request.
+ * <p/>
+ * Every run writes the table of budget versus actual values to {@code target/perf/budgets-report.md}; a budget that
+ * is exceeded fails the build with that table as the failure message. After an intended change, rerun with
+ * {@code -Dperf.calibrate=true} to write budgets derived from the new measurements to
+ * {@code target/perf/calibrated-budgets.properties} instead of checking them.
+ * {@code -Dperf.iterations} (default 20) sets the number of measured requests per operation.
+ * <p/>
+ * Statements and allocated bytes are checked by every build. Response times vary with the machine and its load, so
+ * their budgets are only checked with {@code -Dperf.timing=true}, preferably on a dedicated runner with more
+ * iterations.
+ * <p/>
+ * Operations that cannot answer successfully in the set-up of the gate are listed in {@link #UNGATED} instead of
+ * being measured on their error path.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles({"h2", "spring-data-jpa"})
+@TestPropertySource(
+    properties = {
+        "petclinic.security.enable=false",
+        "spring.datasource.url=jdbc:h2:mem:perfgate;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false"
+    }
+)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PerformanceGateTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceGateTests.class);
+
+    private static final Path REPORT = Path.of("target", "perf", "budgets-report.md");
+
+    private static final Path CALIBRATED_BUDGETS = Path.of("target", "perf", "calibrated-budgets.properties");
+
+    private static final DatasetOptions DATASET = DatasetOptions.ofOwners(2_000).vets(30).seed(28L);
+
+    private static final int WARM_UP_ITERATIONS = 5;
+
+    private static final int ITERATIONS = Integer.getInteger("perf.iterations", 20);
+
+    private static final boolean CALIBRATE = Boolean.getBoolean("perf.calibrate");
+
+    private static final boolean TIMING = Boolean.getBoolean("perf.timing");
+
+    private static final Set<String> HTTP_METHODS = Set.of("get", "post", "put", "patch", "delete");
+
+    /**
+     * Operations of {@code openapi.yml} left out of the gate, with the reason.
+     */
+    private static final Map<String, String> UNGATED = Map.of(
+        "createToken", "only mapped with security enabled, which the gate runs without");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatementCountingDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void generateDataset() {
+        new DatasetGenerator(this.dataSource).generate(DATASET);
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+    }
+
+    @Test
+    void shouldStayWithinBudgets() throws Exception {
+        PerformanceBudgets budgets = PerformanceBudgets.load("perf/budgets.properties");
+        Map<String, Endpoint> endpoints = endpoints();
+        Set<String> operations = openApiOperations();
+        assertThat(operations).as("ungated operations of openapi.yml").containsAll(UNGATED.keySet());
+        operations.removeAll(UNGATED.keySet());
+
+        Set<String> missingEndpoints = new TreeSet<>(operations);
+        missingEndpoints.removeAll(endpoints.keySet());
+        assertThat(missingEndpoints).as("operations of openapi.yml without a request in this test").isEmpty();
+        if (!CALIBRATE) {
+            Set<String> missingBudgets = operations.stream().filter(id -> !budgets.isDeclared(id))
+                .collect(Collectors.toCollection(TreeSet::new));
+            assertThat(missingBudgets).as("operations of openapi.yml without budgets in perf/budgets.properties")
+                .isEmpty();
+        }
+
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (String operationId : operations) {
+            measurements.put(operationId, measure(endpoints.get(operationId)));
+        }
+
+        if (CALIBRATE) {
+            write(CALIBRATED_BUDGETS, calibratedBudgets(measurements));
+            logger.info("Calibrated budgets written to {}", CALIBRATED_BUDGETS.toAbsolutePath());
+            return;
+        }
+        List<Comparison> comparisons = budgets.compare(measurements, TIMING);
+        String report = PerformanceBudgets.report(comparisons);
+        write(REPORT, report);
+        logger.info("Performance budget report written to {}", REPORT.toAbsolutePath());
+        if (comparisons.stream().anyMatch(Comparison::exceeded)) {
+            fail("Performance budgets exceeded:%n%s", report);
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private Measurement measure(Endpoint endpoint) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long maxStatements = 0;
+        long[] allocated = new long[ITERATIONS];
+        long[] elapsed = new long[ITERATIONS];
+        for (int i = 0; i < WARM_UP_ITERATIONS + ITERATIONS; i++) {
+            MockHttpServletRequestBuilder request = endpoint.prepare(i);
+
+            this.dataSource.reset();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            this.mockMvc.perform(request).andExpect(endpoint.expectedStatus());
+            long end = System.nanoTime();
+            long allocatedAfter = threads.getCurrentThreadAllocatedBytes();
+
+            if (i >= WARM_UP_ITERATIONS) {
+                maxStatements = Math.max(maxStatements, this.dataSource.getStatements());
+                allocated[i - WARM_UP_ITERATIONS] = allocatedAfter - allocatedBefore;
+                elapsed[i - WARM_UP_ITERATIONS] = end - start;
+            }
+        }
+        Arrays.sort(allocated);
+        Arrays.sort(elapsed);
+        long p95 = elapsed[(int) Math.ceil(ITERATIONS * 0.95) - 1];
+        return new Measurement(maxStatements, allocated[ITERATIONS / 2], TimeUnit.NANOSECONDS.toMillis(p95));
+    }
+
+    /**
+     * Budgets with head room over the given measurements: statement counts are deterministic and kept exact,
+     * allocation gets 50% and response time (which depends on the machine) a factor of three, at least 100 ms.
+     */
+    private static String calibratedBudgets(Map<String, Measurement> measurements) {
+        StringBuilder properties = new StringBuilder();
+        measurements.forEach((operationId, measurement) -> properties
+            .append(operationId).append('.').append(PerformanceBudgets.STATEMENTS).append('=')
+            .append(measurement.statements()).append('\n')
+            .append(operationId).append('.').append(PerformanceBudgets.ALLOCATED_BYTES).append('=')
+            .append(roundUp(measurement.allocatedBytes() * 3 / 2, 10_000)).append('\n')
+            .append(operationId).append('.').append(PerformanceBudgets.P95_MILLIS).append('=')
+            .append(roundUp(Math.max(measurement.p95Millis() * 3, 100), 10)).append('\n'));
+        return properties.toString();
+    }
+
+    private static long roundUp(long value, long step) {
+        return (value + step - 1) / step * step;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> openApiOperations() throws IOException {
+        try (InputStream input = PerformanceGateTests.class.getClassLoader().getResourceAsStream("openapi.yml")) {
+            Map<String, Object> api = new Yaml().load(input);
+            Map<String, Map<String, Object>> paths = (Map<String, Map<String, Object>>) api.get("paths");
+            Set<String> operations = new LinkedHashSet<>();
+            paths.values().forEach(path -> path.forEach((method, operation) -> {
+                if (HTTP_METHODS.contains(method)) {
+                    operations.add((String) ((Map<String, Object>) operation).get("operationId"));
+                }
+            }));
+            return operations;
+        }
+    }
+
+    private Map<String, Endpoint> endpoints() {
+        int count = WARM_UP_ITERATIONS + ITERATIONS;
+        List<Integer> owners = ids("SELECT id FROM owners ORDER BY id LIMIT ?", count);
+        List<Integer> pets = ids("SELECT id FROM pets ORDER BY id LIMIT ?", count);
+        List<Integer> petOwners = ids("SELECT owner_id FROM pets ORDER BY id LIMIT ?", count);
+        List<Integer> visits = ids("SELECT id FROM visits ORDER BY id LIMIT ?", count);
+        List<Integer> vets = ids("SELECT id FROM vets ORDER BY id LIMIT ?", count);
+        List<Integer> specialties = ids("SELECT id FROM specialties ORDER BY id", count);
+        List<Integer> petTypes = ids("SELECT id FROM types ORDER BY id", count);
+        String pet = "{\"name\": \"Leo\", \"birthDate\": \"2020-09-07\", \"type\": {\"id\": " + petTypes.get(0)
+            + ", \"name\": \"cat\"}}";
+        String visit = "{\"date\": \"2024-05-01\", \"description\": \"rabies shot\"}";
+        String vet = "{\"firstName\": \"James\", \"lastName\": \"Carter\", \"specialties\": []}";
+
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        // no controller implements OopsApi, so the request ends in the general exception handler
+        endpoints.put("failingRequest", Endpoint.of(status().is5xxServerError(), i -> get("/api/oops")));
+        endpoints.put("addOwner", i -> json(post("/api/owners"), owner(i)));
+        endpoints.put("listOwners", i -> get("/api/owners"));
+        endpoints.put("listOwnerOverviews", i -> get("/api/owners/overview"));
+        endpoints.put("rebuildOwnerOverviews", i -> post("/api/owners/overview/rebuild"));
+        endpoints.put("autocompleteOwners", i -> get("/api/owners/autocomplete").param("prefix", "Da").param("limit", "10"));
+        endpoints.put("getOwner", i -> get("/api/owners/{ownerId}", owners.get(i)));
+        endpoints.put("updateOwner", i -> json(put("/api/owners/{ownerId}", owners.get(i)), owner(i)));
+        endpoints.put("patchOwner", i -> json(patch("/api/owners/{ownerId}", owners.get(i)),
+            "{\"city\": \"Madison" + i + "\"}"));
+        endpoints.put("deleteOwner", i -> delete("/api/owners/{ownerId}", create("/api/owners", owner(i))));
+        endpoints.put("addPetToOwner", i -> json(post("/api/owners/{ownerId}/pets", owners.get(i)), pet));
+        endpoints.put("getOwnersPet", i -> get("/api/owners/{ownerId}/pets/{petId}", petOwners.get(i), pets.get(i)));
+        endpoints.put("updateOwnersPet", i -> json(put("/api/owners/{ownerId}/pets/{petId}",
+            petOwners.get(i), pets.get(i)), pet));
+        endpoints.put("patchOwnersPet", i -> json(patch("/api/owners/{ownerId}/pets/{petId}",
+            petOwners.get(i), pets.get(i)), "{\"name\": \"Leo" + i + "\"}"));
+        endpoints.put("addVisitToOwner", i -> json(post("/api/owners/{ownerId}/pets/{petId}/visits",
+            petOwners.get(i), pets.get(i)), visit));
+        endpoints.put("listPetTypes", i -> get("/api/pettypes"));
+        endpoints.put("addPetType", i -> json(post("/api/pettypes"), "{\"name\": \"ferret" + i + "\"}"));
+        endpoints.put("getPetType", i -> get("/api/pettypes/{petTypeId}", petTypes.get(i % petTypes.size())));
+        endpoints.put("updatePetType", i -> {
+            int petTypeId = petTypes.get(i % petTypes.size());
+            String name = this.jdbcTemplate.queryForObject("SELECT name FROM types WHERE id = ?", String.class, petTypeId);
+            return json(put("/api/pettypes/{petTypeId}", petTypeId),
+                "{\"id\": " + petTypeId + ", \"name\": \"" + name + "\"}");
+        });
+        endpoints.put("deletePetType", i -> delete("/api/pettypes/{petTypeId}",
+            create("/api/pettypes", "{\"name\": \"gecko" + i + "\"}")));
+        endpoints.put("listPets", i -> get("/api/pets"));
+        endpoints.put("getPet", i -> get("/api/pets/{petId}", pets.get(i)));
+        endpoints.put("updatePet", i -> json(put("/api/pets/{petId}", pets.get(i)), pet));
+        endpoints.put("deletePet", i -> delete("/api/pets/{petId}",
+            create("/api/owners/" + owners.get(i) + "/pets", pet)));
+        endpoints.put("listVisits", i -> get("/api/visits"));
+        endpoints.put("addVisit", i -> json(post("/api/visits"), visitOf(pets.get(i))));
+        endpoints.put("getVisit", i -> get("/api/visits/{visitId}", visits.get(i)));
+        endpoints.put("updateVisit", i -> json(put("/api/visits/{visitId}", visits.get(i)), visit));
+        endpoints.put("patchVisit", i -> json(patch("/api/visits/{visitId}", visits.get(i)),
+            "{\"description\": \"booster " + i + "\"}"));
+        endpoints.put("deleteVisit", i -> delete("/api/visits/{visitId}", create("/api/visits", visitOf(pets.get(i)))));
+        endpoints.put("listSpecialties", i -> get("/api/specialties"));
+        endpoints.put("addSpecialty", i -> json(post("/api/specialties"), "{\"name\": \"oncology" + i + "\"}"));
+        endpoints.put("getSpecialty", i -> get("/api/specialties/{specialtyId}", specialties.get(i % specialties.size())));
+        endpoints.put("updateSpecialty", i -> {
+            int specialtyId = specialties.get(i % specialties.size());
+            return json(put("/api/specialties/{specialtyId}", specialtyId),
+                "{\"id\": " + specialtyId + ", \"name\": \"specialty" + i + "\"}");
+        });
+        endpoints.put("deleteSpecialty", i -> delete("/api/specialties/{specialtyId}",
+            create("/api/specialties", "{\"name\": \"cardiology" + i + "\"}")));
+        endpoints.put("listVets", i -> get("/api/vets"));
+        endpoints.put("addVet", i -> json(post("/api/vets"), vet));
+        endpoints.put("getVet", i -> get("/api/vets/{vetId}", vets.get(i)));
+        endpoints.put("updateVet", i -> json(put("/api/vets/{vetId}", vets.get(i)), vet));
+        endpoints.put("deleteVet", i -> delete("/api/vets/{vetId}", create("/api/vets", vet)));
+        endpoints.put("addUser", i -> json(post("/api/users"), "{\"username\": \"perf" + i + "\", \"password\": "
+            + "\"secret\", \"enabled\": true, \"roles\": [{\"name\": \"OWNER_ADMIN\"}]}"));
+        endpoints.put("search", i -> get("/api/search").param("q", "rabies shot").param("limit", "20"));
+        endpoints.put("getStatistics", i -> get("/api/statistics"));
+        endpoints.put("executeBatch", i -> json(post("/api/batch"), "{\"operations\": ["
+            + "{\"ref\": \"owner\", \"method\": \"POST\", \"path\": \"/owners\", \"body\": " + owner(i) + "}, "
+            + "{\"ref\": \"pet\", \"method\": \"POST\", \"path\": \"/owners/${owner.id}/pets\", \"body\": " + pet + "}, "
+            + "{\"method\": \"POST\", \"path\": \"/owners/${owner.id}/pets/${pet.id}/visits\", \"body\": " + visit + "}, "
+            + "{\"method\": \"GET\", \"path\": \"/owners/${owner.id}\"}]}"));
+        return endpoints;
+    }
+
+    private List<Integer> ids(String sql, int count) {
+        List<Integer> ids = sql.contains("?")
+            ? this.jdbcTemplate.queryForList(sql, Integer.class, count)
+            : this.jdbcTemplate.queryForList(sql, Integer.class);
+        assertThat(ids).as(sql).isNotEmpty();
+        return new ArrayList<>(ids);
+    }
+
+    private static String owner(int i) {
+        return "{\"firstName\": \"George\", \"lastName\": \"Franklin\", \"address\": \"" + (100 + i)
+            + " W. Liberty St.\", \"city\": \"Madison\", \"telephone\": \"6085551023\"}";
+    }
+
+    private static String visitOf(int petId) {
+        return "{\"petId\": " + petId + ", \"date\": \"2024-05-01\", \"description\": \"rabies shot\"}";
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    /**
+     * Creates an entity outside of the measurement, e.g. for a delete request to remove.
+     */
+    private int create(String path, String body) throws Exception {
+        MvcResult result = this.mockMvc.perform(json(post(path), body))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+    }
+
+    /**
+     * Builds the request measured in iteration {@code i}; may issue unmeasured set-up requests.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+
+        MockHttpServletRequestBuilder prepare(int i) throws Exception;
+
+        default ResultMatcher expectedStatus() {
+            return status().is2xxSuccessful();
+        }
+
+        static Endpoint of(ResultMatcher expectedStatus, Endpoint endpoint) {
+            return new Endpoint() {
+
+                @Override
+                public MockHttpServletRequestBuilder prepare(int i) throws Exception {
+                    return endpoint.prepare(i);
+                }
+
+                @Override
+                public ResultMatcher expectedStatus() {
+                    return expectedStatus;
+                }
+            };
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                        return new StatementCountingDataSource(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+package org.springframework.samples.petclinic.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.repository.StatementRecordingDataSource.RecordedStatement;
+import org.springframework.samples.petclinic.util.dataset.DatasetGenerator;
+import org.springframework.samples.petclinic.util.dataset.DatasetOptions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * <p> Base class for the query plan tests. Every hot repository query, i.e. each lookup by id, foreign key, name or
+ * date, runs against a generated dataset while its statements are recorded. Each recorded parameterized select is
+ * then explained and must not read any table with a full scan. Queries listing a whole table read every row anyway
+ * and are not checked. </p>
+ * <p> Subclasses select the repository profile and the {@link Database} to explain the statements with. </p>
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(AbstractQueryPlanTests.StatementRecordingConfig.class)
+abstract class AbstractQueryPlanTests {
+
+    private static final DatasetOptions DATASET = DatasetOptions.ofOwners(500).vets(20).seed(40L);
+
+    private static final LocalDate FROM = LocalDate.of(2013, 1, 1);
+
+    private static final LocalDate TO = LocalDate.of(2013, 1, 31);
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private OwnerSummaryRepository ownerSummaryRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private PetTypeRepository petTypeRepository;
+
+    @Autowired
+    private SpecialtyRepository specialtyRepository;
+
+    @Autowired
+    private VetRepository vetRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private StatementRecordingDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    abstract Database database();
+
+    @BeforeAll
+    void generateDataset() {
+        new DatasetGenerator(this.dataSource).generate(DATASET);
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        database().analyze(this.jdbcTemplate);
+    }
+
+    Stream<Arguments> hotQueries() {
+        return Stream.of(
+            hotQuery("OwnerRepository.findById", () -> this.ownerRepository.findById(1)),
+            hotQuery("OwnerRepository.findByLastName", () -> this.ownerRepository.findByLastName("Davis")),
+            hotQuery("OwnerSummaryRepository.findByLastName",
+                () -> this.ownerSummaryRepository.findByLastName("Davis")),
+            hotQuery("PetRepository.findById", () -> this.petRepository.findById(7)),
+            hotQuery("PetRepository.existsByIdAndOwnerId", () -> this.petRepository.existsByIdAndOwnerId(7, 6)),
+            hotQuery("PetTypeRepository.findById", () -> this.petTypeRepository.findById(2)),
+            hotQuery("PetTypeRepository.findByName", () -> this.petTypeRepository.findByName("dog")),
+            hotQuery("SpecialtyRepository.findById", () -> this.specialtyRepository.findById(1)),
+            hotQuery("SpecialtyRepository.findSpecialtiesByNameIn",
+                () -> this.specialtyRepository.findSpecialtiesByNameIn(Set.of("radiology", "surgery"))),
+            hotQuery("VetRepository.findById", () -> this.vetRepository.findById(2)),
+            hotQuery("VisitRepository.findById", () -> this.visitRepository.findById(1)),
+            hotQuery("VisitRepository.findByPetId", () -> this.visitRepository.findByPetId(7)),
+            hotQuery("VisitRepository.findByDateBetween", () -> this.visitRepository.findByDateBetween(FROM, TO)),
+            hotQuery("VisitRepository.findByPetIdAndDateBetween",
+                () -> this.visitRepository.findByPetIdAndDateBetween(8, FROM, TO))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void shouldNotScanWholeTables(String query, Runnable invocation) {
+        List<RecordedStatement> statements = this.dataSource.record(invocation);
+
+        assertThat(statements).as("statements of %s", query).isNotEmpty();
+        for (RecordedStatement statement : statements) {
+            if (isHot(statement.sql())) {
+                String plan = database().explain(this.jdbcTemplate, statement);
+                assertThat(database().fullScans(plan))
+                    .as("tables scanned by %s:%n%s%n%s", query, statement.sql(), plan)
+                    .isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void shouldLoadVisitsOfDateRangeWithTheirPetsInOneStatement() {
+        List<Visit> visits = new ArrayList<>();
+        List<RecordedStatement> statements = this.dataSource.record(
+            () -> visits.addAll(this.visitRepository.findByDateBetween(FROM, TO)));
+
+        assertThat(visits).extracting(Visit::getId).doesNotHaveDuplicates();
+        assertThat(visits.stream().map(visit -> visit.getPet().getId()).distinct()).hasSizeGreaterThan(1);
+        assertThat(statements).as("statements loading %d visits", visits.size()).hasSize(1);
+    }
+
+    private static Arguments hotQuery(String name, Runnable invocation) {
+        return Arguments.of(name, invocation);
+    }
+
+    private static boolean isHot(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "select", 0, 6) && sql.indexOf('?') >= 0;
+    }
+
+    /**
+     * How to ask the database for the plan of a statement, and how a full table scan reads in that plan.
+     */
+    enum Database {
+
+        // explained with the bound values, as H2 only narrows the index range of a LIKE pattern once it is known
+        H2("EXPLAIN ", true, Pattern.compile("/\\* ([\\w.\"]+)\\.tableScan")) {
+            @Override
+            void analyze(JdbcTemplate jdbcTemplate) {
+                // the planner costs joins with the row counts and selectivity gathered here
+                jdbcTemplate.execute("ANALYZE");
+            }
+        },
+
+        HSQLDB("EXPLAIN PLAN FOR ", false, Pattern.compile("table=(\\w+)\\s+cardinality=\\d+\\s+access=FULL SCAN"));
+
+        private final String explainPrefix;
+
+        private final boolean bindsParameters;
+
+        private final Pattern fullScan;
+
+        Database(String explainPrefix, boolean bindsParameters, Pattern fullScan) {
+            this.explainPrefix = explainPrefix;
+            this.bindsParameters = bindsParameters;
+            this.fullScan = fullScan;
+        }
+
+        void analyze(JdbcTemplate jdbcTemplate) {
+        }
+
+        String explain(JdbcTemplate jdbcTemplate, RecordedStatement statement) {
+            Object[] arguments = this.bindsParameters ? statement.arguments() : new Object[0];
+            return String.join("\n",
+                jdbcTemplate.queryForList(this.explainPrefix + statement.sql(), String.class, arguments));
+        }
+
+        List<String> fullScans(String plan) {
+            List<String> tables = new ArrayList<>();
+            Matcher matcher = this.fullScan.matcher(plan);
+            while (matcher.find()) {
+                // HSQLDB reads the values of an IN list from a system table, not from the database
+                if (!matcher.group(1).startsWith("SYSTEM_")) {
+                    tables.add(matcher.group(1));
+                }
+            }
+            return tables;
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecordingConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof StatementRecordingDataSource)) {
+                        return new StatementRecordingDataSource(dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+}
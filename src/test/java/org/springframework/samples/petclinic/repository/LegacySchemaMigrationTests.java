@@ -0,0 +1,105 @@
+package org.springframework.samples.petclinic.repository;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates databases created by the {@code schema.sql} and {@code data.sql} scripts that preceded the Flyway
+ * migrations, kept in {@code db/legacy}, with the baseline settings of {@code application.properties}. They must end up
+ * with the schema of a database created by the migrations, and keep their data.
+ */
+class LegacySchemaMigrationTests {
+
+    // spring.flyway.baseline-version of application.properties
+    private static final String BASELINE_VERSION = "1.1";
+
+    @ParameterizedTest(name = "{1}")
+    @CsvSource({"H2, h2", "HSQL, hsqldb"})
+    void shouldMigrateDatabaseCreatedByFormerScripts(EmbeddedDatabaseType type, String platform) throws SQLException {
+        EmbeddedDatabase legacy = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(type)
+            .addScript("db/legacy/" + platform + "/schema.sql")
+            .addScript("db/legacy/" + platform + "/data.sql")
+            .build();
+        EmbeddedDatabase fresh = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(type).build();
+        try {
+            migrate(legacy, platform);
+            migrate(fresh, platform);
+
+            assertThat(columns(legacy)).isEqualTo(columns(fresh));
+            assertThat(columns(legacy).get("OWNERS")).contains("VERSION INTEGER");
+            assertThat(indexedColumns(legacy, "VISITS")).isEqualTo(indexedColumns(fresh, "VISITS"))
+                .contains("PET_ID,VISIT_DATE", "VISIT_DATE");
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(legacy);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owner_summary", Integer.class)).isEqualTo(10);
+            assertThat(jdbcTemplate.update(
+                "UPDATE owners SET city = 'Madison', version = version + 1 WHERE id = 1 AND version = 0")).isOne();
+        } finally {
+            legacy.shutdown();
+            fresh.shutdown();
+        }
+    }
+
+    private static void migrate(EmbeddedDatabase database, String platform) {
+        Flyway.configure().dataSource(database).locations("classpath:db/" + platform + "/migration")
+            .baselineOnMigrate(true).baselineVersion(BASELINE_VERSION).load().migrate();
+    }
+
+    /**
+     * The columns of every table of the application, by table name.
+     */
+    private static Map<String, Set<String>> columns(EmbeddedDatabase database) throws SQLException {
+        Map<String, Set<String>> columns = new TreeMap<>();
+        try (Connection connection = database.getConnection();
+             ResultSet rows = connection.getMetaData().getColumns(null, null, "%", "%")) {
+            while (rows.next()) {
+                String table = rows.getString("TABLE_NAME").toUpperCase(Locale.ROOT);
+                String schema = rows.getString("TABLE_SCHEM").toUpperCase(Locale.ROOT);
+                boolean system = schema.equals("INFORMATION_SCHEMA") || schema.startsWith("SYSTEM");
+                if (!system && !table.startsWith("FLYWAY")) {
+                    String column = rows.getString("COLUMN_NAME").toUpperCase(Locale.ROOT);
+                    columns.computeIfAbsent(table, name -> new TreeSet<>())
+                        .add(column + " " + rows.getString("TYPE_NAME"));
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * The column lists of the indexes of the table, e.g. {@code PET_ID,VISIT_DATE}.
+     */
+    private static Set<String> indexedColumns(EmbeddedDatabase database, String table) throws SQLException {
+        Map<String, String> indexes = new TreeMap<>();
+        try (Connection connection = database.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rows = metaData.getIndexInfo(null, null, table, false, false)) {
+                while (rows.next()) {
+                    if (rows.getString("COLUMN_NAME") != null) {
+                        String column = rows.getString("COLUMN_NAME").toUpperCase(Locale.ROOT);
+                        indexes.merge(rows.getString("INDEX_NAME"), column, (first, next) -> first + "," + next);
+                    }
+                }
+            }
+        }
+        return new TreeSet<>(indexes.values());
+    }
+
+}
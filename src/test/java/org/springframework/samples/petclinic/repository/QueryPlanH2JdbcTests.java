@@ -0,0 +1,22 @@
+package org.springframework.samples.petclinic.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * <p> Query plan test using the JDBC and H2 profiles.
+ *
+ * @see AbstractQueryPlanTests AbstractQueryPlanTests for more details. </p>
+ */
+@SpringBootTest
+@ActiveProfiles({"h2", "jdbc"})
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:h2:mem:queryplan;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+class QueryPlanH2JdbcTests extends AbstractQueryPlanTests {
+
+    @Override
+    Database database() {
+        return Database.H2;
+    }
+
+}
@@ -0,0 +1,22 @@
+package org.springframework.samples.petclinic.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * <p> Query plan test using the spring-data-jpa and HSQLDB profiles.
+ *
+ * @see AbstractQueryPlanTests AbstractQueryPlanTests for more details. </p>
+ */
+@SpringBootTest
+@ActiveProfiles({"spring-data-jpa", "hsqldb"})
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:hsqldb:mem:queryplan-spring-data-jpa"})
+class QueryPlanSpringDataJpaTests extends AbstractQueryPlanTests {
+
+    @Override
+    Database database() {
+        return Database.HSQLDB;
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.springframework.samples.petclinic.repository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} decorator recording the statements prepared on its connections, with the parameters bound to
+ * them, while a {@link #record(Runnable) recording} runs, whichever repository profile and thread issued them.
+ */
+public class StatementRecordingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("prepareStatement", "prepareCall");
+
+    private final Queue<RecordedStatement> statements = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean recording;
+
+    public StatementRecordingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * Run the given invocation and return the statements it prepared, in order.
+     */
+    public synchronized List<RecordedStatement> record(Runnable invocation) {
+        this.statements.clear();
+        this.recording = true;
+        try {
+            invocation.run();
+        } finally {
+            this.recording = false;
+        }
+        return List.copyOf(this.statements);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recordingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recordingConnection(super.getConnection(username, password));
+    }
+
+    private Connection recordingConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (this.recording && STATEMENT_FACTORIES.contains(method.getName())) {
+                    RecordedStatement statement = new RecordedStatement((String) args[0], new TreeMap<>());
+                    this.statements.add(statement);
+                    return recordingStatement((PreparedStatement) result, statement.parameters());
+                }
+                return result;
+            });
+    }
+
+    private PreparedStatement recordingStatement(PreparedStatement target, SortedMap<Integer, Object> parameters) {
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{statementType(target)},
+            (proxy, method, args) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer index) {
+                    parameters.put(index, method.getName().equals("setNull") ? null : args[1]);
+                }
+                return invoke(target, method, args);
+            });
+    }
+
+    private static Class<?> statementType(PreparedStatement target) {
+        return target instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    /**
+     * The SQL of a prepared statement and the parameters last bound to it, by index.
+     */
+    public record RecordedStatement(String sql, SortedMap<Integer, Object> parameters) {
+
+        public Object[] arguments() {
+            return this.parameters.values().toArray();
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package org.springframework.samples.petclinic.repository.jdbc;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link JdbcParallelLoader}
+ */
+class JdbcParallelLoaderTests {
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+        .generateUniqueName(true)
+        .setType(EmbeddedDatabaseType.H2)
+        .build();
+
+    private JdbcParallelLoader loader;
+
+    @AfterEach
+    void shutdown() {
+        this.loader.destroy();
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldRunForkedQueriesOnSeparateThreads() {
+        this.loader = new JdbcParallelLoader(this.database, 2, Duration.ofSeconds(5));
+        try (JdbcParallelLoader.Scope scope = this.loader.open()) {
+            Supplier<Integer> one = scope.fork(() -> this.loader.getNamedParameterJdbcTemplate()
+                .queryForObject("SELECT 1", Map.of(), Integer.class));
+            Supplier<String> thread = scope.fork(() -> Thread.currentThread().getName());
+            scope.join();
+
+            assertThat(one.get()).isEqualTo(1);
+            assertThat(thread.get()).startsWith("jdbc-parallel-loader-");
+        }
+    }
+
+    @Test
+    void shouldRunOnCallingThreadWhenNoSlotIsFree() throws InterruptedException {
+        this.loader = new JdbcParallelLoader(this.database, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        try (JdbcParallelLoader.Scope scope = this.loader.open()) {
+            Supplier<Boolean> blocked = scope.fork(() -> release.await(5, TimeUnit.SECONDS));
+            Supplier<String> inline = scope.fork(() -> Thread.currentThread().getName());
+            release.countDown();
+            scope.join();
+
+            assertThat(blocked.get()).isTrue();
+            assertThat(inline.get()).isEqualTo(Thread.currentThread().getName());
+        }
+    }
+
+    @Test
+    void shouldCancelRemainingQueriesOnTimeout() throws InterruptedException {
+        this.loader = new JdbcParallelLoader(this.database, 2, Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (JdbcParallelLoader.Scope scope = this.loader.open()) {
+            scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            // a query cancelled before it starts is never interrupted
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(scope::join).isInstanceOf(QueryTimeoutException.class);
+        }
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldFailFastAndCancelOthersOnFirstFailure() throws InterruptedException {
+        this.loader = new JdbcParallelLoader(this.database, 2, Duration.ofSeconds(30));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (JdbcParallelLoader.Scope scope = this.loader.open()) {
+            scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            // a query cancelled before it starts is never interrupted
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            scope.fork(() -> {
+                throw new DataRetrievalFailureException("broken");
+            });
+
+            long start = System.nanoTime();
+            assertThatThrownBy(scope::join).isInstanceOf(DataRetrievalFailureException.class).hasMessage("broken");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(10));
+        }
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+}
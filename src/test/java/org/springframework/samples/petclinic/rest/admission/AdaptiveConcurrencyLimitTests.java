@@ -0,0 +1,93 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link AdaptiveConcurrencyLimit}
+ */
+class AdaptiveConcurrencyLimitTests {
+
+    @Test
+    void shouldRejectBeyondLimitUntilReleased() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        limit.release(millis(10));
+
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsFlatAndLimitIsReached() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 200);
+
+        for (int i = 0; i < 20; i++) {
+            limit.update(millis(10), limit.getLimit());
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void shouldNotGrowWhileLimitIsNotReached() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 200);
+
+        for (int i = 0; i < 20; i++) {
+            limit.update(millis(10), 2);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 200);
+        for (int i = 0; i < 100; i++) {
+            limit.update(millis(10), 1);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            limit.update(millis(100), limit.getLimit());
+        }
+
+        assertThat(limit.getLimit()).isLessThan(10);
+    }
+
+    @Test
+    void shouldStayWithinBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 12);
+
+        for (int i = 0; i < 100; i++) {
+            limit.update(millis(10), limit.getLimit());
+        }
+        assertThat(limit.getLimit()).isEqualTo(12);
+
+        for (int i = 0; i < 200; i++) {
+            limit.update(millis(1_000), limit.getLimit());
+        }
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldRejectInvalidBounds() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(10, 0, 20))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(10, 30, 20))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long millis(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+
+}
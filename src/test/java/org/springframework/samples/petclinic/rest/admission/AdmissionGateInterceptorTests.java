@@ -0,0 +1,68 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link AdmissionGateInterceptor}
+ */
+class AdmissionGateInterceptorTests {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void shouldAdmitUpToPermitsAndRejectAfterTimeout() throws Exception {
+        AdmissionGateInterceptor interceptor = new AdmissionGateInterceptor(2, Duration.ofMillis(20));
+
+        assertThat(interceptor.preHandle(request, response, null)).isTrue();
+        assertThat(interceptor.preHandle(request, response, null)).isTrue();
+        assertThat(interceptor.getAvailablePermits()).isZero();
+
+        assertThatThrownBy(() -> interceptor.preHandle(request, response, null))
+            .isInstanceOf(AdmissionTimeoutException.class)
+            .hasMessageContaining("2 permits");
+    }
+
+    @Test
+    void shouldReleasePermitOnCompletion() throws Exception {
+        AdmissionGateInterceptor interceptor = new AdmissionGateInterceptor(1, Duration.ofMillis(20));
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(interceptor.getAvailablePermits()).isEqualTo(1);
+        assertThat(interceptor.preHandle(request, response, null)).isTrue();
+    }
+
+    @Test
+    void shouldAdmitWaitingRequestWhenPermitIsReleased() throws Exception {
+        AdmissionGateInterceptor interceptor = new AdmissionGateInterceptor(1, Duration.ofSeconds(5));
+        interceptor.preHandle(request, response, null);
+
+        Thread waiting = new Thread(() -> {
+            try {
+                interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        while (interceptor.getQueueLength() == 0) {
+            Thread.onSpinWait();
+        }
+        interceptor.afterCompletion(request, response, null, null);
+        waiting.join(5_000);
+
+        assertThat(waiting.isAlive()).isFalse();
+        assertThat(interceptor.getAvailablePermits()).isZero();
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.springframework.samples.petclinic.rest.admission;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link LoadSheddingInterceptor}
+ */
+class LoadSheddingInterceptorTests {
+
+    private final LoadSheddingInterceptor interceptor = new LoadSheddingInterceptor("owners",
+        new AdaptiveConcurrencyLimit(1, 1, 1), HttpStatus.TOO_MANY_REQUESTS, Duration.ofSeconds(2));
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/owners");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void shouldShedRequestsBeyondLimit() {
+        assertThat(interceptor.preHandle(request, response, null)).isTrue();
+
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), response, null))
+            .isInstanceOfSatisfying(ConcurrencyLimitExceededException.class, ex -> {
+                assertThat(ex.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(2));
+                assertThat(ex.getMessage()).contains("owners");
+            });
+        assertThat(interceptor.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseSlotOnCompletion() {
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertThat(interceptor.getLimit().getInFlight()).isZero();
+        assertThat(interceptor.preHandle(request, response, null)).isTrue();
+    }
+
+    @Test
+    void shouldAnswerShedRequestsWithProblemDetailAndRetryAfter() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new OwnersController())
+            .addInterceptors(interceptor)
+            .setControllerAdvice(new ExceptionControllerAdvice())
+            .build();
+        mockMvc.perform(get("/api/owners")).andExpect(status().isOk());
+
+        interceptor.preHandle(request, response, null);
+
+        mockMvc.perform(get("/api/owners"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+            .andExpect(jsonPath("$.title").value("ConcurrencyLimitExceededException"))
+            .andExpect(jsonPath("$.status").value(429));
+    }
+
+    @RestController
+    static class OwnersController {
+
+        @GetMapping("/api/owners")
+        String owners() {
+            return "[]";
+        }
+
+    }
+
+}
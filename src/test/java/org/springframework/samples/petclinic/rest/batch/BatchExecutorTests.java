@@ -0,0 +1,140 @@
+package org.springframework.samples.petclinic.rest.batch;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link BatchExecutor}
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles({"h2", "spring-data-jpa"})
+@TestPropertySource(
+    properties = {
+        "petclinic.security.enable=false",
+        "spring.datasource.url=jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+    }
+)
+class BatchExecutorTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldRunUserFlowWithReferencesToEarlierResults() throws Exception {
+        batch("""
+            {"operations": [
+              {"ref": "owner", "method": "POST", "path": "/owners", "body": {"firstName": "Bea", "lastName": "Batchley",
+                "address": "1 Main St.", "city": "Madison", "telephone": "6085550001"}},
+              {"ref": "pet", "method": "POST", "path": "/owners/${owner.id}/pets",
+                "body": {"name": "Rex", "birthDate": "2020-01-02", "type": {"id": 2, "name": "dog"}}},
+              {"method": "POST", "path": "/owners/${owner.id}/pets/${pet.id}/visits",
+                "body": {"date": "2024-05-01", "description": "checkup of ${pet.name}"}},
+              {"method": "PATCH", "path": "/owners/${owner.id}", "body": {"city": "Monona"}},
+              {"method": "GET", "path": "/owners?lastName=Batchley"}
+            ]}""")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.committed").value(true))
+            .andExpect(jsonPath("$.results", hasSize(5)))
+            .andExpect(jsonPath("$.results[0].ref").value("owner"))
+            .andExpect(jsonPath("$.results[0].status").value(201))
+            .andExpect(jsonPath("$.results[0].headers.Location", startsWith("/api/owners/")))
+            .andExpect(jsonPath("$.results[1].status").value(201))
+            .andExpect(jsonPath("$.results[2].status").value(201))
+            .andExpect(jsonPath("$.results[2].body.description").value("checkup of Rex"))
+            .andExpect(jsonPath("$.results[3].status").value(204))
+            .andExpect(jsonPath("$.results[4].status").value(200))
+            .andExpect(jsonPath("$.results[4].body[0].city").value("Monona"))
+            .andExpect(jsonPath("$.results[4].body[0].pets[0].name").value("Rex"))
+            .andExpect(jsonPath("$.results[4].body[0].pets[0].visits[0].description").value("checkup of Rex"));
+    }
+
+    @Test
+    void shouldRollBackAndStopAtFirstFailure() throws Exception {
+        batch("""
+            {"operations": [
+              {"ref": "owner", "method": "POST", "path": "/owners", "body": {"firstName": "Rolf", "lastName": "Rollback",
+                "address": "1 Main St.", "city": "Madison", "telephone": "6085550001"}},
+              {"method": "POST", "path": "/owners/${owner.id}/pets",
+                "body": {"name": "Rex", "birthDate": "2020-01-02"}},
+              {"method": "DELETE", "path": "/owners/${owner.id}"}
+            ]}""")
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.committed").value(false))
+            .andExpect(jsonPath("$.results", hasSize(2)))
+            .andExpect(jsonPath("$.results[0].status").value(201))
+            .andExpect(jsonPath("$.results[1].status").value(400));
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM owners WHERE last_name = 'Rollback'",
+            Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldSeeBulkDeletesOfEarlierOperations() throws Exception {
+        batch("""
+            {"operations": [
+              {"ref": "owner", "method": "POST", "path": "/owners", "body": {"firstName": "Dora", "lastName": "Deleted",
+                "address": "1 Main St.", "city": "Madison", "telephone": "6085550001"}},
+              {"method": "GET", "path": "/owners/${owner.id}"},
+              {"method": "DELETE", "path": "/owners/${owner.id}"},
+              {"method": "GET", "path": "/owners/${owner.id}"}
+            ]}""")
+            .andExpect(jsonPath("$.committed").value(false))
+            .andExpect(jsonPath("$.results[1].status").value(200))
+            .andExpect(jsonPath("$.results[2].status").value(204))
+            .andExpect(jsonPath("$.results[3].status").value(404));
+    }
+
+    @Test
+    void shouldRejectUnknownReference() throws Exception {
+        batch("""
+            {"operations": [{"method": "GET", "path": "/owners/${owner.id}"}]}""")
+            .andExpect(jsonPath("$.committed").value(false))
+            .andExpect(jsonPath("$.results[0].status").value(400))
+            .andExpect(jsonPath("$.results[0].body.detail").value("No earlier operation with ref owner and a response body"));
+    }
+
+    @Test
+    void shouldRejectNestedBatchAndUnknownPath() throws Exception {
+        batch("""
+            {"operations": [{"method": "POST", "path": "/batch", "body": {"operations": []}}]}""")
+            .andExpect(jsonPath("$.results[0].status").value(400));
+        batch("""
+            {"operations": [{"method": "GET", "path": "/nowhere"}]}""")
+            .andExpect(jsonPath("$.results[0].status").value(404));
+    }
+
+    @Test
+    void shouldValidateBatchRequest() throws Exception {
+        batch("""
+            {"operations": []}""")
+            .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions batch(String body) throws Exception {
+        return this.mockMvc.perform(post("/api/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON)
+            .content(body));
+    }
+
+}
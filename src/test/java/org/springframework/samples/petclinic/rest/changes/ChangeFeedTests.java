@@ -0,0 +1,185 @@
+package org.springframework.samples.petclinic.rest.changes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.rest.controller.ChangeRestController;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Action;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Entity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link ChangeFeed}
+ */
+class ChangeFeedTests {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)\\nevent:owner\\ndata:\\{[^}]*\"id\":3,");
+
+    private final ChangeFeed changeFeed = new ChangeFeed(4, 2, Duration.ofMinutes(1), 4);
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ChangeRestController(this.changeFeed))
+        .setControllerAdvice(new ExceptionControllerAdvice())
+        .build();
+
+    @AfterEach
+    void destroy() {
+        this.changeFeed.destroy();
+    }
+
+    @Test
+    void shouldStreamCommittedChanges() throws Exception {
+        MvcResult stream = subscribe("/api/changes", null);
+
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.VISIT, Action.CREATED, 12, 6));
+
+        assertThat(awaitContent(stream, "\"id\":12"))
+            .contains("event:visit\n")
+            .contains("data:{\"entity\":\"visit\",\"action\":\"created\",\"id\":12,\"ownerId\":6}");
+    }
+
+    @Test
+    void shouldStreamOnlyChangesMatchingFilter() throws Exception {
+        MvcResult stream = subscribe("/api/changes?type=pet&type=visit&ownerId=6", null);
+
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.OWNER, Action.UPDATED, 6, 6));
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.PET, Action.UPDATED, 7, 5));
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.PET, Action.DELETED, 8, null));
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.VISIT, Action.CREATED, 12, 6));
+
+        String content = awaitContent(stream, "\"id\":12");
+        assertThat(content).doesNotContain("event:owner").doesNotContain("\"id\":7,").doesNotContain("\"id\":8,");
+    }
+
+    @Test
+    void shouldRejectUnknownType() throws Exception {
+        this.mockMvc.perform(get("/api/changes?type=invoice")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldResumeAfterLastEventId() throws Exception {
+        MvcResult first = subscribe("/api/changes", null);
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.OWNER, Action.CREATED, 3, 3));
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.OWNER, Action.UPDATED, 4, 4));
+        Matcher lastEventId = EVENT_ID.matcher(awaitContent(first, "\"id\":4,"));
+        assertThat(lastEventId.find()).isTrue();
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.VET, Action.UPDATED, 5, null));
+
+        MvcResult resumed = subscribe("/api/changes", lastEventId.group(1));
+
+        assertThat(awaitContent(resumed, "\"id\":5,"))
+            .contains("\"id\":4,")
+            .doesNotContain("\"id\":3,")
+            .doesNotContain("event:reset");
+    }
+
+    @Test
+    void shouldResetStreamMissingChangesNoLongerRetained() throws Exception {
+        MvcResult stream = subscribe("/api/changes", "unknown-1");
+
+        assertThat(awaitContent(stream, "event:reset")).startsWith("id:");
+        assertThat(this.changeFeed.getResets()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldResetStreamFallingBehindMaxPending() throws Exception {
+        MvcResult first = subscribe("/api/changes", null);
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.OWNER, Action.CREATED, 3, 3));
+        Matcher lastEventId = EVENT_ID.matcher(awaitContent(first, "\"id\":3,"));
+        assertThat(lastEventId.find()).isTrue();
+        for (int id = 10; id < 13; id++) {
+            this.changeFeed.changed(new ClinicChangeEvent(Entity.VET, Action.UPDATED, id, null));
+        }
+
+        MvcResult resumed = subscribe("/api/changes", lastEventId.group(1));
+
+        this.changeFeed.changed(new ClinicChangeEvent(Entity.VET, Action.UPDATED, 13, null));
+        String content = awaitContent(resumed, "\"id\":13,");
+        assertThat(content).doesNotContain("\"id\":10,").doesNotContain("\"id\":11,").doesNotContain("\"id\":12,");
+        assertThat(content.indexOf("event:reset")).isNotNegative().isLessThan(content.indexOf("\"id\":13,"));
+    }
+
+    @Test
+    void shouldDropStreamFallingBehindMaxPending() throws Exception {
+        List<Runnable> sends = new ArrayList<>();
+        ExecutorService stalled = mock(ExecutorService.class);
+        doAnswer(invocation -> sends.add(invocation.getArgument(0))).when(stalled).execute(any(Runnable.class));
+        ChangeFeed feed = new ChangeFeed(4, 2, Duration.ofMinutes(1), stalled);
+        MvcResult stream = MockMvcBuilders.standaloneSetup(new ChangeRestController(feed)).build()
+            .perform(get("/api/changes"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        for (int id = 10; id < 13; id++) {
+            feed.changed(new ClinicChangeEvent(Entity.VET, Action.UPDATED, id, null));
+        }
+
+        assertThat(feed.getSubscribers()).isZero();
+        assertThat(feed.getDrops()).isEqualTo(1);
+        sends.forEach(Runnable::run);
+        assertThat(stream.getResponse().getContentAsString()).doesNotContain("\"id\":1");
+        // completed, rather than left open until it times out
+        stream.getAsyncResult(1000);
+    }
+
+    @Test
+    void shouldForgetClosedStreams() throws Exception {
+        MvcResult stream = subscribe("/api/changes", null);
+        assertThat(this.changeFeed.getSubscribers()).isEqualTo(1);
+
+        stream.getRequest().getAsyncContext().complete();
+
+        assertThat(this.changeFeed.getSubscribers()).isZero();
+    }
+
+    @Test
+    void shouldMatchFilter() {
+        ChangeFeed.Filter visitsOfOwner = new ChangeFeed.Filter(EnumSet.of(Entity.VISIT), 6);
+
+        assertThat(visitsOfOwner.matches(new ClinicChangeEvent(Entity.VISIT, Action.CREATED, 1, 6))).isTrue();
+        assertThat(visitsOfOwner.matches(new ClinicChangeEvent(Entity.VISIT, Action.DELETED, 1, null))).isFalse();
+        assertThat(visitsOfOwner.matches(new ClinicChangeEvent(Entity.VISIT, Action.CREATED, 1, 5))).isFalse();
+        assertThat(visitsOfOwner.matches(new ClinicChangeEvent(Entity.PET, Action.CREATED, 1, 6))).isFalse();
+        assertThat(new ChangeFeed.Filter(EnumSet.noneOf(Entity.class), 6)
+            .matches(new ClinicChangeEvent(Entity.VET, Action.CREATED, 1, null))).isFalse();
+        assertThat(new ChangeFeed.Filter(EnumSet.noneOf(Entity.class), null)
+            .matches(new ClinicChangeEvent(Entity.VISIT, Action.DELETED, 1, null))).isTrue();
+    }
+
+    private MvcResult subscribe(String uri, String lastEventId) throws Exception {
+        return this.mockMvc.perform(lastEventId != null ? get(uri).header("Last-Event-ID", lastEventId) : get(uri))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    }
+
+    private static String awaitContent(MvcResult stream, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = stream.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+}
@@ -23,11 +23,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.samples.petclinic.mapper.OwnerMapper;
 import org.springframework.samples.petclinic.mapper.PetMapper;
 import org.springframework.samples.petclinic.mapper.VisitMapper;
 import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.OwnerSummary;
+import org.springframework.samples.petclinic.model.Pet;
 import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
 import org.springframework.samples.petclinic.rest.dto.OwnerDto;
 import org.springframework.samples.petclinic.rest.dto.PetDto;
@@ -35,6 +38,7 @@ import org.springframework.samples.petclinic.rest.dto.PetTypeDto;
 import org.springframework.samples.petclinic.rest.dto.VisitDto;
 import org.springframework.samples.petclinic.service.ClinicService;
 import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.service.search.OwnerName;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -47,8 +51,14 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -150,7 +160,7 @@ class OwnerRestControllerTests {
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnerSuccess() throws Exception {
-        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
+        given(this.clinicService.findOwnerById(1)).willReturn(Optional.of(ownerMapper.toOwner(owners.get(0))));
         this.mockMvc.perform(get("/api/owners/1")
                 .accept(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(status().isOk())
@@ -162,7 +172,7 @@ class OwnerRestControllerTests {
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnerNotFound() throws Exception {
-        given(this.clinicService.findOwnerById(2)).willReturn(null);
+        given(this.clinicService.findOwnerById(2)).willReturn(Optional.empty());
         this.mockMvc.perform(get("/api/owners/2")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
@@ -194,6 +204,71 @@ class OwnerRestControllerTests {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testAutocompleteOwnersSuccess() throws Exception {
+        given(this.clinicService.completeOwnerLastName("Da", 10))
+            .willReturn(List.of(new OwnerName(2, "Betty", "Davis"), new OwnerName(4, "Harold", "Davis")));
+        this.mockMvc.perform(get("/api/owners/autocomplete?prefix=Da")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.[0].id").value(2))
+            .andExpect(jsonPath("$.[0].lastName").value("Davis"))
+            .andExpect(jsonPath("$.[1].firstName").value("Harold"))
+            .andExpect(jsonPath("$.[1].address").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testAutocompleteOwnersWithoutPrefix() throws Exception {
+        this.mockMvc.perform(get("/api/owners/autocomplete")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testListOwnerOverviewsSuccess() throws Exception {
+        OwnerSummary summary = new OwnerSummary();
+        summary.setId(6);
+        summary.setFirstName("Jean");
+        summary.setLastName("Coleman");
+        summary.setCity("Monona");
+        summary.setTelephone("6085552654");
+        summary.setPetNames("Max, Samantha");
+        summary.setPetCount(2);
+        summary.setLastVisitDate(LocalDate.of(2013, 1, 4));
+        given(this.clinicService.findOwnerSummaries("Cole")).willReturn(List.of(summary));
+        this.mockMvc.perform(get("/api/owners/overview?lastName=Cole")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.[0].id").value(6))
+            .andExpect(jsonPath("$.[0].lastName").value("Coleman"))
+            .andExpect(jsonPath("$.[0].petNames").value("Max, Samantha"))
+            .andExpect(jsonPath("$.[0].petCount").value(2))
+            .andExpect(jsonPath("$.[0].lastVisitDate").isNotEmpty())
+            .andExpect(jsonPath("$.[0].pets").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testListOwnerOverviewsNotFound() throws Exception {
+        given(this.clinicService.findOwnerSummaries(null)).willReturn(List.of());
+        this.mockMvc.perform(get("/api/owners/overview")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testRebuildOwnerOverviews() throws Exception {
+        this.mockMvc.perform(post("/api/owners/overview/rebuild"))
+            .andExpect(status().isNoContent());
+        verify(this.clinicService).rebuildOwnerSummaries();
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetAllOwnersSuccess() throws Exception {
@@ -252,8 +327,10 @@ class OwnerRestControllerTests {
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testUpdateOwnerSuccess() throws Exception {
-        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
         int ownerId = owners.get(0).getId();
+        given(this.clinicService.updateOwnerFields(
+            argThat(owner -> owner.getId() == ownerId && "GeorgeI".equals(owner.getFirstName())), isNull()))
+            .willReturn(true);
         OwnerDto updatedOwnerDto = new OwnerDto();
         // body.id = ownerId which is used in url path
         updatedOwnerDto.setId(ownerId);
@@ -268,23 +345,16 @@ class OwnerRestControllerTests {
         String newOwnerAsJSON = mapper.writeValueAsString(updatedOwnerDto);
         this.mockMvc.perform(put("/api/owners/" + ownerId)
                 .content(newOwnerAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
-            .andExpect(content().contentType("application/json"))
             .andExpect(status().isNoContent());
-
-        this.mockMvc.perform(get("/api/owners/" + ownerId)
-                .accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON_VALUE))
-            .andExpect(status().isOk())
-            .andExpect(content().contentType("application/json"))
-            .andExpect(jsonPath("$.id").value(ownerId))
-            .andExpect(jsonPath("$.firstName").value("GeorgeI"));
-
     }
 
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testUpdateOwnerSuccessNoBodyId() throws Exception {
-        given(this.clinicService.findOwnerById(1)).willReturn(ownerMapper.toOwner(owners.get(0)));
         int ownerId = owners.get(0).getId();
+        given(this.clinicService.updateOwnerFields(
+            argThat(owner -> owner.getId() == ownerId && "GeorgeI".equals(owner.getFirstName())), isNull()))
+            .willReturn(true);
         OwnerDto updatedOwnerDto = new OwnerDto();
         updatedOwnerDto.setFirstName("GeorgeI");
         updatedOwnerDto.setLastName("Franklin");
@@ -296,16 +366,7 @@ class OwnerRestControllerTests {
         String newOwnerAsJSON = mapper.writeValueAsString(updatedOwnerDto);
         this.mockMvc.perform(put("/api/owners/" + ownerId)
                 .content(newOwnerAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
-            .andExpect(content().contentType("application/json"))
             .andExpect(status().isNoContent());
-
-        this.mockMvc.perform(get("/api/owners/" + ownerId)
-                .accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON_VALUE))
-            .andExpect(status().isOk())
-            .andExpect(content().contentType("application/json"))
-            .andExpect(jsonPath("$.id").value(ownerId))
-            .andExpect(jsonPath("$.firstName").value("GeorgeI"));
-
     }
 
     @Test
@@ -328,8 +389,7 @@ class OwnerRestControllerTests {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
         String newOwnerAsJSON = mapper.writeValueAsString(newOwnerDto);
-        final Owner owner = ownerMapper.toOwner(owners.get(0));
-        given(this.clinicService.findOwnerById(1)).willReturn(owner);
+        given(this.clinicService.deleteOwnerById(1)).willReturn(true);
         this.mockMvc.perform(delete("/api/owners/1")
                 .content(newOwnerAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(status().isNoContent());
@@ -342,7 +402,7 @@ class OwnerRestControllerTests {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
         String newOwnerAsJSON = mapper.writeValueAsString(newOwnerDto);
-        given(this.clinicService.findOwnerById(999)).willReturn(null);
+        given(this.clinicService.deleteOwnerById(999)).willReturn(false);
         this.mockMvc.perform(delete("/api/owners/999")
                 .content(newOwnerAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(status().isNotFound());
@@ -390,19 +450,29 @@ class OwnerRestControllerTests {
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         String newVisitAsJSON = mapper.writeValueAsString(visitMapper.toVisit(newVisit));
         System.out.println("newVisitAsJSON " + newVisitAsJSON);
+        given(this.clinicService.existsPetOfOwner(1, 1)).willReturn(true);
         this.mockMvc.perform(post("/api/owners/1/pets/1/visits")
                 .content(newVisitAsJSON).accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(status().isCreated());
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testCreateVisitForPetOfOtherOwner() throws Exception {
+        given(this.clinicService.existsPetOfOwner(1, 2)).willReturn(false);
+        this.mockMvc.perform(post("/api/owners/2/pets/1/visits")
+                .content("{\"date\":\"2024-05-01\",\"description\":\"rabies shot\"}")
+                .accept(MediaType.APPLICATION_JSON_VALUE).contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnerPetSuccess() throws Exception {
-        var owner = ownerMapper.toOwner(owners.get(0));
-        given(this.clinicService.findOwnerById(2)).willReturn(owner);
+        var owner = ownerMapper.toOwner(owners.get(1));
         var pet = petMapper.toPet(pets.get(0));
         pet.setOwner(owner);
-        given(this.clinicService.findPetById(1)).willReturn(pet);
+        given(this.clinicService.findPetById(1)).willReturn(Optional.of(pet));
         this.mockMvc.perform(get("/api/owners/2/pets/1")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
@@ -422,8 +492,9 @@ class OwnerRestControllerTests {
     @Test
     @WithMockUser(roles = "OWNER_ADMIN")
     void testGetOwnersPetsWithPetNotFound() throws Exception {
-        var owner1 = ownerMapper.toOwner(owners.get(0));
-        given(this.clinicService.findOwnerById(1)).willReturn(owner1);
+        var pet = petMapper.toPet(pets.get(0));
+        pet.setOwner(ownerMapper.toOwner(owners.get(1)));
+        given(this.clinicService.findPetById(2)).willReturn(Optional.of(pet));
         this.mockMvc.perform(get("/api/owners/1/pets/2")
                 .accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNotFound());
@@ -435,8 +506,9 @@ class OwnerRestControllerTests {
     void testUpdateOwnersPetSuccess() throws Exception {
         int ownerId = owners.get(0).getId();
         int petId = pets.get(0).getId();
-        given(this.clinicService.findOwnerById(ownerId)).willReturn(ownerMapper.toOwner(owners.get(0)));
-        given(this.clinicService.findPetById(petId)).willReturn(petMapper.toPet(pets.get(0)));
+        given(this.clinicService.updatePetFields(
+            argThat(pet -> pet.getId() == petId && "Rex".equals(pet.getName())), eq(ownerId), isNull()))
+            .willReturn(true);
         PetDto updatedPetDto = pets.get(0);
         updatedPetDto.setName("Rex");
         updatedPetDto.setBirthDate(LocalDate.of(2020, 1, 15));
@@ -457,7 +529,7 @@ class OwnerRestControllerTests {
     void testUpdateOwnersPetOwnerNotFound() throws Exception {
         int ownerId = 0;
         int petId = pets.get(0).getId();
-        given(this.clinicService.findOwnerById(ownerId)).willReturn(null);
+        given(this.clinicService.updatePetFields(any(Pet.class), eq(ownerId), isNull())).willReturn(false);
         PetDto petDto = pets.get(0);
         petDto.setName("Thor");
         ObjectMapper mapper = new ObjectMapper();
@@ -476,8 +548,7 @@ class OwnerRestControllerTests {
     void testUpdateOwnersPetPetNotFound() throws Exception {
         int ownerId = owners.get(0).getId();
         int petId = 0;
-        given(this.clinicService.findOwnerById(ownerId)).willReturn(ownerMapper.toOwner(owners.get(0)));
-        given(this.clinicService.findPetById(petId)).willReturn(null);
+        given(this.clinicService.updatePetFields(any(Pet.class), eq(ownerId), isNull())).willReturn(false);
         PetDto petDto = pets.get(0);
         petDto.setName("Ghost");
         petDto.setBirthDate(LocalDate.of(2020, 1, 1));
@@ -492,4 +563,45 @@ class OwnerRestControllerTests {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testPatchOwnerSuccess() throws Exception {
+        given(this.clinicService.updateOwnerFields(
+            argThat(owner -> owner.getId() == 1 && owner.getFirstName() == null
+                && "6085551749".equals(owner.getTelephone())), eq(3)))
+            .willReturn(true);
+        this.mockMvc.perform(patch("/api/owners/1")
+                .header(HttpHeaders.IF_MATCH, "\"owners-1-v3\"")
+                .content("{\"telephone\":\"6085551749\"}").contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testPatchOwnerNotFound() throws Exception {
+        given(this.clinicService.updateOwnerFields(any(Owner.class), isNull())).willReturn(false);
+        this.mockMvc.perform(patch("/api/owners/999")
+                .content("{\"city\":\"Madison\"}").contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testPatchOwnerError() throws Exception {
+        this.mockMvc.perform(patch("/api/owners/1")
+                .content("{\"telephone\":\"call me\"}").contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testPatchOwnersPetSuccess() throws Exception {
+        given(this.clinicService.updatePetFields(
+            argThat(pet -> pet.getId() == 3 && "Rex".equals(pet.getName()) && pet.getType() == null), eq(1), isNull()))
+            .willReturn(true);
+        this.mockMvc.perform(patch("/api/owners/1/pets/3")
+                .content("{\"name\":\"Rex\"}").contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(status().isNoContent());
+    }
+
 }
@@ -0,0 +1,87 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.service.search.SearchHit;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for {@link SearchRestController}
+ */
+@SpringBootTest
+@ContextConfiguration(classes = ApplicationTestConfig.class)
+@WebAppConfiguration
+class SearchRestControllerTests {
+
+    @Autowired
+    private SearchRestController searchRestController;
+
+    @MockitoBean
+    private ClinicService clinicService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void initSearch() {
+        this.mockMvc = MockMvcBuilders.standaloneSetup(searchRestController)
+            .setControllerAdvice(new ExceptionControllerAdvice())
+            .build();
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testSearchSuccess() throws Exception {
+        given(this.clinicService.search("sam", 20)).willReturn(List.of(
+            new SearchHit(SearchHit.Type.PET, 7, 6, 3.5),
+            new SearchHit(SearchHit.Type.OWNER, 3, 3, 1.25)));
+        this.mockMvc.perform(get("/api/search?q=sam").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.[0].type").value("pet"))
+            .andExpect(jsonPath("$.[0].id").value(7))
+            .andExpect(jsonPath("$.[0].ownerId").value(6))
+            .andExpect(jsonPath("$.[0].score").value(3.5))
+            .andExpect(jsonPath("$.[1].type").value("owner"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testSearchWithLimit() throws Exception {
+        given(this.clinicService.search("rabies shot", 5)).willReturn(List.of());
+        this.mockMvc.perform(get("/api/search").param("q", "rabies shot").param("limit", "5")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().json("[]"));
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testSearchWithInvalidParameters() throws Exception {
+        this.mockMvc.perform(get("/api/search").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/api/search").param("q", "sam").param("limit", "1000")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/api/search").param("q", "sam").param("limit", "many")
+                .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+}
@@ -0,0 +1,73 @@
+package org.springframework.samples.petclinic.rest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.rest.advice.ExceptionControllerAdvice;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.service.clinicService.ApplicationTestConfig;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics.PetTypeStatistics;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Test class for {@link StatisticsRestController}
+ */
+@SpringBootTest
+@ContextConfiguration(classes = ApplicationTestConfig.class)
+@WebAppConfiguration
+class StatisticsRestControllerTests {
+
+    @Autowired
+    private StatisticsRestController statisticsRestController;
+
+    @MockitoBean
+    private ClinicService clinicService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void initStatistics() {
+        this.mockMvc = MockMvcBuilders.standaloneSetup(statisticsRestController)
+            .setControllerAdvice(new ExceptionControllerAdvice())
+            .build();
+    }
+
+    @Test
+    @WithMockUser(roles = "OWNER_ADMIN")
+    void testGetStatisticsSuccess() throws Exception {
+        TreeMap<YearMonth, Integer> visitsPerMonth = new TreeMap<>();
+        visitsPerMonth.put(YearMonth.of(2013, 1), 3);
+        visitsPerMonth.put(YearMonth.of(2013, 2), 1);
+        TreeMap<Integer, Integer> ownersPerPetCount = new TreeMap<>();
+        ownersPerPetCount.put(1, 7);
+        ownersPerPetCount.put(2, 3);
+        given(this.clinicService.getStatistics()).willReturn(new ClinicStatistics(10, 13, 4, visitsPerMonth,
+            List.of(new PetTypeStatistics(1, "cat", 4, 4)), ownersPerPetCount));
+        this.mockMvc.perform(get("/api/statistics").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/json"))
+            .andExpect(jsonPath("$.owners").value(10))
+            .andExpect(jsonPath("$.visitsPerMonth.[0].month").value("2013-01"))
+            .andExpect(jsonPath("$.visitsPerMonth.[1].visits").value(1))
+            .andExpect(jsonPath("$.petTypes.[0].name").value("cat"))
+            .andExpect(jsonPath("$.ownersPerPetCount.[1].pets").value(2))
+            .andExpect(jsonPath("$.ownersPerPetCount.[1].owners").value(3));
+    }
+
+}
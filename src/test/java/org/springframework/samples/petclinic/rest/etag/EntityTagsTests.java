@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.rest.etag;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.rest.dto.PetTypeDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link EntityTags}
+ */
+class EntityTagsTests {
+
+    @Test
+    void shouldTagByDigestOfRepresentationWithoutGeneration() {
+        PetType petType = new PetType();
+        petType.setId(1);
+        petType.setVersion(3);
+
+        String cat = EntityTags.of(petType, new PetTypeDto().id(1).name("cat"));
+
+        assertThat(cat).matches("^\"h[A-Za-z0-9_-]{43}-v3\"$");
+        assertThat(EntityTags.of(petType, new PetTypeDto().id(1).name("cat"))).isEqualTo(cat);
+        assertThat(EntityTags.of(petType, new PetTypeDto().id(1).name("dog"))).isNotEqualTo(cat);
+        assertThat(EntityTags.version(cat)).isEqualTo(3);
+    }
+
+}
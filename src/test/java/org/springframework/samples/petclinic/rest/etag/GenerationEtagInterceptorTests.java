@@ -0,0 +1,171 @@
+package org.springframework.samples.petclinic.rest.etag;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for {@link GenerationEtagInterceptor}
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles({"h2", "spring-data-jpa"})
+@TestPropertySource(
+    properties = {
+        "petclinic.security.enable=false",
+        "petclinic.etag.generations.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:etag;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+    }
+)
+class GenerationEtagInterceptorTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private ClinicService clinicService;
+
+    @Test
+    void shouldAnswerMatchingIfNoneMatchWithoutLoading() throws Exception {
+        String etag = this.mockMvc.perform(get("/api/vets"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, GenerationEtagInterceptor.CACHE_CONTROL))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"vets-");
+        clearInvocations(this.clinicService);
+
+        this.mockMvc.perform(get("/api/vets").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+        verify(this.clinicService, never()).findAllVets();
+    }
+
+    @Test
+    void shouldChangeTagAfterModification() throws Exception {
+        String etag = this.mockMvc.perform(get("/api/owners/1"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(post("/api/owners/1/pets/1/visits")
+                .content("{\"date\":\"2026-01-01\",\"description\":\"checkup\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isCreated());
+
+        String changed = this.mockMvc.perform(get("/api/owners/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("checkup")))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void shouldChangeVetTagsWhenSpecialtyChanges() throws Exception {
+        String etag = this.mockMvc.perform(get("/api/vets/2"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(put("/api/specialties/1")
+                .content("{\"id\":1,\"name\":\"cardiology\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+
+        this.mockMvc.perform(get("/api/vets/2").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldStillLoadWhenTagIsStale() throws Exception {
+        this.mockMvc.perform(get("/api/pettypes/1").header(HttpHeaders.IF_NONE_MATCH, "\"pet_types-0-0\""))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG));
+        verify(this.clinicService).findPetTypeById(anyInt());
+    }
+
+    @Test
+    void shouldAnswerEntityTagWithoutLoading() throws Exception {
+        String etag = this.mockMvc.perform(get("/api/owners/2"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("\"owners-.*-v\\d+\"");
+        clearInvocations(this.clinicService);
+
+        this.mockMvc.perform(get("/api/owners/2").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(this.clinicService, never()).findOwnerById(anyInt());
+    }
+
+    @Test
+    void shouldUpdateOnlyWithCurrentIfMatchTag() throws Exception {
+        String etag = this.mockMvc.perform(get("/api/pettypes/2"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(put("/api/pettypes/2").header(HttpHeaders.IF_MATCH, etag)
+                .content("{\"id\":2,\"name\":\"hound\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+
+        this.mockMvc.perform(put("/api/pettypes/2").header(HttpHeaders.IF_MATCH, etag)
+                .content("{\"id\":2,\"name\":\"dog\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isPreconditionFailed());
+
+        String updated = this.mockMvc.perform(get("/api/pettypes/2"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(EntityTags.version(updated)).isEqualTo(EntityTags.version(etag) + 1);
+    }
+
+    @Test
+    void shouldPatchWithoutLoadingOnlyWithCurrentIfMatchTag() throws Exception {
+        String etag = this.mockMvc.perform(get("/api/visits/3"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        clearInvocations(this.clinicService);
+
+        this.mockMvc.perform(patch("/api/visits/3").header(HttpHeaders.IF_MATCH, etag)
+                .content("{\"description\":\"neutered again\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+        verify(this.clinicService, never()).findVisitById(anyInt());
+
+        this.mockMvc.perform(patch("/api/visits/3").header(HttpHeaders.IF_MATCH, etag)
+                .content("{\"description\":\"spayed\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isPreconditionFailed());
+
+        this.mockMvc.perform(get("/api/visits/3"))
+            .andExpect(jsonPath("$.description").value("neutered again"));
+    }
+
+    @Test
+    void shouldRejectForeignIfMatchTag() throws Exception {
+        this.mockMvc.perform(put("/api/pettypes/3").header(HttpHeaders.IF_MATCH, "\"0123456789abcdef\"")
+                .content("{\"id\":3,\"name\":\"lizard\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+}
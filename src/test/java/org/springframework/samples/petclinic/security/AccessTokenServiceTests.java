@@ -0,0 +1,105 @@
+package org.springframework.samples.petclinic.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link AccessTokenService}
+ */
+class AccessTokenServiceTests {
+
+    private static final byte[] SECRET = "a-secret-of-at-least-thirty-two-bytes".getBytes(StandardCharsets.UTF_8);
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final AccessTokenService service = service(SECRET, NOW);
+
+    private final Authentication admin = UsernamePasswordAuthenticationToken.authenticated("admin", null,
+        AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_VET_ADMIN"));
+
+    @Test
+    void shouldVerifyIssuedToken() {
+        AccessTokenService.AccessToken token = service.issue(admin);
+
+        BearerTokenAuthentication authentication = service.verify(token.value());
+
+        assertThat(token.expiresAt()).isEqualTo(NOW.plus(Duration.ofMinutes(15)));
+        assertThat(authentication.getName()).isEqualTo("admin");
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities()))
+            .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_VET_ADMIN");
+        assertThat(authentication.getExpiresAt()).isEqualTo(token.expiresAt());
+    }
+
+    @Test
+    void shouldIssueJsonWebToken() {
+        String[] parts = service.issue(admin).value().split("\\.");
+
+        assertThat(parts).hasSize(3);
+        assertThat(new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8))
+            .contains("\"alg\":\"HS256\"");
+        assertThat(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8))
+            .contains("\"sub\":\"admin\"");
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = service.issue(admin).value();
+
+        assertThatThrownBy(() -> service(SECRET, NOW.plus(Duration.ofMinutes(15))).verify(token))
+            .isInstanceOf(CredentialsExpiredException.class);
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherSecret() {
+        String token = service("another-secret-of-at-least-32-bytes".getBytes(StandardCharsets.UTF_8), NOW)
+            .issue(admin).value();
+
+        assertThatThrownBy(() -> service.verify(token))
+            .isInstanceOf(BadCredentialsException.class)
+            .hasMessageContaining("signature");
+    }
+
+    @Test
+    void shouldRejectTamperedClaims() {
+        String[] parts = service.issue(admin).value().split("\\.");
+        String claims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            "{\"sub\":\"admin\",\"roles\":[\"ROLE_ADMIN\"],\"exp\":4102444800}".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> service.verify(parts[0] + "." + claims + "." + parts[2]))
+            .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void shouldRejectMalformedToken() {
+        assertThatThrownBy(() -> service.verify("not-a-token")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> service.verify("a.b")).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> service.verify(service.issue(admin).value() + "%"))
+            .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void shouldRequireLongEnoughSecret() {
+        assertThatThrownBy(() -> new AccessTokenService(new byte[16], Duration.ofMinutes(15)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AccessTokenService service(byte[] secret, Instant now) {
+        return new AccessTokenService(secret, Duration.ofMinutes(15), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+}
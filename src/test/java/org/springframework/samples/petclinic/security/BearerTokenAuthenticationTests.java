@@ -0,0 +1,95 @@
+package org.springframework.samples.petclinic.security;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the security filter chain with access tokens: issued for Basic credentials, then accepted instead of them.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "petclinic.security.token.secret=a-secret-of-at-least-thirty-two-bytes")
+class BearerTokenAuthenticationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Test
+    void shouldIssueTokenForBasicCredentials() throws Exception {
+        this.mockMvc.perform(post("/api/tokens").with(httpBasic("admin", "admin")))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+            .andExpect(jsonPath("$.token_type").value("Bearer"))
+            .andExpect(jsonPath("$.expires_in").value(900))
+            .andExpect(jsonPath("$.access_token").isString());
+    }
+
+    @Test
+    void shouldAuthenticateRequestWithIssuedToken() throws Exception {
+        String token = issueToken();
+
+        this.mockMvc.perform(get("/api/owners").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldCheckRolesCarriedByToken() throws Exception {
+        String token = this.accessTokenService.issue(UsernamePasswordAuthenticationToken.authenticated("vet", null,
+            AuthorityUtils.createAuthorityList("ROLE_VET_ADMIN"))).value();
+
+        this.mockMvc.perform(get("/api/vets").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isOk());
+        this.mockMvc.perform(get("/api/owners").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldRejectInvalidToken() throws Exception {
+        String token = issueToken();
+
+        this.mockMvc.perform(get("/api/owners").header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x"))
+            .andExpect(status().isUnauthorized())
+            .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, startsWith("Bearer error=\"invalid_token\"")));
+    }
+
+    @Test
+    void shouldNotExchangeTokenForAnotherOne() throws Exception {
+        String token = issueToken();
+
+        this.mockMvc.perform(post("/api/tokens").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldRejectWrongCredentials() throws Exception {
+        this.mockMvc.perform(post("/api/tokens").with(httpBasic("admin", "wrong")))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private String issueToken() throws Exception {
+        String response = this.mockMvc.perform(post("/api/tokens").with(httpBasic("admin", "admin")))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.access_token");
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.springframework.samples.petclinic.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.service.UserSavedEvent;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link CachingAuthenticationProvider}
+ */
+class CachingAuthenticationProviderTests {
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private final InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+        User.withUsername("admin").password(passwordEncoder.encode("admin")).roles("ADMIN").build(),
+        User.withUsername("vet").password(passwordEncoder.encode("vet")).roles("VET_ADMIN").build());
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private final CachingAuthenticationProvider provider = new CachingAuthenticationProvider(countingDelegate(),
+        Duration.ofMinutes(1), 2, nanoClock::get);
+
+    @Test
+    void shouldAuthenticateRepeatedCredentialsFromCache() {
+        Authentication first = provider.authenticate(credentials("admin", "admin"));
+        Authentication second = provider.authenticate(credentials("admin", "admin"));
+
+        assertThat(lookups).hasValue(1);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getName()).isEqualTo("admin");
+        assertThat(second.getCredentials()).isNull();
+        assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+        assertThat(provider.getHits()).isEqualTo(1);
+        assertThat(provider.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepDetailsOfCurrentRequest() {
+        provider.authenticate(credentials("admin", "admin"));
+        UsernamePasswordAuthenticationToken request = credentials("admin", "admin");
+        request.setDetails("10.0.0.2");
+
+        assertThat(provider.authenticate(request).getDetails()).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    void shouldNeverCacheWrongPassword() {
+        provider.authenticate(credentials("admin", "admin"));
+
+        assertThatThrownBy(() -> provider.authenticate(credentials("admin", "wrong")))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticate(credentials("admin", "wrong")))
+            .isInstanceOf(BadCredentialsException.class);
+        assertThat(lookups).hasValue(3);
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTimeToLive() {
+        provider.authenticate(credentials("admin", "admin"));
+        nanoClock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        provider.authenticate(credentials("admin", "admin"));
+
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        provider.authenticate(credentials("admin", "admin"));
+        provider.authenticate(credentials("vet", "vet"));
+        provider.authenticate(credentials("admin", "admin"));
+        users.createUser(User.withUsername("owner").password(passwordEncoder.encode("owner")).roles("OWNER_ADMIN")
+            .build());
+        provider.authenticate(credentials("owner", "owner"));
+
+        assertThat(provider.size()).isEqualTo(2);
+        provider.authenticate(credentials("admin", "admin"));
+        assertThat(lookups).hasValue(3);
+        provider.authenticate(credentials("vet", "vet"));
+        assertThat(lookups).hasValue(4);
+    }
+
+    @Test
+    void shouldDropEntriesOfSavedUser() {
+        provider.authenticate(credentials("admin", "admin"));
+        provider.authenticate(credentials("vet", "vet"));
+        users.updateUser(User.withUsername("admin").password(passwordEncoder.encode("changed")).roles("ADMIN").build());
+
+        provider.userSaved(new UserSavedEvent("admin"));
+
+        assertThatThrownBy(() -> provider.authenticate(credentials("admin", "admin")))
+            .isInstanceOf(BadCredentialsException.class);
+        provider.authenticate(credentials("vet", "vet"));
+        assertThat(lookups).hasValue(3);
+    }
+
+    @Test
+    void shouldPublishMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        provider.bindTo(registry);
+        provider.authenticate(credentials("admin", "admin"));
+        provider.authenticate(credentials("admin", "admin"));
+        provider.invalidate("admin");
+
+        assertThat(registry.get("petclinic.authentication.cache.requests").tag("result", "hit").functionCounter()
+            .count()).isEqualTo(1);
+        assertThat(registry.get("petclinic.authentication.cache.requests").tag("result", "miss").functionCounter()
+            .count()).isEqualTo(1);
+        assertThat(registry.get("petclinic.authentication.cache.invalidations").functionCounter().count())
+            .isEqualTo(1);
+        assertThat(registry.get("petclinic.authentication.cache.size").gauge().value()).isZero();
+    }
+
+    private AuthenticationProvider countingDelegate() {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(users);
+        dao.setPasswordEncoder(passwordEncoder);
+        return new AuthenticationProvider() {
+            @Override
+            public Authentication authenticate(Authentication authentication) {
+                lookups.incrementAndGet();
+                return dao.authenticate(authentication);
+            }
+
+            @Override
+            public boolean supports(Class<?> authentication) {
+                return dao.supports(authentication);
+            }
+        };
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+}
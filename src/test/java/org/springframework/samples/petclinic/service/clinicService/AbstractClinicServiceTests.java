@@ -17,19 +17,41 @@ package org.springframework.samples.petclinic.service.clinicService;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.samples.petclinic.model.*;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Action;
+import org.springframework.samples.petclinic.service.ClinicChangeEvent.Entity;
 import org.springframework.samples.petclinic.service.ClinicService;
+import org.springframework.samples.petclinic.service.ModificationTracker;
+import org.springframework.samples.petclinic.service.ModificationTracker.Resource;
+import org.springframework.samples.petclinic.service.search.OwnerName;
+import org.springframework.samples.petclinic.service.search.SearchHit;
+import org.springframework.samples.petclinic.service.search.SearchIndex;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics.PetTypeStatistics;
+import org.springframework.samples.petclinic.service.statistics.StatisticsCounters;
 import org.springframework.samples.petclinic.util.EntityUtils;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * <p> Base class for {@link ClinicService} integration tests. </p> <p> Subclasses should specify Spring context
@@ -51,11 +73,21 @@ import static org.assertj.core.api.Assertions.assertThat;
  * @author Michael Isvy
  * @author Vitaliy Fedoriv
  */
+@RecordApplicationEvents
 abstract class AbstractClinicServiceTests {
 
     @Autowired
     protected ClinicService clinicService;
 
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private ModificationTracker modificationTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     void shouldFindOwnersByLastName() {
         Collection<Owner> owners = this.clinicService.findOwnerByLastName("Davis");
@@ -67,7 +99,7 @@ abstract class AbstractClinicServiceTests {
 
     @Test
     void shouldFindSingleOwnerWithPet() {
-        Owner owner = this.clinicService.findOwnerById(1);
+        Owner owner = this.clinicService.findOwnerById(1).orElseThrow();
         assertThat(owner.getLastName()).startsWith("Franklin");
         assertThat(owner.getPets().size()).isEqualTo(1);
         assertThat(owner.getPets().get(0).getType()).isNotNull();
@@ -96,7 +128,7 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldUpdateOwner() {
-        Owner owner = this.clinicService.findOwnerById(1);
+        Owner owner = this.clinicService.findOwnerById(1).orElseThrow();
         String oldLastName = owner.getLastName();
         String newLastName = oldLastName + "X";
 
@@ -104,13 +136,66 @@ abstract class AbstractClinicServiceTests {
         this.clinicService.saveOwner(owner);
 
         // retrieving new name from database
-        owner = this.clinicService.findOwnerById(1);
+        owner = this.clinicService.findOwnerById(1).orElseThrow();
         assertThat(owner.getLastName()).isEqualTo(newLastName);
     }
 
+    @Test
+    @Transactional
+    void shouldRejectUpdateOfStaleOwner() {
+        Owner owner = this.clinicService.findOwnerById(1).orElseThrow();
+        Owner stale = new Owner();
+        stale.setId(owner.getId());
+        stale.setVersion(owner.getVersion() + 1);
+        stale.setFirstName(owner.getFirstName());
+        stale.setLastName(owner.getLastName());
+        stale.setAddress(owner.getAddress());
+        stale.setCity("Stale City");
+        stale.setTelephone(owner.getTelephone());
+
+        assertThatThrownBy(() -> this.clinicService.saveOwner(stale))
+            .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @Transactional
+    void shouldUpdateOnlyGivenOwnerFields() {
+        Owner changes = new Owner();
+        changes.setId(1);
+        changes.setCity("Sun Prairie");
+
+        assertThat(this.clinicService.updateOwnerFields(changes, null)).isTrue();
+        Owner owner = this.clinicService.findOwnerById(1).orElseThrow();
+        assertThat(owner.getCity()).isEqualTo("Sun Prairie");
+        assertThat(owner.getLastName()).isEqualTo("Franklin");
+        assertThat(owner.getPets()).isNotEmpty();
+    }
+
+    @Test
+    @Transactional
+    void shouldNotUpdateFieldsOfMissingOwner() {
+        Owner changes = new Owner();
+        changes.setId(999);
+        changes.setCity("Sun Prairie");
+
+        assertThat(this.clinicService.updateOwnerFields(changes, null)).isFalse();
+        assertThat(this.clinicService.updateOwnerFields(changes, 0)).isFalse();
+    }
+
+    @Test
+    @Transactional
+    void shouldRejectFieldUpdateOfStaleOwner() {
+        Owner changes = new Owner();
+        changes.setId(1);
+        changes.setCity("Stale City");
+
+        assertThatThrownBy(() -> this.clinicService.updateOwnerFields(changes, Integer.MAX_VALUE))
+            .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
     @Test
     void shouldFindPetWithCorrectId() {
-        Pet pet7 = this.clinicService.findPetById(7);
+        Pet pet7 = this.clinicService.findPetById(7).orElseThrow();
         assertThat(pet7.getName()).startsWith("Samantha");
         assertThat(pet7.getOwner().getFirstName()).isEqualTo("Jean");
 
@@ -129,7 +214,7 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldInsertPetIntoDatabaseAndGenerateId() {
-        Owner owner6 = this.clinicService.findOwnerById(6);
+        Owner owner6 = this.clinicService.findOwnerById(6).orElseThrow();
         int found = owner6.getPets().size();
 
         Pet pet = new Pet();
@@ -143,7 +228,7 @@ abstract class AbstractClinicServiceTests {
         this.clinicService.savePet(pet);
         this.clinicService.saveOwner(owner6);
 
-        owner6 = this.clinicService.findOwnerById(6);
+        owner6 = this.clinicService.findOwnerById(6).orElseThrow();
         assertThat(owner6.getPets().size()).isEqualTo(found + 1);
         // checks that id has been generated
         assertThat(pet.getId()).isNotNull();
@@ -152,17 +237,32 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldUpdatePetName() throws Exception {
-        Pet pet7 = this.clinicService.findPetById(7);
+        Pet pet7 = this.clinicService.findPetById(7).orElseThrow();
         String oldName = pet7.getName();
 
         String newName = oldName + "X";
         pet7.setName(newName);
         this.clinicService.savePet(pet7);
 
-        pet7 = this.clinicService.findPetById(7);
+        pet7 = this.clinicService.findPetById(7).orElseThrow();
         assertThat(pet7.getName()).isEqualTo(newName);
     }
 
+    @Test
+    @Transactional
+    void shouldUpdatePetFieldsOnlyForItsOwner() {
+        Pet changes = new Pet();
+        changes.setId(7);
+        changes.setName("Sam");
+
+        assertThat(this.clinicService.updatePetFields(changes, 1, null)).isFalse();
+        assertThat(this.clinicService.updatePetFields(changes, 6, null)).isTrue();
+        Pet pet7 = this.clinicService.findPetById(7).orElseThrow();
+        assertThat(pet7.getName()).isEqualTo("Sam");
+        assertThat(pet7.getBirthDate()).isEqualTo(LocalDate.of(2012, 9, 4));
+        assertThat(pet7.getType().getId()).isEqualTo(1);
+    }
+
     @Test
     void shouldFindVets() {
         Collection<Vet> vets = this.clinicService.findVets();
@@ -177,7 +277,7 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldAddNewVisitForPet() {
-        Pet pet7 = this.clinicService.findPetById(7);
+        Pet pet7 = this.clinicService.findPetById(7).orElseThrow();
         int found = pet7.getVisits().size();
         Visit visit = new Visit();
         pet7.addVisit(visit);
@@ -185,11 +285,33 @@ abstract class AbstractClinicServiceTests {
         this.clinicService.saveVisit(visit);
         this.clinicService.savePet(pet7);
 
-        pet7 = this.clinicService.findPetById(7);
+        pet7 = this.clinicService.findPetById(7).orElseThrow();
         assertThat(pet7.getVisits().size()).isEqualTo(found + 1);
         assertThat(visit.getId()).isNotNull();
     }
 
+    @Test
+    @Transactional
+    void shouldInsertVisits() {
+        Pet pet7 = this.clinicService.findPetById(7).orElseThrow();
+        Pet pet8 = this.clinicService.findPetById(8).orElseThrow();
+        int found = this.clinicService.findVisitsByPetId(7).size();
+        Visit first = new Visit();
+        first.setDescription("first");
+        first.setPet(pet7);
+        Visit second = new Visit();
+        second.setDescription("second");
+        second.setPet(pet8);
+
+        this.clinicService.insertVisits(List.of(first, second));
+
+        assertThat(first.getId()).isNotNull();
+        assertThat(second.getId()).isNotNull().isNotEqualTo(first.getId());
+        assertThat(this.clinicService.findVisitById(second.getId()).orElseThrow().getDescription())
+            .isEqualTo("second");
+        assertThat(this.clinicService.findVisitsByPetId(7)).hasSize(found + 1);
+    }
+
     @Test
        void shouldFindVisitsByPetId() throws Exception {
         Collection<Visit> visits = this.clinicService.findVisitsByPetId(7);
@@ -212,19 +334,132 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldDeletePet(){
-        Pet pet = this.clinicService.findPetById(1);
+        Pet pet = this.clinicService.findPetById(1).orElseThrow();
         this.clinicService.deletePet(pet);
-        try {
-            pet = this.clinicService.findPetById(1);
-		} catch (Exception e) {
-			pet = null;
-		}
-        assertThat(pet).isNull();
+        assertThat(this.clinicService.findPetById(1)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void shouldDeletePetByIdWithItsVisits(){
+        assertThat(this.clinicService.deletePetById(7)).isTrue();
+        assertThat(this.clinicService.findPetById(7)).isEmpty();
+        assertThat(this.clinicService.findVisitById(1)).isEmpty();
+        assertThat(this.clinicService.deletePetById(7)).isFalse();
+    }
+
+    @Test
+    void shouldCheckPetOwnership(){
+        assertThat(this.clinicService.existsPetOfOwner(7, 6)).isTrue();
+        assertThat(this.clinicService.existsPetOfOwner(7, 1)).isFalse();
+        assertThat(this.clinicService.existsPetOfOwner(999, 6)).isFalse();
+    }
+
+    @Test
+    void shouldSearchIndexedOwnersPetsAndVisits(){
+        assertThat(this.clinicService.search("samantha", 10))
+            .extracting(SearchHit::getType, SearchHit::getId, SearchHit::getOwnerId)
+            .containsExactly(tuple(SearchHit.Type.PET, 7, 6));
+        assertThat(this.clinicService.search("spayed", 10))
+            .extracting(SearchHit::getType, SearchHit::getId, SearchHit::getOwnerId)
+            .containsExactly(tuple(SearchHit.Type.VISIT, 4, 6));
+        assertThat(this.clinicService.search("jean coleman", 10))
+            .extracting(SearchHit::getType, SearchHit::getId)
+            .containsExactly(tuple(SearchHit.Type.OWNER, 6));
+    }
+
+    @Test
+    @Transactional
+    void shouldNotSearchUncommittedChanges(){
+        Owner owner = new Owner();
+        owner.setFirstName("Sam");
+        owner.setLastName("Uncommitted");
+        owner.setAddress("4, Evans Street");
+        owner.setCity("Wollongong");
+        owner.setTelephone("4444444444");
+        this.clinicService.saveOwner(owner);
+
+        assertThat(this.clinicService.search("uncommitted", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldCompleteOwnerLastNames(){
+        assertThat(this.clinicService.completeOwnerLastName("DA", 10))
+            .extracting(OwnerName::getId, OwnerName::getFirstName, OwnerName::getLastName)
+            .containsExactly(tuple(2, "Betty", "Davis"), tuple(4, "Harold", "Davis"));
+        assertThat(this.clinicService.completeOwnerLastName("es", 1)).extracting(OwnerName::getLastName)
+            .containsExactly("Escobito");
+        assertThat(this.clinicService.completeOwnerLastName("zz", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldCountOwnersPetsAndVisits(){
+        ClinicStatistics statistics = this.clinicService.getStatistics();
+        assertThat(statistics.getOwners()).isEqualTo(10);
+        assertThat(statistics.getPets()).isEqualTo(13);
+        assertThat(statistics.getVisits()).isEqualTo(4);
+        assertThat(statistics.getVisitsPerMonth()).containsExactly(Map.entry(YearMonth.of(2013, 1), 4));
+        assertThat(statistics.getPetTypes())
+            .extracting(PetTypeStatistics::getName, PetTypeStatistics::getPets, PetTypeStatistics::getVisits)
+            .startsWith(tuple("cat", 4, 4), tuple("dog", 4, 0));
+        assertThat(statistics.getOwnersPerPetCount()).containsExactly(Map.entry(1, 7), Map.entry(2, 3));
+    }
+
+    @Test
+    void shouldCountCommittedChanges() {
+        ClinicStatistics initial = this.clinicService.getStatistics();
+        Owner owner6 = this.clinicService.findOwnerById(6).orElseThrow();
+        Pet pet = new Pet();
+        pet.setName("bowser");
+        pet.setType(EntityUtils.getById(this.clinicService.findPetTypes(), PetType.class, 2));
+        pet.setBirthDate(LocalDate.now());
+        owner6.addPet(pet);
+        this.clinicService.savePet(pet);
+        Visit visit = new Visit();
+        visit.setDate(LocalDate.of(2013, 2, 1));
+        visit.setDescription("rabies shot");
+        pet.addVisit(visit);
+        this.clinicService.saveVisit(visit);
+
+        ClinicStatistics statistics = this.clinicService.getStatistics();
+        assertThat(statistics.getPets()).isEqualTo(14);
+        assertThat(statistics.getVisits()).isEqualTo(5);
+        assertThat(statistics.getVisitsPerMonth())
+            .containsExactly(Map.entry(YearMonth.of(2013, 1), 4), Map.entry(YearMonth.of(2013, 2), 1));
+        assertThat(statistics.getPetTypes())
+            .extracting(PetTypeStatistics::getName, PetTypeStatistics::getPets, PetTypeStatistics::getVisits)
+            .startsWith(tuple("cat", 4, 4), tuple("dog", 5, 1));
+        assertThat(statistics.getOwnersPerPetCount())
+            .containsExactly(Map.entry(1, 7), Map.entry(2, 2), Map.entry(3, 1));
+
+        this.clinicService.deletePet(pet);
+        assertThat(this.clinicService.getStatistics()).usingRecursiveComparison().isEqualTo(initial);
+    }
+
+    @Test
+    void shouldFindVisitsBetweenDates(){
+        assertThat(this.clinicService.findVisitsByDateBetween(null, LocalDate.of(2013, 1, 2), LocalDate.of(2013, 1, 3)))
+            .extracting(Visit::getId, visit -> visit.getPet().getId())
+            .containsExactly(tuple(2, 8), tuple(3, 8));
+        assertThat(this.clinicService.findVisitsByDateBetween(null, LocalDate.of(2013, 1, 4), null))
+            .extracting(Visit::getId).containsExactly(4);
+        assertThat(this.clinicService.findVisitsByDateBetween(null, LocalDate.of(2012, 1, 1), LocalDate.of(2012, 12, 31)))
+            .isEmpty();
+    }
+
+    @Test
+    void shouldFindVisitsOfPetBetweenDates(){
+        assertThat(this.clinicService.findVisitsByDateBetween(7, LocalDate.of(2013, 1, 1), LocalDate.of(2013, 1, 3)))
+            .extracting(Visit::getId, visit -> visit.getPet().getName())
+            .containsExactly(tuple(1, "Samantha"));
+        assertThat(this.clinicService.findVisitsByDateBetween(8, null, null))
+            .extracting(Visit::getId).containsExactly(2, 3);
+        assertThat(this.clinicService.findVisitsByDateBetween(999, null, null)).isEmpty();
     }
 
     @Test
     void shouldFindVisitDyId(){
-    	Visit visit = this.clinicService.findVisitById(1);
+    	Visit visit = this.clinicService.findVisitById(1).orElseThrow();
     	assertThat(visit.getId()).isEqualTo(1);
     	assertThat(visit.getPet().getName()).isEqualTo("Samantha");
     }
@@ -244,7 +479,7 @@ abstract class AbstractClinicServiceTests {
         Collection<Visit> visits = this.clinicService.findAllVisits();
         int found = visits.size();
 
-        Pet pet = this.clinicService.findPetById(1);
+        Pet pet = this.clinicService.findPetById(1).orElseThrow();
 
         Visit visit = new Visit();
         visit.setPet(pet);
@@ -262,31 +497,70 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldUpdateVisit(){
-    	Visit visit = this.clinicService.findVisitById(1);
+    	Visit visit = this.clinicService.findVisitById(1).orElseThrow();
     	String oldDesc = visit.getDescription();
         String newDesc = oldDesc + "X";
         visit.setDescription(newDesc);
         this.clinicService.saveVisit(visit);
-        visit = this.clinicService.findVisitById(1);
+        visit = this.clinicService.findVisitById(1).orElseThrow();
         assertThat(visit.getDescription()).isEqualTo(newDesc);
     }
 
+    @Test
+    @Transactional
+    void shouldUpdateOnlyGivenVisitFields(){
+        Visit changes = new Visit();
+        changes.setId(1);
+        changes.setDate(null);
+        changes.setDescription("rabies booster");
+
+        assertThat(this.clinicService.updateVisitFields(changes, null)).isTrue();
+        Visit visit = this.clinicService.findVisitById(1).orElseThrow();
+        assertThat(visit.getDescription()).isEqualTo("rabies booster");
+        assertThat(visit.getDate()).isNotNull();
+    }
+
     @Test
     @Transactional
     void shouldDeleteVisit(){
-    	Visit visit = this.clinicService.findVisitById(1);
+    	Visit visit = this.clinicService.findVisitById(1).orElseThrow();
         this.clinicService.deleteVisit(visit);
-        try {
-        	visit = this.clinicService.findVisitById(1);
-		} catch (Exception e) {
-			visit = null;
-		}
-        assertThat(visit).isNull();
+        assertThat(this.clinicService.findVisitById(1)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void shouldPublishChanges() {
+        Owner owner = new Owner();
+        owner.setFirstName("Sam");
+        owner.setLastName("Schultz");
+        owner.setAddress("4, Evans Street");
+        owner.setCity("Wollongong");
+        owner.setTelephone("4444444444");
+        this.clinicService.saveOwner(owner);
+        Pet pet7 = this.clinicService.findPetById(7).orElseThrow();
+        pet7.setName("Samantha II");
+        this.clinicService.savePet(pet7);
+        this.clinicService.deleteVisitById(1);
+        this.clinicService.deleteVisitById(1);
+
+        assertThat(this.events.stream(ClinicChangeEvent.class)).containsExactly(
+            new ClinicChangeEvent(Entity.OWNER, Action.CREATED, owner.getId(), owner.getId()),
+            new ClinicChangeEvent(Entity.PET, Action.UPDATED, 7, pet7.getOwner().getId()),
+            new ClinicChangeEvent(Entity.VISIT, Action.DELETED, 1, pet7.getOwner().getId()));
+    }
+
+    @Test
+    @Transactional
+    void shouldDeleteVisitById(){
+        assertThat(this.clinicService.deleteVisitById(1)).isTrue();
+        assertThat(this.clinicService.findVisitById(1)).isEmpty();
+        assertThat(this.clinicService.deleteVisitById(1)).isFalse();
     }
 
     @Test
     void shouldFindVetDyId(){
-    	Vet vet = this.clinicService.findVetById(1);
+    	Vet vet = this.clinicService.findVetById(1).orElseThrow();
     	assertThat(vet.getFirstName()).isEqualTo("James");
     	assertThat(vet.getLastName()).isEqualTo("Carter");
     }
@@ -311,26 +585,21 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldUpdateVet(){
-    	Vet vet = this.clinicService.findVetById(1);
+    	Vet vet = this.clinicService.findVetById(1).orElseThrow();
     	String oldLastName = vet.getLastName();
         String newLastName = oldLastName + "X";
         vet.setLastName(newLastName);
         this.clinicService.saveVet(vet);
-        vet = this.clinicService.findVetById(1);
+        vet = this.clinicService.findVetById(1).orElseThrow();
         assertThat(vet.getLastName()).isEqualTo(newLastName);
     }
 
     @Test
     @Transactional
     void shouldDeleteVet(){
-    	Vet vet = this.clinicService.findVetById(1);
+    	Vet vet = this.clinicService.findVetById(1).orElseThrow();
         this.clinicService.deleteVet(vet);
-        try {
-        	vet = this.clinicService.findVetById(1);
-		} catch (Exception e) {
-			vet = null;
-		}
-        assertThat(vet).isNull();
+        assertThat(this.clinicService.findVetById(1)).isEmpty();
     }
 
     @Test
@@ -345,19 +614,177 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldDeleteOwner(){
-    	Owner owner = this.clinicService.findOwnerById(1);
+    	Owner owner = this.clinicService.findOwnerById(1).orElseThrow();
         this.clinicService.deleteOwner(owner);
+        Optional<Owner> found;
         try {
-        	owner = this.clinicService.findOwnerById(1);
+        	found = this.clinicService.findOwnerById(1);
 		} catch (Exception e) {
-			owner = null;
+			found = Optional.empty();
 		}
-        assertThat(owner).isNull();
+        assertThat(found).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void shouldDeleteOwnerByIdWithPetsAndVisits(){
+        assertThat(this.clinicService.deleteOwnerById(6)).isTrue();
+        assertThat(this.clinicService.findOwnerById(6)).isEmpty();
+        assertThat(this.clinicService.findPetById(8)).isEmpty();
+        assertThat(this.clinicService.findVisitById(2)).isEmpty();
+        assertThat(this.clinicService.deleteOwnerById(6)).isFalse();
+    }
+
+    @Test
+    void shouldFindOwnerSummaries() {
+        assertThat(this.clinicService.findOwnerSummaries("Davis"))
+            .extracting(OwnerSummary::getId, OwnerSummary::getFirstName, OwnerSummary::getCity)
+            .containsExactly(tuple(2, "Betty", "Sun Prairie"), tuple(4, "Harold", "Windsor"));
+        Collection<OwnerSummary> summaries = this.clinicService.findOwnerSummaries(null);
+        assertThat(summaries).hasSameSizeAs(this.clinicService.findAllOwners());
+        summaries.forEach(this::assertSummaryOfOwner);
+    }
+
+    @Test
+    @Transactional
+    void shouldKeepOwnerSummariesUpToDate() {
+        Owner owner = new Owner();
+        owner.setFirstName("Sam");
+        owner.setLastName("Summers");
+        owner.setAddress("4, Evans Street");
+        owner.setCity("Wollongong");
+        owner.setTelephone("4444444444");
+        this.clinicService.saveOwner(owner);
+        Pet leo = new Pet();
+        leo.setName("Leo");
+        leo.setBirthDate(LocalDate.of(2020, 9, 7));
+        leo.setType(EntityUtils.getById(this.clinicService.findPetTypes(), PetType.class, 2));
+        owner.addPet(leo);
+        this.clinicService.savePet(leo);
+        Pet bella = new Pet();
+        bella.setName("Bella");
+        bella.setBirthDate(LocalDate.of(2021, 3, 1));
+        bella.setType(leo.getType());
+        owner.addPet(bella);
+        this.clinicService.savePet(bella);
+        Visit visit = new Visit();
+        visit.setDate(LocalDate.of(2024, 5, 1));
+        visit.setDescription("rabies shot");
+        leo.addVisit(visit);
+        this.clinicService.saveVisit(visit);
+        Visit earlier = new Visit();
+        earlier.setDate(LocalDate.of(2024, 4, 1));
+        earlier.setDescription("checkup");
+        earlier.setPet(bella);
+        this.clinicService.insertVisits(List.of(earlier));
+        Pet renamed = new Pet();
+        renamed.setId(leo.getId());
+        renamed.setName("Zeus");
+        this.clinicService.updatePetFields(renamed, null, null);
+        this.clinicService.deleteOwnerById(6);
+
+        assertThat(this.clinicService.findOwnerSummaries("Coleman")).isEmpty();
+        assertThat(this.clinicService.findOwnerSummaries("Summers"))
+            .extracting(OwnerSummary::getId, OwnerSummary::getPetNames, OwnerSummary::getPetCount,
+                OwnerSummary::getLastVisitDate)
+            .containsExactly(tuple(owner.getId(), "Bella, Zeus", 2, LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    @Transactional
+    void shouldRefreshOwnerSummaryWhenPetsAndVisitsAreDeleted() {
+        this.clinicService.deleteVisitById(4);
+        this.clinicService.deletePetById(8);
+
+        assertThat(this.clinicService.findOwnerSummaries("Coleman"))
+            .extracting(OwnerSummary::getPetNames, OwnerSummary::getPetCount, OwnerSummary::getLastVisitDate)
+            .containsExactly(tuple("Samantha", 1, LocalDate.of(2013, 1, 1)));
+    }
+
+    @Test
+    @Transactional
+    void shouldRebuildOwnerSummaries() {
+        this.clinicService.deletePetType(this.clinicService.findPetTypeById(4).orElseThrow());
+
+        assertThat(this.clinicService.findOwnerSummaries("McTavish"))
+            .extracting(OwnerSummary::getPetNames, OwnerSummary::getPetCount)
+            .containsExactly(tuple(null, 0));
+
+        this.clinicService.rebuildOwnerSummaries();
+        assertThat(this.clinicService.findOwnerSummaries(null)).hasSameSizeAs(this.clinicService.findAllOwners());
+    }
+
+    @Test
+    void shouldNotRecordDeletionOfUnknownIds() {
+        long generation = this.modificationTracker.getGeneration(Resource.OWNERS);
+        ClinicStatistics statistics = this.clinicService.getStatistics();
+
+        assertThat(this.clinicService.deleteOwnerById(999)).isFalse();
+        assertThat(this.clinicService.deletePetById(999)).isFalse();
+        assertThat(this.clinicService.deleteVisitById(999)).isFalse();
+
+        assertThat(this.modificationTracker.getGeneration(Resource.OWNERS)).isEqualTo(generation);
+        assertThat(this.clinicService.getStatistics()).usingRecursiveComparison().isEqualTo(statistics);
+        assertThat(this.events.stream(ClinicChangeEvent.class)).isEmpty();
+    }
+
+    @Test
+    void shouldNotRecordUpdateOfUnknownIds() {
+        long generation = this.modificationTracker.getGeneration(Resource.OWNERS);
+        Owner owner = new Owner();
+        owner.setId(999);
+        owner.setCity("Sun Prairie");
+        Pet pet = new Pet();
+        pet.setId(7);
+        pet.setName("Sam");
+        Visit visit = new Visit();
+        visit.setId(999);
+        visit.setDescription("rabies booster");
+
+        assertThat(this.clinicService.updateOwnerFields(owner, null)).isFalse();
+        assertThat(this.clinicService.updatePetFields(pet, 1, null)).isFalse();
+        assertThat(this.clinicService.updateVisitFields(visit, null)).isFalse();
+
+        assertThat(this.modificationTracker.getGeneration(Resource.OWNERS)).isEqualTo(generation);
+        assertThat(this.events.stream(ClinicChangeEvent.class)).isEmpty();
+    }
+
+    @Test
+    void shouldRecordModificationAfterIndexAndStatistics() {
+        Owner owner = new Owner();
+        owner.setFirstName("Sam");
+        owner.setLastName("Schultz");
+        owner.setAddress("4, Evans Street");
+        owner.setCity("Wollongong");
+        owner.setTelephone("4444444444");
+
+        List<Class<?>> afterCommit = new TransactionTemplate(this.transactionManager).execute(status -> {
+            this.clinicService.saveOwner(owner);
+            status.setRollbackOnly();
+            return TransactionSynchronizationManager.getSynchronizations().stream()
+                .map(synchronization -> synchronization.getClass().getEnclosingClass())
+                .collect(Collectors.toList());
+        });
+
+        assertThat(afterCommit).contains(SearchIndex.class, StatisticsCounters.class, ModificationTracker.class);
+        assertThat(afterCommit.indexOf(ModificationTracker.class))
+            .isGreaterThan(afterCommit.indexOf(SearchIndex.class))
+            .isGreaterThan(afterCommit.indexOf(StatisticsCounters.class));
+    }
+
+    @Test
+    void shouldFindNothingForUnknownIds() {
+        assertThat(this.clinicService.findOwnerById(999)).isEmpty();
+        assertThat(this.clinicService.findPetById(999)).isEmpty();
+        assertThat(this.clinicService.findVisitById(999)).isEmpty();
+        assertThat(this.clinicService.findVetById(999)).isEmpty();
+        assertThat(this.clinicService.findPetTypeById(999)).isEmpty();
+        assertThat(this.clinicService.findSpecialtyById(999)).isEmpty();
     }
 
     @Test
     void shouldFindPetTypeById(){
-    	PetType petType = this.clinicService.findPetTypeById(1);
+    	PetType petType = this.clinicService.findPetTypeById(1).orElseThrow();
     	assertThat(petType.getName()).isEqualTo("cat");
     }
 
@@ -389,32 +816,27 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldUpdatePetType(){
-    	PetType petType = this.clinicService.findPetTypeById(1);
+    	PetType petType = this.clinicService.findPetTypeById(1).orElseThrow();
     	String oldLastName = petType.getName();
         String newLastName = oldLastName + "X";
         petType.setName(newLastName);
         this.clinicService.savePetType(petType);
-        petType = this.clinicService.findPetTypeById(1);
+        petType = this.clinicService.findPetTypeById(1).orElseThrow();
         assertThat(petType.getName()).isEqualTo(newLastName);
     }
 
     @Test
     @Transactional
     void shouldDeletePetType(){
-    	PetType petType = this.clinicService.findPetTypeById(1);
+    	PetType petType = this.clinicService.findPetTypeById(1).orElseThrow();
         this.clinicService.deletePetType(petType);
         clearCache();
-        try {
-        	petType = this.clinicService.findPetTypeById(1);
-		} catch (Exception e) {
-			petType = null;
-		}
-        assertThat(petType).isNull();
+        assertThat(this.clinicService.findPetTypeById(1)).isEmpty();
     }
 
     @Test
     void shouldFindSpecialtyById(){
-    	Specialty specialty = this.clinicService.findSpecialtyById(1);
+    	Specialty specialty = this.clinicService.findSpecialtyById(1).orElseThrow();
     	assertThat(specialty.getName()).isEqualTo("radiology");
     }
 
@@ -446,12 +868,12 @@ abstract class AbstractClinicServiceTests {
     @Test
     @Transactional
     void shouldUpdateSpecialty(){
-    	Specialty specialty = this.clinicService.findSpecialtyById(1);
+    	Specialty specialty = this.clinicService.findSpecialtyById(1).orElseThrow();
     	String oldLastName = specialty.getName();
         String newLastName = oldLastName + "X";
         specialty.setName(newLastName);
         this.clinicService.saveSpecialty(specialty);
-        specialty = this.clinicService.findSpecialtyById(1);
+        specialty = this.clinicService.findSpecialtyById(1).orElseThrow();
         assertThat(specialty.getName()).isEqualTo(newLastName);
     }
 
@@ -463,15 +885,10 @@ abstract class AbstractClinicServiceTests {
         this.clinicService.saveSpecialty(specialty);
         Integer specialtyId = specialty.getId();
         assertThat(specialtyId).isNotNull();
-    	specialty = this.clinicService.findSpecialtyById(specialtyId);
+    	specialty = this.clinicService.findSpecialtyById(specialtyId).orElseThrow();
         assertThat(specialty).isNotNull();
         this.clinicService.deleteSpecialty(specialty);
-        try {
-        	specialty = this.clinicService.findSpecialtyById(specialtyId);
-		} catch (Exception e) {
-			specialty = null;
-		}
-        assertThat(specialty).isNull();
+        assertThat(this.clinicService.findSpecialtyById(specialtyId)).isEmpty();
     }
 
     @Test
@@ -502,4 +919,19 @@ abstract class AbstractClinicServiceTests {
     }
 
     void clearCache() {}
+
+    private void assertSummaryOfOwner(OwnerSummary summary) {
+        Owner owner = this.clinicService.findOwnerById(summary.getId()).orElseThrow();
+        assertThat(summary.getLastName()).isEqualTo(owner.getLastName());
+        assertThat(summary.getTelephone()).isEqualTo(owner.getTelephone());
+        assertThat(summary.getPetCount()).isEqualTo(owner.getPets().size());
+        assertThat(summary.getPetNames()).isEqualTo(owner.getPets().isEmpty() ? null
+            : owner.getPets().stream().map(Pet::getName).sorted().collect(Collectors.joining(", ")));
+        assertThat(summary.getLastVisitDate()).isEqualTo(owner.getPets().stream()
+            .flatMap(pet -> pet.getVisits().stream())
+            .map(Visit::getDate)
+            .max(LocalDate::compareTo)
+            .orElse(null));
+    }
+
 }
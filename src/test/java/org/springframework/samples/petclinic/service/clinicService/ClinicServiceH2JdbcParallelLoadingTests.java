@@ -0,0 +1,21 @@
+package org.springframework.samples.petclinic.service.clinicService;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the shared service tests against the JDBC repositories with parallel loading enabled. Tests running in a
+ * read-write transaction exercise the sequential fallback, the others the concurrent queries.
+ */
+@SpringBootTest
+@ActiveProfiles({"h2", "jdbc"})
+@TestPropertySource(properties = {
+    "spring.sql.init.platform=h2",
+    "spring.h2.console.enabled=false",
+    "spring.datasource.url=jdbc:h2:mem:parallelloading;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "petclinic.jdbc.parallel-loading.enabled=true"
+})
+class ClinicServiceH2JdbcParallelLoadingTests extends AbstractClinicServiceTests {
+
+}
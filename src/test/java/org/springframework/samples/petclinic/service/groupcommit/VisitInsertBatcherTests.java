@@ -0,0 +1,112 @@
+package org.springframework.samples.petclinic.service.groupcommit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.samples.petclinic.model.Visit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link VisitInsertBatcher}
+ */
+class VisitInsertBatcherTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final List<List<Visit>> batches = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void shouldWriteConcurrentInsertsAsOneBatch() throws Exception {
+        VisitInsertBatcher batcher = new VisitInsertBatcher(4, Duration.ofSeconds(5), this::write);
+
+        List<Visit> visits = new ArrayList<>();
+        List<Future<?>> inserts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Visit visit = visit("visit " + i);
+            visits.add(visit);
+            inserts.add(this.executor.submit(() -> batcher.insert(visit)));
+        }
+        for (Future<?> insert : inserts) {
+            insert.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(this.batches).hasSize(1);
+        assertThat(this.batches.get(0)).containsExactlyInAnyOrderElementsOf(visits);
+        assertThat(visits).allSatisfy(visit -> assertThat(visit.getId()).isNotNull());
+    }
+
+    @Test
+    void shouldWriteInsertAloneAfterMaxDelay() {
+        VisitInsertBatcher batcher = new VisitInsertBatcher(50, Duration.ofMillis(10), this::write);
+        Visit visit = visit("alone");
+
+        batcher.insert(visit);
+
+        assertThat(this.batches).containsExactly(List.of(visit));
+        assertThat(visit.getId()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailOnlyInvalidInsertOfFailedBatch() throws Exception {
+        VisitInsertBatcher batcher = new VisitInsertBatcher(3, Duration.ofSeconds(5), this::write);
+        Visit invalid = visit(null);
+        Visit valid = visit("valid");
+        Visit other = visit("other");
+
+        Future<?> failing = this.executor.submit(() -> batcher.insert(invalid));
+        Future<?> succeeding = this.executor.submit(() -> batcher.insert(valid));
+        batcher.insert(other);
+
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS))
+            .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        succeeding.get(5, TimeUnit.SECONDS);
+        assertThat(invalid.getId()).isNull();
+        assertThat(valid.getId()).isNotNull();
+        assertThat(other.getId()).isNotNull();
+        assertThat(batcher.getRetried()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectNonPositiveMaxSize() {
+        assertThatThrownBy(() -> new VisitInsertBatcher(0, Duration.ofMillis(5), this::write))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Writes like a transaction: either every visit gets its id, or the batch fails as a whole.
+     */
+    private void write(List<Visit> visits) {
+        if (visits.stream().anyMatch(visit -> visit.getDescription() == null)) {
+            visits.forEach(visit -> visit.setId(-1));
+            throw new DataIntegrityViolationException("description must not be null");
+        }
+        visits.forEach(visit -> visit.setId(this.ids.incrementAndGet()));
+        this.batches.add(visits);
+    }
+
+    private static Visit visit(String description) {
+        Visit visit = new Visit();
+        visit.setDescription(description);
+        return visit;
+    }
+
+}
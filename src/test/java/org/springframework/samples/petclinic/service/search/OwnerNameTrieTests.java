@@ -0,0 +1,65 @@
+package org.springframework.samples.petclinic.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link OwnerNameTrie}
+ */
+class OwnerNameTrieTests {
+
+    private final OwnerNameTrie trie = new OwnerNameTrie();
+
+    @BeforeEach
+    void fillTrie() {
+        this.trie.put(new OwnerName(1, "George", "Franklin"));
+        this.trie.put(new OwnerName(4, "Harold", "Davis"));
+        this.trie.put(new OwnerName(2, "Betty", "Davis"));
+        this.trie.put(new OwnerName(9, "David", "Schroeder"));
+        this.trie.put(new OwnerName(11, "Dana", "Dávila"));
+        this.trie.put(new OwnerName(12, "Ann", "Davidson"));
+    }
+
+    @Test
+    void shouldListOwnersOfPrefixInNameOrder() {
+        assertThat(this.trie.complete("dav", 10)).extracting(OwnerName::getId).containsExactly(12, 11, 2, 4);
+        assertThat(this.trie.complete("Davis", 10)).extracting(OwnerName::getId).containsExactly(2, 4);
+        assertThat(this.trie.complete("f", 10)).extracting(OwnerName::getId).containsExactly(1);
+        assertThat(this.trie.complete("davo", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreCaseAndAccents() {
+        assertThat(this.trie.complete("DÁVI", 10)).extracting(OwnerName::getId).containsExactly(12, 11, 2, 4);
+        assertThat(this.trie.complete("davil", 10)).extracting(OwnerName::getLastName).containsExactly("Dávila");
+    }
+
+    @Test
+    void shouldStopAtLimit() {
+        assertThat(this.trie.complete("d", 3)).extracting(OwnerName::getId).containsExactly(12, 11, 2);
+        assertThat(this.trie.complete("d", 0)).isEmpty();
+    }
+
+    @Test
+    void shouldMoveRenamedOwners() {
+        this.trie.put(new OwnerName(4, "Harold", "Franklin"));
+
+        assertThat(this.trie.complete("davis", 10)).extracting(OwnerName::getId).containsExactly(2);
+        assertThat(this.trie.complete("franklin", 10)).extracting(OwnerName::getId).containsExactly(1, 4);
+    }
+
+    @Test
+    void shouldRemoveOwnersAndPruneTheirNames() {
+        this.trie.remove(1);
+        this.trie.remove(12);
+        this.trie.remove(99);
+
+        assertThat(this.trie.complete("f", 10)).isEmpty();
+        assertThat(this.trie.complete("davi", 10)).extracting(OwnerName::getId).containsExactly(11, 2, 4);
+        this.trie.put(new OwnerName(1, "George", "Franklin"));
+        assertThat(this.trie.complete("fr", 10)).extracting(OwnerName::getId).containsExactly(1);
+    }
+
+}
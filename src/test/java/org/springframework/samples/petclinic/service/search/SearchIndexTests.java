@@ -0,0 +1,159 @@
+package org.springframework.samples.petclinic.service.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.service.search.SearchHit.Type;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Test class for {@link SearchIndex}, built from an embedded database.
+ */
+class SearchIndexTests {
+
+    private EmbeddedDatabase database;
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+            .addScript("db/h2/migration/V1__create_schema.sql")
+            .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(this.database);
+        jdbcTemplate.update("INSERT INTO types (name) VALUES ('cat'), ('dog')");
+        jdbcTemplate.update("INSERT INTO owners (first_name, last_name, address, city, telephone) VALUES "
+            + "('George', 'Franklin', '110 W. Liberty St.', 'Madison', '6085551023'), "
+            + "('Jean', 'Coleman', '105 N. Lake St.', 'Monona', '6085552654')");
+        jdbcTemplate.update("INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES "
+            + "('Samantha', '2012-09-04', 1, 2), ('Max', '2012-09-04', 1, 2), ('Leo', '2010-09-07', 2, 1)");
+        jdbcTemplate.update("INSERT INTO visits (pet_id, visit_date, description) VALUES "
+            + "(1, '2013-01-01', 'rabies shot'), (2, '2013-01-02', 'rabies shot'), (2, '2013-01-03', 'neutered')");
+        this.index = new SearchIndex(this.database, new DataSourceTransactionManager(this.database));
+        this.index.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldFindByWordPrefixWithOwner() {
+        assertThat(this.index.search("sam", 10))
+            .extracting(SearchHit::getType, SearchHit::getId, SearchHit::getOwnerId)
+            .containsExactly(tuple(Type.PET, 1, 2));
+        assertThat(this.index.search("neutered", 10))
+            .extracting(SearchHit::getType, SearchHit::getId, SearchHit::getOwnerId)
+            .containsExactly(tuple(Type.VISIT, 3, 2));
+    }
+
+    @Test
+    void shouldRequireEveryWordAndRankBetterMatchesFirst() {
+        assertThat(this.index.search("rabies shot", 10)).extracting(SearchHit::getId).containsExactlyInAnyOrder(1, 2);
+        assertThat(this.index.search("rabies neutered", 10)).isEmpty();
+        // a last name beats a city, a full word beats a prefix
+        this.index.indexOwner(owner(9, "Maxine", "Madison", "1 Main St.", "Sun Prairie"));
+        assertThat(this.index.search("madison", 10)).extracting(SearchHit::getId).containsExactly(9, 1);
+        assertThat(this.index.search("max", 10)).extracting(SearchHit::getType).containsExactly(Type.PET, Type.OWNER);
+    }
+
+    @Test
+    void shouldIgnoreCaseAndAccentsAndLimitResults() {
+        this.index.indexOwner(owner(10, "José", "Núñez", "2 Main St.", "Madison"));
+        assertThat(this.index.search("JOSE nunez", 10)).extracting(SearchHit::getId).containsExactly(10);
+        assertThat(this.index.search("madison", 1)).hasSize(1);
+        assertThat(this.index.search(" ,. ", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldMergeChangedFields() {
+        Owner patch = new Owner();
+        patch.setId(1);
+        patch.setCity("Waunakee");
+        this.index.indexOwner(patch);
+
+        assertThat(this.index.search("waunakee franklin", 10)).extracting(SearchHit::getId).containsExactly(1);
+        assertThat(this.index.search("madison", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldRemovePetsAndVisitsWithTheirOwner() {
+        this.index.remove(Type.OWNER, 2);
+
+        assertThat(this.index.search("samantha", 10)).isEmpty();
+        assertThat(this.index.search("rabies", 10)).isEmpty();
+        assertThat(this.index.search("leo", 10)).hasSize(1);
+    }
+
+    @Test
+    void shouldRemovePetsOfDeletedType() {
+        this.index.removePetsOfType(1);
+
+        assertThat(this.index.search("samantha", 10)).isEmpty();
+        assertThat(this.index.search("neutered", 10)).isEmpty();
+        assertThat(this.index.search("leo", 10)).hasSize(1);
+    }
+
+    @Test
+    void shouldCompleteLastNamesOfIndexedOwners() {
+        Owner patch = new Owner();
+        patch.setId(2);
+        patch.setLastName("Franks");
+        this.index.indexOwner(patch);
+
+        assertThat(this.index.completeLastName("fr", 10))
+            .extracting(OwnerName::getId, OwnerName::getFirstName, OwnerName::getLastName)
+            .containsExactly(tuple(1, "George", "Franklin"), tuple(2, "Jean", "Franks"));
+        assertThat(this.index.completeLastName("coleman", 10)).isEmpty();
+        this.index.remove(Type.OWNER, 1);
+        assertThat(this.index.completeLastName("fr", 10)).extracting(OwnerName::getId).containsExactly(2);
+    }
+
+    @Test
+    void shouldApplyChangesOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        this.index.indexPet(pet(20, "Basil", 1));
+        assertThat(this.index.search("basil", 10)).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(this.index.search("basil", 10)).extracting(SearchHit::getId).containsExactly(20);
+    }
+
+    private static Owner owner(int id, String firstName, String lastName, String address, String city) {
+        Owner owner = new Owner();
+        owner.setId(id);
+        owner.setFirstName(firstName);
+        owner.setLastName(lastName);
+        owner.setAddress(address);
+        owner.setCity(city);
+        owner.setTelephone("6085551023");
+        return owner;
+    }
+
+    private static Pet pet(int id, String name, int typeId) {
+        PetType type = new PetType();
+        type.setId(typeId);
+        Pet pet = new Pet();
+        pet.setId(id);
+        pet.setName(name);
+        pet.setType(type);
+        return pet;
+    }
+
+}
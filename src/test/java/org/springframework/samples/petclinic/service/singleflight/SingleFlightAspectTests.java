@@ -0,0 +1,219 @@
+package org.springframework.samples.petclinic.service.singleflight;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for {@link SingleFlightAspect}
+ */
+class SingleFlightAspectTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final Loader target = new Loader();
+
+    @AfterEach
+    void shutdown() {
+        this.target.release.countDown();
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentIdenticalCalls() throws Exception {
+        SingleFlightAspect aspect = new SingleFlightAspect(Duration.ofSeconds(5));
+        Loader loader = proxy(aspect);
+
+        List<Future<List<Integer>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(this.executor.submit(() -> loader.load(1)));
+        }
+        awaitWaiting(aspect, 7);
+        this.target.release.countDown();
+
+        List<Integer> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<List<Integer>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(this.target.calls).hasValue(1);
+        assertThat(aspect.getLoads()).isEqualTo(1);
+        assertThat(aspect.getCollapsed()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldLoadAgainOnceLoadCompleted() {
+        SingleFlightAspect aspect = new SingleFlightAspect(Duration.ofSeconds(5));
+        Loader loader = proxy(aspect);
+        this.target.release.countDown();
+
+        loader.load(1);
+        loader.load(1);
+        loader.load(2);
+
+        assertThat(this.target.calls).hasValue(3);
+        assertThat(aspect.getCollapsed()).isZero();
+    }
+
+    @Test
+    void shouldPassExceptionOfLoadToJoinedCalls() throws Exception {
+        SingleFlightAspect aspect = new SingleFlightAspect(Duration.ofSeconds(5));
+        Loader loader = proxy(aspect);
+        this.target.failure = new IllegalStateException("database down");
+
+        Future<List<Integer>> first = this.executor.submit(() -> loader.load(1));
+        Future<List<Integer>> second = this.executor.submit(() -> loader.load(1));
+        awaitWaiting(aspect, 1);
+        this.target.release.countDown();
+
+        for (Future<List<Integer>> result : List.of(first, second)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("database down");
+        }
+        assertThat(this.target.calls).hasValue(1);
+    }
+
+    @Test
+    void shouldLoadByItselfAfterWaitingLongerThanTimeout() throws Exception {
+        SingleFlightAspect aspect = new SingleFlightAspect(Duration.ofMillis(50));
+        Loader loader = proxy(aspect);
+        this.executor.submit(() -> loader.load(1));
+        while (this.target.calls.get() == 0) {
+            Thread.onSpinWait();
+        }
+        this.target.blockFirstCallOnly = true;
+
+        assertThat(loader.load(1)).containsExactly(1);
+        assertThat(aspect.getTimeouts()).isEqualTo(1);
+        assertThat(this.target.calls).hasValue(2);
+    }
+
+    @Test
+    void shouldNotJoinLoadWithinReadWriteTransaction() {
+        SingleFlightAspect aspect = new SingleFlightAspect(Duration.ofSeconds(5));
+        Loader loader = proxy(aspect);
+        this.executor.submit(() -> loader.load(1));
+        while (this.target.calls.get() == 0) {
+            Thread.onSpinWait();
+        }
+        this.target.blockFirstCallOnly = true;
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(loader.load(1)).containsExactly(1);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertThat(this.target.calls).hasValue(2);
+        assertThat(aspect.getCollapsed()).isZero();
+    }
+
+    @Test
+    void shouldNotJoinLoadStartedBeforeLastModification() throws Exception {
+        AtomicLong modifications = new AtomicLong();
+        SingleFlightAspect aspect = new SingleFlightAspect(Duration.ofSeconds(5), modifications::get, () -> false);
+        Loader loader = proxy(aspect);
+        this.executor.submit(() -> loader.load(1));
+        while (this.target.calls.get() == 0) {
+            Thread.onSpinWait();
+        }
+        this.target.blockFirstCallOnly = true;
+
+        modifications.incrementAndGet();
+
+        assertThat(loader.load(1)).containsExactly(1);
+        assertThat(this.target.calls).hasValue(2);
+        assertThat(aspect.getCollapsed()).isZero();
+    }
+
+    @Test
+    void shouldNotJoinLoadWhenPinnedToPrimary() {
+        AtomicBoolean pinned = new AtomicBoolean();
+        SingleFlightAspect aspect = new SingleFlightAspect(Duration.ofSeconds(5), () -> 0, pinned::get);
+        Loader loader = proxy(aspect);
+        this.executor.submit(() -> loader.load(1));
+        while (this.target.calls.get() == 0) {
+            Thread.onSpinWait();
+        }
+        this.target.blockFirstCallOnly = true;
+
+        pinned.set(true);
+
+        assertThat(loader.load(1)).containsExactly(1);
+        assertThat(this.target.calls).hasValue(2);
+        assertThat(aspect.getCollapsed()).isZero();
+    }
+
+    private Loader proxy(SingleFlightAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(this.target);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    /**
+     * Waits until the given number of calls joined the load in flight; the joined calls only count once they got
+     * its outcome, so this watches the threads parked on it.
+     */
+    private void awaitWaiting(SingleFlightAspect aspect, int joined) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (parkedOnLoad() < joined && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(aspect.getLoads()).isEqualTo(1);
+    }
+
+    private static long parkedOnLoad() {
+        return Thread.getAllStackTraces().entrySet().stream()
+            .filter(entry -> entry.getKey().getState() == Thread.State.TIMED_WAITING)
+            .filter(entry -> Arrays.stream(entry.getValue())
+                .anyMatch(frame -> frame.getClassName().equals(SingleFlightAspect.class.getName())
+                    && frame.getMethodName().equals("join")))
+            .count();
+    }
+
+    static class Loader {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        volatile boolean blockFirstCallOnly;
+
+        volatile RuntimeException failure;
+
+        @SingleFlight
+        public List<Integer> load(int id) {
+            this.calls.incrementAndGet();
+            if (!this.blockFirstCallOnly) {
+                try {
+                    this.release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            return List.of(id);
+        }
+
+    }
+
+}
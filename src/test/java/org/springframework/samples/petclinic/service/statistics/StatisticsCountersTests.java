@@ -0,0 +1,260 @@
+package org.springframework.samples.petclinic.service.statistics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.samples.petclinic.model.Owner;
+import org.springframework.samples.petclinic.model.Pet;
+import org.springframework.samples.petclinic.model.PetType;
+import org.springframework.samples.petclinic.model.Visit;
+import org.springframework.samples.petclinic.service.ModificationTracker;
+import org.springframework.samples.petclinic.service.ModificationTracker.Resource;
+import org.springframework.samples.petclinic.service.statistics.ClinicStatistics.PetTypeStatistics;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Test class for {@link StatisticsCounters}, on an embedded database with the changes made by plain statements.
+ */
+class StatisticsCountersTests {
+
+    private final AtomicBoolean changeAfterRebuildQueries = new AtomicBoolean();
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final ModificationTracker modificationTracker = new ModificationTracker();
+
+    private StatisticsCounters counters;
+
+    @BeforeEach
+    void buildCounters() {
+        this.database = new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2)
+            .addScript("db/h2/migration/V1__create_schema.sql")
+            .build();
+        this.jdbcTemplate = new JdbcTemplate(this.database);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(this.database) {
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                super.doCommit(status);
+                if (status.isReadOnly() && changeAfterRebuildQueries.getAndSet(false)) {
+                    // committed once the queries of the rebuild ran, but before it replaces the counters
+                    Thread change = new Thread(() -> transactionTemplate.executeWithoutResult(
+                        tx -> counters.ownerCreated(owner(insertOwner()))));
+                    change.start();
+                    try {
+                        change.join();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.counters = new StatisticsCounters(this.database, transactionManager, this.modificationTracker);
+
+        this.jdbcTemplate.update("INSERT INTO types (name) VALUES ('cat'), ('dog')");
+        for (int i = 0; i < 3; i++) {
+            insertOwner();
+        }
+        insertPet(1, 1);
+        insertPet(2, 1);
+        insertPet(2, 1);
+        insertPet(3, 2);
+        insertVisit(2, LocalDate.of(2013, 1, 1));
+        insertVisit(3, LocalDate.of(2013, 1, 2));
+        insertVisit(3, LocalDate.of(2013, 2, 3));
+        this.counters.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void shutdownDatabase() {
+        this.database.shutdown();
+    }
+
+    @Test
+    void shouldCountLoadedOwnersPetsAndVisits() {
+        ClinicStatistics statistics = this.counters.getStatistics();
+
+        assertThat(statistics.getOwners()).isEqualTo(3);
+        assertThat(statistics.getPets()).isEqualTo(4);
+        assertThat(statistics.getVisits()).isEqualTo(3);
+        assertThat(statistics.getVisitsPerMonth())
+            .containsExactly(Map.entry(YearMonth.of(2013, 1), 2), Map.entry(YearMonth.of(2013, 2), 1));
+        assertThat(statistics.getPetTypes())
+            .extracting(PetTypeStatistics::getId, PetTypeStatistics::getName, PetTypeStatistics::getPets,
+                PetTypeStatistics::getVisits)
+            .containsExactly(tuple(1, "cat", 3, 3), tuple(2, "dog", 1, 0));
+        assertThat(statistics.getOwnersPerPetCount()).containsExactly(Map.entry(1, 2), Map.entry(2, 1));
+    }
+
+    @Test
+    void shouldMoveCountsOfChangedPetsAndVisits() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            Pet max = pet(3, 2);
+            max.setOwner(owner(3));
+            this.counters.petChanging(max);
+            this.jdbcTemplate.update("UPDATE pets SET owner_id = 3, type_id = 2 WHERE id = 3");
+            Visit visit = new Visit();
+            visit.setId(1);
+            this.counters.visitsChanging(List.of(visit));
+            this.jdbcTemplate.update("UPDATE visits SET visit_date = ? WHERE id = 1", LocalDate.of(2013, 3, 1));
+        });
+
+        ClinicStatistics statistics = this.counters.getStatistics();
+        assertThat(statistics.getPetTypes()).extracting(PetTypeStatistics::getPets, PetTypeStatistics::getVisits)
+            .containsExactly(tuple(2, 1), tuple(2, 2));
+        assertThat(statistics.getOwnersPerPetCount()).containsExactly(Map.entry(1, 2), Map.entry(2, 1));
+        assertThat(statistics.getVisitsPerMonth()).containsExactly(Map.entry(YearMonth.of(2013, 1), 1),
+            Map.entry(YearMonth.of(2013, 2), 1), Map.entry(YearMonth.of(2013, 3), 1));
+    }
+
+    @Test
+    void shouldCountOwnerChangedTwiceInTransactionOnce() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            Owner owner = owner(insertOwner());
+            this.counters.ownerCreated(owner);
+            Pet basil = new Pet();
+            basil.setOwner(owner);
+            this.counters.petChanging(basil);
+            int petId = insertPet(owner.getId(), 2);
+            Visit visit = new Visit();
+            visit.setPet(pet(petId, 2));
+            this.counters.visitsChanging(List.of(visit));
+            insertVisit(petId, LocalDate.of(2013, 2, 4));
+        });
+
+        ClinicStatistics statistics = this.counters.getStatistics();
+        assertThat(statistics.getOwners()).isEqualTo(4);
+        assertThat(statistics.getPets()).isEqualTo(5);
+        assertThat(statistics.getVisits()).isEqualTo(4);
+        assertThat(statistics.getOwnersPerPetCount()).containsExactly(Map.entry(1, 3), Map.entry(2, 1));
+        assertThat(statistics.getPetTypes()).extracting(PetTypeStatistics::getPets, PetTypeStatistics::getVisits)
+            .containsExactly(tuple(3, 3), tuple(2, 1));
+    }
+
+    @Test
+    void shouldRemovePetsAndVisitsWithTheirOwnerOrType() {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.counters.ownersChanging(Set.of(2));
+            this.jdbcTemplate.update("DELETE FROM owners WHERE id = 2");
+        });
+
+        ClinicStatistics statistics = this.counters.getStatistics();
+        assertThat(statistics.getOwners()).isEqualTo(2);
+        assertThat(statistics.getPets()).isEqualTo(2);
+        assertThat(statistics.getVisits()).isZero();
+        assertThat(statistics.getVisitsPerMonth()).isEmpty();
+        assertThat(statistics.getOwnersPerPetCount()).containsExactly(Map.entry(1, 2));
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.counters.ownersChanging(Set.of(1));
+            this.jdbcTemplate.update("DELETE FROM types WHERE id = 1");
+            this.counters.petTypeRemoved(1);
+        });
+        statistics = this.counters.getStatistics();
+        assertThat(statistics.getPets()).isEqualTo(1);
+        assertThat(statistics.getPetTypes()).extracting(PetTypeStatistics::getName).containsExactly("dog");
+        assertThat(statistics.getOwnersPerPetCount()).containsExactly(Map.entry(0, 1), Map.entry(1, 1));
+    }
+
+    @Test
+    void shouldApplyChangesOnlyOnCommit() {
+        Visit visit = new Visit();
+        visit.setId(3);
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.counters.visitsChanging(List.of(visit));
+            this.jdbcTemplate.update("DELETE FROM visits WHERE id = 3");
+            status.setRollbackOnly();
+        });
+        assertThat(this.counters.getStatistics().getVisits()).isEqualTo(3);
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.counters.visitsChanging(List.of(visit));
+            this.jdbcTemplate.update("DELETE FROM visits WHERE id = 3");
+            assertThat(this.counters.getStatistics().getVisits()).isEqualTo(3);
+        });
+        assertThat(this.counters.getStatistics().getVisits()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRebuildAgainWhenChangeCommitsDuringRebuild() {
+        this.changeAfterRebuildQueries.set(true);
+
+        this.counters.rebuild();
+
+        assertThat(this.changeAfterRebuildQueries).isFalse();
+        assertThat(this.counters.getStatistics().getOwners()).isEqualTo(4);
+        assertThat(this.counters.getStatistics().getOwnersPerPetCount()).containsEntry(0, 1);
+    }
+
+    @Test
+    void shouldBumpOwnerGenerationOnlyWhenRebuildCorrectsCounts() {
+        long generation = this.modificationTracker.getGeneration(Resource.OWNERS);
+
+        this.counters.rebuild();
+        assertThat(this.modificationTracker.getGeneration(Resource.OWNERS)).isEqualTo(generation);
+
+        // changed without the counters being told
+        insertOwner();
+        this.counters.rebuild();
+
+        assertThat(this.counters.getStatistics().getOwners()).isEqualTo(4);
+        assertThat(this.modificationTracker.getGeneration(Resource.OWNERS)).isEqualTo(generation + 1);
+    }
+
+    private int insertOwner() {
+        return new SimpleJdbcInsert(this.database).withTableName("owners").usingGeneratedKeyColumns("id")
+            .executeAndReturnKey(Map.of("first_name", "George", "last_name", "Franklin",
+                "address", "110 W. Liberty St.", "city", "Madison", "telephone", "6085551023"))
+            .intValue();
+    }
+
+    private int insertPet(int ownerId, int typeId) {
+        return new SimpleJdbcInsert(this.database).withTableName("pets").usingGeneratedKeyColumns("id")
+            .executeAndReturnKey(Map.of("name", "Leo", "birth_date", LocalDate.of(2010, 9, 7),
+                "type_id", typeId, "owner_id", ownerId))
+            .intValue();
+    }
+
+    private void insertVisit(int petId, LocalDate date) {
+        this.jdbcTemplate.update("INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, 'rabies shot')",
+            petId, date);
+    }
+
+    private static Owner owner(int id) {
+        Owner owner = new Owner();
+        owner.setId(id);
+        return owner;
+    }
+
+    private static Pet pet(int id, int typeId) {
+        Pet pet = new Pet();
+        pet.setId(id);
+        PetType type = new PetType();
+        type.setId(typeId);
+        pet.setType(type);
+        return pet;
+    }
+
+}
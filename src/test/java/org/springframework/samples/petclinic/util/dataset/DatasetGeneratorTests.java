@@ -0,0 +1,91 @@
+package org.springframework.samples.petclinic.util.dataset;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link DatasetGenerator}
+ */
+class DatasetGeneratorTests {
+
+    private static final DatasetOptions OPTIONS = DatasetOptions.ofOwners(250).vets(12).batchSize(100).seed(7L);
+
+    private EmbeddedDatabase database(EmbeddedDatabaseType type, String platform) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(type)
+            .build();
+        // the schema migrations only, without the sample data
+        Flyway.configure().dataSource(database).locations("classpath:db/" + platform + "/migration").load().migrate();
+        return database;
+    }
+
+    @Test
+    void shouldGenerateRequestedNumberOfRows() {
+        EmbeddedDatabase database = database(EmbeddedDatabaseType.H2, "h2");
+        try {
+            DatasetSummary summary = new DatasetGenerator(database).generate(OPTIONS);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+            assertThat(summary.getOwners()).isEqualTo(250);
+            assertThat(count(jdbcTemplate, "owners")).isEqualTo(250);
+            assertThat(count(jdbcTemplate, "vets")).isEqualTo(12);
+            assertThat(count(jdbcTemplate, "types")).isEqualTo(6);
+            assertThat(count(jdbcTemplate, "pets")).isEqualTo(summary.getPets()).isGreaterThanOrEqualTo(250);
+            assertThat(count(jdbcTemplate, "visits")).isEqualTo(summary.getVisits()).isGreaterThan(summary.getPets());
+            assertThat(count(jdbcTemplate, "vet_specialties")).isEqualTo(summary.getVetSpecialties());
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    @Test
+    void shouldSkewPetsPerOwner() {
+        EmbeddedDatabase database = database(EmbeddedDatabaseType.H2, "h2");
+        try {
+            new DatasetGenerator(database).generate(OPTIONS);
+            List<Integer> petsPerOwner = new JdbcTemplate(database).queryForList(
+                "SELECT COUNT(*) FROM pets GROUP BY owner_id", Integer.class);
+
+            long singlePetOwners = petsPerOwner.stream().filter(pets -> pets == 1).count();
+            assertThat(singlePetOwners).isGreaterThan(petsPerOwner.size() / 3);
+            assertThat(petsPerOwner.stream().mapToInt(Integer::intValue).max().getAsInt()).isGreaterThan(2);
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    @Test
+    void shouldGenerateSameDatasetForSameSeedOnAnySchema() {
+        EmbeddedDatabase h2 = database(EmbeddedDatabaseType.H2, "h2");
+        EmbeddedDatabase hsqldb = database(EmbeddedDatabaseType.HSQL, "hsqldb");
+        try {
+            new DatasetGenerator(h2).generate(OPTIONS);
+            new DatasetGenerator(hsqldb).generate(OPTIONS);
+
+            String query = "SELECT o.last_name, p.name, v.visit_date, v.description FROM visits v "
+                + "JOIN pets p ON v.pet_id = p.id JOIN owners o ON p.owner_id = o.id ORDER BY v.id";
+            List<Map<String, Object>> fromH2 = new JdbcTemplate(h2).queryForList(query);
+            List<Map<String, Object>> fromHsqldb = new JdbcTemplate(hsqldb).queryForList(query);
+            assertThat(fromH2).hasSameSizeAs(fromHsqldb);
+            assertThat(fromH2.toString()).isEqualToIgnoringCase(fromHsqldb.toString());
+        } finally {
+            h2.shutdown();
+            hsqldb.shutdown();
+        }
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+}
@@ -0,0 +1,82 @@
+#!/bin/bash
+
+# Measures the time from launching the application to its first successful GET /api/vets, once for the plain jar
+# and once for the fast-startup build (Spring AOT processing and an AppCDS archive), for every repository profile.
+# Each measurement is appended to startup-benchmark.csv, so the numbers can be tracked across commits.
+#
+# Usage: ./startup-benchmark.sh [repository profile...]     (defaults to jdbc jpa spring-data-jpa)
+# RUNS (default 3) sets the number of launches per profile and build, PORT (default 9966) the server port and
+# MVN (default ./mvnw) the Maven command.
+
+set -euo pipefail
+
+# ------------------- Constants & Config ---------------------------------------------------
+RUNS="${RUNS:-3}"
+PORT="${PORT:-9966}"
+TIMEOUT_SECONDS=120
+MVN="${MVN:-./mvnw}"
+RESULTS="./startup-benchmark.csv"
+LOG_DIR="./target/startup-benchmark"
+URL="http://localhost:${PORT}/petclinic/api/vets"
+
+if [ "$#" -gt 0 ]; then
+  REPOSITORY_PROFILES=("$@")
+else
+  REPOSITORY_PROFILES=("jdbc" "jpa" "spring-data-jpa")
+fi
+
+mkdir -p "$LOG_DIR"
+if [ ! -f "$RESULTS" ]; then
+  echo "date,commit,profiles,build,millis" > "$RESULTS"
+fi
+COMMIT="$(git rev-parse --short HEAD 2>/dev/null || echo unknown)"
+
+# -------------- Launches the given command and waits for the first successful /api/vets -----------------
+# Prints the elapsed milliseconds, or fails when the application is not ready within TIMEOUT_SECONDS.
+time_to_first_vets() {
+  local log="$1"
+  shift
+  local start
+  start=$(date +%s%N)
+  "$@" --server.port="$PORT" > "$log" 2>&1 &
+  local pid=$!
+  local deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+  until curl -sf -o /dev/null -u admin:admin "$URL"; do
+    if ! kill -0 "$pid" 2>/dev/null || [ "$(date +%s)" -ge "$deadline" ]; then
+      kill "$pid" 2>/dev/null || true
+      echo "Application did not answer $URL, see $log" >&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  local end
+  end=$(date +%s%N)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo $(( (end - start) / 1000000 ))
+}
+
+record() {
+  local profiles="$1" build="$2" millis="$3"
+  echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),${COMMIT},\"${profiles}\",${build},${millis}" >> "$RESULTS"
+  printf '%-40s %-14s %6s ms\n' "$profiles" "$build" "$millis"
+}
+
+# -------------- One fast-startup build per profile, as AOT fixes the profiles at build time ---------------
+for REPOSITORY_PROFILE in "${REPOSITORY_PROFILES[@]}"; do
+  PROFILES="h2,${REPOSITORY_PROFILE}"
+  FAST_PROFILES="${PROFILES},static-api-docs"
+  "$MVN" -q -B -Pfast-startup -DskipTests -Dfast-startup.profiles="$FAST_PROFILES" package
+  JAR="$(ls target/spring-petclinic-rest-*.jar | grep -v sources | head -1)"
+  FAST_JAR="target/fast-startup/$(basename "$JAR")"
+
+  for RUN in $(seq "$RUNS"); do
+    record "$PROFILES" "plain" \
+      "$(time_to_first_vets "$LOG_DIR/${REPOSITORY_PROFILE}-plain-${RUN}.log" \
+        java -jar "$JAR" --spring.profiles.active="$PROFILES")"
+    record "$FAST_PROFILES" "fast-startup" \
+      "$(time_to_first_vets "$LOG_DIR/${REPOSITORY_PROFILE}-fast-startup-${RUN}.log" \
+        java -XX:SharedArchiveFile=target/fast-startup/application.jsa -Dspring.aot.enabled=true \
+        -jar "$FAST_JAR" --spring.profiles.active="$FAST_PROFILES")"
+  done
+done